@@ -2,6 +2,7 @@ package com.example.productinventory;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 
 /**
  * The entry point of the Product Inventory application. This class contains the main method which
@@ -9,12 +10,23 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  */
 @SpringBootApplication
 public class ProductInventoryApplication {
+
+  /**
+   * The number of startup steps kept for the {@code /actuator/startup} endpoint. A default start
+   * records a little over a thousand; steps past the capacity are dropped.
+   */
+  static final int STARTUP_STEP_CAPACITY = 4096;
+
   /**
-   * The main method that serves as the entry point for the Spring Boot application.
+   * The main method that serves as the entry point for the Spring Boot application. Startup steps
+   * (bean instantiation, configuration class parsing, context refresh) are recorded with their
+   * durations and exposed at {@code /actuator/startup}.
    *
    * @param args command-line arguments passed to the application
    */
   public static void main(String[] args) {
-    SpringApplication.run(ProductInventoryApplication.class, args);
+    SpringApplication application = new SpringApplication(ProductInventoryApplication.class);
+    application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_STEP_CAPACITY));
+    application.run(args);
   }
 }
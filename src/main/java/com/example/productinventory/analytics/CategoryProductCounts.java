@@ -0,0 +1,142 @@
+package com.example.productinventory.analytics;
+
+import com.example.productinventory.event.ProductChangedEvent;
+import com.example.productinventory.event.ProductState;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Incrementally maintained product counts per category, shown in the category listing and used as
+ * the category facet of searches that filter by category at most. The category of every product is
+ * read from the database when the application is ready; after that each committed {@link
+ * ProductChangedEvent} moves a product between counters, so neither needs a {@code GROUP BY} over
+ * the products table.
+ *
+ * <p>The category and version of every product are tracked by ID, and an event is only applied if
+ * it is newer than the tracked row, so a write that a rebuild already saw is not counted again when
+ * its event arrives afterwards.
+ *
+ * <p>Disabled together with the inventory analytics, and in sharded mode, whose writes do not
+ * publish change events.
+ */
+@Component
+@ConditionalOnExpression("${product.analytics.enabled:true} and !${product.sharding.enabled:false}")
+public class CategoryProductCounts {
+
+  private static final Logger logger = LoggerFactory.getLogger(CategoryProductCounts.class);
+
+  private final JdbcTemplate jdbcTemplate;
+  private final Map<Long, Row> rows = new HashMap<>();
+  private final Map<Long, Long> counts = new HashMap<>();
+  private long uncategorised;
+
+  public CategoryProductCounts(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /** Recomputes the counts from the database. */
+  @EventListener(ApplicationReadyEvent.class)
+  public synchronized void rebuild() {
+    rows.clear();
+    counts.clear();
+    uncategorised = 0;
+    jdbcTemplate.query(
+        "SELECT id, category_id, version FROM products",
+        rs -> {
+          Row row = new Row(rs.getObject(2, Long.class), rs.getObject(3, Integer.class));
+          rows.put(rs.getLong(1), row);
+          add(row.categoryId, 1);
+        });
+    logger.info("Rebuilt product counts for {} categories", counts.size());
+  }
+
+  /**
+   * Applies a committed product change. A change no newer than the tracked row is ignored.
+   *
+   * @param event the change
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public synchronized void onProductChanged(ProductChangedEvent event) {
+    Long id = event.getProductId();
+    Row current = rows.get(id);
+    ProductState after = event.getAfter();
+    if (after == null) {
+      if (current != null) {
+        rows.remove(id);
+        add(current.categoryId, -1);
+      }
+      return;
+    }
+    if (current != null && !isNewer(after.getVersion(), current.version)) {
+      return;
+    }
+    rows.put(id, new Row(after.getCategoryId(), after.getVersion()));
+    if (current != null && Objects.equals(current.categoryId, after.getCategoryId())) {
+      return;
+    }
+    if (current != null) {
+      add(current.categoryId, -1);
+    }
+    add(after.getCategoryId(), 1);
+  }
+
+  /**
+   * Returns the number of products in a category.
+   *
+   * @param categoryId the category ID, or {@code null} for products without a category
+   * @return the number of products
+   */
+  public synchronized long getCount(Long categoryId) {
+    return categoryId == null ? uncategorised : counts.getOrDefault(categoryId, 0L);
+  }
+
+  /**
+   * Returns the number of products per category. Categories without products are omitted.
+   *
+   * @return the product count keyed by category ID
+   */
+  public synchronized Map<Long, Long> getCounts() {
+    Map<Long, Long> copy = new HashMap<>();
+    counts.forEach(
+        (categoryId, count) -> {
+          if (count > 0) {
+            copy.put(categoryId, count);
+          }
+        });
+    return copy;
+  }
+
+  /** Returns whether a change to the given version supersedes the tracked one. */
+  private static boolean isNewer(Integer version, Integer trackedVersion) {
+    return version == null || trackedVersion == null || version > trackedVersion;
+  }
+
+  private void add(Long categoryId, long delta) {
+    if (categoryId == null) {
+      uncategorised += delta;
+    } else {
+      counts.merge(categoryId, delta, Long::sum);
+    }
+  }
+
+  /** The tracked category and version of one product. */
+  private static final class Row {
+
+    private final Long categoryId;
+    private final Integer version;
+
+    Row(Long categoryId, Integer version) {
+      this.categoryId = categoryId;
+      this.version = version;
+    }
+  }
+}
@@ -0,0 +1,21 @@
+package com.example.productinventory.analytics;
+
+import java.time.Instant;
+import lombok.Value;
+
+/** The result of comparing the maintained inventory aggregates with the database. */
+@Value
+public class DriftReport {
+
+  /** Whether the maintained aggregates differ from those computed from the database. */
+  boolean drifted;
+
+  /** The incrementally maintained aggregates. */
+  InventorySummary maintained;
+
+  /** The aggregates computed from the database. */
+  InventorySummary actual;
+
+  /** The time of the check. */
+  Instant checkedAt;
+}
@@ -0,0 +1,232 @@
+package com.example.productinventory.analytics;
+
+import com.example.productinventory.event.ProductChangedEvent;
+import com.example.productinventory.event.ProductState;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Incrementally maintained inventory aggregates: product count, units in stock, stock valuation
+ * ({@code sum(price * quantity)}), out-of-stock count, and count and value per price band.
+ *
+ * <p>The aggregates are computed from the database when the application is ready. After that, each
+ * committed {@link ProductChangedEvent} subtracts the contribution of the old state and adds that
+ * of the new one, so reading them costs the same however large the catalogue is. {@link #rebuild()}
+ * recomputes them from the database and {@link #checkDrift()} compares the two without changing
+ * anything.
+ *
+ * <p>The price, quantity and version of every product are tracked by ID, and an event only changes
+ * the totals if it is newer than the tracked row. An event whose write was already visible to a
+ * rebuild, but which reaches the listener after it, is therefore not counted twice.
+ *
+ * <p>The price bands are given by {@code product.analytics.price-band-bounds}: bounds {@code
+ * 100,500} give the bands [0, 100), [100, 500) and 500 and above. Disabled in sharded mode, whose
+ * writes do not publish change events.
+ */
+@Component
+@ConditionalOnExpression("${product.analytics.enabled:true} and !${product.sharding.enabled:false}")
+public class InventoryAnalytics {
+
+  private static final Logger logger = LoggerFactory.getLogger(InventoryAnalytics.class);
+
+  private final JdbcTemplate jdbcTemplate;
+  private final BigDecimal[] bandBounds;
+  private final Map<Long, Row> rows = new HashMap<>();
+  private Totals totals;
+
+  public InventoryAnalytics(
+      JdbcTemplate jdbcTemplate,
+      @Value("${product.analytics.price-band-bounds:100,500,1000}") BigDecimal[] bandBounds) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.bandBounds = bandBounds.clone();
+    Arrays.sort(this.bandBounds);
+    this.totals = new Totals(this.bandBounds.length + 1);
+  }
+
+  /**
+   * Returns the current aggregates.
+   *
+   * @return the inventory summary
+   */
+  public synchronized InventorySummary getSummary() {
+    return totals.toSummary(bandBounds);
+  }
+
+  /**
+   * Recomputes the aggregates from the database and replaces the maintained ones. Change events
+   * that wait for the rebuild are applied after it, and skipped if the rebuild already saw their
+   * write.
+   *
+   * @return the rebuilt inventory summary
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public synchronized InventorySummary rebuild() {
+    long start = System.nanoTime();
+    rows.clear();
+    rows.putAll(loadRows());
+    totals = totalsOf(rows);
+    logger.info(
+        "Rebuilt inventory analytics over {} products in {} ms",
+        totals.productCount,
+        (System.nanoTime() - start) / 1_000_000);
+    return totals.toSummary(bandBounds);
+  }
+
+  /**
+   * Compares the maintained aggregates with aggregates computed from the database. A write whose
+   * transaction has committed but whose change event has not yet been applied can show up as a
+   * transient difference.
+   *
+   * @return the drift report
+   */
+  public synchronized DriftReport checkDrift() {
+    InventorySummary maintained = totals.toSummary(bandBounds);
+    InventorySummary actual = totalsOf(loadRows()).toSummary(bandBounds);
+    boolean drifted = !maintained.equals(actual);
+    if (drifted) {
+      logger.warn(
+          "Inventory analytics have drifted from the database: {} vs {}", maintained, actual);
+    }
+    return new DriftReport(drifted, maintained, actual, Instant.now());
+  }
+
+  /**
+   * Applies a committed product change. The contribution removed is that of the tracked row rather
+   * than the event's previous state, and a change no newer than the tracked row is ignored.
+   *
+   * @param event the change
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public synchronized void onProductChanged(ProductChangedEvent event) {
+    Long id = event.getProductId();
+    Row current = rows.get(id);
+    ProductState after = event.getAfter();
+    if (after != null && current != null && !isNewer(after.getVersion(), current.version)) {
+      return;
+    }
+    if (current != null) {
+      rows.remove(id);
+      totals.add(band(current.price), current.price, current.quantity, -1);
+    }
+    if (after != null) {
+      Row row = new Row(after.getPrice(), after.getQuantity(), after.getVersion());
+      rows.put(id, row);
+      totals.add(band(row.price), row.price, row.quantity, 1);
+    }
+  }
+
+  /** Returns whether a change to the given version supersedes the tracked one. */
+  private static boolean isNewer(Integer version, Integer trackedVersion) {
+    return version == null || trackedVersion == null || version > trackedVersion;
+  }
+
+  private Map<Long, Row> loadRows() {
+    Map<Long, Row> loaded = new HashMap<>();
+    jdbcTemplate.query(
+        "SELECT id, price, quantity, version FROM products",
+        rs -> {
+          loaded.put(
+              rs.getLong(1),
+              new Row(rs.getBigDecimal(2), rs.getInt(3), rs.getObject(4, Integer.class)));
+        });
+    return loaded;
+  }
+
+  private Totals totalsOf(Map<Long, Row> products) {
+    Totals computed = new Totals(bandBounds.length + 1);
+    for (Row row : products.values()) {
+      computed.add(band(row.price), row.price, row.quantity, 1);
+    }
+    return computed;
+  }
+
+  /** Returns the index of the band containing the price. */
+  private int band(BigDecimal price) {
+    int band = 0;
+    while (band < bandBounds.length && price.compareTo(bandBounds[band]) >= 0) {
+      band++;
+    }
+    return band;
+  }
+
+  /** The tracked price, quantity and version of one product. */
+  private static final class Row {
+
+    private final BigDecimal price;
+    private final int quantity;
+    private final Integer version;
+
+    Row(BigDecimal price, int quantity, Integer version) {
+      this.price = price;
+      this.quantity = quantity;
+      this.version = version;
+    }
+  }
+
+  /** Mutable running totals. Guarded by the monitor of the enclosing instance. */
+  private static final class Totals {
+
+    private long productCount;
+    private long totalUnits;
+    private BigDecimal stockValue = zero();
+    private long outOfStockCount;
+    private final long[] bandCounts;
+    private final BigDecimal[] bandValues;
+
+    Totals(int bands) {
+      bandCounts = new long[bands];
+      bandValues = new BigDecimal[bands];
+      Arrays.fill(bandValues, zero());
+    }
+
+    /** Adds ({@code sign = 1}) or removes ({@code sign = -1}) the contribution of one product. */
+    void add(int band, BigDecimal price, int quantity, int sign) {
+      BigDecimal value =
+          price.setScale(2, RoundingMode.HALF_UP).multiply(BigDecimal.valueOf(quantity));
+      if (sign < 0) {
+        value = value.negate();
+      }
+      productCount += sign;
+      totalUnits += (long) sign * quantity;
+      stockValue = stockValue.add(value);
+      if (quantity == 0) {
+        outOfStockCount += sign;
+      }
+      bandCounts[band] += sign;
+      bandValues[band] = bandValues[band].add(value);
+    }
+
+    InventorySummary toSummary(BigDecimal[] bounds) {
+      List<PriceBandSummary> bands = new ArrayList<>(bandCounts.length);
+      for (int i = 0; i < bandCounts.length; i++) {
+        bands.add(
+            new PriceBandSummary(
+                i == 0 ? BigDecimal.ZERO : bounds[i - 1],
+                i < bounds.length ? bounds[i] : null,
+                bandCounts[i],
+                bandValues[i]));
+      }
+      return new InventorySummary(
+          productCount, totalUnits, stockValue, outOfStockCount, List.copyOf(bands));
+    }
+
+    private static BigDecimal zero() {
+      return BigDecimal.ZERO.setScale(2);
+    }
+  }
+}
@@ -0,0 +1,25 @@
+package com.example.productinventory.analytics;
+
+import java.math.BigDecimal;
+import java.util.List;
+import lombok.Value;
+
+/** Catalogue-wide inventory aggregates. */
+@Value
+public class InventorySummary {
+
+  /** The number of products. */
+  long productCount;
+
+  /** The total number of units in stock. */
+  long totalUnits;
+
+  /** The sum of {@code price * quantity} over all products. */
+  BigDecimal stockValue;
+
+  /** The number of products with a quantity of zero. */
+  long outOfStockCount;
+
+  /** The product count and stock value per price band, in ascending price order. */
+  List<PriceBandSummary> priceBands;
+}
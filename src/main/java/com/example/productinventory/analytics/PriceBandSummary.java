@@ -0,0 +1,21 @@
+package com.example.productinventory.analytics;
+
+import java.math.BigDecimal;
+import lombok.Value;
+
+/** The number of products and their stock value within one price band. */
+@Value
+public class PriceBandSummary {
+
+  /** The inclusive lower bound of the band. */
+  BigDecimal minPrice;
+
+  /** The exclusive upper bound of the band, or {@code null} for the highest band. */
+  BigDecimal maxPrice;
+
+  /** The number of products priced within the band. */
+  long productCount;
+
+  /** The sum of {@code price * quantity} over the products in the band. */
+  BigDecimal stockValue;
+}
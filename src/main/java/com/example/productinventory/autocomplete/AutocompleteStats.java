@@ -0,0 +1,17 @@
+package com.example.productinventory.autocomplete;
+
+import lombok.Value;
+
+/** The size of the SKU autocomplete structure. */
+@Value
+public class AutocompleteStats {
+
+  /** The number of SKUs that can be suggested. */
+  long entries;
+
+  /** The heap used by the compiled transducer, in bytes. */
+  long fstBytes;
+
+  /** The number of changes held outside the transducer until the next compaction. */
+  int pendingChanges;
+}
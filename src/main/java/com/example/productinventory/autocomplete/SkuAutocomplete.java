@@ -0,0 +1,332 @@
+package com.example.productinventory.autocomplete;
+
+import com.example.productinventory.event.ProductChangedEvent;
+import com.example.productinventory.event.ProductState;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.IntsRefBuilder;
+import org.apache.lucene.util.StringHelper;
+import org.apache.lucene.util.fst.BytesRefFSTEnum;
+import org.apache.lucene.util.fst.FST;
+import org.apache.lucene.util.fst.FSTCompiler;
+import org.apache.lucene.util.fst.PositiveIntOutputs;
+import org.apache.lucene.util.fst.Util;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * SKU prefix autocomplete served from memory.
+ *
+ * <p>All SKUs are compiled into a Lucene finite-state transducer mapping each SKU to its product
+ * ID. The transducer shares both prefixes and suffixes between keys, so a catalogue of structured
+ * SKUs takes a small fraction of the memory of the same strings in a hash map. A lookup walks the
+ * prefix and then enumerates completions in byte order, so the cost depends on the prefix length
+ * and the number of results, not on the catalogue size.
+ *
+ * <p>A transducer cannot be modified once compiled. Committed {@link ProductChangedEvent}s are
+ * therefore held in a small sorted overlay of added SKUs and a set of removed ones, which lookups
+ * merge with the transducer; once the overlay holds {@code product.autocomplete.compact-threshold}
+ * changes, the transducer is recompiled from both. Prefixes match case-sensitively.
+ *
+ * <p>Changes that arrive while {@link #load()} reads the SKUs are recorded and replayed over the
+ * newly compiled transducer. Each change removes its old SKU and adds its new one regardless of the
+ * current contents, so replaying a change the read already saw is harmless.
+ *
+ * <p>Disabled in sharded mode, whose writes do not publish change events.
+ */
+@Component
+@ConditionalOnExpression(
+    "${product.autocomplete.enabled:true} and !${product.sharding.enabled:false}")
+public class SkuAutocomplete {
+
+  private static final Logger logger = LoggerFactory.getLogger(SkuAutocomplete.class);
+
+  private static final PositiveIntOutputs OUTPUTS = PositiveIntOutputs.getSingleton();
+
+  private final JdbcTemplate jdbcTemplate;
+  private final int compactThreshold;
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+  /** The compiled SKUs, or {@code null} when there are none. */
+  private FST<Long> fst;
+
+  private long fstEntries;
+
+  /** SKUs added since the transducer was compiled, including re-added ones. */
+  private final NavigableMap<BytesRef, Long> added = new TreeMap<>();
+
+  /** SKUs in the transducer that have been removed since it was compiled. */
+  private final Set<BytesRef> removed = new HashSet<>();
+
+  /** Changes applied since a running {@link #load()} started reading, or {@code null}. */
+  private List<ProductChangedEvent> changesDuringLoad;
+
+  /**
+   * Constructs a SkuAutocomplete.
+   *
+   * @param jdbcTemplate reads the SKUs when the application is ready
+   * @param compactThreshold the number of pending changes that triggers a recompilation
+   */
+  public SkuAutocomplete(
+      JdbcTemplate jdbcTemplate,
+      @Value("${product.autocomplete.compact-threshold:1024}") int compactThreshold) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.compactThreshold = compactThreshold;
+  }
+
+  /** Compiles every SKU in the database, replacing the current contents. */
+  @EventListener(ApplicationReadyEvent.class)
+  public void load() {
+    long start = System.nanoTime();
+    lock.writeLock().lock();
+    try {
+      changesDuringLoad = new ArrayList<>();
+    } finally {
+      lock.writeLock().unlock();
+    }
+    Map<String, Long> skus = new HashMap<>();
+    try {
+      jdbcTemplate.query(
+          "SELECT sku, id FROM products",
+          rs -> {
+            skus.put(rs.getString(1), rs.getLong(2));
+          });
+    } catch (RuntimeException e) {
+      lock.writeLock().lock();
+      try {
+        changesDuringLoad = null;
+      } finally {
+        lock.writeLock().unlock();
+      }
+      throw e;
+    }
+    replaceAll(skus);
+    logger.info(
+        "Compiled {} SKUs into {} bytes for autocomplete in {} ms",
+        skus.size(),
+        getStats().getFstBytes(),
+        (System.nanoTime() - start) / 1_000_000);
+  }
+
+  /**
+   * Returns the first SKUs, in byte order, that start with the prefix.
+   *
+   * @param prefix the typed prefix
+   * @param limit the largest number of suggestions to return
+   * @return the matching SKUs with their product IDs
+   */
+  public List<SkuSuggestion> complete(String prefix, int limit) {
+    BytesRef target = new BytesRef(prefix);
+    List<SkuSuggestion> suggestions = new ArrayList<>(Math.min(limit, 64));
+    lock.readLock().lock();
+    try {
+      BytesRefFSTEnum.InputOutput<Long> compiled = null;
+      BytesRefFSTEnum<Long> compiledEnum = null;
+      if (fst != null) {
+        compiledEnum = new BytesRefFSTEnum<>(fst);
+        compiled = skipRemoved(compiledEnum, compiledEnum.seekCeil(target));
+      }
+      Iterator<Map.Entry<BytesRef, Long>> overlay =
+          added.tailMap(target, true).entrySet().iterator();
+      Map.Entry<BytesRef, Long> pending = overlay.hasNext() ? overlay.next() : null;
+
+      while (suggestions.size() < limit) {
+        boolean compiledMatches =
+            compiled != null && StringHelper.startsWith(compiled.input, target);
+        boolean pendingMatches =
+            pending != null && StringHelper.startsWith(pending.getKey(), target);
+        if (!compiledMatches && !pendingMatches) {
+          break;
+        }
+        if (pendingMatches
+            && (!compiledMatches || pending.getKey().compareTo(compiled.input) <= 0)) {
+          suggestions.add(new SkuSuggestion(pending.getKey().utf8ToString(), pending.getValue()));
+          pending = overlay.hasNext() ? overlay.next() : null;
+        } else {
+          suggestions.add(new SkuSuggestion(compiled.input.utf8ToString(), compiled.output));
+          compiled = skipRemoved(compiledEnum, compiledEnum.next());
+        }
+      }
+      return suggestions;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Applies a committed product change.
+   *
+   * @param event the change
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onProductChanged(ProductChangedEvent event) {
+    ProductState before = event.getBefore();
+    ProductState after = event.getAfter();
+    if (before != null && after != null && Objects.equals(before.getSku(), after.getSku())) {
+      return;
+    }
+    lock.writeLock().lock();
+    try {
+      if (changesDuringLoad != null) {
+        changesDuringLoad.add(event);
+      }
+      apply(event);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Returns the size of the autocomplete structure.
+   *
+   * @return the entry count, transducer size and pending change count
+   */
+  public AutocompleteStats getStats() {
+    lock.readLock().lock();
+    try {
+      long entries = fstEntries - removed.size() + added.size();
+      return new AutocompleteStats(
+          entries, fst == null ? 0 : fst.ramBytesUsed(), added.size() + removed.size());
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Replaces the contents with the given SKUs, then replays the changes recorded since a running
+   * {@link #load()} started reading. Used by {@link #load()} and by tests.
+   *
+   * @param skus product IDs keyed by SKU
+   */
+  void replaceAll(Map<String, Long> skus) {
+    TreeMap<BytesRef, Long> sorted = new TreeMap<>();
+    skus.forEach((sku, id) -> sorted.put(new BytesRef(sku), id));
+    lock.writeLock().lock();
+    try {
+      compile(sorted);
+      added.clear();
+      removed.clear();
+      if (changesDuringLoad != null) {
+        for (ProductChangedEvent change : changesDuringLoad) {
+          apply(change);
+        }
+        changesDuringLoad = null;
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Removes the old SKU of a change and adds its new one, compacting if the overlay is full. */
+  private void apply(ProductChangedEvent event) throws IOException {
+    ProductState before = event.getBefore();
+    ProductState after = event.getAfter();
+    if (before != null) {
+      remove(new BytesRef(before.getSku()));
+    }
+    if (after != null) {
+      BytesRef sku = new BytesRef(after.getSku());
+      if (isCompiled(sku)) {
+        removed.add(sku);
+      }
+      added.put(sku, after.getId());
+    }
+    if (added.size() + removed.size() >= compactThreshold) {
+      compact();
+    }
+  }
+
+  /**
+   * Removes a SKU. An overlay SKU is simply dropped; a compiled one is hidden until the next
+   * compaction. A compiled SKU that is added again stays marked as removed, so that only its
+   * overlay entry is suggested.
+   */
+  private void remove(BytesRef sku) throws IOException {
+    added.remove(sku);
+    if (isCompiled(sku)) {
+      removed.add(sku);
+    }
+  }
+
+  private boolean isCompiled(BytesRef sku) throws IOException {
+    return fst != null && Util.get(fst, sku) != null;
+  }
+
+  private BytesRefFSTEnum.InputOutput<Long> skipRemoved(
+      BytesRefFSTEnum<Long> compiledEnum, BytesRefFSTEnum.InputOutput<Long> current)
+      throws IOException {
+    while (current != null && removed.contains(current.input)) {
+      current = compiledEnum.next();
+    }
+    return current;
+  }
+
+  /** Recompiles the transducer from its live entries and the overlay. */
+  private void compact() throws IOException {
+    long start = System.nanoTime();
+    TreeMap<BytesRef, Long> merged = new TreeMap<>(added);
+    if (fst != null) {
+      BytesRefFSTEnum<Long> compiledEnum = new BytesRefFSTEnum<>(fst);
+      for (BytesRefFSTEnum.InputOutput<Long> entry = compiledEnum.next();
+          entry != null;
+          entry = compiledEnum.next()) {
+        if (!removed.contains(entry.input)) {
+          merged.putIfAbsent(BytesRef.deepCopyOf(entry.input), entry.output);
+        }
+      }
+    }
+    compile(merged);
+    added.clear();
+    removed.clear();
+    logger.debug(
+        "Compacted {} SKUs into {} bytes in {} µs",
+        merged.size(),
+        fst == null ? 0 : fst.ramBytesUsed(),
+        (System.nanoTime() - start) / 1_000);
+  }
+
+  /** Compiles SKUs, which must be in {@link BytesRef} order, into a new transducer. */
+  private void compile(NavigableMap<BytesRef, Long> skus) {
+    if (skus.isEmpty()) {
+      fst = null;
+      fstEntries = 0;
+      return;
+    }
+    try {
+      FSTCompiler<Long> compiler = new FSTCompiler.Builder<>(FST.INPUT_TYPE.BYTE1, OUTPUTS).build();
+      IntsRefBuilder scratch = new IntsRefBuilder();
+      for (Map.Entry<BytesRef, Long> sku : skus.entrySet()) {
+        compiler.add(Util.toIntsRef(sku.getKey(), scratch), sku.getValue());
+      }
+      fst = FST.fromFSTReader(compiler.compile(), compiler.getFSTReader());
+      fstEntries = skus.size();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -0,0 +1,14 @@
+package com.example.productinventory.autocomplete;
+
+import lombok.Value;
+
+/** A SKU completing an autocomplete prefix, with the product it belongs to. */
+@Value
+public class SkuSuggestion {
+
+  /** The product SKU. */
+  String sku;
+
+  /** The product ID. */
+  long productId;
+}
@@ -0,0 +1,204 @@
+package com.example.productinventory.cache;
+
+import com.example.productinventory.dto.PaginatedResponse;
+import com.example.productinventory.model.Product;
+import com.example.productinventory.monitoring.ProductOperationEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.lang.Nullable;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Writes products, product lists and paginated product responses as JSON assembled from the
+ * fragments held in a {@link ProductJsonCache}. A page whose products are all cached is written
+ * without any object-to-JSON work; only the page metadata, and the facets of a faceted search, are
+ * formatted.
+ *
+ * <p>Each write is recorded as a {@code writeJson} {@link ProductOperationEvent} with the number of
+ * products written, and counts as a cache hit when every one of them was served from the cache.
+ *
+ * <p>Responses to requests other than {@code GET} and {@code HEAD} do not fill the cache. The
+ * product returned by a create or update is built from the request and may differ from the stored
+ * row, e.g. in the scale of its price or the precision of its timestamps, whereas read responses
+ * carry products loaded from the database.
+ *
+ * <p>This converter only writes {@code application/json}. Requests are still read by the regular
+ * Jackson converter, and other response types fall through to it.
+ */
+public class CachedProductJsonHttpMessageConverter
+    extends AbstractGenericHttpMessageConverter<Object> {
+
+  private static final byte[] ITEMS_START = "{\"items\":".getBytes(StandardCharsets.UTF_8);
+
+  private final ProductJsonCache productJsonCache;
+  private final ObjectMapper objectMapper;
+
+  /**
+   * Constructs a CachedProductJsonHttpMessageConverter.
+   *
+   * @param productJsonCache the cache providing the product JSON fragments
+   * @param objectMapper the mapper used to serialize page facets
+   */
+  public CachedProductJsonHttpMessageConverter(
+      ProductJsonCache productJsonCache, ObjectMapper objectMapper) {
+    super(MediaType.APPLICATION_JSON);
+    this.productJsonCache = productJsonCache;
+    this.objectMapper = objectMapper;
+  }
+
+  @Override
+  protected boolean supports(Class<?> clazz) {
+    return Product.class.isAssignableFrom(clazz);
+  }
+
+  @Override
+  public boolean canRead(
+      Type type, @Nullable Class<?> contextClass, @Nullable MediaType mediaType) {
+    return false;
+  }
+
+  @Override
+  public boolean canRead(Class<?> clazz, @Nullable MediaType mediaType) {
+    return false;
+  }
+
+  @Override
+  public boolean canWrite(@Nullable Type type, Class<?> clazz, @Nullable MediaType mediaType) {
+    if (!canWrite(mediaType)) {
+      return false;
+    }
+    if (type instanceof ParameterizedType) {
+      ParameterizedType parameterized = (ParameterizedType) type;
+      Type raw = parameterized.getRawType();
+      Type[] arguments = parameterized.getActualTypeArguments();
+      boolean container =
+          raw instanceof Class
+              && (PaginatedResponse.class.isAssignableFrom((Class<?>) raw)
+                  || Collection.class.isAssignableFrom((Class<?>) raw));
+      if (container) {
+        return arguments.length == 1
+            && arguments[0] instanceof Class
+            && Product.class.isAssignableFrom((Class<?>) arguments[0]);
+      }
+    }
+    return supports(clazz);
+  }
+
+  @Override
+  protected void writeInternal(Object body, @Nullable Type type, HttpOutputMessage outputMessage)
+      throws IOException {
+    ProductOperationEvent event = ProductOperationEvent.start("writeJson");
+    Written written = new Written();
+    written.cacheable = !isWriteRequest();
+    try {
+      write(body, outputMessage.getBody(), written);
+      event.rowsReturned = written.products;
+      event.cacheHit = written.products > 0 && written.misses == 0;
+      event.success = true;
+    } finally {
+      event.finish();
+    }
+  }
+
+  private void write(Object body, OutputStream out, Written written) throws IOException {
+    if (body instanceof Product) {
+      writeProduct((Product) body, out, written);
+    } else if (body instanceof PaginatedResponse) {
+      PaginatedResponse<?> page = (PaginatedResponse<?>) body;
+      out.write(ITEMS_START);
+      writeArray(page.getItems(), out, written);
+      String metadata =
+          ",\"currentPage\":"
+              + page.getCurrentPage()
+              + ",\"totalPages\":"
+              + page.getTotalPages()
+              + ",\"totalItems\":"
+              + page.getTotalItems()
+              + ",\"itemsPerPage\":"
+              + page.getItemsPerPage();
+      out.write(metadata.getBytes(StandardCharsets.UTF_8));
+      if (page.getFacets() != null) {
+        out.write(",\"facets\":".getBytes(StandardCharsets.UTF_8));
+        out.write(objectMapper.writeValueAsBytes(page.getFacets()));
+      }
+      out.write('}');
+    } else if (body instanceof Collection) {
+      writeArray((Collection<?>) body, out, written);
+    }
+  }
+
+  private void writeArray(@Nullable Collection<?> products, OutputStream out, Written written)
+      throws IOException {
+    if (products == null) {
+      out.write("null".getBytes(StandardCharsets.UTF_8));
+      return;
+    }
+    out.write('[');
+    boolean first = true;
+    for (Object product : products) {
+      if (!first) {
+        out.write(',');
+      }
+      writeProduct((Product) product, out, written);
+      first = false;
+    }
+    out.write(']');
+  }
+
+  private void writeProduct(Product product, OutputStream out, Written written) throws IOException {
+    byte[] json = productJsonCache.getCached(product);
+    if (json == null) {
+      json =
+          written.cacheable
+              ? productJsonCache.toJson(product)
+              : objectMapper.writeValueAsBytes(product);
+      written.misses++;
+    }
+    out.write(json);
+    written.products++;
+  }
+
+  private static boolean isWriteRequest() {
+    if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes)) {
+      return false;
+    }
+    String method =
+        ((ServletRequestAttributes) RequestContextHolder.getRequestAttributes())
+            .getRequest()
+            .getMethod();
+    return !"GET".equals(method) && !"HEAD".equals(method);
+  }
+
+  @Override
+  public Object read(Type type, @Nullable Class<?> contextClass, HttpInputMessage inputMessage) {
+    throw new HttpMessageNotReadableException(
+        "Reading is not supported by this converter", inputMessage);
+  }
+
+  @Override
+  protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+    throw new HttpMessageNotReadableException(
+        "Reading is not supported by this converter", inputMessage);
+  }
+
+  /**
+   * The number of products written by one call, how many of them were not cached, and whether they
+   * may be added to the cache.
+   */
+  private static final class Written {
+    private boolean cacheable;
+    private long products;
+    private long misses;
+  }
+}
@@ -0,0 +1,203 @@
+package com.example.productinventory.cache;
+
+import com.example.productinventory.model.Product;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cache of pre-serialized product JSON keyed by product ID and version. Every update bumps the
+ * product version, so an entry is served only while the product it was built from is current and no
+ * explicit invalidation is needed.
+ *
+ * <p>Reads are lock-free. The cache is bounded by the total size of the cached byte arrays; when
+ * the bound is exceeded a CLOCK sweep evicts entries that have not been read since the previous
+ * sweep.
+ */
+public class ProductJsonCache {
+
+  private final ObjectMapper objectMapper;
+  private final long maxBytes;
+  private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+  private final AtomicLong totalBytes = new AtomicLong();
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong evictions = new AtomicLong();
+  private final ReentrantLock evictionLock = new ReentrantLock();
+
+  /**
+   * Constructs a ProductJsonCache.
+   *
+   * @param objectMapper the mapper used to serialize products on a cache miss
+   * @param maxBytes the maximum total size of the cached JSON
+   */
+  public ProductJsonCache(ObjectMapper objectMapper, long maxBytes) {
+    this.objectMapper = objectMapper;
+    this.maxBytes = maxBytes;
+  }
+
+  /**
+   * Returns the JSON representation of a product, serializing and caching it on a miss.
+   *
+   * @param product the product to serialize
+   * @return the JSON bytes of the product
+   * @throws JsonProcessingException if the product cannot be serialized
+   */
+  public byte[] toJson(Product product) throws JsonProcessingException {
+    Long id = product.getId();
+    Integer version = product.getVersion();
+    if (id == null || version == null) {
+      return objectMapper.writeValueAsBytes(product);
+    }
+
+    byte[] cached = getCached(product);
+    if (cached != null) {
+      return cached;
+    }
+
+    misses.incrementAndGet();
+    byte[] json = objectMapper.writeValueAsBytes(product);
+    if (json.length <= maxBytes) {
+      put(id, new Entry(version, json));
+    }
+    return json;
+  }
+
+  /**
+   * Returns the cached JSON of a product if it was built from the product's current version,
+   * without serializing it on a miss.
+   *
+   * @param product the product
+   * @return the cached JSON bytes, or {@code null} if the product is not cached
+   */
+  public byte[] getCached(Product product) {
+    Long id = product.getId();
+    Integer version = product.getVersion();
+    if (id == null || version == null) {
+      return null;
+    }
+    Entry entry = entries.get(id);
+    if (entry == null || entry.version != version) {
+      return null;
+    }
+    entry.referenced = true;
+    hits.incrementAndGet();
+    return entry.json;
+  }
+
+  /**
+   * Removes the cached JSON of a product.
+   *
+   * @param id the product ID
+   */
+  public void evict(Long id) {
+    Entry removed = entries.remove(id);
+    if (removed != null) {
+      totalBytes.addAndGet(-removed.json.length);
+    }
+  }
+
+  /** Removes all cached entries. */
+  public void clear() {
+    entries.keySet().forEach(this::evict);
+  }
+
+  private void put(Long id, Entry entry) {
+    Entry previous = entries.put(id, entry);
+    long delta = entry.json.length - (previous == null ? 0 : previous.json.length);
+    if (totalBytes.addAndGet(delta) > maxBytes) {
+      evictToFit();
+    }
+  }
+
+  /**
+   * Evicts entries until the cache is within its byte bound. Entries read since the last sweep get
+   * a second chance; only one thread sweeps at a time, other writers carry on.
+   */
+  private void evictToFit() {
+    if (!evictionLock.tryLock()) {
+      return;
+    }
+    try {
+      while (totalBytes.get() > maxBytes) {
+        Iterator<Map.Entry<Long, Entry>> iterator = entries.entrySet().iterator();
+        if (!iterator.hasNext()) {
+          return;
+        }
+        while (iterator.hasNext() && totalBytes.get() > maxBytes) {
+          Map.Entry<Long, Entry> candidate = iterator.next();
+          Entry entry = candidate.getValue();
+          if (entry.referenced) {
+            entry.referenced = false;
+          } else if (entries.remove(candidate.getKey(), entry)) {
+            totalBytes.addAndGet(-entry.json.length);
+            evictions.incrementAndGet();
+          }
+        }
+      }
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  /**
+   * Returns the number of cached products.
+   *
+   * @return the entry count
+   */
+  public int size() {
+    return entries.size();
+  }
+
+  /**
+   * Returns the total size of the cached JSON.
+   *
+   * @return the size in bytes
+   */
+  public long getTotalBytes() {
+    return totalBytes.get();
+  }
+
+  /**
+   * Returns the number of lookups served from the cache.
+   *
+   * @return the hit count
+   */
+  public long getHits() {
+    return hits.get();
+  }
+
+  /**
+   * Returns the number of lookups that required serialization.
+   *
+   * @return the miss count
+   */
+  public long getMisses() {
+    return misses.get();
+  }
+
+  /**
+   * Returns the number of entries evicted to stay within the byte bound.
+   *
+   * @return the eviction count
+   */
+  public long getEvictions() {
+    return evictions.get();
+  }
+
+  /** Cached JSON of one product version. */
+  private static final class Entry {
+    private final int version;
+    private final byte[] json;
+    private volatile boolean referenced = true;
+
+    private Entry(int version, byte[] json) {
+      this.version = version;
+      this.json = json;
+    }
+  }
+}
@@ -0,0 +1,32 @@
+package com.example.productinventory.cache;
+
+import com.example.productinventory.event.ProductChangedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Drops the cached JSON of deleted products once the delete commits. Updates need no invalidation,
+ * since they bump the version the cache is keyed by, but a deleted product would otherwise hold its
+ * entry until the next eviction sweep.
+ */
+@Component
+public class ProductJsonCacheEvictor {
+
+  private final ProductJsonCache productJsonCache;
+
+  public ProductJsonCacheEvictor(ProductJsonCache productJsonCache) {
+    this.productJsonCache = productJsonCache;
+  }
+
+  /**
+   * Evicts a product that was deleted.
+   *
+   * @param event the committed change
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onProductChanged(ProductChangedEvent event) {
+    if (event.getAfter() == null) {
+      productJsonCache.evict(event.getProductId());
+    }
+  }
+}
@@ -0,0 +1,15 @@
+package com.example.productinventory.columnar;
+
+import java.util.List;
+import lombok.Value;
+
+/** The product IDs of one page of a columnar scan, in result order, with the total match count. */
+@Value
+public class IdPage {
+
+  /** The product IDs on the page, in result order. */
+  List<Long> ids;
+
+  /** The number of products matching the filter across all pages. */
+  long total;
+}
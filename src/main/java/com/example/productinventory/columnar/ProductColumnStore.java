@@ -0,0 +1,411 @@
+package com.example.productinventory.columnar;
+
+import com.example.productinventory.event.ProductChangedEvent;
+import com.example.productinventory.event.ProductState;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.StampedLock;
+import java.util.stream.IntStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * An in-memory, column-oriented copy of the numeric product columns, used to evaluate price,
+ * quantity and category filters without scanning the products table.
+ *
+ * <p>Each product occupies one slot in four parallel primitive arrays: its ID, its price in cents,
+ * its quantity and its category ID ({@code 0} if it has none). A query scans the columns with a
+ * branch-free loop, split into chunks that run in parallel once the store holds more than {@code
+ * product.columnar.parallel-threshold} rows, and sorts the matches on packed {@code long} keys
+ * (sort value in the high bits, slot in the low bits). Only the IDs of the requested page are
+ * returned; the caller loads those rows from the database.
+ *
+ * <p>The store is loaded from the database when the application is ready and kept in sync from
+ * {@link ProductChangedEvent}s after each write commits. Deleting a product moves the last slot
+ * into the freed one, so the arrays stay dense. It mirrors the single-database service only; in
+ * sharded mode it is not consulted.
+ */
+@Component
+@ConditionalOnProperty(name = "product.columnar.enabled", havingValue = "true")
+public class ProductColumnStore {
+
+  private static final Logger logger = LoggerFactory.getLogger(ProductColumnStore.class);
+
+  /** Bits of a packed sort key reserved for the slot number. */
+  static final int SLOT_BITS = 29;
+
+  /** The largest number of products the store can hold. */
+  static final int MAX_ROWS = 1 << SLOT_BITS;
+
+  private static final long SLOT_MASK = MAX_ROWS - 1;
+
+  /** Prices must fit in the 34 bits above the slot; DECIMAL(10, 2) needs at most 34. */
+  private static final long MAX_PRICE_CENTS = (1L << (63 - SLOT_BITS)) - 1;
+
+  /** The category column value of a product without a category. */
+  private static final long NO_CATEGORY = 0;
+
+  private static final int CHUNK_SIZE = 16_384;
+  private static final int INITIAL_CAPACITY = 1_024;
+
+  private final JdbcTemplate jdbcTemplate;
+  private final int parallelThreshold;
+  private final StampedLock lock = new StampedLock();
+
+  private long[] ids = new long[INITIAL_CAPACITY];
+  private long[] priceCents = new long[INITIAL_CAPACITY];
+  private int[] quantities = new int[INITIAL_CAPACITY];
+  private long[] categories = new long[INITIAL_CAPACITY];
+  private int size;
+  private final Map<Long, Integer> slotsById = new HashMap<>();
+  private volatile boolean loaded;
+
+  public ProductColumnStore(
+      JdbcTemplate jdbcTemplate,
+      @Value("${product.columnar.parallel-threshold:65536}") int parallelThreshold) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.parallelThreshold = parallelThreshold;
+  }
+
+  /**
+   * Loads every product from the database, replacing the current contents. Holds the write lock for
+   * the duration, so change events that commit meanwhile are applied after the load.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void load() {
+    long start = System.nanoTime();
+    long stamp = lock.writeLock();
+    try {
+      loaded = false;
+      size = 0;
+      slotsById.clear();
+      jdbcTemplate.query(
+          "SELECT id, price, quantity, category_id FROM products",
+          rs -> {
+            upsert(rs.getLong(1), rs.getBigDecimal(2), rs.getInt(3), rs.getLong(4));
+          });
+      loaded = true;
+      logger.info(
+          "Loaded {} products into the column store in {} ms",
+          size,
+          (System.nanoTime() - start) / 1_000_000);
+    } catch (RuntimeException e) {
+      logger.warn("Could not load the column store; range queries will use the database", e);
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * Applies a committed product change.
+   *
+   * @param event the change
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onProductChanged(ProductChangedEvent event) {
+    long stamp = lock.writeLock();
+    try {
+      ProductState after = event.getAfter();
+      if (after == null) {
+        remove(event.getProductId());
+      } else {
+        upsert(
+            after.getId(),
+            after.getPrice(),
+            after.getQuantity(),
+            after.getCategoryId() == null ? NO_CATEGORY : after.getCategoryId());
+      }
+    } catch (RuntimeException e) {
+      loaded = false;
+      logger.warn("Could not apply a product change; range queries will use the database", e);
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * Returns whether the store is loaded and can answer queries.
+   *
+   * @return {@code true} if queries can be answered from the store
+   */
+  public boolean isLoaded() {
+    return loaded;
+  }
+
+  /**
+   * Returns the number of products held.
+   *
+   * @return the number of products
+   */
+  public int size() {
+    long stamp = lock.readLock();
+    try {
+      return size;
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  /**
+   * Finds the IDs of one page of products whose price and quantity lie within the given inclusive
+   * bounds and that belong to the given category. Criteria that are {@code null} are ignored.
+   *
+   * @param minPrice minimum price (optional)
+   * @param maxPrice maximum price (optional)
+   * @param minQuantity minimum quantity (optional)
+   * @param maxQuantity maximum quantity (optional)
+   * @param categoryId category ID (optional)
+   * @param pageable pagination and sorting information
+   * @return the page of IDs, or empty if the store is not loaded or the sort is not by a single
+   *     column among {@code id}, {@code price} and {@code quantity}
+   */
+  public Optional<IdPage> findIds(
+      BigDecimal minPrice,
+      BigDecimal maxPrice,
+      Integer minQuantity,
+      Integer maxQuantity,
+      Long categoryId,
+      Pageable pageable) {
+    SortColumn sortColumn = SortColumn.of(pageable.getSort());
+    if (sortColumn == null || !loaded) {
+      return Optional.empty();
+    }
+    boolean descending =
+        pageable.getSort().isSorted() && pageable.getSort().iterator().next().isDescending();
+    long minCents = minPrice == null ? Long.MIN_VALUE : toCents(minPrice, RoundingMode.CEILING);
+    long maxCents = maxPrice == null ? Long.MAX_VALUE : toCents(maxPrice, RoundingMode.FLOOR);
+    int minQ = minQuantity == null ? Integer.MIN_VALUE : minQuantity;
+    int maxQ = maxQuantity == null ? Integer.MAX_VALUE : maxQuantity;
+    Filter filter =
+        new Filter(minCents, maxCents, minQ, maxQ, categoryId == null ? NO_CATEGORY : categoryId);
+
+    long stamp = lock.readLock();
+    try {
+      if (!loaded) {
+        return Optional.empty();
+      }
+      int[] matches = scan(filter);
+      long[] keys = sortKeys(matches, sortColumn);
+      if (keys.length >= parallelThreshold) {
+        Arrays.parallelSort(keys);
+      } else {
+        Arrays.sort(keys);
+      }
+
+      int from = pageable.isPaged() ? (int) Math.min(pageable.getOffset(), keys.length) : 0;
+      int to =
+          pageable.isPaged() ? Math.min(keys.length, from + pageable.getPageSize()) : keys.length;
+      List<Long> page = new ArrayList<>(to - from);
+      for (int i = from; i < to; i++) {
+        long key = keys[descending ? keys.length - 1 - i : i];
+        page.add(sortColumn == SortColumn.ID ? key : ids[(int) (key & SLOT_MASK)]);
+      }
+      return Optional.of(new IdPage(page, matches.length));
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  /** Returns the slots matching the filter, in slot order. Called under the read lock. */
+  private int[] scan(Filter filter) {
+    long[] prices = priceCents;
+    int[] quantityColumn = quantities;
+    long[] categoryColumn = categories;
+    int rows = size;
+    if (rows < parallelThreshold) {
+      return scanRange(prices, quantityColumn, categoryColumn, 0, rows, filter);
+    }
+    int chunks = (rows + CHUNK_SIZE - 1) / CHUNK_SIZE;
+    int[][] parts =
+        IntStream.range(0, chunks)
+            .parallel()
+            .mapToObj(
+                chunk ->
+                    scanRange(
+                        prices,
+                        quantityColumn,
+                        categoryColumn,
+                        chunk * CHUNK_SIZE,
+                        Math.min(rows, (chunk + 1) * CHUNK_SIZE),
+                        filter))
+            .toArray(int[][]::new);
+    int total = 0;
+    for (int[] part : parts) {
+      total += part.length;
+    }
+    int[] matches = new int[total];
+    int position = 0;
+    for (int[] part : parts) {
+      System.arraycopy(part, 0, matches, position, part.length);
+      position += part.length;
+    }
+    return matches;
+  }
+
+  /**
+   * Scans one chunk. Every slot is written and the cursor only advances on a match, which keeps the
+   * loop free of data-dependent branches.
+   */
+  private static int[] scanRange(
+      long[] prices, int[] quantityColumn, long[] categoryColumn, int from, int to, Filter filter) {
+    long minCents = filter.minCents;
+    long maxCents = filter.maxCents;
+    int minQ = filter.minQuantity;
+    int maxQ = filter.maxQuantity;
+    long category = filter.category;
+    boolean anyCategory = category == NO_CATEGORY;
+    int[] out = new int[to - from];
+    int count = 0;
+    for (int i = from; i < to; i++) {
+      long price = prices[i];
+      int quantity = quantityColumn[i];
+      out[count] = i;
+      count +=
+          (price >= minCents
+                  & price <= maxCents
+                  & quantity >= minQ
+                  & quantity <= maxQ
+                  & (anyCategory | categoryColumn[i] == category))
+              ? 1
+              : 0;
+    }
+    return Arrays.copyOf(out, count);
+  }
+
+  /** Builds the sort key of each matching slot. Called under the read lock. */
+  private long[] sortKeys(int[] matches, SortColumn sortColumn) {
+    long[] keys = new long[matches.length];
+    for (int i = 0; i < matches.length; i++) {
+      int slot = matches[i];
+      switch (sortColumn) {
+        case PRICE:
+          keys[i] = priceCents[slot] << SLOT_BITS | slot;
+          break;
+        case QUANTITY:
+          keys[i] = ((long) quantities[slot] - Integer.MIN_VALUE) << SLOT_BITS | slot;
+          break;
+        default:
+          keys[i] = ids[slot];
+      }
+    }
+    return keys;
+  }
+
+  /** Inserts or overwrites a product. Called under the write lock. */
+  private void upsert(long id, BigDecimal price, int quantity, long category) {
+    long cents = toCents(price, RoundingMode.HALF_UP);
+    if (cents < 0 || cents > MAX_PRICE_CENTS) {
+      throw new IllegalStateException("Price out of range for the column store: " + price);
+    }
+    Integer slot = slotsById.get(id);
+    if (slot == null) {
+      if (size == MAX_ROWS) {
+        throw new IllegalStateException("Column store is full");
+      }
+      if (size == ids.length) {
+        int capacity = (int) Math.min(MAX_ROWS, (long) size * 2);
+        ids = Arrays.copyOf(ids, capacity);
+        priceCents = Arrays.copyOf(priceCents, capacity);
+        quantities = Arrays.copyOf(quantities, capacity);
+        categories = Arrays.copyOf(categories, capacity);
+      }
+      slot = size++;
+      slotsById.put(id, slot);
+    }
+    ids[slot] = id;
+    priceCents[slot] = cents;
+    quantities[slot] = quantity;
+    categories[slot] = category;
+  }
+
+  /** Removes a product, moving the last slot into its place. Called under the write lock. */
+  private void remove(long id) {
+    Integer slot = slotsById.remove(id);
+    if (slot == null) {
+      return;
+    }
+    int last = --size;
+    if (slot != last) {
+      ids[slot] = ids[last];
+      priceCents[slot] = priceCents[last];
+      quantities[slot] = quantities[last];
+      categories[slot] = categories[last];
+      slotsById.put(ids[slot], slot);
+    }
+  }
+
+  /**
+   * Converts a price to whole cents, saturating at the bounds of {@code long}.
+   *
+   * @param price the price
+   * @param rounding how to round fractions of a cent
+   * @return the price in cents
+   */
+  static long toCents(BigDecimal price, RoundingMode rounding) {
+    BigDecimal cents = price.setScale(2, rounding).movePointRight(2);
+    if (cents.unscaledValue().bitLength() > 63) {
+      return cents.signum() > 0 ? Long.MAX_VALUE : Long.MIN_VALUE;
+    }
+    return cents.longValue();
+  }
+
+  /** The bounds of a scan, converted to the column representations. */
+  private static final class Filter {
+    final long minCents;
+    final long maxCents;
+    final int minQuantity;
+    final int maxQuantity;
+    final long category;
+
+    Filter(long minCents, long maxCents, int minQuantity, int maxQuantity, long category) {
+      this.minCents = minCents;
+      this.maxCents = maxCents;
+      this.minQuantity = minQuantity;
+      this.maxQuantity = maxQuantity;
+      this.category = category;
+    }
+  }
+
+  /** The columns a scan can be sorted by. */
+  private enum SortColumn {
+    ID,
+    PRICE,
+    QUANTITY;
+
+    /** Returns the column for a single-property sort, or {@code null} if unsupported. */
+    static SortColumn of(Sort sort) {
+      if (sort.isUnsorted()) {
+        return ID;
+      }
+      List<Sort.Order> orders = sort.toList();
+      if (orders.size() != 1) {
+        return null;
+      }
+      switch (orders.get(0).getProperty()) {
+        case "id":
+          return ID;
+        case "price":
+          return PRICE;
+        case "quantity":
+          return QUANTITY;
+        default:
+          return null;
+      }
+    }
+  }
+}
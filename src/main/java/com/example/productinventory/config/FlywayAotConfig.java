@@ -0,0 +1,42 @@
+package com.example.productinventory.config;
+
+import org.flywaydb.core.api.migration.JavaMigration;
+import org.flywaydb.core.internal.scanner.LocationScannerCache;
+import org.flywaydb.core.internal.scanner.ResourceNameCache;
+import org.flywaydb.core.internal.scanner.Scanner;
+import org.springframework.aot.AotDetector;
+import org.springframework.boot.autoconfigure.flyway.FlywayConfigurationCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Lets Flyway find its migrations when the application runs from Spring AOT-processed classes
+ * ({@code -Dspring.aot.enabled=true}, built with {@code mvn package -Paot}). In that mode Spring
+ * Boot 3.2 installs a resource provider meant for native images that calls a Flyway 9 constructor
+ * and fails on the Flyway 10 this project uses. Setting Flyway's own classpath scanner beforehand
+ * makes Spring Boot leave the resource provider alone.
+ */
+@Configuration
+public class FlywayAotConfig {
+
+  /**
+   * Sets Flyway's classpath scanner as the resource provider when AOT-generated artifacts are in
+   * use; does nothing otherwise.
+   *
+   * @return the Flyway configuration customizer
+   */
+  @Bean
+  public FlywayConfigurationCustomizer aotResourceProviderCustomizer() {
+    return configuration -> {
+      if (AotDetector.useGeneratedArtifacts()) {
+        configuration.resourceProvider(
+            new Scanner<>(
+                JavaMigration.class,
+                false,
+                new ResourceNameCache(),
+                new LocationScannerCache(),
+                configuration));
+      }
+    };
+  }
+}
@@ -0,0 +1,78 @@
+package com.example.productinventory.config;
+
+import com.example.productinventory.cache.CachedProductJsonHttpMessageConverter;
+import com.example.productinventory.cache.ProductJsonCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Web layer configuration. Registers the product JSON cache and the message converter that writes
+ * product responses from it; Spring Boot places the converter ahead of the default Jackson one.
+ * Also registers CBOR and Smile converters so that clients can request binary payloads through the
+ * {@code Accept} and {@code Content-Type} headers.
+ */
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+  /**
+   * Creates the cache of pre-serialized product JSON.
+   *
+   * @param objectMapper the application object mapper, used on cache misses
+   * @param maxBytes the maximum total size of the cached JSON
+   * @return the product JSON cache
+   */
+  @Bean
+  public ProductJsonCache productJsonCache(
+      ObjectMapper objectMapper, @Value("${product.json-cache.max-bytes:16777216}") long maxBytes) {
+    return new ProductJsonCache(objectMapper, maxBytes);
+  }
+
+  /**
+   * Creates the converter that writes product responses from the JSON cache.
+   *
+   * @param productJsonCache the product JSON cache
+   * @param objectMapper the application object mapper, used for page facets
+   * @return the message converter
+   */
+  @Bean
+  public CachedProductJsonHttpMessageConverter cachedProductJsonHttpMessageConverter(
+      ProductJsonCache productJsonCache, ObjectMapper objectMapper) {
+    return new CachedProductJsonHttpMessageConverter(productJsonCache, objectMapper);
+  }
+
+  /**
+   * Creates the CBOR ({@code application/cbor}) converter. It is built from Spring Boot's object
+   * mapper builder so that binary payloads have the same shape as JSON ones, for example dates as
+   * ISO strings.
+   *
+   * @param builder the object mapper builder configured by Spring Boot
+   * @return the CBOR message converter
+   */
+  @Bean
+  public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(
+      Jackson2ObjectMapperBuilder builder) {
+    return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+  }
+
+  /**
+   * Creates the Smile ({@code application/x-jackson-smile}) converter, configured like the CBOR
+   * one.
+   *
+   * @param builder the object mapper builder configured by Spring Boot
+   * @return the Smile message converter
+   */
+  @Bean
+  public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(
+      Jackson2ObjectMapperBuilder builder) {
+    return new MappingJackson2SmileHttpMessageConverter(
+        builder.factory(new SmileFactory()).build());
+  }
+}
@@ -0,0 +1,42 @@
+package com.example.productinventory.controller;
+
+import com.example.productinventory.dto.CategoryDTO;
+import com.example.productinventory.service.CategoryService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/** CategoryController handles API requests related to product categories. */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/api/v1/categories")
+@Tag(name = "Category Controller", description = "APIs for product categories")
+public class CategoryController {
+
+  private final CategoryService categoryService;
+
+  @Autowired
+  public CategoryController(CategoryService categoryService) {
+    this.categoryService = categoryService;
+  }
+
+  /**
+   * Retrieves all categories with their product counts.
+   *
+   * @return ResponseEntity containing the categories
+   */
+  @GetMapping
+  @Operation(
+    summary = "Get all categories",
+    description = "Retrieves all categories with the number of products in each"
+  )
+  public ResponseEntity<List<CategoryDTO>> getCategories() {
+    return ResponseEntity.ok(categoryService.getCategories());
+  }
+}
@@ -0,0 +1,82 @@
+package com.example.productinventory.controller;
+
+import com.example.productinventory.analytics.DriftReport;
+import com.example.productinventory.analytics.InventoryAnalytics;
+import com.example.productinventory.analytics.InventorySummary;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * InventoryAnalyticsController serves the incrementally maintained inventory aggregates, and allows
+ * them to be rebuilt from the database or checked for drift.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/api/v1/analytics/inventory")
+@ConditionalOnExpression("${product.analytics.enabled:true} and !${product.sharding.enabled:false}")
+@Tag(name = "Inventory Analytics Controller", description = "APIs for inventory aggregates")
+public class InventoryAnalyticsController {
+
+  private final InventoryAnalytics inventoryAnalytics;
+  private final Logger logger = LoggerFactory.getLogger(InventoryAnalyticsController.class);
+
+  @Autowired
+  public InventoryAnalyticsController(InventoryAnalytics inventoryAnalytics) {
+    this.inventoryAnalytics = inventoryAnalytics;
+  }
+
+  /**
+   * Retrieves the current inventory aggregates.
+   *
+   * @return ResponseEntity containing the inventory summary
+   */
+  @GetMapping
+  @Operation(
+    summary = "Get inventory summary",
+    description =
+        "Returns the stock valuation, units in stock, out-of-stock count and per price band"
+            + " counts and values"
+  )
+  public ResponseEntity<InventorySummary> getSummary() {
+    return ResponseEntity.ok(inventoryAnalytics.getSummary());
+  }
+
+  /**
+   * Recomputes the inventory aggregates from the database.
+   *
+   * @return ResponseEntity containing the rebuilt inventory summary
+   */
+  @PostMapping("/rebuild")
+  @Operation(
+    summary = "Rebuild inventory summary",
+    description = "Recomputes the inventory aggregates from the database"
+  )
+  public ResponseEntity<InventorySummary> rebuild() {
+    logger.info("Rebuilding inventory analytics");
+    return ResponseEntity.ok(inventoryAnalytics.rebuild());
+  }
+
+  /**
+   * Compares the maintained inventory aggregates with the database.
+   *
+   * @return ResponseEntity containing the drift report
+   */
+  @GetMapping("/drift")
+  @Operation(
+    summary = "Check inventory summary for drift",
+    description = "Compares the maintained aggregates with aggregates computed from the database"
+  )
+  public ResponseEntity<DriftReport> checkDrift() {
+    return ResponseEntity.ok(inventoryAnalytics.checkDrift());
+  }
+}
@@ -1,7 +1,9 @@
 package com.example.productinventory.controller;
 
+import com.example.productinventory.dto.BulkDeleteResponse;
 import com.example.productinventory.dto.PaginatedResponse;
 import com.example.productinventory.dto.ProductDTO;
+import com.example.productinventory.dto.StockAdjustmentDTO;
 import com.example.productinventory.model.Product;
 import com.example.productinventory.service.ProductService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -12,9 +14,13 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
@@ -27,6 +33,7 @@ import org.springframework.web.bind.annotation.*;
  * creating, retrieving, updating, and deleting products.
  */
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api/v1/products")
 @Tag(name = "Product Controller", description = "APIs for managing products")
 public class ProductController {
@@ -84,6 +91,7 @@ public class ProductController {
    * @param size the number of items per page
    * @param sortBy the field to sort by
    * @param direction the direction of sorting (asc or desc)
+   * @param categoryId category ID to filter by (optional)
    * @return ResponseEntity containing a paginated response of products
    */
   @GetMapping
@@ -120,27 +128,270 @@ public class ProductController {
           String sortBy,
       @Parameter(description = "Sort direction", example = "asc")
           @RequestParam(defaultValue = "asc")
-          String direction) {
+          String direction,
+      @Parameter(description = "Category ID", example = "1") @RequestParam(required = false)
+          Long categoryId) {
 
     logger.info(
-        "Get all products - Page: {}, Size: {}, Sort By: {}, Direction: {}",
+        "Get all products - Page: {}, Size: {}, Sort By: {}, Direction: {}, Category: {}",
         page,
         size,
         sortBy,
-        direction);
+        direction,
+        categoryId);
 
     Sort.Direction sortDirection = Sort.Direction.fromString(direction.toLowerCase());
     PageRequest pageRequest = PageRequest.of(page, size, Sort.by(sortDirection, sortBy));
 
-    Page<Product> productsPage = productService.getAllProducts(pageRequest, sortBy);
-    PaginatedResponse<Product> response =
-        new PaginatedResponse<>(
-            productsPage.getContent(),
-            productsPage.getNumber(),
-            productsPage.getTotalPages(),
-            productsPage.getTotalElements(),
-            productsPage.getSize());
+    Page<Product> productsPage =
+        categoryId == null
+            ? productService.getAllProducts(pageRequest, sortBy)
+            : productService.searchProductsByCriteria(
+                null, null, null, null, null, categoryId, pageRequest);
     logger.info("Successfully retrieved {} products", productsPage.getTotalElements());
+    return ResponseEntity.ok(toPaginatedResponse(productsPage));
+  }
+
+  /**
+   * Retrieves a paginated list of all products, returning only the requested fields. Only the
+   * requested columns are selected from the database.
+   *
+   * @param fields the product fields to return
+   * @param page the page number (0-based)
+   * @param size the number of items per page
+   * @param sortBy the field to sort by
+   * @param direction the direction of sorting (asc or desc)
+   * @param categoryId category ID to filter by (optional)
+   * @return ResponseEntity containing a paginated response of partial products
+   */
+  @GetMapping(params = "fields")
+  @Operation(
+    summary = "Get selected fields of all products",
+    description = "Retrieves a paginated list of all products with only the requested fields"
+  )
+  @ApiResponses(
+    value = {
+      @ApiResponse(
+        responseCode = "200",
+        description = "Successfully retrieved products",
+        content =
+            @Content(
+              schema =
+                  @Schema(
+                    implementation = PaginatedResponse.class,
+                    example =
+                        "{ \"items\": [{ \"id\": 1, \"sku\": \"LAP-001\", \"price\": 999.99, \"quantity\": 10 }], \"currentPage\": 0, \"totalPages\": 1, \"totalItems\": 1, \"itemsPerPage\": 10 }"
+                  )
+            )
+      ),
+      @ApiResponse(responseCode = "400", description = "Unknown field requested"),
+      @ApiResponse(responseCode = "500", description = "Internal server error")
+    }
+  )
+  public ResponseEntity<PaginatedResponse<Map<String, Object>>> getAllProductFields(
+      @Parameter(description = "Comma-separated product fields", example = "id,sku,price,quantity")
+          @RequestParam
+          List<String> fields,
+      @Parameter(description = "Page number (0-based)", example = "0")
+          @RequestParam(defaultValue = "0")
+          int page,
+      @Parameter(description = "Number of items per page", example = "10")
+          @RequestParam(defaultValue = "10")
+          int size,
+      @Parameter(description = "Sort field", example = "name") @RequestParam(defaultValue = "name")
+          String sortBy,
+      @Parameter(description = "Sort direction", example = "asc")
+          @RequestParam(defaultValue = "asc")
+          String direction,
+      @Parameter(description = "Category ID", example = "1") @RequestParam(required = false)
+          Long categoryId) {
+
+    logger.info(
+        "Get fields {} of all products - Page: {}, Size: {}, Sort By: {}, Direction: {},"
+            + " Category: {}",
+        fields,
+        page,
+        size,
+        sortBy,
+        direction,
+        categoryId);
+
+    Sort.Direction sortDirection = Sort.Direction.fromString(direction.toLowerCase());
+    PageRequest pageRequest = PageRequest.of(page, size, Sort.by(sortDirection, sortBy));
+
+    Page<Map<String, Object>> productsPage =
+        categoryId == null
+            ? productService.getAllProductFields(fields, pageRequest, sortBy)
+            : productService.searchProductFieldsByCriteria(
+                fields, null, null, null, null, null, categoryId, pageRequest);
+    logger.info("Successfully retrieved {} products", productsPage.getTotalElements());
+    return ResponseEntity.ok(toPaginatedResponse(productsPage));
+  }
+
+  /**
+   * Searches products by multiple optional criteria.
+   *
+   * @param name product name fragment (optional)
+   * @param minPrice minimum price (optional)
+   * @param maxPrice maximum price (optional)
+   * @param minQuantity minimum quantity (optional)
+   * @param maxQuantity maximum quantity (optional)
+   * @param categoryId category ID (optional)
+   * @param page the page number (0-based)
+   * @param size the number of items per page
+   * @param sortBy the field to sort by
+   * @param direction the direction of sorting (asc or desc)
+   * @param facets the facets to compute over all matching products (optional)
+   * @return ResponseEntity containing a paginated response of matching products
+   */
+  @GetMapping(value = "/search", params = "!fields")
+  @Operation(
+    summary = "Search products",
+    description =
+        "Searches products by name fragment, price range and quantity range, optionally with"
+            + " price, stock and category facets over all matches"
+  )
+  @ApiResponses(
+    value = {
+      @ApiResponse(responseCode = "200", description = "Successfully retrieved products"),
+      @ApiResponse(responseCode = "400", description = "Unknown facet requested"),
+      @ApiResponse(responseCode = "500", description = "Internal server error")
+    }
+  )
+  public ResponseEntity<PaginatedResponse<Product>> searchProducts(
+      @Parameter(description = "Product name fragment", example = "laptop")
+          @RequestParam(required = false)
+          String name,
+      @Parameter(description = "Minimum price", example = "100") @RequestParam(required = false)
+          BigDecimal minPrice,
+      @Parameter(description = "Maximum price", example = "1000") @RequestParam(required = false)
+          BigDecimal maxPrice,
+      @Parameter(description = "Minimum quantity", example = "1") @RequestParam(required = false)
+          Integer minQuantity,
+      @Parameter(description = "Maximum quantity", example = "50") @RequestParam(required = false)
+          Integer maxQuantity,
+      @Parameter(description = "Category ID", example = "1") @RequestParam(required = false)
+          Long categoryId,
+      @Parameter(description = "Page number (0-based)", example = "0")
+          @RequestParam(defaultValue = "0")
+          int page,
+      @Parameter(description = "Number of items per page", example = "10")
+          @RequestParam(defaultValue = "10")
+          int size,
+      @Parameter(description = "Sort field", example = "name") @RequestParam(defaultValue = "name")
+          String sortBy,
+      @Parameter(description = "Sort direction", example = "asc")
+          @RequestParam(defaultValue = "asc")
+          String direction,
+      @Parameter(description = "Comma-separated facets to add", example = "price,stock,category")
+          @RequestParam(required = false)
+          List<String> facets) {
+    logger.info(
+        "Search products - name: {}, price: {}-{}, quantity: {}-{}, category: {}",
+        name,
+        minPrice,
+        maxPrice,
+        minQuantity,
+        maxQuantity,
+        categoryId);
+
+    Sort.Direction sortDirection = Sort.Direction.fromString(direction.toLowerCase());
+    PageRequest pageRequest = PageRequest.of(page, size, Sort.by(sortDirection, sortBy));
+
+    Page<Product> productsPage =
+        productService.searchProductsByCriteria(
+            name, minPrice, maxPrice, minQuantity, maxQuantity, categoryId, pageRequest);
+    PaginatedResponse<Product> response = toPaginatedResponse(productsPage);
+    if (facets != null) {
+      response.setFacets(
+          productService.getProductFacets(
+              facets, name, minPrice, maxPrice, minQuantity, maxQuantity, categoryId));
+    }
+    return ResponseEntity.ok(response);
+  }
+
+  /**
+   * Searches products by multiple optional criteria, returning only the requested fields.
+   *
+   * @param fields the product fields to return
+   * @param name product name fragment (optional)
+   * @param minPrice minimum price (optional)
+   * @param maxPrice maximum price (optional)
+   * @param minQuantity minimum quantity (optional)
+   * @param maxQuantity maximum quantity (optional)
+   * @param categoryId category ID (optional)
+   * @param page the page number (0-based)
+   * @param size the number of items per page
+   * @param sortBy the field to sort by
+   * @param direction the direction of sorting (asc or desc)
+   * @param facets the facets to compute over all matching products (optional)
+   * @return ResponseEntity containing a paginated response of partial products
+   */
+  @GetMapping(value = "/search", params = "fields")
+  @Operation(
+    summary = "Search selected fields of products",
+    description = "Searches products by criteria and returns only the requested fields"
+  )
+  @ApiResponses(
+    value = {
+      @ApiResponse(responseCode = "200", description = "Successfully retrieved products"),
+      @ApiResponse(responseCode = "400", description = "Unknown field or facet requested"),
+      @ApiResponse(responseCode = "500", description = "Internal server error")
+    }
+  )
+  public ResponseEntity<PaginatedResponse<Map<String, Object>>> searchProductFields(
+      @Parameter(description = "Comma-separated product fields", example = "id,sku,price,quantity")
+          @RequestParam
+          List<String> fields,
+      @Parameter(description = "Product name fragment", example = "laptop")
+          @RequestParam(required = false)
+          String name,
+      @Parameter(description = "Minimum price", example = "100") @RequestParam(required = false)
+          BigDecimal minPrice,
+      @Parameter(description = "Maximum price", example = "1000") @RequestParam(required = false)
+          BigDecimal maxPrice,
+      @Parameter(description = "Minimum quantity", example = "1") @RequestParam(required = false)
+          Integer minQuantity,
+      @Parameter(description = "Maximum quantity", example = "50") @RequestParam(required = false)
+          Integer maxQuantity,
+      @Parameter(description = "Category ID", example = "1") @RequestParam(required = false)
+          Long categoryId,
+      @Parameter(description = "Page number (0-based)", example = "0")
+          @RequestParam(defaultValue = "0")
+          int page,
+      @Parameter(description = "Number of items per page", example = "10")
+          @RequestParam(defaultValue = "10")
+          int size,
+      @Parameter(description = "Sort field", example = "name") @RequestParam(defaultValue = "name")
+          String sortBy,
+      @Parameter(description = "Sort direction", example = "asc")
+          @RequestParam(defaultValue = "asc")
+          String direction,
+      @Parameter(description = "Comma-separated facets to add", example = "price,stock,category")
+          @RequestParam(required = false)
+          List<String> facets) {
+    logger.info(
+        "Search fields {} of products - name: {}, price: {}-{}, quantity: {}-{}, category: {}",
+        fields,
+        name,
+        minPrice,
+        maxPrice,
+        minQuantity,
+        maxQuantity,
+        categoryId);
+
+    Sort.Direction sortDirection = Sort.Direction.fromString(direction.toLowerCase());
+    PageRequest pageRequest = PageRequest.of(page, size, Sort.by(sortDirection, sortBy));
+
+    Page<Map<String, Object>> productsPage =
+        productService.searchProductFieldsByCriteria(
+            fields, name, minPrice, maxPrice, minQuantity, maxQuantity, categoryId, pageRequest);
+    PaginatedResponse<Map<String, Object>> response = toPaginatedResponse(productsPage);
+    if (facets != null) {
+      response.setFacets(
+          productService.getProductFacets(
+              facets, name, minPrice, maxPrice, minQuantity, maxQuantity, categoryId));
+    }
     return ResponseEntity.ok(response);
   }
 
@@ -174,6 +425,68 @@ public class ProductController {
     return ResponseEntity.ok(product);
   }
 
+  /**
+   * Retrieves the requested fields of a specific product by its ID. Only the requested columns are
+   * selected from the database.
+   *
+   * @param id the ID of the product to retrieve
+   * @param fields the product fields to return
+   * @return ResponseEntity containing the partial product and HTTP status 200 (OK)
+   */
+  @GetMapping(value = "/{id}", params = "fields")
+  @Operation(
+    summary = "Get selected fields of a product by ID",
+    description = "Retrieves only the requested fields of a specific product"
+  )
+  @ApiResponses(
+    value = {
+      @ApiResponse(responseCode = "200", description = "Successfully retrieved product"),
+      @ApiResponse(responseCode = "400", description = "Unknown field requested"),
+      @ApiResponse(
+        responseCode = "404",
+        description = "Product not found",
+        content =
+            @Content(schema = @Schema(example = "{ \"error\": \"Product not found with id: 1\" }"))
+      ),
+      @ApiResponse(responseCode = "500", description = "Internal server error")
+    }
+  )
+  public ResponseEntity<Map<String, Object>> getProductFieldsById(
+      @PathVariable Long id,
+      @Parameter(description = "Comma-separated product fields", example = "id,sku,price,quantity")
+          @RequestParam
+          List<String> fields) {
+    logger.info("Retrieving fields {} of product by ID: {}", fields, id);
+    Map<String, Object> product = productService.getProductFieldsById(id, fields);
+    return ResponseEntity.ok(product);
+  }
+
+  /**
+   * Retrieves several products by their IDs in a single request.
+   *
+   * @param ids the IDs of the products to retrieve
+   * @return ResponseEntity containing the products found, in the order of the requested IDs
+   */
+  @GetMapping("/batch")
+  @Operation(
+    summary = "Get products by IDs",
+    description = "Retrieves several products by their IDs; IDs that do not exist are skipped"
+  )
+  @ApiResponses(
+    value = {
+      @ApiResponse(responseCode = "200", description = "Successfully retrieved products"),
+      @ApiResponse(responseCode = "400", description = "No IDs or too many IDs requested"),
+      @ApiResponse(responseCode = "500", description = "Internal server error")
+    }
+  )
+  public ResponseEntity<List<Product>> getProductsByIds(
+      @Parameter(description = "Comma-separated product IDs", example = "1,2,3") @RequestParam
+          List<Long> ids) {
+    logger.info("Retrieving products by IDs: {}", ids);
+    List<Product> products = productService.getProductsByIds(ids);
+    return ResponseEntity.ok(products);
+  }
+
   /**
    * Updates an existing product with the provided details.
    *
@@ -235,6 +548,129 @@ public class ProductController {
     return ResponseEntity.ok(updatedProduct);
   }
 
+  /**
+   * Adds stock to or removes stock from a product.
+   *
+   * @param id the ID of the product
+   * @param adjustment the number of units to add or remove
+   * @return ResponseEntity containing the updated product and HTTP status 200 (OK)
+   */
+  @PostMapping("/{id}/stock")
+  @Operation(
+    summary = "Adjust stock",
+    description = "Adds or removes units of stock; concurrent adjustments are applied in turn"
+  )
+  @ApiResponses(
+    value = {
+      @ApiResponse(
+        responseCode = "200",
+        description = "Stock adjusted successfully",
+        content = @Content(schema = @Schema(implementation = Product.class))
+      ),
+      @ApiResponse(responseCode = "400", description = "Invalid input"),
+      @ApiResponse(
+        responseCode = "404",
+        description = "Product not found",
+        content =
+            @Content(schema = @Schema(example = "{ \"error\": \"Product not found with id: 1\" }"))
+      ),
+      @ApiResponse(
+        responseCode = "422",
+        description = "Stock would become negative",
+        content =
+            @Content(
+              schema =
+                  @Schema(example = "{ \"error\": \"Insufficient stock: 2 units available.\" }")
+            )
+      ),
+      @ApiResponse(responseCode = "500", description = "Internal server error")
+    }
+  )
+  public ResponseEntity<Product> adjustStock(
+      @Parameter(description = "Product ID", example = "1") @PathVariable Long id,
+      @Valid @RequestBody StockAdjustmentDTO adjustment) {
+    logger.info("Adjusting stock of product with ID {} by {}", id, adjustment.getDelta());
+    Product updatedProduct = productService.adjustStock(id, adjustment.getDelta());
+    return ResponseEntity.ok(updatedProduct);
+  }
+
+  /**
+   * Deletes several products by their IDs in a single statement.
+   *
+   * @param ids the IDs of the products to delete
+   * @return ResponseEntity containing the number of products deleted
+   */
+  @DeleteMapping("/batch")
+  @Operation(
+    summary = "Delete products by IDs",
+    description = "Deletes several products by their IDs; IDs that do not exist are skipped"
+  )
+  @ApiResponses(
+    value = {
+      @ApiResponse(responseCode = "200", description = "Products deleted"),
+      @ApiResponse(responseCode = "400", description = "No IDs or too many IDs given"),
+      @ApiResponse(responseCode = "500", description = "Internal server error")
+    }
+  )
+  public ResponseEntity<BulkDeleteResponse> deleteProductsByIds(
+      @Parameter(description = "Comma-separated product IDs", example = "1,2,3") @RequestParam
+          List<Long> ids) {
+    logger.info("Deleting products by IDs: {}", ids);
+    int deleted = productService.deleteProducts(ids);
+    return ResponseEntity.ok(new BulkDeleteResponse(deleted));
+  }
+
+  /**
+   * Deletes every product matching the criteria in a single statement.
+   *
+   * @param name product name fragment (optional)
+   * @param minPrice minimum price (optional)
+   * @param maxPrice maximum price (optional)
+   * @param minQuantity minimum quantity (optional)
+   * @param maxQuantity maximum quantity (optional)
+   * @param categoryId category ID (optional)
+   * @return ResponseEntity containing the number of products deleted
+   */
+  @DeleteMapping("/search")
+  @Operation(
+    summary = "Delete products by criteria",
+    description = "Deletes every product matching the search criteria; at least one is required"
+  )
+  @ApiResponses(
+    value = {
+      @ApiResponse(responseCode = "200", description = "Products deleted"),
+      @ApiResponse(responseCode = "400", description = "No criterion given"),
+      @ApiResponse(responseCode = "500", description = "Internal server error")
+    }
+  )
+  public ResponseEntity<BulkDeleteResponse> deleteProductsByCriteria(
+      @Parameter(description = "Product name fragment", example = "laptop")
+          @RequestParam(required = false)
+          String name,
+      @Parameter(description = "Minimum price", example = "100") @RequestParam(required = false)
+          BigDecimal minPrice,
+      @Parameter(description = "Maximum price", example = "1000") @RequestParam(required = false)
+          BigDecimal maxPrice,
+      @Parameter(description = "Minimum quantity", example = "1") @RequestParam(required = false)
+          Integer minQuantity,
+      @Parameter(description = "Maximum quantity", example = "50") @RequestParam(required = false)
+          Integer maxQuantity,
+      @Parameter(description = "Category ID", example = "1") @RequestParam(required = false)
+          Long categoryId) {
+    logger.info(
+        "Delete products - name: {}, price: {}-{}, quantity: {}-{}, category: {}",
+        name,
+        minPrice,
+        maxPrice,
+        minQuantity,
+        maxQuantity,
+        categoryId);
+    int deleted =
+        productService.deleteProductsByCriteria(
+            name, minPrice, maxPrice, minQuantity, maxQuantity, categoryId);
+    return ResponseEntity.ok(new BulkDeleteResponse(deleted));
+  }
+
   /**
    * Deletes a product by its ID.
    *
@@ -262,4 +698,13 @@ public class ProductController {
     logger.info("Product deleted successfully with ID: {}", id);
     return ResponseEntity.noContent().build(); // Returns 204 No Content
   }
+
+  private static <T> PaginatedResponse<T> toPaginatedResponse(Page<T> page) {
+    return new PaginatedResponse<>(
+        page.getContent(),
+        page.getNumber(),
+        page.getTotalPages(),
+        page.getTotalElements(),
+        page.getSize());
+  }
 }
@@ -0,0 +1,95 @@
+package com.example.productinventory.controller;
+
+import com.example.productinventory.dto.PaginatedResponse;
+import com.example.productinventory.model.Product;
+import com.example.productinventory.search.IndexRebuildResult;
+import com.example.productinventory.service.ProductSearchService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * ProductSearchController serves relevance-ranked full-text search over product names, descriptions
+ * and SKUs, and allows the index to be rebuilt from the database.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/api/v1/products/fulltext")
+@ConditionalOnExpression("${product.search.enabled:true} and !${product.sharding.enabled:false}")
+@Tag(name = "Product Search Controller", description = "APIs for full-text product search")
+public class ProductSearchController {
+
+  private final ProductSearchService productSearchService;
+
+  @Autowired
+  public ProductSearchController(ProductSearchService productSearchService) {
+    this.productSearchService = productSearchService;
+  }
+
+  /**
+   * Searches products by full text, most relevant first.
+   *
+   * @param q the search text
+   * @param page the page number (0-based)
+   * @param size the number of items per page
+   * @return ResponseEntity containing a paginated response of matching products
+   */
+  @GetMapping
+  @Operation(
+    summary = "Full-text search",
+    description =
+        "Searches product names, descriptions and SKUs for every word of the text and returns"
+            + " the matches ranked by relevance"
+  )
+  @ApiResponses(
+    value = {
+      @ApiResponse(responseCode = "200", description = "Successfully retrieved products"),
+      @ApiResponse(responseCode = "400", description = "Empty search text or invalid page"),
+      @ApiResponse(responseCode = "500", description = "Internal server error")
+    }
+  )
+  public ResponseEntity<PaginatedResponse<Product>> search(
+      @Parameter(description = "Search text", example = "gaming laptop") @RequestParam String q,
+      @Parameter(description = "Page number (0-based)", example = "0")
+          @RequestParam(defaultValue = "0")
+          int page,
+      @Parameter(description = "Number of items per page", example = "10")
+          @RequestParam(defaultValue = "10")
+          int size) {
+    Page<Product> results = productSearchService.search(q, PageRequest.of(page, size));
+    return ResponseEntity.ok(
+        new PaginatedResponse<>(
+            results.getContent(),
+            results.getNumber(),
+            results.getTotalPages(),
+            results.getTotalElements(),
+            results.getSize()));
+  }
+
+  /**
+   * Rebuilds the full-text index from the database.
+   *
+   * @return ResponseEntity containing the number of products indexed
+   */
+  @PostMapping("/rebuild")
+  @Operation(
+    summary = "Rebuild full-text index",
+    description = "Reindexes every product from the database and commits the index to disk"
+  )
+  public ResponseEntity<IndexRebuildResult> rebuild() {
+    return ResponseEntity.ok(productSearchService.rebuildIndex());
+  }
+}
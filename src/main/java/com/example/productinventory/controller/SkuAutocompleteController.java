@@ -0,0 +1,91 @@
+package com.example.productinventory.controller;
+
+import com.example.productinventory.autocomplete.AutocompleteStats;
+import com.example.productinventory.autocomplete.SkuAutocomplete;
+import com.example.productinventory.autocomplete.SkuSuggestion;
+import com.example.productinventory.exception.ProductBadRequestException;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * SkuAutocompleteController completes SKU prefixes for scanners and admin UIs from the in-memory
+ * {@link SkuAutocomplete}, without querying the database.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/api/v1/products/autocomplete")
+@ConditionalOnExpression(
+    "${product.autocomplete.enabled:true} and !${product.sharding.enabled:false}")
+@Tag(name = "SKU Autocomplete Controller", description = "APIs for SKU prefix completion")
+public class SkuAutocompleteController {
+
+  private final SkuAutocomplete skuAutocomplete;
+  private final int maxLimit;
+
+  @Autowired
+  public SkuAutocompleteController(
+      SkuAutocomplete skuAutocomplete,
+      @Value("${product.autocomplete.max-limit:50}") int maxLimit) {
+    this.skuAutocomplete = skuAutocomplete;
+    this.maxLimit = maxLimit;
+  }
+
+  /**
+   * Returns the SKUs starting with a prefix.
+   *
+   * @param prefix the typed SKU prefix
+   * @param limit the largest number of suggestions
+   * @return ResponseEntity containing the suggestions in SKU order
+   */
+  @GetMapping
+  @Operation(
+    summary = "Complete a SKU prefix",
+    description = "Returns the first SKUs, in SKU order, that start with the prefix"
+  )
+  @ApiResponses(
+    value = {
+      @ApiResponse(responseCode = "200", description = "Successfully completed the prefix"),
+      @ApiResponse(responseCode = "400", description = "Empty prefix or invalid limit")
+    }
+  )
+  public ResponseEntity<List<SkuSuggestion>> complete(
+      @Parameter(description = "SKU prefix", example = "LAP-0") @RequestParam String prefix,
+      @Parameter(description = "Maximum number of suggestions", example = "10")
+          @RequestParam(defaultValue = "10")
+          int limit) {
+    if (prefix.isEmpty()) {
+      throw new ProductBadRequestException("Prefix must not be empty.");
+    }
+    if (limit <= 0 || limit > maxLimit) {
+      throw new ProductBadRequestException("Limit must be between 1 and " + maxLimit + ".");
+    }
+    return ResponseEntity.ok(skuAutocomplete.complete(prefix, limit));
+  }
+
+  /**
+   * Returns the size of the autocomplete structure.
+   *
+   * @return ResponseEntity containing the entry count and memory use
+   */
+  @GetMapping("/stats")
+  @Operation(
+    summary = "Get autocomplete statistics",
+    description = "Returns the number of SKUs, the transducer size and pending changes"
+  )
+  public ResponseEntity<AutocompleteStats> getStats() {
+    return ResponseEntity.ok(skuAutocomplete.getStats());
+  }
+}
@@ -0,0 +1,10 @@
+package com.example.productinventory.datasource;
+
+/** The physical data sources a {@link ReadWriteRoutingDataSource} routes between. */
+public enum DataSourceRole {
+  /** The primary database, which takes all writes. */
+  PRIMARY,
+
+  /** The read replica, used for read-only transactions while it is fresh enough. */
+  REPLICA
+}
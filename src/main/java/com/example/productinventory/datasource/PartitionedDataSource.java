@@ -0,0 +1,67 @@
+package com.example.productinventory.datasource;
+
+import java.util.HashMap;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * Splits the database connections into separate pools by the kind of work using them, so that one
+ * kind of request cannot take every connection. The current thread selects its partition with
+ * {@link #use}; connections requested outside any partition, or for a partition without a pool,
+ * come from the default pool.
+ */
+public class PartitionedDataSource extends AbstractRoutingDataSource {
+
+  private static final ThreadLocal<String> PARTITION = new ThreadLocal<>();
+
+  /**
+   * Constructs a PartitionedDataSource.
+   *
+   * @param partitions the pool of each partition
+   * @param defaultPool the pool for work outside any partition
+   */
+  public PartitionedDataSource(Map<String, DataSource> partitions, DataSource defaultPool) {
+    setTargetDataSources(new HashMap<>(partitions));
+    setDefaultTargetDataSource(defaultPool);
+    afterPropertiesSet();
+  }
+
+  /**
+   * Takes the connections of the current thread from a partition until the returned scope is
+   * closed. Scopes may be nested.
+   *
+   * @param partition the partition name
+   * @return the scope to close once the work is done
+   */
+  public static Scope use(String partition) {
+    String previous = PARTITION.get();
+    PARTITION.set(partition);
+    return () -> {
+      if (previous == null) {
+        PARTITION.remove();
+      } else {
+        PARTITION.set(previous);
+      }
+    };
+  }
+
+  /**
+   * Returns the partition of the current thread.
+   *
+   * @return the partition name, or {@code null} for the default pool
+   */
+  @Override
+  protected String determineCurrentLookupKey() {
+    return PARTITION.get();
+  }
+
+  /** A scope in which the current thread's connections come from one partition. */
+  @FunctionalInterface
+  public interface Scope extends AutoCloseable {
+
+    /** Ends the scope, restoring the previous partition of the current thread. */
+    @Override
+    void close();
+  }
+}
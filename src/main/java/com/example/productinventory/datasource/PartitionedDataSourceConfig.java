@@ -0,0 +1,96 @@
+package com.example.productinventory.datasource;
+
+import com.example.productinventory.limit.EndpointClass;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+/**
+ * Replaces the single application data source with one connection pool per {@link EndpointClass}
+ * plus a default pool for everything else (migrations, scheduled jobs and the other APIs). The
+ * bulkhead filter selects the pool of each product API request, so a burst of searches can exhaust
+ * only the search pool. Enabled by {@code product.bulkhead.connection-pools.enabled} unless
+ * read/write routing is enabled, which brings its own pools.
+ */
+@Configuration
+@ConditionalOnExpression(
+    "${product.bulkhead.connection-pools.enabled:true} and !${product.datasource.routing.enabled:false}")
+public class PartitionedDataSourceConfig implements DisposableBean {
+
+  private final List<HikariDataSource> pools = new ArrayList<>();
+
+  /**
+   * The application data source, routing each connection to the pool of the current request's
+   * endpoint class. Every pool connects to the {@code spring.datasource.*} database and publishes
+   * the usual {@code hikaricp.connections.*} metrics tagged with its pool name, whose {@code
+   * pending} count shows a saturated partition.
+   *
+   * @param properties the data source properties
+   * @param readPoolSize the maximum number of connections for lookups and listings
+   * @param searchPoolSize the maximum number of connections for searches
+   * @param writePoolSize the maximum number of connections for writes
+   * @param defaultPoolSize the maximum number of connections for work outside the product API
+   * @param connectionTimeoutMs the longest a request waits for a connection from its pool
+   * @param meterRegistry the registry for the pool metrics, if metrics are available
+   * @return the partitioned data source
+   */
+  @Bean
+  @Primary
+  public DataSource dataSource(
+      DataSourceProperties properties,
+      @Value("${product.bulkhead.read.pool-size:4}") int readPoolSize,
+      @Value("${product.bulkhead.search.pool-size:3}") int searchPoolSize,
+      @Value("${product.bulkhead.write.pool-size:3}") int writePoolSize,
+      @Value("${product.bulkhead.default.pool-size:4}") int defaultPoolSize,
+      @Value("${product.bulkhead.connection-timeout-ms:1000}") long connectionTimeoutMs,
+      ObjectProvider<MeterRegistry> meterRegistry) {
+    Map<String, Integer> sizes = new LinkedHashMap<>();
+    sizes.put(EndpointClass.READ, readPoolSize);
+    sizes.put(EndpointClass.SEARCH, searchPoolSize);
+    sizes.put(EndpointClass.WRITE, writePoolSize);
+    Map<String, DataSource> partitions = new LinkedHashMap<>();
+    sizes.forEach(
+        (endpointClass, size) -> {
+          HikariDataSource pool =
+              pool(properties, "bulkhead-" + endpointClass, size, meterRegistry);
+          pool.setConnectionTimeout(connectionTimeoutMs);
+          partitions.put(endpointClass, pool);
+        });
+    HikariDataSource defaultPool = pool(properties, "default", defaultPoolSize, meterRegistry);
+    return new PartitionedDataSource(partitions, defaultPool);
+  }
+
+  private HikariDataSource pool(
+      DataSourceProperties properties,
+      String name,
+      int size,
+      ObjectProvider<MeterRegistry> meterRegistry) {
+    HikariDataSource pool =
+        properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    pool.setPoolName(name);
+    pool.setMaximumPoolSize(size);
+    meterRegistry.ifAvailable(
+        registry -> pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+    pools.add(pool);
+    return pool;
+  }
+
+  /** Closes all connection pools. */
+  @Override
+  public void destroy() {
+    pools.forEach(HikariDataSource::close);
+  }
+}
@@ -0,0 +1,94 @@
+package com.example.productinventory.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Clock;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Lets clients read their own writes while the replica may still lag behind them. Every request
+ * other than {@code GET}, {@code HEAD} and {@code OPTIONS} sets a cookie with the time of the
+ * write, and the reads of later requests carrying that cookie are routed to the primary until the
+ * pin window has passed. Requests carrying {@code X-Read-Consistency: strong} always have their
+ * reads routed to the primary.
+ */
+public class ReadConsistencyFilter extends OncePerRequestFilter {
+
+  /** The request header selecting the read consistency. */
+  public static final String HEADER = "X-Read-Consistency";
+
+  /** The header value that routes reads to the primary. */
+  public static final String STRONG = "strong";
+
+  /** The cookie holding the time of the client's last write, in milliseconds since the epoch. */
+  public static final String LAST_WRITE_COOKIE = "last-write";
+
+  private final long pinMs;
+  private final Clock clock;
+
+  /**
+   * Constructs a ReadConsistencyFilter.
+   *
+   * @param pinMs how long after a write the client's reads go to the primary
+   * @param clock the clock the write times are taken from
+   */
+  public ReadConsistencyFilter(long pinMs, Clock clock) {
+    this.pinMs = pinMs;
+    this.clock = clock;
+  }
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    long now = clock.millis();
+    boolean pinned =
+        STRONG.equalsIgnoreCase(request.getHeader(HEADER)) || wroteWithin(request, now);
+    if (isWrite(request)) {
+      Cookie cookie = new Cookie(LAST_WRITE_COOKIE, Long.toString(now));
+      cookie.setPath("/");
+      cookie.setHttpOnly(true);
+      cookie.setMaxAge((int) Math.max(1, (pinMs + 999) / 1000));
+      response.addCookie(cookie);
+    }
+    if (!pinned) {
+      filterChain.doFilter(request, response);
+      return;
+    }
+    try (ReadWriteRoutingDataSource.PrimaryReads ignored =
+        ReadWriteRoutingDataSource.primaryReads()) {
+      filterChain.doFilter(request, response);
+    }
+  }
+
+  private static boolean isWrite(HttpServletRequest request) {
+    String method = request.getMethod();
+    return !"GET".equals(method) && !"HEAD".equals(method) && !"OPTIONS".equals(method);
+  }
+
+  /**
+   * Returns whether the request carries a last-write time within the pin window. Times in the
+   * future are ignored, so a client cannot pin itself to the primary indefinitely.
+   */
+  private boolean wroteWithin(HttpServletRequest request, long now) {
+    Cookie[] cookies = request.getCookies();
+    if (cookies == null) {
+      return false;
+    }
+    for (Cookie cookie : cookies) {
+      if (LAST_WRITE_COOKIE.equals(cookie.getName())) {
+        try {
+          long elapsed = now - Long.parseLong(cookie.getValue());
+          return elapsed >= 0 && elapsed < pinMs;
+        } catch (NumberFormatException e) {
+          return false;
+        }
+      }
+    }
+    return false;
+  }
+}
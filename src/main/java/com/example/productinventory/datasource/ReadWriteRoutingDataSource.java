@@ -0,0 +1,82 @@
+package com.example.productinventory.datasource;
+
+import java.util.Map;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Routes connections of read-only transactions to the replica and everything else to the primary. A
+ * read goes to the primary instead when the {@link ReplicaLagMonitor} reports the replica as too
+ * far behind, or when the caller asked for read-your-own-writes consistency with {@link
+ * #primaryReads}.
+ *
+ * <p>The routing decision depends on the transaction's read-only flag, which is only known after
+ * the transaction has begun, so this data source must sit behind a {@code
+ * LazyConnectionDataSourceProxy} that defers fetching the connection until the first statement.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+  private static final ThreadLocal<Boolean> PRIMARY_READS = new ThreadLocal<>();
+
+  private final ReplicaLagMonitor replicaLagMonitor;
+
+  /**
+   * Constructs a ReadWriteRoutingDataSource.
+   *
+   * @param primary the primary data source
+   * @param replica the replica data source
+   * @param replicaLagMonitor decides whether the replica is fresh enough to serve reads
+   */
+  public ReadWriteRoutingDataSource(
+      DataSource primary, DataSource replica, ReplicaLagMonitor replicaLagMonitor) {
+    this.replicaLagMonitor = replicaLagMonitor;
+    setTargetDataSources(
+        Map.<Object, Object>of(DataSourceRole.PRIMARY, primary, DataSourceRole.REPLICA, replica));
+    setDefaultTargetDataSource(primary);
+    afterPropertiesSet();
+  }
+
+  /**
+   * Routes all reads on the current thread to the primary until the returned scope is closed, so
+   * that they see writes that may not have reached the replica yet. Scopes may be nested.
+   *
+   * @return the scope to close once primary reads are no longer required
+   */
+  public static PrimaryReads primaryReads() {
+    Boolean previous = PRIMARY_READS.get();
+    PRIMARY_READS.set(Boolean.TRUE);
+    return () -> {
+      if (previous == null) {
+        PRIMARY_READS.remove();
+      } else {
+        PRIMARY_READS.set(previous);
+      }
+    };
+  }
+
+  /**
+   * Returns the data source the current thread would be routed to.
+   *
+   * @return {@link DataSourceRole#REPLICA} for read-only transactions on a fresh replica, {@link
+   *     DataSourceRole#PRIMARY} otherwise
+   */
+  @Override
+  protected DataSourceRole determineCurrentLookupKey() {
+    if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+        && !Boolean.TRUE.equals(PRIMARY_READS.get())
+        && replicaLagMonitor.isReplicaUsable()) {
+      return DataSourceRole.REPLICA;
+    }
+    return DataSourceRole.PRIMARY;
+  }
+
+  /** A scope in which reads on the current thread go to the primary. */
+  @FunctionalInterface
+  public interface PrimaryReads extends AutoCloseable {
+
+    /** Ends the scope, restoring the previous routing for the current thread. */
+    @Override
+    void close();
+  }
+}
@@ -0,0 +1,100 @@
+package com.example.productinventory.datasource;
+
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Measures how far the replica is behind the primary with a heartbeat row. Each check stamps the
+ * current time into {@code replica_heartbeat} on the primary and reads the row back from the
+ * replica; the difference between now and the replicated stamp is the replication lag.
+ *
+ * <p>The replica counts as usable only while the last check succeeded recently and the measured lag
+ * is within the configured maximum. A failing or stalled check therefore moves reads back to the
+ * primary rather than serving arbitrarily stale data.
+ */
+public class ReplicaLagMonitor {
+
+  private static final Logger logger = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+  /** Reported lag when the replica could not be checked. */
+  public static final long UNKNOWN_LAG = Long.MAX_VALUE;
+
+  private final JdbcTemplate primary;
+  private final JdbcTemplate replica;
+  private final long maxLagMs;
+  private final long heartbeatIntervalMs;
+
+  private volatile long lagMs = UNKNOWN_LAG;
+  private volatile long lastCheckMillis;
+  private volatile boolean usable;
+  private volatile boolean failing;
+
+  /**
+   * Constructs a ReplicaLagMonitor.
+   *
+   * @param primary the primary data source
+   * @param replica the replica data source
+   * @param maxLagMs the largest lag at which the replica still serves reads
+   * @param heartbeatIntervalMs the interval between checks
+   */
+  public ReplicaLagMonitor(
+      DataSource primary, DataSource replica, long maxLagMs, long heartbeatIntervalMs) {
+    this.primary = new JdbcTemplate(primary);
+    this.replica = new JdbcTemplate(replica);
+    this.maxLagMs = maxLagMs;
+    this.heartbeatIntervalMs = heartbeatIntervalMs;
+  }
+
+  /** Writes a heartbeat to the primary and measures how far the replica trails it. */
+  @Scheduled(fixedDelayString = "${product.datasource.replica.heartbeat-interval-ms:500}")
+  public void check() {
+    try {
+      primary.update(
+          "UPDATE replica_heartbeat SET beat = ? WHERE id = 1", System.currentTimeMillis());
+      Long replicated =
+          replica.queryForObject("SELECT beat FROM replica_heartbeat WHERE id = 1", Long.class);
+      long now = System.currentTimeMillis();
+      lagMs = replicated == null ? UNKNOWN_LAG : Math.max(0, now - replicated);
+      lastCheckMillis = now;
+      failing = false;
+    } catch (DataAccessException e) {
+      if (!failing) {
+        logger.warn("Replica lag check failed: {}", e.getMessage());
+      }
+      failing = true;
+      lagMs = UNKNOWN_LAG;
+    }
+    boolean nowUsable = lagMs <= maxLagMs;
+    if (nowUsable != usable) {
+      logger.info(
+          "Replica {} for reads (lag {} ms, max {} ms)",
+          nowUsable ? "enabled" : "disabled",
+          lagMs == UNKNOWN_LAG ? "unknown" : lagMs,
+          maxLagMs);
+    }
+    usable = nowUsable;
+  }
+
+  /**
+   * Returns whether the replica may serve reads: the last check must be recent and within the
+   * maximum lag.
+   *
+   * @return true if read-only transactions may use the replica
+   */
+  public boolean isReplicaUsable() {
+    return usable && System.currentTimeMillis() - lastCheckMillis <= 3 * heartbeatIntervalMs;
+  }
+
+  /**
+   * Returns the lag measured by the last check.
+   *
+   * @return the lag in milliseconds, or {@link #UNKNOWN_LAG} if the replica could not be checked
+   */
+  public long getLagMs() {
+    return lagMs;
+  }
+}
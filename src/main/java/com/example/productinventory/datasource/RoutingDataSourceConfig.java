@@ -0,0 +1,132 @@
+package com.example.productinventory.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Clock;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Replaces the single application data source with one that sends read-only transactions to a
+ * replica pool and all other work to the primary pool. Enabled by {@code
+ * product.datasource.routing.enabled}; the primary is configured by the usual {@code
+ * spring.datasource.*} properties and the replica by {@code product.datasource.replica.*}.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "product.datasource.routing.enabled", havingValue = "true")
+public class RoutingDataSourceConfig implements DisposableBean {
+
+  private final HikariDataSource primaryPool;
+  private final HikariDataSource replicaPool;
+
+  /**
+   * Creates the primary and replica connection pools.
+   *
+   * @param properties the primary data source properties
+   * @param replicaUrl the replica JDBC URL
+   * @param replicaUsername the replica user name
+   * @param replicaPassword the replica password
+   * @param replicaPoolSize the maximum number of replica connections
+   */
+  public RoutingDataSourceConfig(
+      DataSourceProperties properties,
+      @Value("${product.datasource.replica.url}") String replicaUrl,
+      @Value("${product.datasource.replica.username:}") String replicaUsername,
+      @Value("${product.datasource.replica.password:}") String replicaPassword,
+      @Value("${product.datasource.replica.maximum-pool-size:10}") int replicaPoolSize) {
+    this.primaryPool =
+        properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    this.primaryPool.setPoolName("primary");
+    this.replicaPool =
+        DataSourceBuilder.create()
+            .type(HikariDataSource.class)
+            .url(replicaUrl)
+            .username(replicaUsername)
+            .password(replicaPassword)
+            .build();
+    this.replicaPool.setPoolName("replica");
+    this.replicaPool.setMaximumPoolSize(replicaPoolSize);
+    this.replicaPool.setReadOnly(true);
+  }
+
+  /**
+   * Creates the replica lag monitor and publishes its measurements as metrics.
+   *
+   * @param maxLagMs the largest lag at which the replica still serves reads
+   * @param heartbeatIntervalMs the interval between lag checks
+   * @param meterRegistry the registry for the lag gauges, if metrics are available
+   * @return the replica lag monitor
+   */
+  @Bean
+  public ReplicaLagMonitor replicaLagMonitor(
+      @Value("${product.datasource.replica.max-lag-ms:1000}") long maxLagMs,
+      @Value("${product.datasource.replica.heartbeat-interval-ms:500}") long heartbeatIntervalMs,
+      ObjectProvider<MeterRegistry> meterRegistry) {
+    ReplicaLagMonitor monitor =
+        new ReplicaLagMonitor(primaryPool, replicaPool, maxLagMs, heartbeatIntervalMs);
+    meterRegistry.ifAvailable(
+        registry -> {
+          Gauge.builder("product.datasource.replica.lag", monitor, ReplicaLagMonitor::getLagMs)
+              .baseUnit("milliseconds")
+              .description("Replication lag of the read replica; Long.MAX_VALUE when unknown")
+              .register(registry);
+          Gauge.builder(
+                  "product.datasource.replica.usable", monitor, m -> m.isReplicaUsable() ? 1 : 0)
+              .description("1 while read-only transactions are routed to the replica")
+              .register(registry);
+        });
+    return monitor;
+  }
+
+  /**
+   * The application data source: a lazy proxy over the read/write routing data source, so that the
+   * routing decision is made once the transaction's read-only flag is known.
+   *
+   * @param replicaLagMonitor decides whether the replica is fresh enough to serve reads
+   * @return the routing data source
+   */
+  @Bean
+  @Primary
+  public DataSource dataSource(ReplicaLagMonitor replicaLagMonitor) {
+    return new LazyConnectionDataSourceProxy(
+        new ReadWriteRoutingDataSource(primaryPool, replicaPool, replicaLagMonitor));
+  }
+
+  /**
+   * Registers the filter that routes the reads of a client to the primary shortly after its writes,
+   * and those of {@code X-Read-Consistency: strong} requests. A client stays pinned for the largest
+   * lag at which the replica still serves reads plus one heartbeat interval, the longest a replica
+   * reported as fresh can be behind.
+   *
+   * @param maxLagMs the largest lag at which the replica still serves reads
+   * @param heartbeatIntervalMs the interval between lag checks
+   * @return the filter registration
+   */
+  @Bean
+  public FilterRegistrationBean<ReadConsistencyFilter> readConsistencyFilter(
+      @Value("${product.datasource.replica.max-lag-ms:1000}") long maxLagMs,
+      @Value("${product.datasource.replica.heartbeat-interval-ms:500}") long heartbeatIntervalMs) {
+    return new FilterRegistrationBean<>(
+        new ReadConsistencyFilter(maxLagMs + heartbeatIntervalMs, Clock.systemUTC()));
+  }
+
+  /** Closes both connection pools. */
+  @Override
+  public void destroy() {
+    replicaPool.close();
+    primaryPool.close();
+  }
+}
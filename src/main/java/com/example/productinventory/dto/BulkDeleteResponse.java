@@ -0,0 +1,14 @@
+package com.example.productinventory.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Value;
+
+/** The outcome of deleting several products at once. */
+@Value
+@Schema(description = "Bulk delete result")
+public class BulkDeleteResponse {
+
+  /** The number of products deleted. */
+  @Schema(description = "The number of products deleted", example = "3")
+  int deleted;
+}
@@ -0,0 +1,33 @@
+package com.example.productinventory.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Data Transfer Object (DTO) for a category together with its product count. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Category with its product count")
+public class CategoryDTO {
+
+  /** The category ID. */
+  @Schema(description = "Category ID", example = "1")
+  private Long id;
+
+  /** The category name. */
+  @Schema(description = "Category name", example = "Laptops")
+  private String name;
+
+  /** The category description. */
+  @Schema(description = "Category description", example = "Portable computers")
+  private String description;
+
+  /**
+   * The number of products in the category, from the incrementally maintained counters. {@code
+   * null} when the counters are disabled.
+   */
+  @Schema(description = "Number of products in the category", example = "5")
+  private Long productCount;
+}
@@ -1,5 +1,7 @@
 package com.example.productinventory.dto;
 
+import com.example.productinventory.facet.ProductFacets;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import io.swagger.v3.oas.annotations.media.Schema;
 import java.util.List;
 
@@ -24,6 +26,10 @@ public class PaginatedResponse<T> {
   @Schema(description = "The number of items per page")
   private int itemsPerPage; // The number of items per page
 
+  @Schema(description = "Facet histograms over all matching items, when requested")
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  private ProductFacets facets; // The requested facets, or null
+
   /**
    * Constructs a PaginatedResponse with the specified parameters.
    *
@@ -88,6 +94,15 @@ public class PaginatedResponse<T> {
     return itemsPerPage;
   }
 
+  /**
+   * Returns the facet histograms over all matching items.
+   *
+   * @return the facets, or {@code null} if none were requested
+   */
+  public ProductFacets getFacets() {
+    return facets;
+  }
+
   // Setters
   /**
    * Sets the list of items in the current page.
@@ -133,4 +148,13 @@ public class PaginatedResponse<T> {
   public void setItemsPerPage(int itemsPerPage) {
     this.itemsPerPage = itemsPerPage;
   }
+
+  /**
+   * Sets the facet histograms over all matching items.
+   *
+   * @param facets the facets to set
+   */
+  public void setFacets(ProductFacets facets) {
+    this.facets = facets;
+  }
 }
@@ -42,7 +42,10 @@ public class ProductDTO {
   @Schema(description = "Product quantity in stock", example = "10", required = true)
   private Integer quantity;
 
-  /** The ID of the category to which the product belongs. This field is optional. */
+  /**
+   * The ID of the category to which the product belongs. This field is optional; if given, it must
+   * refer to an existing category.
+   */
   @Schema(description = "Category ID (optional)", example = "1")
   private Long categoryId;
 
@@ -0,0 +1,20 @@
+package com.example.productinventory.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+/** Data Transfer Object (DTO) for a relative change to the stock of a product. */
+@Data
+@Schema(description = "Stock adjustment data transfer object")
+public class StockAdjustmentDTO {
+
+  /** The number of units to add, or remove if negative. Required. */
+  @NotNull(message = "Stock delta is required.")
+  @Schema(
+    description = "Units to add (positive) or remove (negative)",
+    example = "-2",
+    required = true
+  )
+  private Integer delta;
+}
@@ -0,0 +1,62 @@
+package com.example.productinventory.event;
+
+import lombok.Value;
+import org.springframework.lang.Nullable;
+
+/**
+ * Published by the product service whenever a product is created, updated or deleted. Carries the
+ * state before and after the change: {@code before} is {@code null} for a creation and {@code
+ * after} is {@code null} for a deletion.
+ *
+ * <p>The event is published inside the writing transaction; listeners that maintain read models
+ * should use {@code @TransactionalEventListener} so that they only see committed changes.
+ */
+@Value
+public class ProductChangedEvent {
+
+  /** The product before the change, or {@code null} if it was created. */
+  @Nullable ProductState before;
+
+  /** The product after the change, or {@code null} if it was deleted. */
+  @Nullable ProductState after;
+
+  /**
+   * Creates the event for a new product.
+   *
+   * @param after the created product
+   * @return the event
+   */
+  public static ProductChangedEvent created(ProductState after) {
+    return new ProductChangedEvent(null, after);
+  }
+
+  /**
+   * Creates the event for a changed product.
+   *
+   * @param before the product before the change
+   * @param after the product after the change
+   * @return the event
+   */
+  public static ProductChangedEvent updated(ProductState before, ProductState after) {
+    return new ProductChangedEvent(before, after);
+  }
+
+  /**
+   * Creates the event for a deleted product.
+   *
+   * @param before the deleted product
+   * @return the event
+   */
+  public static ProductChangedEvent deleted(ProductState before) {
+    return new ProductChangedEvent(before, null);
+  }
+
+  /**
+   * Returns the ID of the changed product.
+   *
+   * @return the product ID
+   */
+  public Long getProductId() {
+    return after != null ? after.getId() : before.getId();
+  }
+}
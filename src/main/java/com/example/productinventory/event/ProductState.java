@@ -0,0 +1,56 @@
+package com.example.productinventory.event;
+
+import com.example.productinventory.model.Product;
+import java.math.BigDecimal;
+import lombok.Value;
+
+/**
+ * An immutable copy of the fields of a product that read models derive from. Taken from the managed
+ * entity at the time of a change, so that listeners running after the commit see exactly the values
+ * that were written.
+ */
+@Value
+public class ProductState {
+
+  /** The product ID. */
+  Long id;
+
+  /** The product SKU. */
+  String sku;
+
+  /** The product name. */
+  String name;
+
+  /** The product description. */
+  String description;
+
+  /** The unit price. */
+  BigDecimal price;
+
+  /** The quantity in stock. */
+  Integer quantity;
+
+  /** The category ID, or {@code null} if uncategorised. */
+  Long categoryId;
+
+  /** The optimistic locking version. */
+  Integer version;
+
+  /**
+   * Copies the state of a product.
+   *
+   * @param product the product to copy
+   * @return the product state
+   */
+  public static ProductState of(Product product) {
+    return new ProductState(
+        product.getId(),
+        product.getSku(),
+        product.getName(),
+        product.getDescription(),
+        product.getPrice(),
+        product.getQuantity(),
+        product.getCategoryId(),
+        product.getVersion());
+  }
+}
@@ -0,0 +1,23 @@
+package com.example.productinventory.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Exception thrown when product data cannot be read right now, for example because the circuit
+ * breaker in front of the database is open and no earlier copy of the product is available.
+ */
+public class ProductUnavailableException extends ProductException {
+
+  /**
+   * Constructs a ProductUnavailableException with the specified message.
+   *
+   * @param message the detail message explaining why the data is unavailable
+   */
+  public ProductUnavailableException(String message) {
+    super(
+        message,
+        HttpStatus.SERVICE_UNAVAILABLE,
+        "PRODUCT_UNAVAILABLE",
+        "Product data is temporarily unavailable; retry later");
+  }
+}
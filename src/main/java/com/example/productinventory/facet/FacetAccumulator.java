@@ -0,0 +1,135 @@
+package com.example.productinventory.facet;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sums the rows of a facet aggregation into {@link ProductFacets}. The aggregation returns one row
+ * per category, holding the number of matching products in each price band and each stock level;
+ * rows from several queries, such as one per shard, may be added. When the category counts are
+ * known without aggregating, the price and stock counts may instead be added as totals and the
+ * category counts separately.
+ */
+public class FacetAccumulator {
+
+  /** Index of the in-stock level in a row's stock counts. */
+  public static final int IN_STOCK = 0;
+
+  /** Index of the low-stock level in a row's stock counts. */
+  public static final int LOW_STOCK = 1;
+
+  /** Index of the out-of-stock level in a row's stock counts. */
+  public static final int OUT_OF_STOCK = 2;
+
+  private static final String[] STOCK_KEYS = {"in", "low", "out"};
+
+  private final BigDecimal[] priceBounds;
+  private final long[] priceCounts;
+  private final long[] stockCounts = new long[STOCK_KEYS.length];
+  private final Map<Long, Long> categoryCounts = new HashMap<>();
+  private long uncategorised;
+
+  /**
+   * Constructs a FacetAccumulator.
+   *
+   * @param priceBounds the ascending bounds between price bands
+   */
+  public FacetAccumulator(BigDecimal[] priceBounds) {
+    this.priceBounds = priceBounds;
+    this.priceCounts = new long[priceBounds.length + 1];
+  }
+
+  /**
+   * Adds one aggregation row.
+   *
+   * @param categoryId the category of the row, or {@code null} for uncategorised products
+   * @param priceCounts the number of products per price band
+   * @param stockCounts the number of products in stock, low on stock and out of stock
+   */
+  public void add(Long categoryId, long[] priceCounts, long[] stockCounts) {
+    long total = 0;
+    for (int i = 0; i < priceCounts.length; i++) {
+      this.priceCounts[i] += priceCounts[i];
+      total += priceCounts[i];
+    }
+    for (int i = 0; i < stockCounts.length; i++) {
+      this.stockCounts[i] += stockCounts[i];
+    }
+    if (categoryId == null) {
+      uncategorised += total;
+    } else {
+      categoryCounts.merge(categoryId, total, Long::sum);
+    }
+  }
+
+  /**
+   * Adds price and stock counts that are not split by category.
+   *
+   * @param priceCounts the number of products per price band
+   * @param stockCounts the number of products in stock, low on stock and out of stock
+   */
+  public void addTotals(long[] priceCounts, long[] stockCounts) {
+    for (int i = 0; i < priceCounts.length; i++) {
+      this.priceCounts[i] += priceCounts[i];
+    }
+    for (int i = 0; i < stockCounts.length; i++) {
+      this.stockCounts[i] += stockCounts[i];
+    }
+  }
+
+  /**
+   * Adds the number of matching products in one category, for totals added with {@link #addTotals}.
+   *
+   * @param categoryId the category, or {@code null} for uncategorised products
+   * @param count the number of matching products
+   */
+  public void addCategory(Long categoryId, long count) {
+    if (count <= 0) {
+      return;
+    }
+    if (categoryId == null) {
+      uncategorised += count;
+    } else {
+      categoryCounts.merge(categoryId, count, Long::sum);
+    }
+  }
+
+  /**
+   * Builds the facets from the rows added so far.
+   *
+   * @return all facets
+   */
+  public ProductFacets build() {
+    List<FacetBucket> price = new ArrayList<>(priceCounts.length);
+    for (int i = 0; i < priceCounts.length; i++) {
+      String key =
+          i == priceBounds.length
+              ? priceBounds.length == 0 ? "0+" : priceBounds[i - 1].toPlainString() + "+"
+              : (i == 0 ? "0" : priceBounds[i - 1].toPlainString())
+                  + "-"
+                  + priceBounds[i].toPlainString();
+      price.add(new FacetBucket(key, priceCounts[i]));
+    }
+
+    List<FacetBucket> stock = new ArrayList<>(STOCK_KEYS.length);
+    for (int i = 0; i < STOCK_KEYS.length; i++) {
+      stock.add(new FacetBucket(STOCK_KEYS[i], stockCounts[i]));
+    }
+
+    List<FacetBucket> category = new ArrayList<>();
+    categoryCounts.forEach(
+        (categoryId, count) -> category.add(new FacetBucket(String.valueOf(categoryId), count)));
+    if (uncategorised > 0) {
+      category.add(new FacetBucket("none", uncategorised));
+    }
+    category.sort(
+        Comparator.comparingLong(FacetBucket::getCount)
+            .reversed()
+            .thenComparing(FacetBucket::getKey));
+    return new ProductFacets(List.copyOf(price), List.copyOf(stock), List.copyOf(category));
+  }
+}
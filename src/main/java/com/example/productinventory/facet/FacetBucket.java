@@ -0,0 +1,14 @@
+package com.example.productinventory.facet;
+
+import lombok.Value;
+
+/** One bucket of a facet histogram. */
+@Value
+public class FacetBucket {
+
+  /** The bucket label, such as {@code 100-500}, {@code low} or a category ID. */
+  String key;
+
+  /** The number of matching products in the bucket. */
+  long count;
+}
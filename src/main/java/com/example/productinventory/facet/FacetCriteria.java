@@ -0,0 +1,48 @@
+package com.example.productinventory.facet;
+
+import java.math.BigDecimal;
+import lombok.Value;
+
+/**
+ * The criteria of a faceted search in normalized form, used as the facet cache key. Names are
+ * lower-cased and prices are stripped of trailing zeros, so that equivalent searches share one
+ * cache entry.
+ */
+@Value
+public class FacetCriteria {
+
+  String name;
+  BigDecimal minPrice;
+  BigDecimal maxPrice;
+  Integer minQuantity;
+  Integer maxQuantity;
+  Long categoryId;
+
+  /**
+   * Normalizes search criteria. Criteria that are {@code null} are ignored by the search.
+   *
+   * @param name product name fragment (optional)
+   * @param minPrice minimum price (optional)
+   * @param maxPrice maximum price (optional)
+   * @param minQuantity minimum quantity (optional)
+   * @param maxQuantity maximum quantity (optional)
+   * @param categoryId category ID (optional)
+   * @return the normalized criteria
+   */
+  public static FacetCriteria of(
+      String name,
+      BigDecimal minPrice,
+      BigDecimal maxPrice,
+      Integer minQuantity,
+      Integer maxQuantity,
+      Long categoryId) {
+    String normalizedName = name == null || name.isEmpty() ? null : name.toLowerCase();
+    return new FacetCriteria(
+        normalizedName,
+        minPrice == null ? null : minPrice.stripTrailingZeros(),
+        maxPrice == null ? null : maxPrice.stripTrailingZeros(),
+        minQuantity,
+        maxQuantity,
+        categoryId);
+  }
+}
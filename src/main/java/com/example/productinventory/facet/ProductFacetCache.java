@@ -0,0 +1,134 @@
+package com.example.productinventory.facet;
+
+import com.example.productinventory.event.ProductChangedEvent;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Cache of facet histograms keyed by normalized search criteria, together with the bucket
+ * definitions they are computed with.
+ *
+ * <p>Any product change can move products between buckets of any search, so every committed {@link
+ * ProductChangedEvent} clears the cache. A generation counter is bumped on each clear, and a result
+ * computed while a clear happened is returned but not stored, so a computation that read the old
+ * data never repopulates the cache after the change. When the cache is full it is cleared rather
+ * than evicting individual entries.
+ */
+@Component
+public class ProductFacetCache {
+
+  private final BigDecimal[] priceBounds;
+  private final int lowStockThreshold;
+  private final int maxEntries;
+  private final Map<FacetCriteria, ProductFacets> entries = new ConcurrentHashMap<>();
+  private final AtomicLong generation = new AtomicLong();
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+
+  /**
+   * Constructs a ProductFacetCache.
+   *
+   * @param priceBounds the bounds between price bands
+   * @param lowStockThreshold products with fewer units than this, but at least one, are low on
+   *     stock
+   * @param maxEntries the largest number of cached searches
+   */
+  public ProductFacetCache(
+      @Value("${product.facets.price-bounds:100,500,1000}") BigDecimal[] priceBounds,
+      @Value("${product.facets.low-stock-threshold:5}") int lowStockThreshold,
+      @Value("${product.facets.cache.max-entries:1000}") int maxEntries) {
+    this.priceBounds = priceBounds.clone();
+    Arrays.sort(this.priceBounds);
+    this.lowStockThreshold = lowStockThreshold;
+    this.maxEntries = maxEntries;
+  }
+
+  /**
+   * Returns the ascending bounds between price bands.
+   *
+   * @return the price band bounds
+   */
+  public BigDecimal[] getPriceBounds() {
+    return priceBounds.clone();
+  }
+
+  /**
+   * Returns the stock level below which a product in stock counts as low on stock.
+   *
+   * @return the low stock threshold
+   */
+  public int getLowStockThreshold() {
+    return lowStockThreshold;
+  }
+
+  /**
+   * Creates an accumulator for the configured price bands.
+   *
+   * @return a new accumulator
+   */
+  public FacetAccumulator newAccumulator() {
+    return new FacetAccumulator(priceBounds);
+  }
+
+  /**
+   * Returns the cached facets for the criteria, computing and caching them on a miss.
+   *
+   * @param criteria the normalized search criteria
+   * @param compute computes the facets from the database
+   * @return the facets
+   */
+  public ProductFacets get(FacetCriteria criteria, Supplier<ProductFacets> compute) {
+    ProductFacets cached = entries.get(criteria);
+    if (cached != null) {
+      hits.incrementAndGet();
+      return cached;
+    }
+    misses.incrementAndGet();
+    long before = generation.get();
+    ProductFacets facets = compute.get();
+    if (entries.size() >= maxEntries) {
+      entries.clear();
+    }
+    entries.put(criteria, facets);
+    if (generation.get() != before) {
+      entries.remove(criteria, facets);
+    }
+    return facets;
+  }
+
+  /**
+   * Clears the cache after a committed product change.
+   *
+   * @param event the change
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onProductChanged(ProductChangedEvent event) {
+    generation.incrementAndGet();
+    entries.clear();
+  }
+
+  /**
+   * Returns the number of lookups answered from the cache.
+   *
+   * @return the hit count
+   */
+  public long getHits() {
+    return hits.get();
+  }
+
+  /**
+   * Returns the number of lookups that computed the facets.
+   *
+   * @return the miss count
+   */
+  public long getMisses() {
+    return misses.get();
+  }
+}
@@ -0,0 +1,48 @@
+package com.example.productinventory.facet;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.List;
+import lombok.Value;
+
+/**
+ * Facet histograms over the products matching a search. Facets that were not requested are {@code
+ * null} and left out of the JSON.
+ */
+@Value
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ProductFacets {
+
+  /** The price facet. */
+  public static final String PRICE = "price";
+
+  /** The stock facet. */
+  public static final String STOCK = "stock";
+
+  /** The category facet. */
+  public static final String CATEGORY = "category";
+
+  /** The names of all facets. */
+  public static final List<String> NAMES = List.of(PRICE, STOCK, CATEGORY);
+
+  /** Product counts per price band, in ascending price order. */
+  List<FacetBucket> price;
+
+  /** Product counts that are in stock, low on stock and out of stock. */
+  List<FacetBucket> stock;
+
+  /** Product counts per category ID, largest first; {@code none} for uncategorised products. */
+  List<FacetBucket> category;
+
+  /**
+   * Returns a copy holding only the given facets.
+   *
+   * @param facets the facet names to keep
+   * @return the selected facets
+   */
+  public ProductFacets select(List<String> facets) {
+    return new ProductFacets(
+        facets.contains(PRICE) ? price : null,
+        facets.contains(STOCK) ? stock : null,
+        facets.contains(CATEGORY) ? category : null);
+  }
+}
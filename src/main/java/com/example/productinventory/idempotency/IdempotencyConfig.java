@@ -0,0 +1,77 @@
+package com.example.productinventory.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables {@code Idempotency-Key} handling for product creation and stock adjustments. Enabled by
+ * {@code product.idempotency.enabled}; the keys are stored in the application database.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(
+  name = "product.idempotency.enabled",
+  havingValue = "true",
+  matchIfMissing = true
+)
+public class IdempotencyConfig {
+
+  /**
+   * Creates the store of idempotency keys and recorded responses.
+   *
+   * @param dataSource the application data source
+   * @param ttlSeconds how long a recorded response is replayed
+   * @param claimTimeoutSeconds how long a key stays claimed by a request that never finishes
+   * @param maxRows the number of stored keys above which the oldest are deleted
+   * @param batchSize the number of keys deleted per statement during clean-up
+   * @param cacheSize the number of recorded responses kept in memory
+   * @return the idempotency store
+   */
+  @Bean
+  public IdempotencyStore idempotencyStore(
+      DataSource dataSource,
+      @Value("${product.idempotency.ttl-seconds:86400}") long ttlSeconds,
+      @Value("${product.idempotency.claim-timeout-seconds:60}") long claimTimeoutSeconds,
+      @Value("${product.idempotency.max-rows:100000}") int maxRows,
+      @Value("${product.idempotency.cleanup-batch-size:500}") int batchSize,
+      @Value("${product.idempotency.cache.max-entries:10000}") int cacheSize) {
+    return new IdempotencyStore(
+        dataSource,
+        Clock.systemUTC(),
+        Duration.ofSeconds(ttlSeconds),
+        Duration.ofSeconds(claimTimeoutSeconds),
+        maxRows,
+        batchSize,
+        cacheSize);
+  }
+
+  /**
+   * Registers the filter that claims keys, records responses and replays them.
+   *
+   * @param store the idempotency store
+   * @param clientHeader the request header carrying the client's API key, which scopes keys within
+   *     the client's address
+   * @param objectMapper the application object mapper, used for error responses
+   * @param paths the Ant-style patterns of the POST endpoints that honour the header
+   * @return the filter registration
+   */
+  @Bean
+  public FilterRegistrationBean<IdempotencyFilter> idempotencyFilter(
+      IdempotencyStore store,
+      @Value("${product.idempotency.client-header:X-API-Key}") String clientHeader,
+      ObjectMapper objectMapper,
+      @Value("${product.idempotency.paths:/api/v1/products,/api/v1/products/*/stock}")
+          List<String> paths) {
+    return new FilterRegistrationBean<>(
+        new IdempotencyFilter(store, clientHeader, objectMapper, paths));
+  }
+}
@@ -0,0 +1,270 @@
+package com.example.productinventory.idempotency;
+
+import com.example.productinventory.exception.ErrorResponse;
+import com.example.productinventory.limit.ClientIdentity;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+/**
+ * Makes retried writes safe. A request carrying an {@code Idempotency-Key} header runs at most once
+ * per key: the first request claims the key and its response is recorded, and later requests with
+ * the same key and the same method, path, content type, accepted types and body get that response
+ * replayed, marked with {@code Idempotent-Replayed: true}, without the operation running again.
+ * Keys are scoped to the {@link ClientIdentity}, the address and API key of the client, so the same
+ * key sent by two clients names two operations.
+ *
+ * <ul>
+ *   <li>Reusing a key for a different request is rejected with {@code 422 Unprocessable Entity}.
+ *   <li>A retry that arrives while the first request is still running gets {@code 409 Conflict}.
+ *   <li>Server errors are not recorded; the claim is released so that a retry runs again.
+ * </ul>
+ *
+ * <p>Only POST requests to the configured paths are affected; requests without the header are
+ * passed through unchanged.
+ */
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+  private static final Logger logger = LoggerFactory.getLogger(IdempotencyFilter.class);
+
+  /** The request header carrying the client's idempotency key. */
+  public static final String HEADER = "Idempotency-Key";
+
+  /** The response header marking a replayed response. */
+  public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+  /** The longest accepted idempotency key. */
+  public static final int MAX_KEY_LENGTH = 255;
+
+  /** The largest response body that is recorded for replay. */
+  public static final int MAX_BODY_BYTES = 1_000_000;
+
+  private final IdempotencyStore store;
+  private final String clientHeader;
+  private final ObjectMapper objectMapper;
+  private final List<String> paths;
+  private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+  /**
+   * Constructs an IdempotencyFilter.
+   *
+   * @param store the store of claimed keys and recorded responses
+   * @param clientHeader the request header carrying the client's API key
+   * @param objectMapper the mapper used to write error responses
+   * @param paths the Ant-style patterns of the POST endpoints that honour the header
+   */
+  public IdempotencyFilter(
+      IdempotencyStore store, String clientHeader, ObjectMapper objectMapper, List<String> paths) {
+    this.store = store;
+    this.clientHeader = clientHeader;
+    this.objectMapper = objectMapper;
+    this.paths = List.copyOf(paths);
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    if (!"POST".equals(request.getMethod()) || request.getHeader(HEADER) == null) {
+      return true;
+    }
+    String path = request.getRequestURI().substring(request.getContextPath().length());
+    return paths.stream().noneMatch(pattern -> pathMatcher.match(pattern, path));
+  }
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    String key = request.getHeader(HEADER);
+    if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+      reject(
+          response,
+          HttpStatus.BAD_REQUEST,
+          HEADER + " must be between 1 and " + MAX_KEY_LENGTH + " characters.");
+      return;
+    }
+
+    byte[] body = request.getInputStream().readAllBytes();
+    String requestHash = hash(request, body);
+    String client = ClientIdentity.of(request, clientHeader);
+
+    // Retries are usually answered from the store's memory; only a new key reaches the insert.
+    Optional<StoredResponse> stored = store.find(client, key);
+    String token = null;
+    if (stored.isEmpty()) {
+      token = store.claim(client, key, requestHash);
+    }
+    if (stored.isEmpty() && token == null) {
+      stored = store.find(client, key);
+      if (stored.isEmpty()) {
+        // The holder released the key between our insert and our read.
+        reject(response, HttpStatus.CONFLICT, "A request with this " + HEADER + " is in progress.");
+        return;
+      }
+    }
+    if (stored.isPresent()) {
+      replayOrReject(stored.get(), requestHash, response);
+      return;
+    }
+
+    ContentCachingResponseWrapper recorder = new ContentCachingResponseWrapper(response);
+    boolean recorded = false;
+    try {
+      filterChain.doFilter(new CachedBodyRequest(request, body), recorder);
+      byte[] responseBody = recorder.getContentAsByteArray();
+      int status = recorder.getStatus();
+      if (status < 500 && responseBody.length <= MAX_BODY_BYTES) {
+        recorded =
+            store.complete(
+                client, key, token, requestHash, status, recorder.getContentType(), responseBody);
+      }
+    } finally {
+      if (!recorded) {
+        store.release(client, key, token);
+      }
+      recorder.copyBodyToResponse();
+    }
+  }
+
+  private void replayOrReject(
+      StoredResponse stored, String requestHash, HttpServletResponse response) throws IOException {
+    if (stored.isInProgress()) {
+      reject(response, HttpStatus.CONFLICT, "A request with this " + HEADER + " is in progress.");
+      return;
+    }
+    if (!stored.getRequestHash().equals(requestHash)) {
+      reject(
+          response,
+          HttpStatus.UNPROCESSABLE_ENTITY,
+          HEADER + " has already been used for a different request.");
+      return;
+    }
+    logger.debug("Replaying recorded response with status {}", stored.getStatus());
+    response.setStatus(stored.getStatus());
+    response.setHeader(REPLAYED_HEADER, "true");
+    if (stored.getContentType() != null) {
+      response.setContentType(stored.getContentType());
+    }
+    response.setContentLength(stored.getBody().length);
+    response.getOutputStream().write(stored.getBody());
+  }
+
+  private void reject(HttpServletResponse response, HttpStatus status, String message)
+      throws IOException {
+    response.setStatus(status.value());
+    response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+    objectMapper.writeValue(response.getOutputStream(), new ErrorResponse(message));
+  }
+
+  /**
+   * Hashes what makes two requests the same operation: method, path, query, the {@code
+   * Content-Type} the body is read as, the {@code Accept} the response is written for, and the
+   * body.
+   */
+  private static String hash(HttpServletRequest request, byte[] body) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      digest.update(request.getMethod().getBytes(StandardCharsets.UTF_8));
+      digest.update((byte) ' ');
+      digest.update(request.getRequestURI().getBytes(StandardCharsets.UTF_8));
+      if (request.getQueryString() != null) {
+        digest.update((byte) '?');
+        digest.update(request.getQueryString().getBytes(StandardCharsets.UTF_8));
+      }
+      for (String header : new String[] {HttpHeaders.CONTENT_TYPE, HttpHeaders.ACCEPT}) {
+        digest.update((byte) '\n');
+        String value = request.getHeader(header);
+        if (value != null) {
+          digest.update(value.getBytes(StandardCharsets.UTF_8));
+        }
+      }
+      digest.update((byte) '\n');
+      digest.update(body);
+      return HexFormat.of().formatHex(digest.digest());
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+
+  /** A request whose body has already been read, served again from memory. */
+  private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+    private final byte[] body;
+
+    CachedBodyRequest(HttpServletRequest request, byte[] body) {
+      super(request);
+      this.body = body;
+    }
+
+    @Override
+    public ServletInputStream getInputStream() {
+      ByteArrayInputStream in = new ByteArrayInputStream(body);
+      return new ServletInputStream() {
+        @Override
+        public int read() {
+          return in.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+          return in.read(b, off, len);
+        }
+
+        @Override
+        public boolean isFinished() {
+          return in.available() == 0;
+        }
+
+        @Override
+        public boolean isReady() {
+          return true;
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+          throw new UnsupportedOperationException();
+        }
+      };
+    }
+
+    @Override
+    public BufferedReader getReader() {
+      String encoding = getCharacterEncoding();
+      Charset charset = encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding);
+      return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+    }
+
+    @Override
+    public int getContentLength() {
+      return body.length;
+    }
+
+    @Override
+    public long getContentLengthLong() {
+      return body.length;
+    }
+  }
+}
@@ -0,0 +1,290 @@
+package com.example.productinventory.idempotency;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Records the responses of {@code Idempotency-Key} requests in the {@code idempotency_keys} table.
+ * A request first claims its key with an insert, which only one of several concurrent requests can
+ * win; once it has finished, its status and body are stored against the key until the key expires.
+ * Keys are scoped to the client that sent them, so clients cannot see or block each other's keys.
+ *
+ * <p>Each claim carries a random token, and a response is only recorded, or a claim released, by
+ * the request holding that token. A request that outlives its claim timeout therefore cannot
+ * overwrite or delete the claim another request took over after it.
+ *
+ * <p>Finished responses are also kept in a small in-memory LRU cache, so that retries arriving at
+ * the same instance are answered without a database read. The table is the source of truth and is
+ * shared by all instances.
+ *
+ * <p>The table is bounded in two ways: expired keys are deleted in the background, and once it
+ * holds more than {@code maxRows} keys the oldest ones are deleted as well. Both deletes run in
+ * batches so that a large backlog never holds locks for long.
+ */
+public class IdempotencyStore {
+
+  private static final Logger logger = LoggerFactory.getLogger(IdempotencyStore.class);
+
+  private final JdbcTemplate jdbc;
+  private final Clock clock;
+  private final Duration ttl;
+  private final Duration claimTimeout;
+  private final int maxRows;
+  private final int batchSize;
+  private final Map<String, StoredResponse> cache;
+
+  /**
+   * Constructs an IdempotencyStore.
+   *
+   * @param dataSource the database holding the {@code idempotency_keys} table
+   * @param clock the clock used for expiry
+   * @param ttl how long a finished response is replayed
+   * @param claimTimeout how long a claim is held for a request that never finishes, for example
+   *     because the instance running it stopped
+   * @param maxRows the number of keys above which the oldest are deleted
+   * @param batchSize the number of keys deleted per statement during clean-up
+   * @param cacheSize the number of finished responses kept in memory
+   */
+  public IdempotencyStore(
+      DataSource dataSource,
+      Clock clock,
+      Duration ttl,
+      Duration claimTimeout,
+      int maxRows,
+      int batchSize,
+      int cacheSize) {
+    this.jdbc = new JdbcTemplate(dataSource);
+    this.clock = clock;
+    this.ttl = ttl;
+    this.claimTimeout = claimTimeout;
+    this.maxRows = maxRows;
+    this.batchSize = batchSize;
+    this.cache =
+        new LinkedHashMap<String, StoredResponse>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<String, StoredResponse> eldest) {
+            return size() > cacheSize;
+          }
+        };
+  }
+
+  /**
+   * Looks up the state of a key that has not expired.
+   *
+   * @param client the identity of the client that sent the key
+   * @param key the idempotency key
+   * @return the claim or finished response, or empty if the key is unused or expired
+   */
+  public Optional<StoredResponse> find(String client, String key) {
+    String clientId = clientId(client);
+    String cacheKey = clientId + ' ' + key;
+    Instant now = clock.instant();
+    synchronized (cache) {
+      StoredResponse cached = cache.get(cacheKey);
+      if (cached != null) {
+        if (cached.getExpiresAt().isAfter(now)) {
+          return Optional.of(cached);
+        }
+        cache.remove(cacheKey);
+      }
+    }
+    List<StoredResponse> rows =
+        jdbc.query(
+            "SELECT request_hash, status, content_type, body, expires_at FROM idempotency_keys"
+                + " WHERE client_id = ? AND idem_key = ? AND expires_at > ?",
+            (rs, rowNum) ->
+                new StoredResponse(
+                    rs.getString(1),
+                    (Integer) rs.getObject(2),
+                    rs.getString(3),
+                    rs.getBytes(4),
+                    rs.getTimestamp(5).toInstant()),
+            clientId,
+            key,
+            Timestamp.from(now));
+    if (rows.isEmpty()) {
+      return Optional.empty();
+    }
+    StoredResponse stored = rows.get(0);
+    if (!stored.isInProgress()) {
+      remember(cacheKey, stored);
+    }
+    return Optional.of(stored);
+  }
+
+  /**
+   * Claims an unused or expired key for a request about to run.
+   *
+   * @param client the identity of the client that sent the key
+   * @param key the idempotency key
+   * @param requestHash the hash of the request
+   * @return the token of the claim, or {@code null} if another request holds the key
+   */
+  public String claim(String client, String key, String requestHash) {
+    String clientId = clientId(client);
+    Instant now = clock.instant();
+    jdbc.update(
+        "DELETE FROM idempotency_keys WHERE client_id = ? AND idem_key = ? AND expires_at <= ?",
+        clientId,
+        key,
+        Timestamp.from(now));
+    String token = UUID.randomUUID().toString();
+    try {
+      jdbc.update(
+          "INSERT INTO idempotency_keys"
+              + " (client_id, idem_key, claim_token, request_hash, created_at, expires_at)"
+              + " VALUES (?, ?, ?, ?, ?, ?)",
+          clientId,
+          key,
+          token,
+          requestHash,
+          Timestamp.from(now),
+          Timestamp.from(now.plus(claimTimeout)));
+      return token;
+    } catch (DuplicateKeyException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Records the response of a claimed key, to be replayed until the key expires. Nothing is
+   * recorded if the claim is no longer held by the given token.
+   *
+   * @param client the identity of the client that sent the key
+   * @param key the idempotency key
+   * @param token the token returned when the key was claimed
+   * @param requestHash the hash of the request
+   * @param status the HTTP status of the response
+   * @param contentType the content type of the response, if any
+   * @param body the response body
+   * @return {@code true} if the response was recorded
+   */
+  public boolean complete(
+      String client,
+      String key,
+      String token,
+      String requestHash,
+      int status,
+      String contentType,
+      byte[] body) {
+    String clientId = clientId(client);
+    Instant expiresAt = clock.instant().plus(ttl);
+    int updated =
+        jdbc.update(
+            "UPDATE idempotency_keys SET status = ?, content_type = ?, body = ?, expires_at = ?"
+                + " WHERE client_id = ? AND idem_key = ? AND claim_token = ? AND status IS NULL",
+            status,
+            contentType,
+            body,
+            Timestamp.from(expiresAt),
+            clientId,
+            key,
+            token);
+    if (updated == 0) {
+      logger.warn("Response for idempotency key {} not recorded; the claim was taken over", key);
+      return false;
+    }
+    StoredResponse response = new StoredResponse(requestHash, status, contentType, body, expiresAt);
+    remember(clientId + ' ' + key, response);
+    return true;
+  }
+
+  /**
+   * Gives up a claim without recording a response, so that a retry runs the request again. A claim
+   * held by another token is left alone.
+   *
+   * @param client the identity of the client that sent the key
+   * @param key the idempotency key
+   * @param token the token returned when the key was claimed
+   */
+  public void release(String client, String key, String token) {
+    jdbc.update(
+        "DELETE FROM idempotency_keys"
+            + " WHERE client_id = ? AND idem_key = ? AND claim_token = ? AND status IS NULL",
+        clientId(client),
+        key,
+        token);
+  }
+
+  /**
+   * Deletes expired keys, then the oldest keys beyond the row limit, in batches.
+   *
+   * @return the number of keys deleted
+   */
+  @Scheduled(
+    fixedDelayString = "${product.idempotency.cleanup-interval-ms:60000}",
+    initialDelayString = "${product.idempotency.cleanup-interval-ms:60000}"
+  )
+  public int cleanUp() {
+    try {
+      int expired = 0;
+      int deleted;
+      do {
+        deleted =
+            jdbc.update(
+                "DELETE FROM idempotency_keys WHERE expires_at <= ? FETCH FIRST ? ROWS ONLY",
+                Timestamp.from(clock.instant()),
+                batchSize);
+        expired += deleted;
+      } while (deleted == batchSize);
+
+      int evicted = 0;
+      Integer rows = jdbc.queryForObject("SELECT COUNT(*) FROM idempotency_keys", Integer.class);
+      int excess = rows == null ? 0 : rows - maxRows;
+      while (excess > 0) {
+        deleted =
+            jdbc.update(
+                "DELETE FROM idempotency_keys WHERE (client_id, idem_key) IN (SELECT client_id,"
+                    + " idem_key FROM idempotency_keys ORDER BY created_at, client_id, idem_key"
+                    + " FETCH FIRST ? ROWS ONLY)",
+                Math.min(excess, batchSize));
+        if (deleted == 0) {
+          break;
+        }
+        evicted += deleted;
+        excess -= deleted;
+      }
+      if (expired + evicted > 0) {
+        logger.info("Deleted {} expired and {} excess idempotency keys", expired, evicted);
+      }
+      return expired + evicted;
+    } catch (DataAccessException e) {
+      logger.warn("Idempotency key clean-up failed: {}", e.getMessage());
+      return 0;
+    }
+  }
+
+  private void remember(String cacheKey, StoredResponse response) {
+    synchronized (cache) {
+      cache.put(cacheKey, response);
+    }
+  }
+
+  /** Hashes a client identity, which may be an API key, into the stored {@code client_id}. */
+  private static String clientId(String client) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      return HexFormat.of().formatHex(digest.digest(client.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+}
@@ -0,0 +1,33 @@
+package com.example.productinventory.idempotency;
+
+import java.time.Instant;
+import lombok.Value;
+
+/** The state recorded for one idempotency key: a claim in progress or a finished response. */
+@Value
+public class StoredResponse {
+
+  /** The hash of the method, path and body of the request that first used the key. */
+  String requestHash;
+
+  /** The HTTP status of the response, or {@code null} while the request is still running. */
+  Integer status;
+
+  /** The content type of the response, if any. */
+  String contentType;
+
+  /** The response body. */
+  byte[] body;
+
+  /** The time after which the key may be used again. */
+  Instant expiresAt;
+
+  /**
+   * Returns whether the request holding the key is still running.
+   *
+   * @return {@code true} if no response has been recorded yet
+   */
+  public boolean isInProgress() {
+    return status == null;
+  }
+}
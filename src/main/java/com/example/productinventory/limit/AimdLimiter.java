@@ -0,0 +1,137 @@
+package com.example.productinventory.limit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A concurrency limit that adapts to the measured latency with additive increase and multiplicative
+ * decrease (AIMD). Each request must {@link #tryAcquire() acquire} a slot before it runs and {@link
+ * #release(long, boolean) release} it with its latency afterwards.
+ *
+ * <ul>
+ *   <li>A request that was slower than the latency threshold, or failed with a server error, is
+ *       taken as a sign of saturation: the limit is multiplied by the backoff ratio, at most once
+ *       for all requests that were already running when the limit was last decreased.
+ *   <li>A fast request while at least half the limit is in use grows the limit by one. Growth is
+ *       skipped when the limit is mostly idle, so quiet periods do not inflate it.
+ * </ul>
+ *
+ * <p>The limit stays within {@code [minLimit, maxLimit]}. Requests over the limit are not queued:
+ * {@link #tryAcquire()} returns {@code false} at once so that they can be shed.
+ */
+public class AimdLimiter {
+
+  private final String name;
+  private final int minLimit;
+  private final int maxLimit;
+  private final double backoffRatio;
+  private final long latencyThresholdNanos;
+
+  private double limit;
+  private int inFlight;
+  private long lastDecreaseNanos = System.nanoTime() - Long.MAX_VALUE / 2;
+  private final AtomicLong rejected = new AtomicLong();
+
+  /**
+   * Constructs an AimdLimiter.
+   *
+   * @param name the endpoint class the limiter guards, used in metrics
+   * @param initialLimit the limit to start from
+   * @param minLimit the lowest the limit may fall to
+   * @param maxLimit the highest the limit may grow to
+   * @param backoffRatio the factor applied to the limit on a slow or failed request
+   * @param latencyThresholdMs the latency above which a request counts as slow
+   */
+  public AimdLimiter(
+      String name,
+      int initialLimit,
+      int minLimit,
+      int maxLimit,
+      double backoffRatio,
+      long latencyThresholdMs) {
+    if (minLimit < 1 || maxLimit < minLimit) {
+      throw new IllegalArgumentException("Expected 1 <= minLimit <= maxLimit");
+    }
+    if (backoffRatio <= 0 || backoffRatio >= 1) {
+      throw new IllegalArgumentException("Backoff ratio must be between 0 and 1");
+    }
+    this.name = name;
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.backoffRatio = backoffRatio;
+    this.latencyThresholdNanos = TimeUnit.MILLISECONDS.toNanos(latencyThresholdMs);
+    this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+  }
+
+  /**
+   * Takes a slot if the limit allows another request in flight.
+   *
+   * @return {@code true} if the request may run, {@code false} if it should be shed
+   */
+  public synchronized boolean tryAcquire() {
+    if (inFlight >= (int) limit) {
+      rejected.incrementAndGet();
+      return false;
+    }
+    inFlight++;
+    return true;
+  }
+
+  /**
+   * Returns a slot and adjusts the limit from the request's outcome.
+   *
+   * @param latencyNanos how long the request took
+   * @param failed whether the request failed in a way that suggests overload
+   */
+  public synchronized void release(long latencyNanos, boolean failed) {
+    int inFlightBefore = inFlight;
+    inFlight--;
+    if (failed || latencyNanos > latencyThresholdNanos) {
+      // Requests admitted before the last decrease already reflect it; cutting again for each of
+      // them would collapse the limit after a single burst.
+      long now = System.nanoTime();
+      if (now - latencyNanos - lastDecreaseNanos >= 0) {
+        limit = Math.max(minLimit, limit * backoffRatio);
+        lastDecreaseNanos = now;
+      }
+    } else if (inFlightBefore * 2 >= limit) {
+      limit = Math.min(maxLimit, limit + 1);
+    }
+  }
+
+  /**
+   * Returns the name of the endpoint class this limiter guards.
+   *
+   * @return the endpoint class name
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Returns the current limit on requests in flight.
+   *
+   * @return the current limit
+   */
+  public synchronized int getLimit() {
+    return (int) limit;
+  }
+
+  /**
+   * Returns the number of requests in flight.
+   *
+   * @return the requests in flight
+   */
+  public synchronized int getInFlight() {
+    return inFlight;
+  }
+
+  /**
+   * Returns the number of requests shed since startup.
+   *
+   * @return the rejection count
+   */
+  public long getRejected() {
+    return rejected.get();
+  }
+}
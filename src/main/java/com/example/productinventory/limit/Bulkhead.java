@@ -0,0 +1,120 @@
+package com.example.productinventory.limit;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed partition of the request threads for one {@link EndpointClass}. At most {@code
+ * maxConcurrent} requests of the class run at once; up to {@code maxQueued} more may wait for a
+ * slot, each for at most {@code maxWaitMs}. Anything beyond that is refused, so a burst in one
+ * class can hold only its own share of the server's threads and connections.
+ */
+public class Bulkhead {
+
+  private final String name;
+  private final int maxConcurrent;
+  private final int maxQueued;
+  private final long maxWaitNanos;
+  private final Semaphore permits;
+  private final AtomicInteger queued = new AtomicInteger();
+  private final LongAdder rejected = new LongAdder();
+
+  /**
+   * Constructs a Bulkhead.
+   *
+   * @param name the endpoint class the bulkhead isolates
+   * @param maxConcurrent the most requests that may run at once
+   * @param maxQueued the most requests that may wait for a slot
+   * @param maxWaitMs the longest a request waits for a slot
+   */
+  public Bulkhead(String name, int maxConcurrent, int maxQueued, long maxWaitMs) {
+    if (maxConcurrent < 1 || maxQueued < 0 || maxWaitMs < 0) {
+      throw new IllegalArgumentException(
+          "Bulkhead " + name + " needs maxConcurrent >= 1, maxQueued >= 0 and maxWaitMs >= 0");
+    }
+    this.name = name;
+    this.maxConcurrent = maxConcurrent;
+    this.maxQueued = maxQueued;
+    this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+    this.permits = new Semaphore(maxConcurrent, true);
+  }
+
+  /**
+   * Takes a slot, waiting for one if the bulkhead is full and its queue is not. A successful call
+   * must be followed by {@link #exit()}.
+   *
+   * @return true if the request may run, false if it was refused
+   * @throws InterruptedException if the thread was interrupted while waiting
+   */
+  public boolean tryEnter() throws InterruptedException {
+    if (permits.tryAcquire()) {
+      return true;
+    }
+    if (queued.incrementAndGet() > maxQueued) {
+      queued.decrementAndGet();
+      rejected.increment();
+      return false;
+    }
+    try {
+      if (permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS)) {
+        return true;
+      }
+      rejected.increment();
+      return false;
+    } finally {
+      queued.decrementAndGet();
+    }
+  }
+
+  /** Releases the slot taken by {@link #tryEnter()}. */
+  public void exit() {
+    permits.release();
+  }
+
+  /**
+   * Returns the name of the endpoint class.
+   *
+   * @return the endpoint class name
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Returns the most requests that may run at once.
+   *
+   * @return the number of slots
+   */
+  public int getMaxConcurrent() {
+    return maxConcurrent;
+  }
+
+  /**
+   * Returns the number of requests running in the bulkhead.
+   *
+   * @return the slots taken
+   */
+  public int getActive() {
+    return maxConcurrent - permits.availablePermits();
+  }
+
+  /**
+   * Returns the number of requests waiting for a slot.
+   *
+   * @return the queue length
+   */
+  public int getQueued() {
+    return queued.get();
+  }
+
+  /**
+   * Returns the number of requests refused since startup.
+   *
+   * @return the rejection count
+   */
+  public long getRejected() {
+    return rejected.sum();
+  }
+}
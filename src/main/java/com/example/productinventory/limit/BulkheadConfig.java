@@ -0,0 +1,99 @@
+package com.example.productinventory.limit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Puts a bulkhead around each endpoint class of the product API. Enabled by {@code
+ * product.bulkhead.enabled}; the bulkhead of each class is sized by {@code
+ * product.bulkhead.<class>.max-concurrent} and {@code product.bulkhead.<class>.max-queued}.
+ */
+@Configuration
+@ConditionalOnProperty(
+  name = "product.bulkhead.enabled",
+  havingValue = "true",
+  matchIfMissing = true
+)
+public class BulkheadConfig {
+
+  /**
+   * Registers the bulkhead filter behind the concurrency limit, so that requests shed there never
+   * wait in a bulkhead queue. The slots in use, queued requests and rejections of each endpoint
+   * class are published as metrics tagged with the class.
+   *
+   * @param readConcurrent the most lookups and listings that may run at once
+   * @param readQueued the most lookups and listings that may wait for a slot
+   * @param searchConcurrent the most searches that may run at once
+   * @param searchQueued the most searches that may wait for a slot
+   * @param writeConcurrent the most writes that may run at once
+   * @param writeQueued the most writes that may wait for a slot
+   * @param maxWaitMs the longest a request waits for a slot
+   * @param retryAfterSeconds the delay suggested to refused clients
+   * @param objectMapper the application object mapper, used for the error response
+   * @param meterRegistry the registry for the bulkhead metrics, if metrics are available
+   * @return the filter registration
+   */
+  @Bean
+  public FilterRegistrationBean<BulkheadFilter> bulkheadFilter(
+      @Value("${product.bulkhead.read.max-concurrent:40}") int readConcurrent,
+      @Value("${product.bulkhead.read.max-queued:40}") int readQueued,
+      @Value("${product.bulkhead.search.max-concurrent:10}") int searchConcurrent,
+      @Value("${product.bulkhead.search.max-queued:10}") int searchQueued,
+      @Value("${product.bulkhead.write.max-concurrent:20}") int writeConcurrent,
+      @Value("${product.bulkhead.write.max-queued:20}") int writeQueued,
+      @Value("${product.bulkhead.max-wait-ms:500}") long maxWaitMs,
+      @Value("${product.bulkhead.retry-after-seconds:1}") long retryAfterSeconds,
+      ObjectMapper objectMapper,
+      ObjectProvider<MeterRegistry> meterRegistry) {
+    Map<String, Bulkhead> bulkheads = new LinkedHashMap<>();
+    bulkheads.put(
+        EndpointClass.READ,
+        new Bulkhead(EndpointClass.READ, readConcurrent, readQueued, maxWaitMs));
+    bulkheads.put(
+        EndpointClass.SEARCH,
+        new Bulkhead(EndpointClass.SEARCH, searchConcurrent, searchQueued, maxWaitMs));
+    bulkheads.put(
+        EndpointClass.WRITE,
+        new Bulkhead(EndpointClass.WRITE, writeConcurrent, writeQueued, maxWaitMs));
+    meterRegistry.ifAvailable(registry -> bulkheads.values().forEach(b -> register(registry, b)));
+    FilterRegistrationBean<BulkheadFilter> registration =
+        new FilterRegistrationBean<>(
+            new BulkheadFilter(bulkheads, retryAfterSeconds, objectMapper));
+    registration.addUrlPatterns("/api/v1/products/*");
+    registration.setOrder(Ordered.LOWEST_PRECEDENCE - 50);
+    return registration;
+  }
+
+  private static void register(MeterRegistry registry, Bulkhead bulkhead) {
+    Gauge.builder("product.bulkhead.active", bulkhead, Bulkhead::getActive)
+        .tag("class", bulkhead.getName())
+        .description("Requests running in the bulkhead")
+        .register(registry);
+    Gauge.builder("product.bulkhead.queued", bulkhead, Bulkhead::getQueued)
+        .tag("class", bulkhead.getName())
+        .description("Requests waiting for a bulkhead slot")
+        .register(registry);
+    Gauge.builder(
+            "product.bulkhead.saturation",
+            bulkhead,
+            b -> (double) b.getActive() / b.getMaxConcurrent())
+        .tag("class", bulkhead.getName())
+        .description("Fraction of the bulkhead's slots in use")
+        .register(registry);
+    FunctionCounter.builder("product.bulkhead.rejected", bulkhead, Bulkhead::getRejected)
+        .tag("class", bulkhead.getName())
+        .description("Requests refused with 503 because the bulkhead and its queue were full")
+        .register(registry);
+  }
+}
@@ -0,0 +1,86 @@
+package com.example.productinventory.limit;
+
+import com.example.productinventory.datasource.PartitionedDataSource;
+import com.example.productinventory.exception.ErrorResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Isolates point reads, searches and writes from each other. Each request runs inside the {@link
+ * Bulkhead} of its {@link EndpointClass}, which bounds how many request threads the class may hold
+ * and how many requests may queue for them, and takes its database connections from the class's
+ * {@link PartitionedDataSource} partition. Requests the bulkhead cannot admit get {@code 503
+ * Service Unavailable} with a {@code Retry-After} header.
+ */
+public class BulkheadFilter extends OncePerRequestFilter {
+
+  private static final Logger logger = LoggerFactory.getLogger(BulkheadFilter.class);
+
+  private final Map<String, Bulkhead> bulkheads;
+  private final long retryAfterSeconds;
+  private final ObjectMapper objectMapper;
+
+  /**
+   * Constructs a BulkheadFilter.
+   *
+   * @param bulkheads the bulkhead of each endpoint class
+   * @param retryAfterSeconds the delay suggested to refused clients
+   * @param objectMapper the mapper used to write the error response
+   */
+  public BulkheadFilter(
+      Map<String, Bulkhead> bulkheads, long retryAfterSeconds, ObjectMapper objectMapper) {
+    this.bulkheads = Map.copyOf(bulkheads);
+    this.retryAfterSeconds = retryAfterSeconds;
+    this.objectMapper = objectMapper;
+  }
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    String endpointClass = EndpointClass.of(request);
+    Bulkhead bulkhead = bulkheads.get(endpointClass);
+    if (bulkhead == null) {
+      filterChain.doFilter(request, response);
+      return;
+    }
+    boolean admitted;
+    try {
+      admitted = bulkhead.tryEnter();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      admitted = false;
+    }
+    if (!admitted) {
+      logger.debug("Refusing {} request: bulkhead full", endpointClass);
+      response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+      response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+      response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+      objectMapper.writeValue(
+          response.getOutputStream(),
+          new ErrorResponse(
+              "Too many "
+                  + endpointClass
+                  + " requests in progress; retry after "
+                  + retryAfterSeconds
+                  + "s."));
+      return;
+    }
+    try (PartitionedDataSource.Scope ignored = PartitionedDataSource.use(endpointClass)) {
+      filterChain.doFilter(request, response);
+    } finally {
+      bulkhead.exit();
+    }
+  }
+}
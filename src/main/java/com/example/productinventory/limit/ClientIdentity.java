@@ -0,0 +1,35 @@
+package com.example.productinventory.limit;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Identifies the client behind a request. The API key header is not authenticated, so it never
+ * replaces the IP address: the rate limits key by address alone, so that rotating keys earns no
+ * extra tokens, and the idempotency keys are scoped to the address and, within it, the API key.
+ */
+public final class ClientIdentity {
+
+  private ClientIdentity() {}
+
+  /**
+   * Identifies the client of a request by its address, as the rate limits do.
+   *
+   * @param request the request
+   * @return the remote address
+   */
+  public static String address(HttpServletRequest request) {
+    return request.getRemoteAddr();
+  }
+
+  /**
+   * Identifies the client of a request by its address and, if it sends one, its API key.
+   *
+   * @param request the request
+   * @param clientHeader the request header carrying the client's API key
+   * @return the remote address, followed by {@code key:} and the API key if there is one
+   */
+  public static String of(HttpServletRequest request, String clientHeader) {
+    String apiKey = request.getHeader(clientHeader);
+    return apiKey != null ? address(request) + " key:" + apiKey : address(request);
+  }
+}
@@ -0,0 +1,85 @@
+package com.example.productinventory.limit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Puts an adaptive concurrency limit in front of the product API. Enabled by {@code
+ * product.concurrency-limit.enabled}; each endpoint class gets its own {@link AimdLimiter}
+ * configured by {@code product.concurrency-limit.*}.
+ */
+@Configuration
+@ConditionalOnProperty(
+  name = "product.concurrency-limit.enabled",
+  havingValue = "true",
+  matchIfMissing = true
+)
+public class ConcurrencyLimitConfig {
+
+  /**
+   * Registers the filter that sheds requests over the limit, ahead of the idempotency filter so
+   * that shed requests do no database work. The limits, requests in flight and rejections of each
+   * endpoint class are published as metrics tagged with the class.
+   *
+   * @param initialLimit the limit each class starts from
+   * @param minLimit the lowest a limit may fall to
+   * @param maxLimit the highest a limit may grow to
+   * @param backoffRatio the factor applied to a limit on a slow or failed request
+   * @param latencyThresholdMs the latency above which a request counts as slow
+   * @param retryAfterSeconds the delay suggested to shed clients
+   * @param objectMapper the application object mapper, used for the error response
+   * @param meterRegistry the registry for the limiter metrics, if metrics are available
+   * @return the filter registration
+   */
+  @Bean
+  public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+      @Value("${product.concurrency-limit.initial-limit:20}") int initialLimit,
+      @Value("${product.concurrency-limit.min-limit:2}") int minLimit,
+      @Value("${product.concurrency-limit.max-limit:200}") int maxLimit,
+      @Value("${product.concurrency-limit.backoff-ratio:0.9}") double backoffRatio,
+      @Value("${product.concurrency-limit.latency-threshold-ms:250}") long latencyThresholdMs,
+      @Value("${product.concurrency-limit.retry-after-seconds:1}") long retryAfterSeconds,
+      ObjectMapper objectMapper,
+      ObjectProvider<MeterRegistry> meterRegistry) {
+    Map<String, AimdLimiter> limiters = new LinkedHashMap<>();
+    for (String endpointClass : EndpointClass.ALL) {
+      AimdLimiter limiter =
+          new AimdLimiter(
+              endpointClass, initialLimit, minLimit, maxLimit, backoffRatio, latencyThresholdMs);
+      limiters.put(endpointClass, limiter);
+      meterRegistry.ifAvailable(registry -> register(registry, limiter));
+    }
+    FilterRegistrationBean<ConcurrencyLimitFilter> registration =
+        new FilterRegistrationBean<>(
+            new ConcurrencyLimitFilter(limiters, retryAfterSeconds, objectMapper));
+    registration.addUrlPatterns("/api/v1/products/*");
+    registration.setOrder(Ordered.LOWEST_PRECEDENCE - 100);
+    return registration;
+  }
+
+  private static void register(MeterRegistry registry, AimdLimiter limiter) {
+    Gauge.builder("product.concurrency.limit", limiter, AimdLimiter::getLimit)
+        .tag("class", limiter.getName())
+        .description("Current adaptive limit on requests in flight")
+        .register(registry);
+    Gauge.builder("product.concurrency.in-flight", limiter, AimdLimiter::getInFlight)
+        .tag("class", limiter.getName())
+        .description("Requests currently in flight")
+        .register(registry);
+    FunctionCounter.builder("product.concurrency.rejected", limiter, AimdLimiter::getRejected)
+        .tag("class", limiter.getName())
+        .description("Requests shed with 503 because the limit was reached")
+        .register(registry);
+  }
+}
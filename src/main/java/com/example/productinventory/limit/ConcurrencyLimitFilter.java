@@ -0,0 +1,77 @@
+package com.example.productinventory.limit;
+
+import com.example.productinventory.exception.ErrorResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Sheds product API requests once the database stops keeping up, instead of letting them queue
+ * until they time out. Each request is assigned an {@link EndpointClass} and must get a slot from
+ * that class's {@link AimdLimiter}; requests over the limit are answered at once with {@code 503
+ * Service Unavailable} and a {@code Retry-After} header.
+ *
+ * <p>The classes are limited separately so that, for example, slow searches cannot starve lookups
+ * by ID or writes.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+  private static final Logger logger = LoggerFactory.getLogger(ConcurrencyLimitFilter.class);
+
+  private final Map<String, AimdLimiter> limiters;
+  private final long retryAfterSeconds;
+  private final ObjectMapper objectMapper;
+
+  /**
+   * Constructs a ConcurrencyLimitFilter.
+   *
+   * @param limiters the limiter of each endpoint class
+   * @param retryAfterSeconds the delay suggested to shed clients
+   * @param objectMapper the mapper used to write the error response
+   */
+  public ConcurrencyLimitFilter(
+      Map<String, AimdLimiter> limiters, long retryAfterSeconds, ObjectMapper objectMapper) {
+    this.limiters = Map.copyOf(limiters);
+    this.retryAfterSeconds = retryAfterSeconds;
+    this.objectMapper = objectMapper;
+  }
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    AimdLimiter limiter = limiters.get(EndpointClass.of(request));
+    if (limiter == null) {
+      filterChain.doFilter(request, response);
+      return;
+    }
+    if (!limiter.tryAcquire()) {
+      logger.debug("Shedding {} request at limit {}", limiter.getName(), limiter.getLimit());
+      response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+      response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+      response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+      objectMapper.writeValue(
+          response.getOutputStream(),
+          new ErrorResponse("The server is overloaded; retry after " + retryAfterSeconds + "s."));
+      return;
+    }
+    long start = System.nanoTime();
+    boolean failed = true;
+    try {
+      filterChain.doFilter(request, response);
+      failed = response.getStatus() >= 500;
+    } finally {
+      limiter.release(System.nanoTime() - start, failed);
+    }
+  }
+}
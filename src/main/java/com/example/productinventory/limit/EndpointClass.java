@@ -0,0 +1,42 @@
+package com.example.productinventory.limit;
+
+import jakarta.servlet.http.HttpServletRequest;
+import java.util.List;
+
+/**
+ * The groups product API requests are limited by: lookups, searches and writes differ enough in
+ * cost that each gets its own limits.
+ */
+public final class EndpointClass {
+
+  /** Lookups by ID, batches and listings. */
+  public static final String READ = "read";
+
+  /** Searches, full-text queries and autocompletion. */
+  public static final String SEARCH = "search";
+
+  /** Creates, updates, deletes and stock changes. */
+  public static final String WRITE = "write";
+
+  /** All endpoint classes. */
+  public static final List<String> ALL = List.of(READ, SEARCH, WRITE);
+
+  private EndpointClass() {}
+
+  /**
+   * Assigns a request to an endpoint class.
+   *
+   * @param request the request
+   * @return {@link #READ}, {@link #SEARCH} or {@link #WRITE}
+   */
+  public static String of(HttpServletRequest request) {
+    if (!"GET".equals(request.getMethod())) {
+      return WRITE;
+    }
+    String path = request.getRequestURI();
+    if (path.contains("/search") || path.contains("/fulltext") || path.contains("/autocomplete")) {
+      return SEARCH;
+    }
+    return READ;
+  }
+}
@@ -0,0 +1,14 @@
+package com.example.productinventory.limit;
+
+import lombok.Value;
+
+/** The token bucket settings of one endpoint class. */
+@Value
+public class RateLimit {
+
+  /** The most requests a client may make in a burst. */
+  long capacity;
+
+  /** The sustained number of requests per second a client may make. */
+  double refillPerSecond;
+}
@@ -0,0 +1,94 @@
+package com.example.productinventory.limit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables per-client rate limiting of the product API. Enabled by {@code
+ * product.rate-limit.enabled}; the bucket of each endpoint class is configured by {@code
+ * product.rate-limit.<class>.capacity} and {@code product.rate-limit.<class>.refill-per-second}.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(
+  name = "product.rate-limit.enabled",
+  havingValue = "true",
+  matchIfMissing = true
+)
+public class RateLimitConfig {
+
+  /**
+   * Creates the per-client buckets and publishes the number of tracked clients and refused requests
+   * per endpoint class as metrics.
+   *
+   * @param readCapacity the burst allowed for lookups and listings
+   * @param readRefill the sustained rate allowed for lookups and listings, per second
+   * @param searchCapacity the burst allowed for searches
+   * @param searchRefill the sustained rate allowed for searches, per second
+   * @param writeCapacity the burst allowed for writes
+   * @param writeRefill the sustained rate allowed for writes, per second
+   * @param meterRegistry the registry for the rate limit metrics, if metrics are available
+   * @return the rate limiter
+   */
+  @Bean
+  public RateLimiter rateLimiter(
+      @Value("${product.rate-limit.read.capacity:200}") long readCapacity,
+      @Value("${product.rate-limit.read.refill-per-second:100}") double readRefill,
+      @Value("${product.rate-limit.search.capacity:50}") long searchCapacity,
+      @Value("${product.rate-limit.search.refill-per-second:20}") double searchRefill,
+      @Value("${product.rate-limit.write.capacity:50}") long writeCapacity,
+      @Value("${product.rate-limit.write.refill-per-second:20}") double writeRefill,
+      ObjectProvider<MeterRegistry> meterRegistry) {
+    Map<String, RateLimit> limits = new LinkedHashMap<>();
+    limits.put(EndpointClass.READ, new RateLimit(readCapacity, readRefill));
+    limits.put(EndpointClass.SEARCH, new RateLimit(searchCapacity, searchRefill));
+    limits.put(EndpointClass.WRITE, new RateLimit(writeCapacity, writeRefill));
+    RateLimiter rateLimiter = new RateLimiter(limits);
+    meterRegistry.ifAvailable(
+        registry -> {
+          for (String endpointClass : rateLimiter.getEndpointClasses()) {
+            Gauge.builder(
+                    "product.rate-limit.clients", rateLimiter, r -> r.getClients(endpointClass))
+                .tag("class", endpointClass)
+                .description("Clients with a rate limit bucket")
+                .register(registry);
+            FunctionCounter.builder(
+                    "product.rate-limit.rejected", rateLimiter, r -> r.getRejected(endpointClass))
+                .tag("class", endpointClass)
+                .description("Requests refused with 429 because the client's bucket was empty")
+                .register(registry);
+          }
+        });
+    return rateLimiter;
+  }
+
+  /**
+   * Registers the rate limit filter ahead of the concurrency limit, so that a client over its rate
+   * never takes a slot from the others.
+   *
+   * @param rateLimiter the per-client buckets
+   * @param objectMapper the application object mapper, used for the error response
+   * @return the filter registration
+   */
+  @Bean
+  public FilterRegistrationBean<RateLimitFilter> rateLimitFilter(
+      RateLimiter rateLimiter, ObjectMapper objectMapper) {
+    FilterRegistrationBean<RateLimitFilter> registration =
+        new FilterRegistrationBean<>(new RateLimitFilter(rateLimiter, objectMapper));
+    registration.addUrlPatterns("/api/v1/products/*");
+    registration.setOrder(Ordered.LOWEST_PRECEDENCE - 200);
+    return registration;
+  }
+}
@@ -0,0 +1,88 @@
+package com.example.productinventory.limit;
+
+import com.example.productinventory.exception.ErrorResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Limits how fast each client may call the product API, so that one misbehaving integration cannot
+ * use up the capacity of everyone else. Clients are identified by their {@link
+ * ClientIdentity#address} and get a {@link TokenBucket} per {@link EndpointClass}.
+ *
+ * <p>Every limited response carries {@code RateLimit-Limit}, {@code RateLimit-Remaining} and {@code
+ * RateLimit-Reset} (seconds until the bucket is full). A request with no token left is refused with
+ * {@code 429 Too Many Requests} and a {@code Retry-After} header giving the seconds until the next
+ * token.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+  /** The header giving the bucket capacity. */
+  public static final String LIMIT_HEADER = "RateLimit-Limit";
+
+  /** The header giving the tokens left. */
+  public static final String REMAINING_HEADER = "RateLimit-Remaining";
+
+  /** The header giving the seconds until the bucket is full again. */
+  public static final String RESET_HEADER = "RateLimit-Reset";
+
+  private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  private final RateLimiter rateLimiter;
+  private final ObjectMapper objectMapper;
+
+  /**
+   * Constructs a RateLimitFilter.
+   *
+   * @param rateLimiter the buckets of all clients
+   * @param objectMapper the mapper used to write the error response
+   */
+  public RateLimitFilter(RateLimiter rateLimiter, ObjectMapper objectMapper) {
+    this.rateLimiter = rateLimiter;
+    this.objectMapper = objectMapper;
+  }
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    String endpointClass = EndpointClass.of(request);
+    String client = ClientIdentity.address(request);
+    long now = System.nanoTime();
+    TokenBucket bucket = rateLimiter.bucket(endpointClass, client, now);
+    if (bucket == null) {
+      filterChain.doFilter(request, response);
+      return;
+    }
+
+    long remaining = bucket.tryAcquire(now);
+    response.setHeader(LIMIT_HEADER, Long.toString(bucket.getCapacity()));
+    response.setHeader(REMAINING_HEADER, Long.toString(Math.max(0, remaining)));
+    response.setHeader(RESET_HEADER, Long.toString(toSeconds(bucket.nanosUntilFull(now))));
+    if (remaining >= 0) {
+      filterChain.doFilter(request, response);
+      return;
+    }
+
+    rateLimiter.recordRejection(endpointClass);
+    long retryAfter = Math.max(1, toSeconds(bucket.nanosUntilToken(now)));
+    response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+    response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter));
+    response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+    objectMapper.writeValue(
+        response.getOutputStream(),
+        new ErrorResponse("Rate limit exceeded; retry after " + retryAfter + "s."));
+  }
+
+  private static long toSeconds(long nanos) {
+    return (nanos + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND;
+  }
+}
@@ -0,0 +1,134 @@
+package com.example.productinventory.limit;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Keeps one {@link TokenBucket} per client and endpoint class. Each endpoint class has its own
+ * capacity and refill rate; a client's bucket is created on its first request and dropped again
+ * once it has refilled completely, since a full bucket behaves exactly like a new one.
+ */
+public class RateLimiter {
+
+  private static final Logger logger = LoggerFactory.getLogger(RateLimiter.class);
+
+  private final Map<String, Group> groups = new LinkedHashMap<>();
+
+  /**
+   * Constructs a RateLimiter.
+   *
+   * @param limits the limit of each endpoint class; classes without an entry are not limited
+   */
+  public RateLimiter(Map<String, RateLimit> limits) {
+    limits.forEach((name, limit) -> groups.put(name, new Group(limit)));
+  }
+
+  /**
+   * Returns the bucket of a client for an endpoint class, creating a full one if needed.
+   *
+   * @param endpointClass the endpoint class of the request
+   * @param client the client identity
+   * @param nowNanos the current {@link System#nanoTime()}
+   * @return the bucket, or {@code null} if the endpoint class is not limited
+   */
+  public TokenBucket bucket(String endpointClass, String client, long nowNanos) {
+    Group group = groups.get(endpointClass);
+    if (group == null) {
+      return null;
+    }
+    TokenBucket bucket = group.buckets.get(client);
+    if (bucket == null) {
+      bucket =
+          group.buckets.computeIfAbsent(
+              client,
+              c ->
+                  new TokenBucket(
+                      group.limit.getCapacity(), group.limit.getRefillPerSecond(), nowNanos));
+    }
+    return bucket;
+  }
+
+  /**
+   * Counts a request refused by a bucket of the endpoint class.
+   *
+   * @param endpointClass the endpoint class of the request
+   */
+  public void recordRejection(String endpointClass) {
+    Group group = groups.get(endpointClass);
+    if (group != null) {
+      group.rejected.increment();
+    }
+  }
+
+  /**
+   * Drops the buckets of clients that have been idle long enough for them to refill. A request
+   * racing with the eviction may take its token from the dropped bucket; the client then starts the
+   * next request from a full bucket, which is what it would have had anyway.
+   *
+   * @return the number of buckets dropped
+   */
+  @Scheduled(
+    fixedDelayString = "${product.rate-limit.eviction-interval-ms:60000}",
+    initialDelayString = "${product.rate-limit.eviction-interval-ms:60000}"
+  )
+  public int evictIdle() {
+    long now = System.nanoTime();
+    int evicted = 0;
+    for (Group group : groups.values()) {
+      int before = group.buckets.size();
+      group.buckets.values().removeIf(bucket -> bucket.isFull(now));
+      evicted += before - group.buckets.size();
+    }
+    if (evicted > 0) {
+      logger.debug("Evicted {} idle rate limit buckets", evicted);
+    }
+    return evicted;
+  }
+
+  /**
+   * Returns the number of clients with a bucket in an endpoint class.
+   *
+   * @param endpointClass the endpoint class
+   * @return the number of tracked clients
+   */
+  public int getClients(String endpointClass) {
+    Group group = groups.get(endpointClass);
+    return group == null ? 0 : group.buckets.size();
+  }
+
+  /**
+   * Returns the number of requests refused in an endpoint class since startup.
+   *
+   * @param endpointClass the endpoint class
+   * @return the rejection count
+   */
+  public long getRejected(String endpointClass) {
+    Group group = groups.get(endpointClass);
+    return group == null ? 0 : group.rejected.sum();
+  }
+
+  /**
+   * Returns the endpoint classes that are limited.
+   *
+   * @return the limited endpoint class names
+   */
+  public Iterable<String> getEndpointClasses() {
+    return groups.keySet();
+  }
+
+  private static final class Group {
+
+    final RateLimit limit;
+    final ConcurrentHashMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    final LongAdder rejected = new LongAdder();
+
+    Group(RateLimit limit) {
+      this.limit = limit;
+    }
+  }
+}
@@ -0,0 +1,100 @@
+package com.example.productinventory.limit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A lock-free token bucket. It holds up to {@code capacity} tokens and refills continuously at
+ * {@code refillPerSecond}; each request takes one token or is refused.
+ *
+ * <p>Rather than a token count and a refill timestamp, the whole state is a single {@code long}:
+ * the instant at which the bucket would have been empty, had it refilled without limit since. The
+ * tokens available at {@code now} are {@code (now - emptyAt) / interval}, capped at the capacity,
+ * and taking a token moves {@code emptyAt} forward by one interval. That makes an acquisition a
+ * single compare-and-set, with no lock and no allocation.
+ */
+public final class TokenBucket {
+
+  private final long capacity;
+  private final long intervalNanos;
+  private final long fillNanos;
+  private final AtomicLong emptyAt;
+
+  /**
+   * Constructs a full TokenBucket.
+   *
+   * @param capacity the most tokens the bucket holds, i.e. the largest burst
+   * @param refillPerSecond the number of tokens added per second
+   * @param nowNanos the current {@link System#nanoTime()}
+   */
+  public TokenBucket(long capacity, double refillPerSecond, long nowNanos) {
+    if (capacity < 1 || refillPerSecond <= 0) {
+      throw new IllegalArgumentException("Capacity and refill rate must be positive");
+    }
+    this.capacity = capacity;
+    this.intervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / refillPerSecond));
+    this.fillNanos = capacity * intervalNanos;
+    this.emptyAt = new AtomicLong(nowNanos - fillNanos);
+  }
+
+  /**
+   * Takes a token if one is available.
+   *
+   * @param nowNanos the current {@link System#nanoTime()}
+   * @return the tokens left after taking one, or {@code -1} if the bucket was empty
+   */
+  public long tryAcquire(long nowNanos) {
+    while (true) {
+      long current = emptyAt.get();
+      // A bucket idle for longer than it takes to fill is simply full.
+      long base = nowNanos - current > fillNanos ? nowNanos - fillNanos : current;
+      long next = base + intervalNanos;
+      if (nowNanos - next < 0) {
+        return -1;
+      }
+      if (emptyAt.compareAndSet(current, next)) {
+        return (nowNanos - next) / intervalNanos;
+      }
+    }
+  }
+
+  /**
+   * Returns how long until the next token is available.
+   *
+   * @param nowNanos the current {@link System#nanoTime()}
+   * @return the wait in nanoseconds, {@code 0} if a token is available now
+   */
+  public long nanosUntilToken(long nowNanos) {
+    return Math.max(0, emptyAt.get() + intervalNanos - nowNanos);
+  }
+
+  /**
+   * Returns how long until the bucket is full again.
+   *
+   * @param nowNanos the current {@link System#nanoTime()}
+   * @return the wait in nanoseconds, {@code 0} if the bucket is full
+   */
+  public long nanosUntilFull(long nowNanos) {
+    return Math.max(0, emptyAt.get() + fillNanos - nowNanos);
+  }
+
+  /**
+   * Returns whether the bucket is full, in which case it is indistinguishable from a new one and
+   * can be discarded.
+   *
+   * @param nowNanos the current {@link System#nanoTime()}
+   * @return {@code true} if the bucket holds its full capacity
+   */
+  public boolean isFull(long nowNanos) {
+    return nowNanos - emptyAt.get() >= fillNanos;
+  }
+
+  /**
+   * Returns the most tokens the bucket holds.
+   *
+   * @return the capacity
+   */
+  public long getCapacity() {
+    return capacity;
+  }
+}
@@ -0,0 +1,31 @@
+package com.example.productinventory.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * Category entity grouping products in the inventory system. Categories are reference data
+ * maintained through database migrations; products refer to them by ID.
+ */
+@Entity
+@Table(name = "categories")
+@Data
+@Schema(description = "Category entity grouping products in the inventory system")
+public class Category {
+  /** Unique identifier of the category. */
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @Schema(description = "Unique identifier of the category", example = "1")
+  private Long id;
+
+  /** Unique name of the category. */
+  @Column(nullable = false, unique = true, length = 100)
+  @Schema(description = "Name of the category", example = "Laptops")
+  private String name;
+
+  /** Description of the category. */
+  @Column(length = 500)
+  @Schema(description = "Description of the category", example = "Portable computers")
+  private String description;
+}
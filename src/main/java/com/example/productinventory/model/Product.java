@@ -6,6 +6,7 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import jakarta.validation.constraints.Size;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -51,9 +52,9 @@ public class Product {
   @Schema(description = "Price of the product", example = "999.99", required = true)
   private BigDecimal price;
 
-  /** Quantity of the product in stock. Must be a positive integer. */
+  /** Quantity of the product in stock. Must be zero or a positive integer. */
   @NotNull(message = "Quantity is required")
-  @Positive(message = "Product quantity cannot be negative.")
+  @PositiveOrZero(message = "Product quantity cannot be negative.")
   @Column(nullable = false)
   @Schema(description = "Quantity of the product in stock", example = "10", required = true)
   private Integer quantity;
@@ -96,8 +97,11 @@ public class Product {
   @Schema(description = "Timestamp when the product was last updated")
   private LocalDateTime updatedAt;
 
-  // Optional: Category relationship
-  // @ManyToOne(fetch = FetchType.LAZY)
-  // @JoinColumn(name = "category_id")
-  // private Category category;
+  /**
+   * ID of the {@link Category} of the product, if any. Mapped as a plain foreign key column so that
+   * listing products never loads or serializes their categories.
+   */
+  @Column(name = "category_id")
+  @Schema(description = "ID of the category of the product", example = "1")
+  private Long categoryId;
 }
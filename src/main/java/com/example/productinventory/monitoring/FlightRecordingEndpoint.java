@@ -0,0 +1,115 @@
+package com.example.productinventory.monitoring;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint at {@code /actuator/flightrecording} that starts a time-bounded Java Flight
+ * Recorder recording including {@link ProductOperationEvent}s. The JVM writes the {@code .jfr} file
+ * to the configured directory when the recording duration elapses, so the request returns
+ * immediately.
+ */
+@Component
+@Endpoint(id = "flightrecording")
+public class FlightRecordingEndpoint {
+
+  private static final Logger logger = LoggerFactory.getLogger(FlightRecordingEndpoint.class);
+  private static final DateTimeFormatter FILE_TIMESTAMP =
+      DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+  @Value("${product.jfr.directory:recordings}")
+  private String directory;
+
+  @Value("${product.jfr.default-duration-seconds:60}")
+  private int defaultDurationSeconds;
+
+  @Value("${product.jfr.max-duration-seconds:600}")
+  private int maxDurationSeconds;
+
+  /**
+   * Starts a recording that stops and dumps itself after the given duration.
+   *
+   * @param durationSeconds the recording length, capped at the configured maximum
+   * @param settings the JFR settings to use, {@code default} or {@code profile}
+   * @return details of the started recording, including the target file
+   */
+  @WriteOperation
+  public Map<String, Object> start(@Nullable Integer durationSeconds, @Nullable String settings) {
+    int seconds = durationSeconds == null ? defaultDurationSeconds : durationSeconds;
+    if (seconds <= 0 || seconds > maxDurationSeconds) {
+      throw new IllegalArgumentException(
+          "durationSeconds must be between 1 and " + maxDurationSeconds);
+    }
+    String settingsName = settings == null ? "profile" : settings;
+    try {
+      Path dir = Files.createDirectories(Paths.get(directory));
+      Path file =
+          dir.resolve("product-inventory-" + LocalDateTime.now().format(FILE_TIMESTAMP) + ".jfr")
+              .toAbsolutePath();
+
+      Recording recording = new Recording(Configuration.getConfiguration(settingsName));
+      recording.setName(file.getFileName().toString());
+      recording.enable(ProductOperationEvent.class);
+      recording.setDuration(Duration.ofSeconds(seconds));
+      recording.setDestination(file);
+      recording.setToDisk(true);
+      recording.start();
+      logger.info("Started flight recording {} for {}s to {}", recording.getId(), seconds, file);
+      return describe(recording);
+    } catch (IOException | ParseException ex) {
+      throw new IllegalStateException("Could not start flight recording: " + ex.getMessage(), ex);
+    }
+  }
+
+  /**
+   * Lists the recordings known to the flight recorder.
+   *
+   * @return the ID, name, state, duration and destination of each recording
+   */
+  @ReadOperation
+  public List<Map<String, Object>> recordings() {
+    List<Map<String, Object>> result = new ArrayList<>();
+    if (!FlightRecorder.isAvailable()) {
+      return result;
+    }
+    for (Recording recording : FlightRecorder.getFlightRecorder().getRecordings()) {
+      result.add(describe(recording));
+    }
+    return result;
+  }
+
+  private static Map<String, Object> describe(Recording recording) {
+    Map<String, Object> body = new LinkedHashMap<>();
+    body.put("id", recording.getId());
+    body.put("name", recording.getName());
+    body.put("state", recording.getState().name());
+    body.put(
+        "durationSeconds",
+        recording.getDuration() == null ? null : recording.getDuration().toSeconds());
+    body.put(
+        "destination",
+        recording.getDestination() == null ? null : recording.getDestination().toString());
+    return body;
+  }
+}
@@ -0,0 +1,72 @@
+package com.example.productinventory.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder event emitted for every product service operation and every product response
+ * written as JSON. Carries the business context (product ID or SKU, search query, rows returned,
+ * cache outcome) that plain Spring and Hibernate frames do not show, so latency spikes in a
+ * recording can be tied to specific products and queries. The event duration covers the whole
+ * service call or write.
+ */
+@Name("com.example.productinventory.ProductOperation")
+@Label("Product Operation")
+@Category({"Product Inventory", "Service"})
+@Description("A create, update, delete, lookup or search in the product service, or a JSON write")
+@StackTrace(false)
+public class ProductOperationEvent extends Event {
+
+  @Label("Operation")
+  @Description("Name of the service operation")
+  public String operation;
+
+  @Label("Product ID")
+  @Description("ID of the product, or 0 if the operation is not bound to a single product")
+  public long productId;
+
+  @Label("SKU")
+  public String sku;
+
+  @Label("Query")
+  @Description("Search parameters for list and search operations")
+  public String query;
+
+  @Label("Rows Returned")
+  public long rowsReturned;
+
+  @Label("Cache Hit")
+  @Description(
+      "Whether the result was served from the facet cache, the JSON cache or, while the database"
+          + " is failing, a last known good copy")
+  public boolean cacheHit;
+
+  @Label("Success")
+  @Description("False if the operation ended with an exception")
+  public boolean success;
+
+  /**
+   * Creates an event for the given operation and starts its timer.
+   *
+   * @param operation the name of the service operation
+   * @return the started event
+   */
+  public static ProductOperationEvent start(String operation) {
+    ProductOperationEvent event = new ProductOperationEvent();
+    event.operation = operation;
+    event.begin();
+    return event;
+  }
+
+  /** Stops the timer and commits the event if it is enabled and above its threshold. */
+  public void finish() {
+    end();
+    if (shouldCommit()) {
+      commit();
+    }
+  }
+}
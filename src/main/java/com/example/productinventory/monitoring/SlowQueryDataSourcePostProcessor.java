@@ -0,0 +1,83 @@
+package com.example.productinventory.monitoring;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Wraps every {@link DataSource} bean in a proxy that times each statement and hands slow ones to a
+ * {@link SlowQueryListener}. Enabled by {@code product.slow-query.enabled}.
+ *
+ * <p>The listeners of all wrapped data sources share one {@code EXPLAIN} thread with a bounded
+ * queue, which is shut down with the application context.
+ *
+ * <p>Only data sources registered as beans are wrapped. The shard pools of the sharded mode are
+ * created inside {@code ShardingConfig} and are not beans, so statements run on the shards are not
+ * recorded.
+ */
+@Component
+@ConditionalOnProperty(name = "product.slow-query.enabled", havingValue = "true")
+public class SlowQueryDataSourcePostProcessor implements BeanPostProcessor, DisposableBean {
+
+  private final ObjectProvider<SlowQueryLog> slowQueryLog;
+
+  /** Runs the {@code EXPLAIN} statements of every listener, dropping them when it falls behind. */
+  private final ThreadPoolExecutor explainExecutor =
+      new ThreadPoolExecutor(
+          1,
+          1,
+          0L,
+          TimeUnit.MILLISECONDS,
+          new ArrayBlockingQueue<>(100),
+          runnable -> {
+            Thread thread = new Thread(runnable, "slow-query-explain");
+            thread.setDaemon(true);
+            return thread;
+          },
+          new ThreadPoolExecutor.DiscardPolicy());
+
+  @Value("${product.slow-query.threshold-ms:200}")
+  private long thresholdMs;
+
+  @Value("${product.slow-query.redact-parameters:true}")
+  private boolean redactParameters;
+
+  @Value("${product.slow-query.explain:true}")
+  private boolean explain;
+
+  public SlowQueryDataSourcePostProcessor(ObjectProvider<SlowQueryLog> slowQueryLog) {
+    this.slowQueryLog = slowQueryLog;
+  }
+
+  @Override
+  public Object postProcessAfterInitialization(Object bean, String beanName) {
+    if (!(bean instanceof DataSource) || bean instanceof ProxyDataSource) {
+      return bean;
+    }
+    DataSource dataSource = (DataSource) bean;
+    SlowQueryListener listener =
+        new SlowQueryListener(
+            slowQueryLog.getObject(),
+            dataSource,
+            thresholdMs,
+            redactParameters,
+            explain,
+            explainExecutor);
+    return ProxyDataSourceBuilder.create(dataSource).name(beanName).listener(listener).build();
+  }
+
+  /** Stops the {@code EXPLAIN} thread, dropping plans that are still queued. */
+  @Override
+  public void destroy() {
+    explainExecutor.shutdownNow();
+  }
+}
@@ -0,0 +1,48 @@
+package com.example.productinventory.monitoring;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint exposing the slow query log at {@code /actuator/slowqueries}. A GET returns the
+ * buffered records, most recent first; a DELETE clears the buffer.
+ */
+@Component
+@Endpoint(id = "slowqueries")
+public class SlowQueryEndpoint {
+
+  private final SlowQueryLog slowQueryLog;
+
+  @Value("${product.slow-query.threshold-ms:200}")
+  private long thresholdMs;
+
+  public SlowQueryEndpoint(SlowQueryLog slowQueryLog) {
+    this.slowQueryLog = slowQueryLog;
+  }
+
+  /**
+   * Returns the slow query log together with its configuration.
+   *
+   * @return the threshold, capacity, total captured count and buffered records
+   */
+  @ReadOperation
+  public Map<String, Object> slowQueries() {
+    Map<String, Object> body = new LinkedHashMap<>();
+    body.put("thresholdMs", thresholdMs);
+    body.put("capacity", slowQueryLog.getCapacity());
+    body.put("totalCaptured", slowQueryLog.getTotalCaptured());
+    body.put("records", slowQueryLog.getRecords());
+    return body;
+  }
+
+  /** Clears the slow query log. */
+  @DeleteOperation
+  public void clear() {
+    slowQueryLog.clear();
+  }
+}
@@ -0,0 +1,191 @@
+package com.example.productinventory.monitoring;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executor;
+import javax.sql.DataSource;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Query execution listener that records statements slower than a configured threshold into the
+ * {@link SlowQueryLog}. The H2 execution plan is captured with {@code EXPLAIN} on a background
+ * executor against the unwrapped data source, so the request that ran the slow query does not pay
+ * for the plan lookup. The executor is owned by whoever creates the listener and may be shared by
+ * the listeners of several data sources.
+ */
+public class SlowQueryListener implements QueryExecutionListener {
+
+  private static final Logger logger = LoggerFactory.getLogger(SlowQueryListener.class);
+
+  private final SlowQueryLog slowQueryLog;
+  private final DataSource explainDataSource;
+  private final long thresholdMs;
+  private final boolean redactParameters;
+  private final boolean explain;
+  private final Executor explainExecutor;
+
+  /**
+   * Constructs a SlowQueryListener.
+   *
+   * @param slowQueryLog the buffer that receives slow query records
+   * @param explainDataSource the unwrapped data source used to run {@code EXPLAIN}
+   * @param thresholdMs the minimum execution time for a statement to be recorded
+   * @param redactParameters whether parameter values are replaced by placeholders
+   * @param explain whether the execution plan is captured
+   * @param explainExecutor runs the {@code EXPLAIN} statements; it should drop work rather than
+   *     block when it falls behind
+   */
+  public SlowQueryListener(
+      SlowQueryLog slowQueryLog,
+      DataSource explainDataSource,
+      long thresholdMs,
+      boolean redactParameters,
+      boolean explain,
+      Executor explainExecutor) {
+    this.slowQueryLog = slowQueryLog;
+    this.explainDataSource = explainDataSource;
+    this.thresholdMs = thresholdMs;
+    this.redactParameters = redactParameters;
+    this.explain = explain;
+    this.explainExecutor = explainExecutor;
+  }
+
+  @Override
+  public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    // Nothing to do before execution
+  }
+
+  @Override
+  public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    long elapsed = execInfo.getElapsedTime();
+    if (elapsed < thresholdMs || queryInfoList.isEmpty()) {
+      return;
+    }
+    Instant capturedAt = Instant.now();
+    String thread = Thread.currentThread().getName();
+    for (QueryInfo queryInfo : queryInfoList) {
+      String sql = queryInfo.getQuery();
+      List<List<ParameterSetOperation>> parameterSets = queryInfo.getParametersList();
+      List<ParameterSetOperation> firstSet =
+          parameterSets.isEmpty() ? List.of() : parameterSets.get(0);
+      List<Object> rawValues = parameterValues(firstSet);
+      List<String> displayed = rawValues.stream().map(this::display).toList();
+      int batchSize = Math.max(1, parameterSets.size());
+
+      logger.warn("Slow query ({} ms): {} {}", elapsed, sql, displayed);
+
+      if (explain && isExplainable(sql)) {
+        explainExecutor.execute(
+            () ->
+                slowQueryLog.add(
+                    new SlowQueryRecord(
+                        capturedAt,
+                        elapsed,
+                        sql,
+                        displayed,
+                        batchSize,
+                        explain(sql, rawValues),
+                        thread)));
+      } else {
+        slowQueryLog.add(
+            new SlowQueryRecord(
+                capturedAt, elapsed, sql, displayed, batchSize, "not captured", thread));
+      }
+    }
+  }
+
+  /**
+   * Runs {@code EXPLAIN} for the given statement with the original parameter values bound.
+   *
+   * @param sql the statement to explain
+   * @param values the parameter values in index order
+   * @return the execution plan, or the reason it could not be obtained
+   */
+  private String explain(String sql, List<Object> values) {
+    try (Connection connection = explainDataSource.getConnection();
+        PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+      for (int i = 0; i < values.size(); i++) {
+        statement.setObject(i + 1, values.get(i));
+      }
+      StringBuilder plan = new StringBuilder();
+      try (ResultSet resultSet = statement.executeQuery()) {
+        while (resultSet.next()) {
+          plan.append(resultSet.getString(1));
+        }
+      }
+      return plan.toString();
+    } catch (SQLException ex) {
+      logger.debug("Could not explain slow query: {}", ex.getMessage());
+      return "unavailable: " + ex.getMessage();
+    }
+  }
+
+  /**
+   * Extracts the bound values from a parameter set, ordered by parameter index.
+   *
+   * @param operations the recorded {@code setXxx} calls
+   * @return the values in index order, with {@code null} for {@code setNull}
+   */
+  private static List<Object> parameterValues(List<ParameterSetOperation> operations) {
+    List<ParameterSetOperation> sorted = new ArrayList<>(operations);
+    sorted.sort(
+        Comparator.comparingInt(
+            op ->
+                op.getArgs()[0] instanceof Integer
+                    ? (Integer) op.getArgs()[0]
+                    : Integer.MAX_VALUE));
+    List<Object> values = new ArrayList<>(sorted.size());
+    for (ParameterSetOperation operation : sorted) {
+      boolean isNull = "setNull".equals(operation.getMethod().getName());
+      values.add(isNull ? null : operation.getArgs()[1]);
+    }
+    return values;
+  }
+
+  /**
+   * Renders a parameter value for display. Any bound value may carry user input, such as a search
+   * term, a price or a date, so when redaction is enabled every value but {@code NULL} is replaced
+   * by a placeholder; strings keep their length.
+   *
+   * @param value the parameter value
+   * @return the display form of the value
+   */
+  private String display(Object value) {
+    if (value == null) {
+      return "NULL";
+    }
+    if (value instanceof CharSequence) {
+      CharSequence text = (CharSequence) value;
+      return redactParameters ? "<redacted:" + text.length() + " chars>" : "'" + text + "'";
+    }
+    return redactParameters ? "<redacted>" : String.valueOf(value);
+  }
+
+  /**
+   * Checks whether H2 can explain the statement.
+   *
+   * @param sql the statement
+   * @return true for SELECT, INSERT, UPDATE, DELETE and MERGE statements
+   */
+  private static boolean isExplainable(String sql) {
+    String head = sql.stripLeading().toLowerCase(Locale.ROOT);
+    return head.startsWith("select")
+        || head.startsWith("insert")
+        || head.startsWith("update")
+        || head.startsWith("delete")
+        || head.startsWith("merge")
+        || head.startsWith("with");
+  }
+}
@@ -0,0 +1,79 @@
+package com.example.productinventory.monitoring;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded in-memory ring buffer of slow statements. Once the buffer is full the oldest entry is
+ * dropped for every new one, so memory use stays constant no matter how many slow queries occur.
+ */
+@Component
+public class SlowQueryLog {
+
+  private final int capacity;
+  private final Deque<SlowQueryRecord> records;
+  private final AtomicLong totalCaptured = new AtomicLong();
+
+  public SlowQueryLog(@Value("${product.slow-query.capacity:100}") int capacity) {
+    this.capacity = Math.max(1, capacity);
+    this.records = new ArrayDeque<>(this.capacity);
+  }
+
+  /**
+   * Adds a record, evicting the oldest one if the buffer is full.
+   *
+   * @param record the slow query record to add
+   */
+  public void add(SlowQueryRecord record) {
+    totalCaptured.incrementAndGet();
+    synchronized (records) {
+      if (records.size() == capacity) {
+        records.removeFirst();
+      }
+      records.addLast(record);
+    }
+  }
+
+  /**
+   * Returns the buffered records, most recent first.
+   *
+   * @return a copy of the buffered records
+   */
+  public List<SlowQueryRecord> getRecords() {
+    synchronized (records) {
+      List<SlowQueryRecord> copy = new ArrayList<>(records.size());
+      records.descendingIterator().forEachRemaining(copy::add);
+      return copy;
+    }
+  }
+
+  /** Removes all buffered records. */
+  public void clear() {
+    synchronized (records) {
+      records.clear();
+    }
+  }
+
+  /**
+   * Returns the maximum number of records kept.
+   *
+   * @return the buffer capacity
+   */
+  public int getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * Returns the number of slow queries captured since startup, including evicted ones.
+   *
+   * @return the total number of captured records
+   */
+  public long getTotalCaptured() {
+    return totalCaptured.get();
+  }
+}
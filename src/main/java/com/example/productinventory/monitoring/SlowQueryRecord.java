@@ -0,0 +1,34 @@
+package com.example.productinventory.monitoring;
+
+import java.time.Instant;
+import java.util.List;
+import lombok.Value;
+
+/**
+ * A single entry of the slow query log. Captures the statement, its bound parameters (redacted
+ * where configured), the execution time and the H2 execution plan at the time of capture.
+ */
+@Value
+public class SlowQueryRecord {
+
+  /** The time the statement finished executing. */
+  Instant capturedAt;
+
+  /** The execution time in milliseconds. */
+  long durationMs;
+
+  /** The SQL statement as sent to the database. */
+  String sql;
+
+  /** The bound parameter values in index order. */
+  List<String> parameters;
+
+  /** The number of parameter sets, greater than one for batched statements. */
+  int batchSize;
+
+  /** The output of {@code EXPLAIN} for the statement, or a note if it was not captured. */
+  String plan;
+
+  /** The name of the thread that executed the statement. */
+  String thread;
+}
@@ -0,0 +1,87 @@
+package com.example.productinventory.reactive;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+/**
+ * Sets up the R2DBC side of the reactive deployment mode, which is selected with {@code
+ * spring.main.web-application-type=reactive}. The connection pool is configured by {@code
+ * product.reactive.r2dbc.*} and should point at the same database as {@code spring.datasource.*},
+ * which Flyway still migrates over JDBC.
+ *
+ * <p>The pool is deliberately not exposed as a {@code ConnectionFactory} bean: Spring Boot backs
+ * off its JDBC data source when one exists, and the rest of the application still needs it.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveConfig implements DisposableBean {
+
+  private final ConnectionPool pool;
+
+  /**
+   * Creates the R2DBC connection pool.
+   *
+   * @param url the R2DBC URL of the database
+   * @param username the database user name
+   * @param password the database password
+   * @param maxPoolSize the maximum number of connections
+   */
+  public ReactiveConfig(
+      @Value("${product.reactive.r2dbc.url:r2dbc:h2:mem:///testdb}") String url,
+      @Value("${product.reactive.r2dbc.username:sa}") String username,
+      @Value("${product.reactive.r2dbc.password:}") String password,
+      @Value("${product.reactive.r2dbc.max-pool-size:10}") int maxPoolSize) {
+    ConnectionFactoryOptions options =
+        ConnectionFactoryOptions.parse(url)
+            .mutate()
+            .option(ConnectionFactoryOptions.USER, username)
+            .option(ConnectionFactoryOptions.PASSWORD, password)
+            .build();
+    this.pool =
+        new ConnectionPool(
+            ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .name("reactive")
+                .maxSize(maxPoolSize)
+                .build());
+  }
+
+  /**
+   * Serves the reactive mode from Reactor Netty's event loops. Spring Boot would otherwise pick
+   * Tomcat, which is on the classpath for the servlet mode.
+   *
+   * @return the Netty server factory
+   */
+  @Bean
+  public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+    return new NettyReactiveWebServerFactory();
+  }
+
+  /**
+   * Creates the reactive product repository.
+   *
+   * @return the repository
+   */
+  @Bean
+  public ReactiveProductRepository reactiveProductRepository() {
+    return new ReactiveProductRepository(
+        DatabaseClient.create(pool),
+        TransactionalOperator.create(new R2dbcTransactionManager(pool)));
+  }
+
+  /** Closes the connection pool. */
+  @Override
+  public void destroy() {
+    pool.dispose();
+  }
+}
@@ -0,0 +1,134 @@
+package com.example.productinventory.reactive;
+
+import com.example.productinventory.exception.ErrorResponse;
+import com.example.productinventory.exception.ProductBadRequestException;
+import com.example.productinventory.exception.ProductConflictException;
+import com.example.productinventory.exception.ProductException;
+import com.example.productinventory.exception.ProductNotFoundException;
+import com.example.productinventory.exception.ProductOptimisticLockException;
+import com.example.productinventory.exception.ProductUnprocessableEntityException;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.ServerWebInputException;
+
+/**
+ * Error handling for the reactive deployment mode, producing the same status codes and bodies as
+ * {@link com.example.productinventory.exception.GlobalExceptionHandler} does for the servlet API.
+ */
+@RestControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveExceptionHandler {
+
+  private static final Logger logger = LoggerFactory.getLogger(ReactiveExceptionHandler.class);
+
+  /**
+   * Handles a failed bean validation of a request body.
+   *
+   * @param ex the validation exception
+   * @param request the request
+   * @return the validation errors with HTTP status 400 (Bad Request)
+   */
+  @ExceptionHandler(WebExchangeBindException.class)
+  public ResponseEntity<Object> handleValidationException(
+      WebExchangeBindException ex, ServerHttpRequest request) {
+    Map<String, Object> body = new LinkedHashMap<>();
+    body.put("timestamp", LocalDateTime.now());
+    body.put("status", HttpStatus.BAD_REQUEST.value());
+    body.put("error", "Validation Error");
+    body.put("message", "Validation failed for the request");
+    Map<String, String> errors = new LinkedHashMap<>();
+    for (FieldError error : ex.getBindingResult().getFieldErrors()) {
+      errors.put(error.getField(), error.getDefaultMessage());
+    }
+    body.put("errors", errors);
+    body.put("path", request.getPath().value());
+    return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(body);
+  }
+
+  /**
+   * Handles an unreadable request body or a malformed parameter.
+   *
+   * @param ex the input exception
+   * @return the error message with HTTP status 400 (Bad Request)
+   */
+  @ExceptionHandler(ServerWebInputException.class)
+  public ResponseEntity<Object> handleInputException(ServerWebInputException ex) {
+    return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new ErrorResponse(ex.getReason()));
+  }
+
+  /**
+   * Handles a request for a missing product.
+   *
+   * @param ex the exception
+   * @return the error message with HTTP status 404 (Not Found)
+   */
+  @ExceptionHandler(ProductNotFoundException.class)
+  public ResponseEntity<Object> handleNotFoundException(ProductNotFoundException ex) {
+    return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ErrorResponse(ex.getMessage()));
+  }
+
+  /**
+   * Handles a write that conflicts with the current state, such as a duplicate SKU or a stale
+   * version.
+   *
+   * @param ex the exception
+   * @return the error message with HTTP status 409 (Conflict)
+   */
+  @ExceptionHandler({ProductConflictException.class, ProductOptimisticLockException.class})
+  public ResponseEntity<Object> handleConflictException(ProductException ex) {
+    return ResponseEntity.status(HttpStatus.CONFLICT).body(new ErrorResponse(ex.getMessage()));
+  }
+
+  /**
+   * Handles an invalid request parameter.
+   *
+   * @param ex the exception
+   * @return the error message with HTTP status 400 (Bad Request)
+   */
+  @ExceptionHandler(ProductBadRequestException.class)
+  public ResponseEntity<Object> handleBadRequestException(ProductBadRequestException ex) {
+    return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new ErrorResponse(ex.getMessage()));
+  }
+
+  /**
+   * Handles a request that is well-formed but cannot be processed.
+   *
+   * @param ex the exception
+   * @param request the request
+   * @return the error details with HTTP status 422 (Unprocessable Entity)
+   */
+  @ExceptionHandler(ProductUnprocessableEntityException.class)
+  public ResponseEntity<Object> handleUnprocessableEntityException(
+      ProductUnprocessableEntityException ex, ServerHttpRequest request) {
+    Map<String, Object> body = new LinkedHashMap<>();
+    body.put("timestamp", LocalDateTime.now());
+    body.put("status", HttpStatus.UNPROCESSABLE_ENTITY.value());
+    body.put("error", "Unprocessable Entity");
+    body.put("message", ex.getMessage());
+    body.put("path", request.getPath().value());
+    return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(body);
+  }
+
+  /**
+   * Handles any other product exception with the status it carries.
+   *
+   * @param ex the exception
+   * @return the error message with the exception's HTTP status
+   */
+  @ExceptionHandler(ProductException.class)
+  public ResponseEntity<Object> handleProductException(ProductException ex) {
+    logger.error("Product exception occurred: {}", ex.getMessage(), ex);
+    return ResponseEntity.status(ex.getStatus()).body(new ErrorResponse(ex.getMessage()));
+  }
+}
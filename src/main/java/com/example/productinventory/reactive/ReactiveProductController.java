@@ -0,0 +1,268 @@
+package com.example.productinventory.reactive;
+
+import com.example.productinventory.dto.PaginatedResponse;
+import com.example.productinventory.dto.ProductDTO;
+import com.example.productinventory.event.ProductChangedEvent;
+import com.example.productinventory.event.ProductState;
+import com.example.productinventory.exception.ProductNotFoundException;
+import com.example.productinventory.model.Product;
+import com.example.productinventory.service.ProductRequestValidator;
+import com.example.productinventory.service.ProductWriteErrors;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import java.time.LocalDateTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Serves the core product API through WebFlux in the reactive deployment mode: listing, lookup by
+ * ID, export, creation, update and deletion, with the same paths, parameters, validation and
+ * responses as {@link com.example.productinventory.controller.ProductController}. Requests never
+ * block a thread; database work goes through the {@link ReactiveProductRepository}.
+ *
+ * <p>Listings and the export can be streamed: with {@code Accept: application/x-ndjson} each
+ * product is written as its own line as soon as it is read from the database.
+ *
+ * <p>Change events are published on the bounded elastic scheduler, because their listeners, such as
+ * the search index and the analytics, take locks and write to disk. The response is sent once they
+ * have run, as in the servlet mode.
+ */
+@RestController
+@RequestMapping("/api/v1/products")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Tag(name = "Product Controller", description = "APIs for managing products")
+public class ReactiveProductController {
+
+  private static final Logger logger = LoggerFactory.getLogger(ReactiveProductController.class);
+
+  private final ReactiveProductRepository repository;
+  private final ProductRequestValidator validator;
+  private final ApplicationEventPublisher eventPublisher;
+
+  /**
+   * Constructs a ReactiveProductController.
+   *
+   * @param repository the reactive product repository
+   * @param validator the request validator shared with the servlet API
+   * @param eventPublisher publishes product change events for caches and read models
+   */
+  public ReactiveProductController(
+      ReactiveProductRepository repository,
+      ProductRequestValidator validator,
+      ApplicationEventPublisher eventPublisher) {
+    this.repository = repository;
+    this.validator = validator;
+    this.eventPublisher = eventPublisher;
+  }
+
+  /**
+   * Retrieves one page of products, with the page metadata.
+   *
+   * @param page the page number (0-based)
+   * @param size the number of items per page
+   * @param sortBy the field to sort by
+   * @param direction the direction of sorting (asc or desc)
+   * @param categoryId category ID to filter by (optional)
+   * @return the paginated response
+   */
+  @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+  public Mono<PaginatedResponse<Product>> getAllProducts(
+      @RequestParam(defaultValue = "0") int page,
+      @RequestParam(defaultValue = "10") int size,
+      @RequestParam(defaultValue = "name") String sortBy,
+      @RequestParam(defaultValue = "asc") String direction,
+      @RequestParam(required = false) Long categoryId) {
+    Flux<Product> items = streamProducts(page, size, sortBy, direction, categoryId);
+    return Mono.zip(items.collectList(), repository.count(categoryId))
+        .map(
+            result -> {
+              long total = result.getT2();
+              return new PaginatedResponse<>(
+                  result.getT1(), page, (int) ((total + size - 1) / size), total, size);
+            });
+  }
+
+  /**
+   * Streams one page of products as newline-delimited JSON, without page metadata.
+   *
+   * @param page the page number (0-based)
+   * @param size the number of items per page
+   * @param sortBy the field to sort by
+   * @param direction the direction of sorting (asc or desc)
+   * @param categoryId category ID to filter by (optional)
+   * @return the products of the page
+   */
+  @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public Flux<Product> streamProducts(
+      @RequestParam(defaultValue = "0") int page,
+      @RequestParam(defaultValue = "10") int size,
+      @RequestParam(defaultValue = "name") String sortBy,
+      @RequestParam(defaultValue = "asc") String direction,
+      @RequestParam(required = false) Long categoryId) {
+    validator.validatePage(page);
+    validator.validateSize(size);
+    validator.validateSort(sortBy, direction);
+    return repository.findPage(
+        categoryId,
+        sortColumn(sortBy),
+        "desc".equalsIgnoreCase(direction),
+        (long) page * size,
+        size);
+  }
+
+  /**
+   * Streams every product in ID order, as a JSON array or as newline-delimited JSON.
+   *
+   * @return all products
+   */
+  @GetMapping(
+    value = "/export",
+    produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE}
+  )
+  public Flux<Product> exportProducts() {
+    return repository.streamAll();
+  }
+
+  /**
+   * Retrieves a product by its ID.
+   *
+   * @param id the ID of the product
+   * @return the product
+   */
+  @GetMapping("/{id}")
+  public Mono<Product> getProductById(
+      @Parameter(description = "Product ID", example = "1") @PathVariable Long id) {
+    validator.validateProductId(id);
+    return repository
+        .findById(id)
+        .switchIfEmpty(
+            Mono.error(() -> new ProductNotFoundException("Product not found with id: " + id)));
+  }
+
+  /**
+   * Creates a new product.
+   *
+   * @param productDTO the product details to create
+   * @return the created product, with HTTP status 201 (Created)
+   */
+  @PostMapping
+  public Mono<ResponseEntity<Product>> createProduct(@Valid @RequestBody ProductDTO productDTO) {
+    validator.validateProductDTO(productDTO);
+    return repository
+        .insert(toProduct(productDTO))
+        .onErrorMap(
+            DataIntegrityViolationException.class, e -> ProductWriteErrors.translate(e, productDTO))
+        .flatMap(
+            created ->
+                publish(ProductChangedEvent.created(ProductState.of(created))).thenReturn(created))
+        .doOnNext(
+            created -> logger.info("Product created successfully with ID: {}", created.getId()))
+        .map(created -> ResponseEntity.status(HttpStatus.CREATED).body(created));
+  }
+
+  /**
+   * Updates a product if its version still matches.
+   *
+   * @param id the ID of the product
+   * @param productDTO the new product details
+   * @param version the version of the product the client read
+   * @return the updated product
+   */
+  @PutMapping("/{id}")
+  public Mono<Product> updateProduct(
+      @PathVariable Long id,
+      @Valid @RequestBody ProductDTO productDTO,
+      @RequestParam Integer version) {
+    validator.validateProductId(id);
+    validator.validateProductDTO(productDTO);
+    Product values = toProduct(productDTO);
+    values.setUpdatedAt(LocalDateTime.now());
+    return repository
+        .updateIfVersionMatches(id, version, values)
+        .onErrorMap(
+            DataIntegrityViolationException.class, e -> ProductWriteErrors.translate(e, productDTO))
+        .switchIfEmpty(Mono.defer(() -> staleOrMissing(id)))
+        .flatMap(
+            previous -> {
+              values.setId(id);
+              values.setVersion(previous.getVersion() + 1);
+              values.setCreatedAt(previous.getCreatedAt());
+              return publish(
+                      ProductChangedEvent.updated(
+                          ProductState.of(previous), ProductState.of(values)))
+                  .thenReturn(values);
+            });
+  }
+
+  /**
+   * Deletes a product.
+   *
+   * @param id the ID of the product
+   * @return HTTP status 204 (No Content)
+   */
+  @DeleteMapping("/{id}")
+  public Mono<ResponseEntity<Void>> deleteProduct(@PathVariable Long id) {
+    validator.validateProductId(id);
+    return repository
+        .deleteById(id)
+        .switchIfEmpty(
+            Mono.error(() -> new ProductNotFoundException("Product not found with id: " + id)))
+        .flatMap(deleted -> publish(ProductChangedEvent.deleted(ProductState.of(deleted))))
+        .thenReturn(ResponseEntity.noContent().build());
+  }
+
+  private <T> Mono<T> staleOrMissing(Long id) {
+    return repository
+        .existsById(id)
+        .flatMap(exists -> Mono.error(ProductWriteErrors.staleOrMissing(id, exists)));
+  }
+
+  /**
+   * Publishes a change event off the event loop, since its listeners may block.
+   *
+   * @param event the change event
+   * @return completes once every listener has run
+   */
+  private Mono<Void> publish(ProductChangedEvent event) {
+    return Mono.fromRunnable(() -> eventPublisher.publishEvent(event))
+        .subscribeOn(Schedulers.boundedElastic())
+        .then();
+  }
+
+  /** Maps a validated sort field to its column, e.g. {@code createdAt} to {@code created_at}. */
+  private static String sortColumn(String sortBy) {
+    return sortBy.replaceAll("([a-z])([A-Z])", "$1_$2").toLowerCase();
+  }
+
+  private static Product toProduct(ProductDTO productDTO) {
+    Product product = new Product();
+    product.setName(productDTO.getName());
+    product.setDescription(productDTO.getDescription());
+    product.setPrice(productDTO.getPrice());
+    product.setQuantity(productDTO.getQuantity());
+    product.setSku(productDTO.getSku());
+    product.setWeight(productDTO.getWeight());
+    product.setDimensions(productDTO.getDimensions());
+    product.setCategoryId(productDTO.getCategoryId());
+    return product;
+  }
+}
@@ -0,0 +1,228 @@
+package com.example.productinventory.reactive;
+
+import com.example.productinventory.model.Product;
+import io.r2dbc.spi.Readable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import org.springframework.lang.Nullable;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@link com.example.productinventory.repository.ProductRepository} for
+ * the reactive deployment mode. Queries run through R2DBC and emit rows as the driver reads them,
+ * so a large listing is streamed to the client instead of being collected first.
+ *
+ * <p>Like the JPA repository's custom statements, inserts, conditional updates and deletes select
+ * from H2's {@code FINAL TABLE} or {@code OLD TABLE} of the data change statement, so each write is
+ * one round trip that also returns the affected row. Each write runs in its own transaction, since
+ * H2 may keep a row whose statement failed a constraint check once its data change delta table has
+ * been read.
+ */
+public class ReactiveProductRepository {
+
+  private static final String COLUMNS =
+      "id, name, description, price, quantity, sku, weight, dimensions, category_id, version,"
+          + " created_at, updated_at";
+
+  private final DatabaseClient client;
+  private final TransactionalOperator transactions;
+
+  /**
+   * Constructs a ReactiveProductRepository.
+   *
+   * @param client the R2DBC client
+   * @param transactions runs each write in a transaction on the client's connection factory
+   */
+  public ReactiveProductRepository(DatabaseClient client, TransactionalOperator transactions) {
+    this.client = client;
+    this.transactions = transactions;
+  }
+
+  /**
+   * Finds a product by its ID.
+   *
+   * @param id the product ID
+   * @return the product, or empty if there is none
+   */
+  public Mono<Product> findById(Long id) {
+    return client
+        .sql("SELECT " + COLUMNS + " FROM products WHERE id = :id")
+        .bind("id", id)
+        .map(ReactiveProductRepository::toProduct)
+        .one();
+  }
+
+  /**
+   * Finds one page of products, optionally of a single category.
+   *
+   * @param categoryId the category to list, or {@code null} for all products
+   * @param sortColumn the column to sort by; must be validated by the caller
+   * @param descending whether to sort in descending order
+   * @param offset the number of products to skip
+   * @param limit the page size
+   * @return the products of the page, in order
+   */
+  public Flux<Product> findPage(
+      @Nullable Long categoryId, String sortColumn, boolean descending, long offset, int limit) {
+    String sql =
+        "SELECT "
+            + COLUMNS
+            + " FROM products"
+            + (categoryId == null ? "" : " WHERE category_id = :categoryId")
+            + " ORDER BY "
+            + sortColumn
+            + (descending ? " DESC" : " ASC")
+            + ", id LIMIT :limit OFFSET :offset";
+    DatabaseClient.GenericExecuteSpec spec =
+        client.sql(sql).bind("limit", limit).bind("offset", offset);
+    if (categoryId != null) {
+      spec = spec.bind("categoryId", categoryId);
+    }
+    return spec.map(ReactiveProductRepository::toProduct).all();
+  }
+
+  /**
+   * Counts the products, optionally of a single category.
+   *
+   * @param categoryId the category to count, or {@code null} for all products
+   * @return the number of products
+   */
+  public Mono<Long> count(@Nullable Long categoryId) {
+    if (categoryId == null) {
+      return client.sql("SELECT COUNT(*) FROM products").map(row -> row.get(0, Long.class)).one();
+    }
+    return client
+        .sql("SELECT COUNT(*) FROM products WHERE category_id = :categoryId")
+        .bind("categoryId", categoryId)
+        .map(row -> row.get(0, Long.class))
+        .one();
+  }
+
+  /**
+   * Streams every product in ID order.
+   *
+   * @return all products
+   */
+  public Flux<Product> streamAll() {
+    return client
+        .sql("SELECT " + COLUMNS + " FROM products ORDER BY id")
+        .map(ReactiveProductRepository::toProduct)
+        .all();
+  }
+
+  /**
+   * Inserts a product.
+   *
+   * @param product the product to insert, without ID, version or timestamps
+   * @return the inserted row, with its generated ID
+   */
+  public Mono<Product> insert(Product product) {
+    LocalDateTime now = LocalDateTime.now();
+    DatabaseClient.GenericExecuteSpec spec =
+        client.sql(
+            "SELECT "
+                + COLUMNS
+                + " FROM FINAL TABLE (INSERT INTO products (name, description, price, quantity,"
+                + " sku, weight, dimensions, category_id, version, created_at, updated_at)"
+                + " VALUES (:name, :description, :price, :quantity, :sku, :weight, :dimensions,"
+                + " :categoryId, 0, :now, :now))");
+    return bindValues(spec, product)
+        .bind("now", now)
+        .map(ReactiveProductRepository::toProduct)
+        .one()
+        .as(transactions::transactional);
+  }
+
+  /**
+   * Overwrites a product's values if its version still matches, incrementing the version.
+   *
+   * @param id the product ID
+   * @param expectedVersion the version the caller read
+   * @param values the new values, including the update timestamp
+   * @return the row as it was before the update, or empty if no row had the ID and version
+   */
+  public Mono<Product> updateIfVersionMatches(Long id, Integer expectedVersion, Product values) {
+    DatabaseClient.GenericExecuteSpec spec =
+        client.sql(
+            "SELECT "
+                + COLUMNS
+                + " FROM OLD TABLE (UPDATE products SET name = :name, description = :description,"
+                + " price = :price, quantity = :quantity, sku = :sku, weight = :weight,"
+                + " dimensions = :dimensions, category_id = :categoryId, version = version + 1,"
+                + " updated_at = :updatedAt WHERE id = :id AND version = :version)");
+    return bindValues(spec, values)
+        .bind("updatedAt", values.getUpdatedAt())
+        .bind("id", id)
+        .bind("version", expectedVersion)
+        .map(ReactiveProductRepository::toProduct)
+        .one()
+        .as(transactions::transactional);
+  }
+
+  /**
+   * Deletes a product.
+   *
+   * @param id the product ID
+   * @return the deleted row, or empty if there was none
+   */
+  public Mono<Product> deleteById(Long id) {
+    return client
+        .sql("SELECT " + COLUMNS + " FROM OLD TABLE (DELETE FROM products WHERE id = :id)")
+        .bind("id", id)
+        .map(ReactiveProductRepository::toProduct)
+        .one()
+        .as(transactions::transactional);
+  }
+
+  /**
+   * Tells whether a product exists.
+   *
+   * @param id the product ID
+   * @return true if a product has the ID
+   */
+  public Mono<Boolean> existsById(Long id) {
+    return client
+        .sql("SELECT 1 FROM products WHERE id = :id")
+        .bind("id", id)
+        .map(row -> Boolean.TRUE)
+        .first()
+        .defaultIfEmpty(Boolean.FALSE);
+  }
+
+  private static DatabaseClient.GenericExecuteSpec bindValues(
+      DatabaseClient.GenericExecuteSpec spec, Product values) {
+    spec = bind(spec, "name", values.getName(), String.class);
+    spec = bind(spec, "description", values.getDescription(), String.class);
+    spec = bind(spec, "price", values.getPrice(), BigDecimal.class);
+    spec = bind(spec, "quantity", values.getQuantity(), Integer.class);
+    spec = bind(spec, "sku", values.getSku(), String.class);
+    spec = bind(spec, "weight", values.getWeight(), BigDecimal.class);
+    spec = bind(spec, "dimensions", values.getDimensions(), String.class);
+    return bind(spec, "categoryId", values.getCategoryId(), Long.class);
+  }
+
+  private static <T> DatabaseClient.GenericExecuteSpec bind(
+      DatabaseClient.GenericExecuteSpec spec, String name, @Nullable T value, Class<T> type) {
+    return value == null ? spec.bindNull(name, type) : spec.bind(name, value);
+  }
+
+  private static Product toProduct(Readable row) {
+    Product product = new Product();
+    product.setId(row.get("id", Long.class));
+    product.setName(row.get("name", String.class));
+    product.setDescription(row.get("description", String.class));
+    product.setPrice(row.get("price", BigDecimal.class));
+    product.setQuantity(row.get("quantity", Integer.class));
+    product.setSku(row.get("sku", String.class));
+    product.setWeight(row.get("weight", BigDecimal.class));
+    product.setDimensions(row.get("dimensions", String.class));
+    product.setCategoryId(row.get("category_id", Long.class));
+    product.setVersion(row.get("version", Integer.class));
+    product.setCreatedAt(row.get("created_at", LocalDateTime.class));
+    product.setUpdatedAt(row.get("updated_at", LocalDateTime.class));
+    return product;
+  }
+}
@@ -0,0 +1,9 @@
+package com.example.productinventory.repository;
+
+import com.example.productinventory.model.Category;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/** Repository interface for Category entity. */
+@Repository
+public interface CategoryRepository extends JpaRepository<Category, Long> {}
@@ -1,21 +1,24 @@
 package com.example.productinventory.repository;
 
 import com.example.productinventory.model.Product;
+import jakarta.persistence.LockModeType;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Repository interface for Product entity. Provides methods for data access and querying products.
  */
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductRepositoryCustom {
 
   /** Find all products with pagination and sorting */
   Page<Product> findAll(Pageable pageable);
@@ -29,7 +32,13 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
   /** Find products by quantity range with pagination */
   Page<Product> findByQuantityBetween(Integer minQuantity, Integer maxQuantity, Pageable pageable);
 
+  /** Find a product by ID and lock its row until the end of the transaction */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("SELECT p FROM Product p WHERE p.id = :id")
+  Optional<Product> findByIdForUpdate(@Param("id") Long id);
+
   /** Find products by SKU (exact match) */
+  @Transactional(readOnly = true)
   @Query("SELECT p FROM Product p WHERE p.sku = :sku")
   Optional<Product> findBySku(String sku);
 
@@ -48,16 +57,14 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
           + "(:minPrice IS NULL OR p.price >= :minPrice) AND "
           + "(:maxPrice IS NULL OR p.price <= :maxPrice) AND "
           + "(:minQuantity IS NULL OR p.quantity >= :minQuantity) AND "
-          + "(:maxQuantity IS NULL OR p.quantity <= :maxQuantity)")
+          + "(:maxQuantity IS NULL OR p.quantity <= :maxQuantity) AND "
+          + "(:categoryId IS NULL OR p.categoryId = :categoryId)")
   Page<Product> findByCriteria(
       @Param("name") String name,
       @Param("minPrice") BigDecimal minPrice,
       @Param("maxPrice") BigDecimal maxPrice,
       @Param("minQuantity") Integer minQuantity,
       @Param("maxQuantity") Integer maxQuantity,
+      @Param("categoryId") Long categoryId,
       Pageable pageable);
-
-  // Future category relationship queries
-  // @Query("SELECT p FROM Product p WHERE p.category.id = :categoryId")
-  // Page<Product> findByCategoryId(Long categoryId, Pageable pageable);
 }
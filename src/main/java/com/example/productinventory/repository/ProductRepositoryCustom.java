@@ -0,0 +1,124 @@
+package com.example.productinventory.repository;
+
+import com.example.productinventory.event.ProductState;
+import com.example.productinventory.facet.FacetAccumulator;
+import com.example.productinventory.model.Product;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Custom query methods for products that cannot be expressed as derived or annotated queries.
+ * Implemented by {@link ProductRepositoryCustomImpl} and mixed into {@link ProductRepository}.
+ */
+public interface ProductRepositoryCustom {
+
+  /**
+   * Find the given fields of one product. Only the requested columns are selected.
+   *
+   * @param fields the entity attribute names to select
+   * @param id the product ID
+   * @return the selected fields keyed by attribute name, if the product exists
+   */
+  Optional<Map<String, Object>> findFieldsById(List<String> fields, Long id);
+
+  /**
+   * Find the given fields of products matching the criteria, with pagination. Only the requested
+   * columns are selected. Criteria that are {@code null} are ignored, as in {@code findByCriteria}.
+   *
+   * @param fields the entity attribute names to select
+   * @param name product name fragment (optional)
+   * @param minPrice minimum price (optional)
+   * @param maxPrice maximum price (optional)
+   * @param minQuantity minimum quantity (optional)
+   * @param maxQuantity maximum quantity (optional)
+   * @param categoryId category ID (optional)
+   * @param pageable pagination and sorting information
+   * @return a page of rows, each keyed by attribute name in the order of {@code fields}
+   */
+  Page<Map<String, Object>> findFieldsByCriteria(
+      List<String> fields,
+      String name,
+      BigDecimal minPrice,
+      BigDecimal maxPrice,
+      Integer minQuantity,
+      Integer maxQuantity,
+      Long categoryId,
+      Pageable pageable);
+
+  /**
+   * Counts the products matching the criteria per price band and stock level in one aggregate
+   * query, adding one row per category to the accumulator, or a single row of totals if they are
+   * not to be split by category. Criteria that are {@code null} are ignored, as in {@code
+   * findByCriteria}.
+   *
+   * @param accumulator receives the counts
+   * @param byCategory whether to group the counts by category
+   * @param priceBounds the ascending bounds between price bands; a band includes its lower bound
+   * @param lowStockThreshold products with fewer units than this, but at least one, are low on
+   *     stock
+   * @param name product name fragment (optional)
+   * @param minPrice minimum price (optional)
+   * @param maxPrice maximum price (optional)
+   * @param minQuantity minimum quantity (optional)
+   * @param maxQuantity maximum quantity (optional)
+   * @param categoryId category ID (optional)
+   */
+  void countFacetsByCriteria(
+      FacetAccumulator accumulator,
+      boolean byCategory,
+      BigDecimal[] priceBounds,
+      int lowStockThreshold,
+      String name,
+      BigDecimal minPrice,
+      BigDecimal maxPrice,
+      Integer minQuantity,
+      Integer maxQuantity,
+      Long categoryId);
+
+  /**
+   * Deletes the products with the given IDs in one statement, returning the deleted rows. IDs of
+   * products that do not exist are ignored.
+   *
+   * @param ids the product IDs
+   * @return the state of each deleted product
+   */
+  List<ProductState> deleteAllByIdReturning(Collection<Long> ids);
+
+  /**
+   * Deletes the products matching the criteria in one statement, returning the deleted rows.
+   * Criteria that are {@code null} are ignored, as in {@code findByCriteria}.
+   *
+   * @param name product name fragment (optional)
+   * @param minPrice minimum price (optional)
+   * @param maxPrice maximum price (optional)
+   * @param minQuantity minimum quantity (optional)
+   * @param maxQuantity maximum quantity (optional)
+   * @param categoryId category ID (optional)
+   * @return the state of each deleted product
+   */
+  List<ProductState> deleteByCriteriaReturning(
+      String name,
+      BigDecimal minPrice,
+      BigDecimal maxPrice,
+      Integer minQuantity,
+      Integer maxQuantity,
+      Long categoryId);
+
+  /**
+   * Overwrites the editable columns of a product and increments its version in one statement, but
+   * only if its version still equals the expected one. Returns the row as it was before the update,
+   * so the caller can derive both the previous and the new state without reading the row again.
+   *
+   * @param id the product ID
+   * @param expectedVersion the version the caller last read
+   * @param values the new name, description, price, quantity, SKU, weight, dimensions, category and
+   *     update time
+   * @return the previous row, or empty if no product has that ID and version
+   */
+  Optional<Product> updateIfVersionMatches(Long id, Integer expectedVersion, Product values);
+}
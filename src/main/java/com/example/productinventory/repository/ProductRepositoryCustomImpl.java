@@ -0,0 +1,348 @@
+package com.example.productinventory.repository;
+
+import com.example.productinventory.event.ProductState;
+import com.example.productinventory.facet.FacetAccumulator;
+import com.example.productinventory.model.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+/**
+ * Implementation of {@link ProductRepositoryCustom}. Builds tuple queries with the JPA Criteria API
+ * so that only the requested columns are read from the database.
+ *
+ * <p>Deletes and conditional updates select from H2's {@code OLD TABLE} of the data change
+ * statement, so the affected rows are changed and returned in a single round trip.
+ */
+public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+
+  @PersistenceContext private EntityManager entityManager;
+
+  @Override
+  public Optional<Map<String, Object>> findFieldsById(List<String> fields, Long id) {
+    CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+    CriteriaQuery<Tuple> query = cb.createTupleQuery();
+    Root<Product> root = query.from(Product.class);
+    query.multiselect(selections(root, fields)).where(cb.equal(root.get("id"), id));
+
+    List<Tuple> rows = entityManager.createQuery(query).getResultList();
+    return rows.stream().findFirst().map(row -> toMap(row, fields));
+  }
+
+  @Override
+  public Page<Map<String, Object>> findFieldsByCriteria(
+      List<String> fields,
+      String name,
+      BigDecimal minPrice,
+      BigDecimal maxPrice,
+      Integer minQuantity,
+      Integer maxQuantity,
+      Long categoryId,
+      Pageable pageable) {
+    CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+
+    CriteriaQuery<Tuple> query = cb.createTupleQuery();
+    Root<Product> root = query.from(Product.class);
+    query
+        .multiselect(selections(root, fields))
+        .where(criteria(cb, root, name, minPrice, maxPrice, minQuantity, maxQuantity, categoryId))
+        .orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+
+    List<Map<String, Object>> content = new ArrayList<>();
+    var typedQuery = entityManager.createQuery(query);
+    if (pageable.isPaged()) {
+      typedQuery.setFirstResult((int) pageable.getOffset()).setMaxResults(pageable.getPageSize());
+    }
+    for (Tuple row : typedQuery.getResultList()) {
+      content.add(toMap(row, fields));
+    }
+
+    return PageableExecutionUtils.getPage(
+        content,
+        pageable,
+        () -> {
+          CriteriaQuery<Long> countQuery = cb.createQuery(Long.class);
+          Root<Product> countRoot = countQuery.from(Product.class);
+          countQuery
+              .select(cb.count(countRoot))
+              .where(
+                  criteria(
+                      cb,
+                      countRoot,
+                      name,
+                      minPrice,
+                      maxPrice,
+                      minQuantity,
+                      maxQuantity,
+                      categoryId));
+          return entityManager.createQuery(countQuery).getSingleResult();
+        });
+  }
+
+  @Override
+  public void countFacetsByCriteria(
+      FacetAccumulator accumulator,
+      boolean byCategory,
+      BigDecimal[] priceBounds,
+      int lowStockThreshold,
+      String name,
+      BigDecimal minPrice,
+      BigDecimal maxPrice,
+      Integer minQuantity,
+      Integer maxQuantity,
+      Long categoryId) {
+    CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+    CriteriaQuery<Tuple> query = cb.createTupleQuery();
+    Root<Product> root = query.from(Product.class);
+    Expression<BigDecimal> price = root.get("price");
+    Expression<Integer> quantity = root.get("quantity");
+
+    // One conditional count per price band and stock level, grouped by category if asked, so the
+    // whole filtered set is scanned once.
+    List<Selection<?>> selections = new ArrayList<>();
+    if (byCategory) {
+      selections.add(root.get("categoryId"));
+    }
+    for (int i = 0; i <= priceBounds.length; i++) {
+      List<Predicate> band = new ArrayList<>(2);
+      if (i > 0) {
+        band.add(cb.greaterThanOrEqualTo(price, priceBounds[i - 1]));
+      }
+      if (i < priceBounds.length) {
+        band.add(cb.lessThan(price, priceBounds[i]));
+      }
+      selections.add(countIf(cb, cb.and(band.toArray(new Predicate[0]))));
+    }
+    selections.add(countIf(cb, cb.greaterThanOrEqualTo(quantity, lowStockThreshold)));
+    selections.add(
+        countIf(cb, cb.and(cb.greaterThan(quantity, 0), cb.lessThan(quantity, lowStockThreshold))));
+    selections.add(countIf(cb, cb.lessThanOrEqualTo(quantity, 0)));
+
+    query
+        .multiselect(selections)
+        .where(criteria(cb, root, name, minPrice, maxPrice, minQuantity, maxQuantity, categoryId));
+    if (byCategory) {
+      query.groupBy(root.get("categoryId"));
+    }
+
+    int bands = priceBounds.length + 1;
+    int first = byCategory ? 1 : 0;
+    for (Tuple row : entityManager.createQuery(query).getResultList()) {
+      long[] priceCounts = new long[bands];
+      for (int i = 0; i < bands; i++) {
+        priceCounts[i] = count(row, first + i);
+      }
+      long[] stockCounts = new long[3];
+      for (int i = 0; i < stockCounts.length; i++) {
+        stockCounts[i] = count(row, first + bands + i);
+      }
+      if (byCategory) {
+        accumulator.add(row.get(0, Long.class), priceCounts, stockCounts);
+      } else {
+        accumulator.addTotals(priceCounts, stockCounts);
+      }
+    }
+  }
+
+  /** Reads a conditional count, which is {@code null} when no row matched at all. */
+  private static long count(Tuple row, int index) {
+    Number count = row.get(index, Number.class);
+    return count == null ? 0 : count.longValue();
+  }
+
+  @Override
+  public List<ProductState> deleteAllByIdReturning(Collection<Long> ids) {
+    if (ids.isEmpty()) {
+      return List.of();
+    }
+    return deleteReturning(
+        "id IN (" + String.join(",", Collections.nCopies(ids.size(), "?")) + ")",
+        new ArrayList<>(ids));
+  }
+
+  @Override
+  public List<ProductState> deleteByCriteriaReturning(
+      String name,
+      BigDecimal minPrice,
+      BigDecimal maxPrice,
+      Integer minQuantity,
+      Integer maxQuantity,
+      Long categoryId) {
+    List<String> conditions = new ArrayList<>();
+    List<Object> args = new ArrayList<>();
+    if (name != null) {
+      conditions.add("LOWER(name) LIKE ?");
+      args.add("%" + name.toLowerCase() + "%");
+    }
+    if (minPrice != null) {
+      conditions.add("price >= ?");
+      args.add(minPrice);
+    }
+    if (maxPrice != null) {
+      conditions.add("price <= ?");
+      args.add(maxPrice);
+    }
+    if (minQuantity != null) {
+      conditions.add("quantity >= ?");
+      args.add(minQuantity);
+    }
+    if (maxQuantity != null) {
+      conditions.add("quantity <= ?");
+      args.add(maxQuantity);
+    }
+    if (categoryId != null) {
+      conditions.add("category_id = ?");
+      args.add(categoryId);
+    }
+    return deleteReturning(conditions.isEmpty() ? "1 = 1" : String.join(" AND ", conditions), args);
+  }
+
+  @Override
+  public Optional<Product> updateIfVersionMatches(
+      Long id, Integer expectedVersion, Product values) {
+    List<?> rows =
+        entityManager
+            .createNativeQuery(
+                "SELECT id, name, description, price, quantity, sku, weight, dimensions,"
+                    + " category_id, version, created_at, updated_at FROM OLD TABLE ("
+                    + "UPDATE products SET name = ?, description = ?, price = ?, quantity = ?,"
+                    + " sku = ?, weight = ?, dimensions = ?, category_id = ?,"
+                    + " version = version + 1, updated_at = ? WHERE id = ? AND version = ?)")
+            .setParameter(1, values.getName())
+            .setParameter(2, values.getDescription())
+            .setParameter(3, values.getPrice())
+            .setParameter(4, values.getQuantity())
+            .setParameter(5, values.getSku())
+            .setParameter(6, values.getWeight())
+            .setParameter(7, values.getDimensions())
+            .setParameter(8, values.getCategoryId())
+            .setParameter(9, values.getUpdatedAt())
+            .setParameter(10, id)
+            .setParameter(11, expectedVersion)
+            .getResultList();
+    if (rows.isEmpty()) {
+      return Optional.empty();
+    }
+    Object[] row = (Object[]) rows.get(0);
+    Product previous = new Product();
+    previous.setId(((Number) row[0]).longValue());
+    previous.setName((String) row[1]);
+    previous.setDescription((String) row[2]);
+    previous.setPrice((BigDecimal) row[3]);
+    previous.setQuantity(((Number) row[4]).intValue());
+    previous.setSku((String) row[5]);
+    previous.setWeight((BigDecimal) row[6]);
+    previous.setDimensions((String) row[7]);
+    previous.setCategoryId(row[8] == null ? null : ((Number) row[8]).longValue());
+    previous.setVersion(((Number) row[9]).intValue());
+    previous.setCreatedAt(toLocalDateTime(row[10]));
+    previous.setUpdatedAt(toLocalDateTime(row[11]));
+    return Optional.of(previous);
+  }
+
+  private static LocalDateTime toLocalDateTime(Object value) {
+    if (value instanceof Timestamp) {
+      return ((Timestamp) value).toLocalDateTime();
+    }
+    return (LocalDateTime) value;
+  }
+
+  private List<ProductState> deleteReturning(String where, List<Object> args) {
+    var query =
+        entityManager.createNativeQuery(
+            "SELECT id, sku, name, description, price, quantity, category_id, version"
+                + " FROM OLD TABLE (DELETE FROM products WHERE "
+                + where
+                + ")");
+    for (int i = 0; i < args.size(); i++) {
+      query.setParameter(i + 1, args.get(i));
+    }
+    List<ProductState> deleted = new ArrayList<>();
+    for (Object result : query.getResultList()) {
+      Object[] row = (Object[]) result;
+      deleted.add(
+          new ProductState(
+              ((Number) row[0]).longValue(),
+              (String) row[1],
+              (String) row[2],
+              (String) row[3],
+              (BigDecimal) row[4],
+              row[5] == null ? null : ((Number) row[5]).intValue(),
+              row[6] == null ? null : ((Number) row[6]).longValue(),
+              row[7] == null ? null : ((Number) row[7]).intValue()));
+    }
+    return deleted;
+  }
+
+  private static Expression<Long> countIf(CriteriaBuilder cb, Predicate predicate) {
+    return cb.sum(cb.<Long>selectCase().when(predicate, 1L).otherwise(0L));
+  }
+
+  private static List<Selection<?>> selections(Root<Product> root, List<String> fields) {
+    List<Selection<?>> selections = new ArrayList<>(fields.size());
+    for (String field : fields) {
+      selections.add(root.get(field).alias(field));
+    }
+    return selections;
+  }
+
+  private static Map<String, Object> toMap(Tuple row, List<String> fields) {
+    Map<String, Object> values = new LinkedHashMap<>();
+    for (String field : fields) {
+      values.put(field, row.get(field));
+    }
+    return values;
+  }
+
+  /** Builds the same filter as {@code ProductRepository.findByCriteria}. */
+  private static Predicate criteria(
+      CriteriaBuilder cb,
+      Root<Product> root,
+      String name,
+      BigDecimal minPrice,
+      BigDecimal maxPrice,
+      Integer minQuantity,
+      Integer maxQuantity,
+      Long categoryId) {
+    List<Predicate> predicates = new ArrayList<>();
+    if (name != null) {
+      predicates.add(cb.like(cb.lower(root.get("name")), "%" + name.toLowerCase() + "%"));
+    }
+    if (minPrice != null) {
+      predicates.add(cb.greaterThanOrEqualTo(root.get("price"), minPrice));
+    }
+    if (maxPrice != null) {
+      predicates.add(cb.lessThanOrEqualTo(root.get("price"), maxPrice));
+    }
+    if (minQuantity != null) {
+      predicates.add(cb.greaterThanOrEqualTo(root.get("quantity"), minQuantity));
+    }
+    if (maxQuantity != null) {
+      predicates.add(cb.lessThanOrEqualTo(root.get("quantity"), maxQuantity));
+    }
+    if (categoryId != null) {
+      predicates.add(cb.equal(root.get("categoryId"), categoryId));
+    }
+    return cb.and(predicates.toArray(new Predicate[0]));
+  }
+}
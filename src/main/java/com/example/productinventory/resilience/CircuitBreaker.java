@@ -0,0 +1,144 @@
+package com.example.productinventory.resilience;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A consecutive-failure circuit breaker. While {@link State#CLOSED} every call is let through;
+ * after {@code failureThreshold} failures in a row it opens and refuses calls, so callers stop
+ * waiting on a dependency that is down. Once {@code openMillis} have passed the next call is let
+ * through as a probe ({@link State#HALF_OPEN}): its success closes the breaker again, its failure
+ * reopens it for another {@code openMillis}. Calls slower than {@code slowCallMillis} count as
+ * failures even when they return, since a stalling dependency may answer only after its callers
+ * have given up.
+ *
+ * <p>All methods take the current {@link System#nanoTime()} so that tests can drive the clock.
+ */
+public final class CircuitBreaker {
+
+  /** The states of a circuit breaker. */
+  public enum State {
+    /** Calls are let through. */
+    CLOSED,
+    /** Calls are refused until the open period is over. */
+    OPEN,
+    /** One probe call is in flight; other calls are refused until it completes. */
+    HALF_OPEN
+  }
+
+  private final String name;
+  private final int failureThreshold;
+  private final long slowCallNanos;
+  private final long openNanos;
+
+  private State state = State.CLOSED;
+  private int consecutiveFailures;
+  private long openedAt;
+  private long failures;
+  private long notPermitted;
+
+  /**
+   * Constructs a closed CircuitBreaker.
+   *
+   * @param name the name of the breaker, used in logs and metrics
+   * @param failureThreshold the number of consecutive failures that opens the breaker
+   * @param slowCallMillis the duration above which a call counts as failed
+   * @param openMillis how long the breaker stays open before it lets a probe through
+   */
+  public CircuitBreaker(String name, int failureThreshold, long slowCallMillis, long openMillis) {
+    if (failureThreshold < 1 || slowCallMillis < 1 || openMillis < 0) {
+      throw new IllegalArgumentException("Breaker thresholds must be positive");
+    }
+    this.name = name;
+    this.failureThreshold = failureThreshold;
+    this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(slowCallMillis);
+    this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+  }
+
+  /**
+   * Asks whether a call may go ahead. When the open period is over, the first caller is let through
+   * as the probe and the breaker becomes half-open.
+   *
+   * @param nowNanos the current {@link System#nanoTime()}
+   * @return true if the call may go ahead, false if it must not touch the dependency
+   */
+  public synchronized boolean tryAcquire(long nowNanos) {
+    if (state == State.CLOSED) {
+      return true;
+    }
+    if (state == State.OPEN && nowNanos - openedAt >= openNanos) {
+      state = State.HALF_OPEN;
+      return true;
+    }
+    notPermitted++;
+    return false;
+  }
+
+  /**
+   * Records a call that returned. A slow call counts as a failure.
+   *
+   * @param durationNanos how long the call took
+   * @param nowNanos the current {@link System#nanoTime()}
+   */
+  public synchronized void onSuccess(long durationNanos, long nowNanos) {
+    if (durationNanos > slowCallNanos) {
+      onFailure(nowNanos);
+      return;
+    }
+    consecutiveFailures = 0;
+    if (state == State.HALF_OPEN) {
+      state = State.CLOSED;
+    }
+  }
+
+  /**
+   * Records a call that failed, opening the breaker if the threshold is reached or the call was the
+   * probe.
+   *
+   * @param nowNanos the current {@link System#nanoTime()}
+   */
+  public synchronized void onFailure(long nowNanos) {
+    failures++;
+    consecutiveFailures++;
+    if (state == State.HALF_OPEN
+        || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+      state = State.OPEN;
+      openedAt = nowNanos;
+    }
+  }
+
+  /**
+   * Returns the name of the breaker.
+   *
+   * @return the name
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Returns the current state.
+   *
+   * @return the state
+   */
+  public synchronized State getState() {
+    return state;
+  }
+
+  /**
+   * Returns the number of failed and slow calls so far.
+   *
+   * @return the failures
+   */
+  public synchronized long getFailures() {
+    return failures;
+  }
+
+  /**
+   * Returns the number of calls refused so far.
+   *
+   * @return the refused calls
+   */
+  public synchronized long getNotPermitted() {
+    return notPermitted;
+  }
+}
@@ -0,0 +1,166 @@
+package com.example.productinventory.resilience;
+
+import com.example.productinventory.event.ProductChangedEvent;
+import com.example.productinventory.event.ProductState;
+import com.example.productinventory.model.Product;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.lang.Nullable;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * The most recently served products, each with the time it was read from the database, kept so that
+ * lookups can still be answered while the database is unavailable. The store holds at most {@code
+ * maxEntries} products and drops the least recently used one beyond that. A product is dropped as
+ * soon as it changes, so a copy is never older than the last committed write to it.
+ *
+ * <p>A lookup may read a product just before a change to it commits and keep it just after the
+ * change dropped it. To refuse that outdated copy, the version written by the last committed change
+ * of each product is remembered, for up to {@code maxEntries} recently changed products, and a copy
+ * of an older version is not kept. Once a product is deleted, no copy of it is kept.
+ */
+public class LastKnownGoodProducts {
+
+  /** A product as it was read from the database. */
+  public static final class Copy {
+
+    private final Product product;
+    private final Instant readAt;
+
+    Copy(Product product, Instant readAt) {
+      this.product = product;
+      this.readAt = readAt;
+    }
+
+    /**
+     * Returns the product.
+     *
+     * @return the product
+     */
+    public Product getProduct() {
+      return product;
+    }
+
+    /**
+     * Returns when the product was read from the database.
+     *
+     * @return the read time
+     */
+    public Instant getReadAt() {
+      return readAt;
+    }
+  }
+
+  private final Map<Long, Copy> byId;
+  private final Map<String, Long> idsBySku = new HashMap<>();
+  private final Map<Long, Integer> changedVersions;
+
+  /**
+   * Constructs an empty store.
+   *
+   * @param maxEntries the most products kept
+   */
+  public LastKnownGoodProducts(int maxEntries) {
+    this.byId =
+        new LinkedHashMap<>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<Long, Copy> eldest) {
+            if (size() <= maxEntries) {
+              return false;
+            }
+            idsBySku.remove(eldest.getValue().product.getSku(), eldest.getKey());
+            return true;
+          }
+        };
+    this.changedVersions =
+        new LinkedHashMap<>() {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<Long, Integer> eldest) {
+            return size() > maxEntries;
+          }
+        };
+  }
+
+  /**
+   * Keeps a product that was just read from the database, unless a change to a newer version has
+   * been committed since.
+   *
+   * @param product the product
+   * @param readAt when it was read
+   */
+  public synchronized void put(Product product, Instant readAt) {
+    Integer changedVersion = changedVersions.get(product.getId());
+    if (changedVersion != null
+        && (product.getVersion() == null || product.getVersion() < changedVersion)) {
+      return;
+    }
+    Copy previous = byId.put(product.getId(), new Copy(product, readAt));
+    if (previous != null) {
+      idsBySku.remove(previous.product.getSku(), product.getId());
+    }
+    idsBySku.put(product.getSku(), product.getId());
+  }
+
+  /**
+   * Returns the copy of a product.
+   *
+   * @param id the product ID
+   * @return the copy, or {@code null} if there is none
+   */
+  @Nullable
+  public synchronized Copy getById(Long id) {
+    return byId.get(id);
+  }
+
+  /**
+   * Returns the copy of a product.
+   *
+   * @param sku the product SKU
+   * @return the copy, or {@code null} if there is none
+   */
+  @Nullable
+  public synchronized Copy getBySku(String sku) {
+    Long id = idsBySku.get(sku);
+    return id == null ? null : byId.get(id);
+  }
+
+  /**
+   * Drops the copy of a product.
+   *
+   * @param id the product ID
+   */
+  public synchronized void evict(Long id) {
+    Copy removed = byId.remove(id);
+    if (removed != null) {
+      idsBySku.remove(removed.product.getSku(), id);
+    }
+  }
+
+  /**
+   * Drops the copy of a changed product once the change is committed, and remembers the version it
+   * wrote so that copies of older versions are no longer kept.
+   *
+   * @param event the change event
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public synchronized void onProductChanged(ProductChangedEvent event) {
+    Long id = event.getProductId();
+    evict(id);
+    ProductState after = event.getAfter();
+    Integer version = after == null ? Integer.valueOf(Integer.MAX_VALUE) : after.getVersion();
+    if (version != null) {
+      changedVersions.merge(id, version, Math::max);
+    }
+  }
+
+  /**
+   * Returns the number of products kept.
+   *
+   * @return the number of copies
+   */
+  public synchronized int size() {
+    return byId.size();
+  }
+}
@@ -0,0 +1,183 @@
+package com.example.productinventory.resilience;
+
+import com.example.productinventory.exception.ProductUnavailableException;
+import com.example.productinventory.model.Product;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Guards product lookups with a {@link CircuitBreaker} and answers them from the {@link
+ * LastKnownGoodProducts} while the database is failing or the breaker is open. Every product read
+ * successfully is kept as the last known good copy; a lookup that fails or is refused by the
+ * breaker is answered with that copy if it is no older than {@code maxStale}, and otherwise fails
+ * with the original error or, when the breaker refused the call, a {@link
+ * ProductUnavailableException}.
+ *
+ * <p>A lookup that finds no product is a success: the breaker guards against an unavailable
+ * database, not against missing rows. When a stale copy is served during a web request, the time it
+ * was read is stored in the {@link #STALE_READ_AT} request attribute, from which {@link
+ * StaleResponseAdvice} sets the staleness headers of the response.
+ */
+public class ProductReadBreaker {
+
+  private static final Logger logger = LoggerFactory.getLogger(ProductReadBreaker.class);
+
+  /**
+   * Request attribute holding the {@link Instant} a stale product served to the request was read.
+   */
+  public static final String STALE_READ_AT = ProductReadBreaker.class.getName() + ".staleReadAt";
+
+  private final CircuitBreaker breaker;
+  private final LastKnownGoodProducts copies;
+  private final Duration maxStale;
+  private final Clock clock;
+  private final LongAdder staleResponses = new LongAdder();
+
+  /**
+   * Constructs a ProductReadBreaker.
+   *
+   * @param breaker the breaker in front of the database
+   * @param copies the last known good copies of products
+   * @param maxStale the oldest copy that may be served
+   * @param clock the clock the read times are taken from
+   */
+  public ProductReadBreaker(
+      CircuitBreaker breaker, LastKnownGoodProducts copies, Duration maxStale, Clock clock) {
+    this.breaker = breaker;
+    this.copies = copies;
+    this.maxStale = maxStale;
+    this.clock = clock;
+  }
+
+  /**
+   * Looks up a product by ID through the breaker.
+   *
+   * @param id the product ID
+   * @param query the database lookup
+   * @return the product, possibly a stale copy, or empty if the database has no such product
+   * @throws ProductUnavailableException if the breaker is open and there is no usable copy
+   */
+  public Optional<Product> findById(Long id, Supplier<Optional<Product>> query) {
+    return findById(id, query, () -> {});
+  }
+
+  /**
+   * Looks up a product by ID through the breaker, reporting when a stale copy is served.
+   *
+   * @param id the product ID
+   * @param query the database lookup
+   * @param onStale run before a stale copy is returned
+   * @return the product, possibly a stale copy, or empty if the database has no such product
+   * @throws ProductUnavailableException if the breaker is open and there is no usable copy
+   */
+  public Optional<Product> findById(Long id, Supplier<Optional<Product>> query, Runnable onStale) {
+    return find("id " + id, query, () -> copies.getById(id), onStale);
+  }
+
+  /**
+   * Looks up a product by SKU through the breaker.
+   *
+   * @param sku the product SKU
+   * @param query the database lookup
+   * @return the product, possibly a stale copy, or empty if the database has no such product
+   * @throws ProductUnavailableException if the breaker is open and there is no usable copy
+   */
+  public Optional<Product> findBySku(String sku, Supplier<Optional<Product>> query) {
+    return findBySku(sku, query, () -> {});
+  }
+
+  /**
+   * Looks up a product by SKU through the breaker, reporting when a stale copy is served.
+   *
+   * @param sku the product SKU
+   * @param query the database lookup
+   * @param onStale run before a stale copy is returned
+   * @return the product, possibly a stale copy, or empty if the database has no such product
+   * @throws ProductUnavailableException if the breaker is open and there is no usable copy
+   */
+  public Optional<Product> findBySku(
+      String sku, Supplier<Optional<Product>> query, Runnable onStale) {
+    return find("SKU " + sku, query, () -> copies.getBySku(sku), onStale);
+  }
+
+  private Optional<Product> find(
+      String key,
+      Supplier<Optional<Product>> query,
+      Supplier<LastKnownGoodProducts.Copy> copy,
+      Runnable onStale) {
+    if (!breaker.tryAcquire(System.nanoTime())) {
+      Product stale = stale(copy.get(), onStale);
+      if (stale == null) {
+        throw new ProductUnavailableException(
+            "Product " + key + " is unavailable while the database is unreachable");
+      }
+      return Optional.of(stale);
+    }
+    long start = System.nanoTime();
+    Optional<Product> product;
+    try {
+      product = query.get();
+    } catch (RuntimeException e) {
+      breaker.onFailure(System.nanoTime());
+      Product stale = stale(copy.get(), onStale);
+      if (stale == null) {
+        throw e;
+      }
+      logger.warn("Serving stale product {} after failed lookup: {}", key, e.toString());
+      return Optional.of(stale);
+    }
+    long end = System.nanoTime();
+    breaker.onSuccess(end - start, end);
+    product.ifPresent(p -> copies.put(p, clock.instant()));
+    return product;
+  }
+
+  private Product stale(LastKnownGoodProducts.Copy copy, Runnable onStale) {
+    if (copy == null
+        || Duration.between(copy.getReadAt(), clock.instant()).compareTo(maxStale) > 0) {
+      return null;
+    }
+    staleResponses.increment();
+    onStale.run();
+    RequestAttributes request = RequestContextHolder.getRequestAttributes();
+    if (request != null) {
+      request.setAttribute(STALE_READ_AT, copy.getReadAt(), RequestAttributes.SCOPE_REQUEST);
+    }
+    return copy.getProduct();
+  }
+
+  /**
+   * Returns the breaker in front of the database.
+   *
+   * @return the breaker
+   */
+  public CircuitBreaker getBreaker() {
+    return breaker;
+  }
+
+  /**
+   * Returns the last known good copies of products.
+   *
+   * @return the copies
+   */
+  public LastKnownGoodProducts getCopies() {
+    return copies;
+  }
+
+  /**
+   * Returns the number of stale copies served so far.
+   *
+   * @return the stale responses
+   */
+  public long getStaleResponses() {
+    return staleResponses.sum();
+  }
+}
@@ -0,0 +1,99 @@
+package com.example.productinventory.resilience;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Puts a circuit breaker with a stale-copy fallback around product lookups by ID and SKU. Enabled
+ * by {@code product.read-breaker.enabled} and configured by {@code product.read-breaker.*}.
+ */
+@Configuration
+@ConditionalOnProperty(
+  name = "product.read-breaker.enabled",
+  havingValue = "true",
+  matchIfMissing = true
+)
+public class ReadBreakerConfig {
+
+  /**
+   * Creates the last known good copies of products, which drop a product once a change to it is
+   * committed.
+   *
+   * @param maxEntries the most products kept
+   * @return the copies
+   */
+  @Bean
+  public LastKnownGoodProducts lastKnownGoodProducts(
+      @Value("${product.read-breaker.max-entries:10000}") int maxEntries) {
+    return new LastKnownGoodProducts(maxEntries);
+  }
+
+  /**
+   * Creates the read breaker. Its state, failures, refused calls, stale responses and copies are
+   * published as metrics.
+   *
+   * @param copies the last known good copies of products
+   * @param failureThreshold the number of consecutive failed or slow lookups that opens the breaker
+   * @param slowCallMs the duration above which a lookup counts as failed
+   * @param openMs how long the breaker stays open before it lets a probe through
+   * @param maxStaleMs the oldest copy that may be served
+   * @param meterRegistry the registry for the breaker metrics, if metrics are available
+   * @return the read breaker
+   */
+  @Bean
+  public ProductReadBreaker productReadBreaker(
+      LastKnownGoodProducts copies,
+      @Value("${product.read-breaker.failure-threshold:5}") int failureThreshold,
+      @Value("${product.read-breaker.slow-call-ms:2000}") long slowCallMs,
+      @Value("${product.read-breaker.open-ms:10000}") long openMs,
+      @Value("${product.read-breaker.max-stale-ms:3600000}") long maxStaleMs,
+      ObjectProvider<MeterRegistry> meterRegistry) {
+    ProductReadBreaker readBreaker =
+        new ProductReadBreaker(
+            new CircuitBreaker("product-read", failureThreshold, slowCallMs, openMs),
+            copies,
+            Duration.ofMillis(maxStaleMs),
+            Clock.systemUTC());
+    meterRegistry.ifAvailable(registry -> register(registry, readBreaker));
+    return readBreaker;
+  }
+
+  private static void register(MeterRegistry registry, ProductReadBreaker readBreaker) {
+    CircuitBreaker breaker = readBreaker.getBreaker();
+    for (CircuitBreaker.State state : CircuitBreaker.State.values()) {
+      Gauge.builder("product.read-breaker.state", breaker, b -> b.getState() == state ? 1 : 0)
+          .tag("name", breaker.getName())
+          .tag("state", state.name().toLowerCase())
+          .description("1 for the current state of the product read breaker, 0 otherwise")
+          .register(registry);
+    }
+    FunctionCounter.builder("product.read-breaker.failures", breaker, CircuitBreaker::getFailures)
+        .tag("name", breaker.getName())
+        .description("Product lookups that failed or were slower than the slow-call threshold")
+        .register(registry);
+    FunctionCounter.builder(
+            "product.read-breaker.not-permitted", breaker, CircuitBreaker::getNotPermitted)
+        .tag("name", breaker.getName())
+        .description("Product lookups refused by the open breaker")
+        .register(registry);
+    FunctionCounter.builder(
+            "product.read-breaker.stale-responses",
+            readBreaker,
+            ProductReadBreaker::getStaleResponses)
+        .tag("name", breaker.getName())
+        .description("Product lookups answered with a last known good copy")
+        .register(registry);
+    Gauge.builder("product.read-breaker.copies", readBreaker, r -> r.getCopies().size())
+        .tag("name", breaker.getName())
+        .description("Products kept as last known good copies")
+        .register(registry);
+  }
+}
@@ -0,0 +1,75 @@
+package com.example.productinventory.resilience;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Marks responses that contain a stale product served by the {@link ProductReadBreaker}. Such
+ * responses carry {@code Warning: 110 - "Response is Stale"} and an {@code Age} header with the
+ * seconds since the product was read from the database, and are not cached by clients.
+ */
+@ControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(
+  name = "product.read-breaker.enabled",
+  havingValue = "true",
+  matchIfMissing = true
+)
+public class StaleResponseAdvice implements ResponseBodyAdvice<Object> {
+
+  /** The warning sent with stale responses, as defined by RFC 7234. */
+  static final String STALE_WARNING = "110 - \"Response is Stale\"";
+
+  private final Clock clock;
+
+  /** Constructs a StaleResponseAdvice that measures ages with the system clock. */
+  public StaleResponseAdvice() {
+    this(Clock.systemUTC());
+  }
+
+  StaleResponseAdvice(Clock clock) {
+    this.clock = clock;
+  }
+
+  @Override
+  public boolean supports(
+      MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+    return true;
+  }
+
+  @Override
+  public Object beforeBodyWrite(
+      Object body,
+      MethodParameter returnType,
+      MediaType selectedContentType,
+      Class<? extends HttpMessageConverter<?>> selectedConverterType,
+      ServerHttpRequest request,
+      ServerHttpResponse response) {
+    if (request instanceof ServletServerHttpRequest) {
+      Object readAt =
+          ((ServletServerHttpRequest) request)
+              .getServletRequest()
+              .getAttribute(ProductReadBreaker.STALE_READ_AT);
+      if (readAt instanceof Instant) {
+        long age = Math.max(0, Duration.between((Instant) readAt, clock.instant()).getSeconds());
+        HttpHeaders headers = response.getHeaders();
+        headers.set(HttpHeaders.WARNING, STALE_WARNING);
+        headers.set(HttpHeaders.AGE, Long.toString(age));
+        headers.setCacheControl("no-store");
+      }
+    }
+    return body;
+  }
+}
@@ -0,0 +1,18 @@
+package com.example.productinventory.search;
+
+import java.time.Instant;
+import lombok.Value;
+
+/** The outcome of rebuilding the full-text index from the database. */
+@Value
+public class IndexRebuildResult {
+
+  /** The number of products indexed. */
+  long documents;
+
+  /** The time taken in milliseconds. */
+  long durationMs;
+
+  /** The time the rebuild finished. */
+  Instant completedAt;
+}
@@ -0,0 +1,357 @@
+package com.example.productinventory.search;
+
+import com.example.productinventory.columnar.IdPage;
+import com.example.productinventory.event.ProductChangedEvent;
+import com.example.productinventory.event.ProductState;
+import com.example.productinventory.exception.ProductBadRequestException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NumericDocValues;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.Bits;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * An embedded Lucene full-text index over product names, descriptions and SKUs, stored on local
+ * disk.
+ *
+ * <p>Each committed {@link ProductChangedEvent} updates the index and reopens the near-real-time
+ * searcher, so a write is searchable as soon as its request returns. The index is committed to disk
+ * only after a rebuild and on shutdown. On startup it is reconciled with the database by comparing
+ * the product ID and version of every row with those stored in the index: only missing, outdated
+ * and deleted products are reindexed, so changes lost by a crash are repaired without indexing the
+ * whole catalogue again.
+ *
+ * <p>Disabled in sharded mode, whose writes do not publish change events.
+ */
+@Component
+@ConditionalOnExpression("${product.search.enabled:true} and !${product.sharding.enabled:false}")
+public class ProductSearchIndex implements DisposableBean {
+
+  private static final Logger logger = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+  private static final String ID = "id";
+  private static final String ID_VALUE = "id_value";
+  private static final String VERSION = "version";
+  private static final String NAME = "name";
+  private static final String DESCRIPTION = "description";
+  private static final String SKU = "sku";
+  private static final String SKU_EXACT = "sku_exact";
+
+  /** Field boosts: a match in the name or SKU ranks above a match in the description. */
+  private static final float NAME_BOOST = 3f;
+
+  private static final float SKU_BOOST = 2f;
+  private static final float SKU_EXACT_BOOST = 10f;
+
+  private final JdbcTemplate jdbcTemplate;
+  private final Path path;
+  private final Analyzer analyzer = new StandardAnalyzer();
+  private final Directory directory;
+  private final IndexWriter writer;
+  private final SearcherManager searcherManager;
+
+  /**
+   * Constructs a ProductSearchIndex, opening or creating the index at the given path.
+   *
+   * @param jdbcTemplate reads products when reconciling and rebuilding
+   * @param path the directory holding the index
+   * @throws IOException if the index cannot be opened
+   */
+  public ProductSearchIndex(
+      JdbcTemplate jdbcTemplate, @Value("${product.search.index-path:search-index}") String path)
+      throws IOException {
+    this.jdbcTemplate = jdbcTemplate;
+    this.path = Path.of(path);
+    this.directory = FSDirectory.open(this.path);
+    this.writer =
+        new IndexWriter(
+            directory,
+            new IndexWriterConfig(analyzer)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+    this.searcherManager = new SearcherManager(writer, null);
+  }
+
+  /**
+   * Brings the index in line with the database, reindexing only the products whose ID and version
+   * differ from the indexed ones.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public synchronized void reconcile() {
+    long start = System.nanoTime();
+    try {
+      Map<Long, Long> indexed = indexedVersions();
+      List<Long> stale = new ArrayList<>();
+      jdbcTemplate.query(
+          "SELECT id, version FROM products",
+          rs -> {
+            long id = rs.getLong(1);
+            Long version = indexed.remove(id);
+            if (version == null || version != rs.getLong(2)) {
+              stale.add(id);
+            }
+          });
+      for (Long id : indexed.keySet()) {
+        writer.deleteDocuments(new Term(ID, String.valueOf(id)));
+      }
+      for (int from = 0; from < stale.size(); from += 1000) {
+        List<Long> batch = stale.subList(from, Math.min(from + 1000, stale.size()));
+        String placeholders = String.join(",", Collections.nCopies(batch.size(), "?"));
+        jdbcTemplate.query(
+            "SELECT id, sku, name, description, version FROM products WHERE id IN ("
+                + placeholders
+                + ")",
+            rs -> {
+              index(
+                  rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4), rs.getLong(5));
+            },
+            batch.toArray());
+      }
+      writer.commit();
+      searcherManager.maybeRefreshBlocking();
+      logger.info(
+          "Reconciled the search index at {}: {} reindexed, {} removed in {} ms",
+          path.toAbsolutePath(),
+          stale.size(),
+          indexed.size(),
+          (System.nanoTime() - start) / 1_000_000);
+    } catch (IOException | UncheckedIOException e) {
+      logger.warn("Could not reconcile the search index; rebuild it to recover", e);
+    }
+  }
+
+  /**
+   * Replaces the contents of the index with every product in the database and commits it.
+   *
+   * @return the number of products indexed and the time taken
+   */
+  public synchronized IndexRebuildResult rebuild() {
+    long start = System.nanoTime();
+    try {
+      writer.deleteAll();
+      long[] documents = new long[1];
+      jdbcTemplate.query(
+          "SELECT id, sku, name, description, version FROM products",
+          rs -> {
+            index(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4), rs.getLong(5));
+            documents[0]++;
+          });
+      writer.commit();
+      searcherManager.maybeRefreshBlocking();
+      long durationMs = (System.nanoTime() - start) / 1_000_000;
+      logger.info("Rebuilt the search index with {} products in {} ms", documents[0], durationMs);
+      return new IndexRebuildResult(documents[0], durationMs, Instant.now());
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not rebuild the search index", e);
+    }
+  }
+
+  /**
+   * Applies a committed product change.
+   *
+   * @param event the change
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public synchronized void onProductChanged(ProductChangedEvent event) {
+    try {
+      ProductState after = event.getAfter();
+      if (after == null) {
+        writer.deleteDocuments(new Term(ID, String.valueOf(event.getProductId())));
+      } else {
+        index(
+            after.getId(),
+            after.getSku(),
+            after.getName(),
+            after.getDescription(),
+            after.getVersion());
+      }
+      searcherManager.maybeRefreshBlocking();
+    } catch (IOException | UncheckedIOException e) {
+      // The write itself has committed; the next reconciliation repairs the index.
+      logger.warn("Could not index the change of product {}", event.getProductId(), e);
+    }
+  }
+
+  /**
+   * Searches the index. Every word of the query must occur in the name, description or SKU of a
+   * product; matches are ranked by relevance, with name and SKU matches weighted above description
+   * matches and an exact SKU ranked first.
+   *
+   * @param text the search text
+   * @param offset the number of ranked results to skip
+   * @param limit the largest number of results to return
+   * @return the IDs of the matching products in rank order, with the total number of matches
+   * @throws ProductBadRequestException if the text contains no searchable words
+   */
+  public IdPage search(String text, long offset, int limit) {
+    Query query = parse(text);
+    try {
+      IndexSearcher searcher = searcherManager.acquire();
+      try {
+        int total = searcher.count(query);
+        if (offset >= total) {
+          return new IdPage(List.of(), total);
+        }
+        int end = (int) Math.min(offset + limit, total);
+        TopDocs top = searcher.search(query, end);
+        List<Long> ids = new ArrayList<>(end - (int) offset);
+        for (int i = (int) offset; i < top.scoreDocs.length; i++) {
+          ScoreDoc hit = top.scoreDocs[i];
+          ids.add(Long.valueOf(searcher.storedFields().document(hit.doc).get(ID)));
+        }
+        return new IdPage(ids, total);
+      } finally {
+        searcherManager.release(searcher);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not search the index", e);
+    }
+  }
+
+  /**
+   * Returns the number of products in the index, as seen by the current searcher.
+   *
+   * @return the document count
+   */
+  public int size() {
+    try {
+      IndexSearcher searcher = searcherManager.acquire();
+      try {
+        return searcher.getIndexReader().numDocs();
+      } finally {
+        searcherManager.release(searcher);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /** Commits pending changes and closes the index. */
+  @Override
+  public synchronized void destroy() throws IOException {
+    searcherManager.close();
+    writer.close();
+    directory.close();
+  }
+
+  private Query parse(String text) {
+    List<String> words = new ArrayList<>();
+    if (text != null) {
+      try (TokenStream tokens = analyzer.tokenStream(NAME, text)) {
+        CharTermAttribute term = tokens.addAttribute(CharTermAttribute.class);
+        tokens.reset();
+        while (tokens.incrementToken()) {
+          words.add(term.toString());
+        }
+        tokens.end();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+    if (words.isEmpty()) {
+      throw new ProductBadRequestException("The search text must contain at least one word.");
+    }
+
+    BooleanQuery.Builder query = new BooleanQuery.Builder();
+    for (String word : words) {
+      Query anyField =
+          new BooleanQuery.Builder()
+              .add(
+                  boost(new TermQuery(new Term(NAME, word)), NAME_BOOST),
+                  BooleanClause.Occur.SHOULD)
+              .add(new TermQuery(new Term(DESCRIPTION, word)), BooleanClause.Occur.SHOULD)
+              .add(boost(new TermQuery(new Term(SKU, word)), SKU_BOOST), BooleanClause.Occur.SHOULD)
+              .build();
+      query.add(anyField, BooleanClause.Occur.MUST);
+    }
+    query.add(
+        boost(new TermQuery(new Term(SKU_EXACT, text.trim().toLowerCase())), SKU_EXACT_BOOST),
+        BooleanClause.Occur.SHOULD);
+    return query.build();
+  }
+
+  private static Query boost(Query query, float boost) {
+    return new BoostQuery(query, boost);
+  }
+
+  private void index(long id, String sku, String name, String description, long version) {
+    Document document = new Document();
+    document.add(new StringField(ID, String.valueOf(id), Field.Store.YES));
+    document.add(new NumericDocValuesField(ID_VALUE, id));
+    document.add(new NumericDocValuesField(VERSION, version));
+    document.add(new TextField(NAME, name == null ? "" : name, Field.Store.NO));
+    document.add(
+        new TextField(DESCRIPTION, description == null ? "" : description, Field.Store.NO));
+    document.add(new TextField(SKU, sku == null ? "" : sku, Field.Store.NO));
+    document.add(new StringField(SKU_EXACT, sku == null ? "" : sku.toLowerCase(), Field.Store.NO));
+    try {
+      writer.updateDocument(new Term(ID, String.valueOf(id)), document);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /** Reads the ID and version of every live document from the doc values. */
+  private Map<Long, Long> indexedVersions() throws IOException {
+    Map<Long, Long> versions = new HashMap<>();
+    searcherManager.maybeRefreshBlocking();
+    IndexSearcher searcher = searcherManager.acquire();
+    try {
+      for (LeafReaderContext leaf : searcher.getIndexReader().leaves()) {
+        NumericDocValues ids = leaf.reader().getNumericDocValues(ID_VALUE);
+        NumericDocValues docVersions = leaf.reader().getNumericDocValues(VERSION);
+        if (ids == null || docVersions == null) {
+          continue;
+        }
+        Bits live = leaf.reader().getLiveDocs();
+        for (int doc = ids.nextDoc(); doc != NumericDocValues.NO_MORE_DOCS; doc = ids.nextDoc()) {
+          if ((live == null || live.get(doc)) && docVersions.advanceExact(doc)) {
+            versions.put(ids.longValue(), docVersions.longValue());
+          }
+        }
+      }
+    } finally {
+      searcherManager.release(searcher);
+    }
+    return versions;
+  }
+}
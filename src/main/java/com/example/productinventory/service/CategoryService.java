@@ -0,0 +1,16 @@
+package com.example.productinventory.service;
+
+import com.example.productinventory.dto.CategoryDTO;
+import java.util.List;
+
+/** Service interface for Category operations. */
+public interface CategoryService {
+
+  /**
+   * Retrieves all categories with the number of products in each, ordered by name. The counts serve
+   * as category facet counts and are not computed per request.
+   *
+   * @return the categories
+   */
+  List<CategoryDTO> getCategories();
+}
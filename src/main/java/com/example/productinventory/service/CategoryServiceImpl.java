@@ -0,0 +1,49 @@
+package com.example.productinventory.service;
+
+import com.example.productinventory.analytics.CategoryProductCounts;
+import com.example.productinventory.dto.CategoryDTO;
+import com.example.productinventory.repository.CategoryRepository;
+import java.util.List;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Implementation of the CategoryService interface. Category rows come from the database; product
+ * counts come from the {@link CategoryProductCounts} when they are enabled.
+ */
+@Service
+public class CategoryServiceImpl implements CategoryService {
+
+  private static final Logger logger = LoggerFactory.getLogger(CategoryServiceImpl.class);
+  private final CategoryRepository categoryRepository;
+  private final CategoryProductCounts productCounts;
+
+  @Autowired
+  public CategoryServiceImpl(
+      CategoryRepository categoryRepository, Optional<CategoryProductCounts> productCounts) {
+    this.categoryRepository = categoryRepository;
+    this.productCounts = productCounts.orElse(null);
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public List<CategoryDTO> getCategories() {
+    logger.info("Retrieving all categories");
+    return categoryRepository
+        .findAll(Sort.by("name"))
+        .stream()
+        .map(
+            category ->
+                new CategoryDTO(
+                    category.getId(),
+                    category.getName(),
+                    category.getDescription(),
+                    productCounts == null ? null : productCounts.getCount(category.getId())))
+        .toList();
+  }
+}
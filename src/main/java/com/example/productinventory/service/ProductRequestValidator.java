@@ -0,0 +1,259 @@
+package com.example.productinventory.service;
+
+import com.example.productinventory.dto.ProductDTO;
+import com.example.productinventory.exception.ProductBadRequestException;
+import com.example.productinventory.exception.ProductUnprocessableEntityException;
+import com.example.productinventory.facet.ProductFacets;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+/**
+ * Validates the input of product service operations against the configured sort fields, sort
+ * directions, selectable fields and batch limits. Shared by every {@link ProductService}
+ * implementation so that they reject the same requests with the same errors.
+ */
+@Component
+public class ProductRequestValidator {
+
+  private static final Logger logger = LoggerFactory.getLogger(ProductRequestValidator.class);
+
+  private final String[] validSortFields;
+  private final String[] validDirections;
+  private final String[] selectableFields;
+  private final int maxBatchIds;
+
+  /**
+   * Constructs a ProductRequestValidator.
+   *
+   * @param validSortFields the fields results may be sorted by
+   * @param validDirections the allowed sort directions
+   * @param selectableFields the fields that may be requested in a sparse fieldset
+   * @param maxBatchIds the largest number of IDs that may be requested at once
+   */
+  public ProductRequestValidator(
+      @Value("${product.sort.fields}") String[] validSortFields,
+      @Value("${product.sort.directions}") String[] validDirections,
+      @Value("${product.fields.selectable}") String[] selectableFields,
+      @Value("${product.batch.max-ids:100}") int maxBatchIds) {
+    this.validSortFields = validSortFields;
+    this.validDirections = validDirections;
+    this.selectableFields = selectableFields;
+    this.maxBatchIds = maxBatchIds;
+  }
+
+  /**
+   * Validates the page number and size of a paged request and every sort order.
+   *
+   * @param pageable the page request to validate
+   * @throws ProductBadRequestException if the page number or size is invalid
+   * @throws ProductUnprocessableEntityException if the sort parameters are invalid
+   */
+  public void validatePageable(Pageable pageable) {
+    if (pageable.isPaged()) {
+      validatePage(pageable.getPageNumber());
+      validateSize(pageable.getPageSize());
+    }
+    validateSortOrders(pageable.getSort());
+  }
+
+  /**
+   * Validates a list of product IDs requested at once.
+   *
+   * @param ids the product IDs to validate
+   * @throws ProductBadRequestException if no IDs or too many IDs are requested
+   * @throws ProductUnprocessableEntityException if an ID is invalid
+   */
+  public void validateProductIds(List<Long> ids) {
+    if (ids == null || ids.isEmpty()) {
+      throw new ProductBadRequestException("At least one product ID is required.");
+    }
+    if (ids.size() > maxBatchIds) {
+      throw new ProductBadRequestException(
+          "At most " + maxBatchIds + " product IDs can be requested at once.");
+    }
+    ids.forEach(this::validateProductId);
+  }
+
+  /**
+   * Validates the provided ProductDTO.
+   *
+   * @param productDTO the product data to validate
+   * @throws ProductUnprocessableEntityException if validation fails
+   */
+  public void validateProductDTO(ProductDTO productDTO) {
+    if (productDTO.getName() == null || productDTO.getName().isEmpty()) {
+      throw new ProductUnprocessableEntityException("Product name is required.");
+    }
+    if (productDTO.getPrice() == null || productDTO.getPrice().compareTo(BigDecimal.ZERO) <= 0) {
+      throw new ProductUnprocessableEntityException("Product price must be a positive value.");
+    }
+    if (productDTO.getQuantity() < 0) {
+      throw new ProductUnprocessableEntityException("Product quantity cannot be negative.");
+    }
+    // Add more validations as necessary
+  }
+
+  /**
+   * Validates the page number.
+   *
+   * @param page the page number to validate
+   * @throws ProductBadRequestException if the page number is invalid
+   */
+  public void validatePage(int page) {
+    if (page < 0) {
+      throw new ProductBadRequestException("Page number must be zero or greater.");
+    }
+  }
+
+  /**
+   * Validates the page size.
+   *
+   * @param size the page size to validate
+   * @throws ProductBadRequestException if the size is invalid
+   */
+  public void validateSize(int size) {
+    if (size <= 0) {
+      throw new ProductBadRequestException("Size must be a positive integer.");
+    }
+  }
+
+  /**
+   * Validates the sort parameters.
+   *
+   * @param sortBy the field to sort by
+   * @param direction the sort direction
+   * @throws ProductUnprocessableEntityException if the sort parameters are invalid
+   */
+  public void validateSort(String sortBy, String direction) {
+    logger.info("validateSort sortBy  and direction: {}  {}", sortBy, direction);
+
+    // Validate sortBy field
+    if (!Arrays.asList(validSortFields).contains(sortBy.toLowerCase())) {
+      throw new ProductUnprocessableEntityException(
+          "Sort field must be one of: " + Arrays.toString(validSortFields));
+    }
+
+    // Validate sort direction
+    if (!Arrays.asList(validDirections).contains(direction.toLowerCase())) {
+      throw new ProductUnprocessableEntityException("Sort direction must be 'asc' or 'desc'.");
+    }
+  }
+
+  /**
+   * Validates every order of a sort against the allowed sort fields and directions.
+   *
+   * @param sort the sort to validate
+   * @throws ProductUnprocessableEntityException if the sort parameters are invalid
+   */
+  public void validateSortOrders(Sort sort) {
+    for (Sort.Order order : sort) {
+      validateSort(order.getProperty(), order.getDirection().name());
+    }
+  }
+
+  /**
+   * Validates the requested fields against the selectable product fields.
+   *
+   * @param fields the requested field names
+   * @return the requested fields, trimmed and without duplicates, in request order
+   * @throws ProductBadRequestException if no field or an unknown field is requested
+   */
+  public List<String> validateFields(List<String> fields) {
+    List<String> selectable = Arrays.asList(selectableFields);
+    LinkedHashSet<String> selected = new LinkedHashSet<>();
+    if (fields != null) {
+      for (String field : fields) {
+        String trimmed = field.trim();
+        if (trimmed.isEmpty()) {
+          continue;
+        }
+        if (!selectable.contains(trimmed)) {
+          throw new ProductBadRequestException(
+              "Unknown field '" + trimmed + "'. Fields must be among: " + selectable);
+        }
+        selected.add(trimmed);
+      }
+    }
+    if (selected.isEmpty()) {
+      throw new ProductBadRequestException("At least one field is required.");
+    }
+    return List.copyOf(selected);
+  }
+
+  /**
+   * Validates the requested facets against {@link ProductFacets#NAMES}.
+   *
+   * @param facets the requested facet names
+   * @return the requested facets, trimmed and without duplicates, in request order
+   * @throws ProductBadRequestException if no facet or an unknown facet is requested
+   */
+  public List<String> validateFacets(List<String> facets) {
+    LinkedHashSet<String> selected = new LinkedHashSet<>();
+    if (facets != null) {
+      for (String facet : facets) {
+        String trimmed = facet.trim();
+        if (trimmed.isEmpty()) {
+          continue;
+        }
+        if (!ProductFacets.NAMES.contains(trimmed)) {
+          throw new ProductBadRequestException(
+              "Unknown facet '" + trimmed + "'. Facets must be among: " + ProductFacets.NAMES);
+        }
+        selected.add(trimmed);
+      }
+    }
+    if (selected.isEmpty()) {
+      throw new ProductBadRequestException("At least one facet is required.");
+    }
+    return List.copyOf(selected);
+  }
+
+  /**
+   * Validates the criteria of a bulk delete, which must not match every product by omission.
+   *
+   * @param name product name fragment
+   * @param minPrice minimum price
+   * @param maxPrice maximum price
+   * @param minQuantity minimum quantity
+   * @param maxQuantity maximum quantity
+   * @param categoryId category ID
+   * @throws ProductBadRequestException if no criterion is given
+   */
+  public void validateDeleteCriteria(
+      String name,
+      BigDecimal minPrice,
+      BigDecimal maxPrice,
+      Integer minQuantity,
+      Integer maxQuantity,
+      Long categoryId) {
+    if ((name == null || name.isEmpty())
+        && minPrice == null
+        && maxPrice == null
+        && minQuantity == null
+        && maxQuantity == null
+        && categoryId == null) {
+      throw new ProductBadRequestException(
+          "At least one criterion is required to delete products.");
+    }
+  }
+
+  /**
+   * Validates the product ID.
+   *
+   * @param id the product ID to validate
+   * @throws ProductUnprocessableEntityException if the ID is invalid
+   */
+  public void validateProductId(Long id) {
+    if (id <= 0) {
+      throw new ProductUnprocessableEntityException("Product ID must be a positive integer.");
+    }
+  }
+}
@@ -0,0 +1,28 @@
+package com.example.productinventory.service;
+
+import com.example.productinventory.exception.ProductBadRequestException;
+import com.example.productinventory.model.Product;
+import com.example.productinventory.search.IndexRebuildResult;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+/** Service interface for full-text product search. */
+public interface ProductSearchService {
+
+  /**
+   * Searches product names, descriptions and SKUs for the words of the text, ranked by relevance.
+   *
+   * @param text the search text
+   * @param pageable the page to return; its sort is ignored, results are in rank order
+   * @return a page of matching products
+   * @throws ProductBadRequestException if the text contains no words or the page is invalid
+   */
+  Page<Product> search(String text, Pageable pageable);
+
+  /**
+   * Rebuilds the full-text index from the database.
+   *
+   * @return the number of products indexed and the time taken
+   */
+  IndexRebuildResult rebuildIndex();
+}
@@ -0,0 +1,78 @@
+package com.example.productinventory.service;
+
+import com.example.productinventory.columnar.IdPage;
+import com.example.productinventory.model.Product;
+import com.example.productinventory.monitoring.ProductOperationEvent;
+import com.example.productinventory.repository.ProductRepository;
+import com.example.productinventory.search.IndexRebuildResult;
+import com.example.productinventory.search.ProductSearchIndex;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Implementation of the ProductSearchService interface. The {@link ProductSearchIndex} ranks the
+ * matches and returns the IDs of one page; only those rows are loaded from the database.
+ */
+@Service
+@ConditionalOnExpression("${product.search.enabled:true} and !${product.sharding.enabled:false}")
+public class ProductSearchServiceImpl implements ProductSearchService {
+
+  private static final Logger logger = LoggerFactory.getLogger(ProductSearchServiceImpl.class);
+  private final ProductSearchIndex searchIndex;
+  private final ProductRepository productRepository;
+  private final ProductRequestValidator validator;
+
+  @Autowired
+  public ProductSearchServiceImpl(
+      ProductSearchIndex searchIndex,
+      ProductRepository productRepository,
+      ProductRequestValidator validator) {
+    this.searchIndex = searchIndex;
+    this.productRepository = productRepository;
+    this.validator = validator;
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public Page<Product> search(String text, Pageable pageable) {
+    validator.validatePage(pageable.getPageNumber());
+    validator.validateSize(pageable.getPageSize());
+    logger.info("Full-text search for '{}', {}", text, pageable);
+
+    ProductOperationEvent event = ProductOperationEvent.start("fullTextSearch");
+    event.query = String.format("text=%s, %s", text, pageable);
+    try {
+      IdPage hits = searchIndex.search(text, pageable.getOffset(), pageable.getPageSize());
+      Map<Long, Product> byId =
+          productRepository
+              .findAllById(hits.getIds())
+              .stream()
+              .collect(Collectors.toMap(Product::getId, Function.identity()));
+      List<Product> products =
+          hits.getIds().stream().map(byId::get).filter(Objects::nonNull).toList();
+      event.rowsReturned = products.size();
+      event.success = true;
+      return new PageImpl<>(products, pageable, hits.getTotal());
+    } finally {
+      event.finish();
+    }
+  }
+
+  @Override
+  public IndexRebuildResult rebuildIndex() {
+    logger.info("Rebuilding the full-text index");
+    return searchIndex.rebuild();
+  }
+}
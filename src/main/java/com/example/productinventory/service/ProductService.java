@@ -3,9 +3,12 @@ package com.example.productinventory.service;
 import com.example.productinventory.dto.ProductDTO;
 import com.example.productinventory.exception.ProductNotFoundException;
 import com.example.productinventory.exception.ProductOptimisticLockException;
+import com.example.productinventory.exception.ProductUnprocessableEntityException;
+import com.example.productinventory.facet.ProductFacets;
 import com.example.productinventory.model.Product;
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -29,6 +32,18 @@ public interface ProductService {
    */
   Page<Product> getAllProducts(Pageable pageable, String sortProperty);
 
+  /**
+   * Retrieves selected fields of all products with pagination and sorting. Only the requested
+   * columns are read from the database.
+   *
+   * @param fields the product fields to return
+   * @param pageable pagination and sorting information
+   * @param sortProperty the property to sort by
+   * @return a page of products, each holding only the requested fields
+   */
+  Page<Map<String, Object>> getAllProductFields(
+      List<String> fields, Pageable pageable, String sortProperty);
+
   /**
    * Retrieves a product by its ID
    *
@@ -38,6 +53,25 @@ public interface ProductService {
    */
   Product getProductById(Long id) throws ProductNotFoundException;
 
+  /**
+   * Retrieves selected fields of a product by its ID
+   *
+   * @param id the product ID
+   * @param fields the product fields to return
+   * @return the requested fields of the product
+   * @throws ProductNotFoundException if product not found
+   */
+  Map<String, Object> getProductFieldsById(Long id, List<String> fields)
+      throws ProductNotFoundException;
+
+  /**
+   * Retrieves several products by their IDs in one query
+   *
+   * @param ids the product IDs
+   * @return the products found, in the order of the requested IDs; missing IDs are skipped
+   */
+  List<Product> getProductsByIds(List<Long> ids);
+
   /**
    * Updates an existing product with optimistic locking
    *
@@ -59,6 +93,47 @@ public interface ProductService {
    */
   void deleteProduct(Long id) throws ProductNotFoundException;
 
+  /**
+   * Deletes several products by their IDs in one statement
+   *
+   * @param ids the product IDs
+   * @return the number of products deleted; IDs of missing products are skipped
+   */
+  int deleteProducts(List<Long> ids);
+
+  /**
+   * Deletes every product matching the criteria in one statement. At least one criterion is
+   * required.
+   *
+   * @param name product name (optional)
+   * @param minPrice minimum price (optional)
+   * @param maxPrice maximum price (optional)
+   * @param minQuantity minimum quantity (optional)
+   * @param maxQuantity maximum quantity (optional)
+   * @param categoryId category ID (optional)
+   * @return the number of products deleted
+   */
+  int deleteProductsByCriteria(
+      String name,
+      BigDecimal minPrice,
+      BigDecimal maxPrice,
+      Integer minQuantity,
+      Integer maxQuantity,
+      Long categoryId);
+
+  /**
+   * Changes the stock of a product by a relative amount, for example when goods are received or
+   * shipped. Concurrent adjustments of the same product are applied one after the other.
+   *
+   * @param id the product ID
+   * @param delta the number of units to add, or remove if negative
+   * @return the updated product
+   * @throws ProductNotFoundException if product not found
+   * @throws ProductUnprocessableEntityException if the stock would become negative
+   */
+  Product adjustStock(Long id, int delta)
+      throws ProductNotFoundException, ProductUnprocessableEntityException;
+
   /**
    * Searches products by name with pagination
    *
@@ -106,6 +181,7 @@ public interface ProductService {
    * @param maxPrice maximum price (optional)
    * @param minQuantity minimum quantity (optional)
    * @param maxQuantity maximum quantity (optional)
+   * @param categoryId category ID (optional)
    * @param pageable pagination information
    * @return page of products matching criteria
    */
@@ -115,8 +191,53 @@ public interface ProductService {
       BigDecimal maxPrice,
       Integer minQuantity,
       Integer maxQuantity,
+      Long categoryId,
       Pageable pageable);
 
+  /**
+   * Advanced search with multiple criteria, returning only the selected fields
+   *
+   * @param fields the product fields to return
+   * @param name product name (optional)
+   * @param minPrice minimum price (optional)
+   * @param maxPrice maximum price (optional)
+   * @param minQuantity minimum quantity (optional)
+   * @param maxQuantity maximum quantity (optional)
+   * @param categoryId category ID (optional)
+   * @param pageable pagination information
+   * @return page of products matching criteria, each holding only the requested fields
+   */
+  Page<Map<String, Object>> searchProductFieldsByCriteria(
+      List<String> fields,
+      String name,
+      BigDecimal minPrice,
+      BigDecimal maxPrice,
+      Integer minQuantity,
+      Integer maxQuantity,
+      Long categoryId,
+      Pageable pageable);
+
+  /**
+   * Counts the products matching the criteria per price band, stock level and category
+   *
+   * @param facets the facets to return, among {@code price}, {@code stock} and {@code category}
+   * @param name product name (optional)
+   * @param minPrice minimum price (optional)
+   * @param maxPrice maximum price (optional)
+   * @param minQuantity minimum quantity (optional)
+   * @param maxQuantity maximum quantity (optional)
+   * @param categoryId category ID (optional)
+   * @return the requested facet histograms
+   */
+  ProductFacets getProductFacets(
+      List<String> facets,
+      String name,
+      BigDecimal minPrice,
+      BigDecimal maxPrice,
+      Integer minQuantity,
+      Integer maxQuantity,
+      Long categoryId);
+
   /**
    * Gets a product by SKU
    *
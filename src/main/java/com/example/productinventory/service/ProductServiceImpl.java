@@ -1,21 +1,43 @@
 package com.example.productinventory.service;
 
+import com.example.productinventory.analytics.CategoryProductCounts;
+import com.example.productinventory.columnar.IdPage;
+import com.example.productinventory.columnar.ProductColumnStore;
 import com.example.productinventory.dto.ProductDTO;
+import com.example.productinventory.event.ProductChangedEvent;
+import com.example.productinventory.event.ProductState;
 import com.example.productinventory.exception.ProductBadRequestException;
 import com.example.productinventory.exception.ProductConflictException;
+import com.example.productinventory.exception.ProductException;
 import com.example.productinventory.exception.ProductNotFoundException;
 import com.example.productinventory.exception.ProductOptimisticLockException;
 import com.example.productinventory.exception.ProductUnprocessableEntityException;
+import com.example.productinventory.facet.FacetAccumulator;
+import com.example.productinventory.facet.FacetCriteria;
+import com.example.productinventory.facet.ProductFacetCache;
+import com.example.productinventory.facet.ProductFacets;
 import com.example.productinventory.model.Product;
+import com.example.productinventory.monitoring.ProductOperationEvent;
 import com.example.productinventory.repository.ProductRepository;
+import com.example.productinventory.resilience.ProductReadBreaker;
 import java.math.BigDecimal;
-import java.util.Arrays;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -23,22 +45,44 @@ import org.springframework.transaction.annotation.Transactional;
 /**
  * Implementation of the ProductService interface. Provides business logic for product management
  * operations, including creating, retrieving, updating, and deleting products.
+ *
+ * <p>Every write publishes a {@link ProductChangedEvent}. When the {@link ProductColumnStore} is
+ * enabled, price and quantity range queries are filtered and sorted in memory and only the rows of
+ * the requested page are loaded from the database. Search facets are cached in the {@link
+ * ProductFacetCache}, which those events invalidate; when the search filters by category at most,
+ * the category facet is read from the {@link CategoryProductCounts} rather than aggregated. When
+ * the {@link ProductReadBreaker} is enabled, lookups by ID and SKU go through it and are answered
+ * from the last known good copy of the product while the database is unavailable.
  */
 @Service
 public class ProductServiceImpl implements ProductService {
 
   private static final Logger logger = LoggerFactory.getLogger(ProductServiceImpl.class);
-  private final ProductRepository productRepository;
-
-  @Value("${product.sort.fields}")
-  private String[] validSortFields;
 
-  @Value("${product.sort.directions}")
-  private String[] validDirections;
+  private final ProductRepository productRepository;
+  private final ProductRequestValidator validator;
+  private final ApplicationEventPublisher eventPublisher;
+  private final ProductColumnStore columnStore;
+  private final ProductFacetCache facetCache;
+  private final CategoryProductCounts categoryCounts;
+  private final ProductReadBreaker readBreaker;
 
   @Autowired
-  public ProductServiceImpl(ProductRepository productRepository) {
+  public ProductServiceImpl(
+      ProductRepository productRepository,
+      ProductRequestValidator validator,
+      ApplicationEventPublisher eventPublisher,
+      Optional<ProductColumnStore> columnStore,
+      ProductFacetCache facetCache,
+      Optional<CategoryProductCounts> categoryCounts,
+      Optional<ProductReadBreaker> readBreaker) {
     this.productRepository = productRepository;
+    this.validator = validator;
+    this.eventPublisher = eventPublisher;
+    this.columnStore = columnStore.orElse(null);
+    this.facetCache = facetCache;
+    this.categoryCounts = categoryCounts.orElse(null);
+    this.readBreaker = readBreaker.orElse(null);
   }
 
   /**
@@ -47,30 +91,42 @@ public class ProductServiceImpl implements ProductService {
    * @param productDTO the product data to create
    * @return the created product
    * @throws ProductConflictException if a product with the same SKU already exists
+   * @throws ProductUnprocessableEntityException if the category does not exist
    */
   @Override
   @Transactional
   public Product createProduct(ProductDTO productDTO) {
     logger.info("Creating new product: {}", productDTO.getName());
-
-    // Check for duplicate SKU
-    if (existsBySku(productDTO.getSku())) {
-      throw new ProductConflictException(
-          "A product with SKU " + productDTO.getSku() + " already exists.");
+    ProductOperationEvent event = ProductOperationEvent.start("create");
+    event.sku = productDTO.getSku();
+    try {
+      Product product = new Product();
+      product.setName(productDTO.getName());
+      product.setDescription(productDTO.getDescription());
+      product.setPrice(productDTO.getPrice());
+      product.setQuantity(productDTO.getQuantity());
+      product.setSku(productDTO.getSku());
+      product.setWeight(productDTO.getWeight());
+      product.setDimensions(productDTO.getDimensions());
+      product.setCategoryId(productDTO.getCategoryId());
+
+      // Insert straight away and let the unique and foreign key constraints reject a duplicate
+      // SKU or unknown category: one round trip, and no window for two creates of one SKU to race.
+      Product savedProduct;
+      try {
+        savedProduct = productRepository.saveAndFlush(product);
+      } catch (DataIntegrityViolationException e) {
+        throw ProductWriteErrors.translate(e, productDTO);
+      }
+      eventPublisher.publishEvent(ProductChangedEvent.created(ProductState.of(savedProduct)));
+      logger.info("Product created successfully with ID: {}", savedProduct.getId());
+      event.productId = savedProduct.getId();
+      event.rowsReturned = 1;
+      event.success = true;
+      return savedProduct;
+    } finally {
+      event.finish();
     }
-
-    Product product = new Product();
-    product.setName(productDTO.getName());
-    product.setDescription(productDTO.getDescription());
-    product.setPrice(productDTO.getPrice());
-    product.setQuantity(productDTO.getQuantity());
-    product.setSku(productDTO.getSku());
-    product.setWeight(productDTO.getWeight());
-    product.setDimensions(productDTO.getDimensions());
-
-    Product savedProduct = productRepository.save(product);
-    logger.info("Product created successfully with ID: {}", savedProduct.getId());
-    return savedProduct;
   }
 
   /**
@@ -81,9 +137,10 @@ public class ProductServiceImpl implements ProductService {
    * @return a page of products
    */
   @Override
+  @Transactional(readOnly = true)
   public Page<Product> getAllProducts(Pageable pageable, String sortProperty) {
-    validatePage(pageable.getPageNumber());
-    validateSize(pageable.getPageSize());
+    validator.validatePage(pageable.getPageNumber());
+    validator.validateSize(pageable.getPageSize());
 
     // Extract sort information
     String sortBy =
@@ -96,10 +153,51 @@ public class ProductServiceImpl implements ProductService {
             : "asc"; // Default direction
 
     // Validate sort
-    validateSort(sortBy, direction);
+    validator.validateSort(sortBy, direction);
 
     logger.info("Retrieving all products with pagination: {}", pageable);
-    return productRepository.findAll(pageable);
+    ProductOperationEvent event = ProductOperationEvent.start("list");
+    event.query = pageable.toString();
+    try {
+      Page<Product> page = productRepository.findAll(pageable);
+      event.rowsReturned = page.getNumberOfElements();
+      event.success = true;
+      return page;
+    } finally {
+      event.finish();
+    }
+  }
+
+  /**
+   * Retrieves selected fields of all products with pagination and sorting. Only the requested
+   * columns are selected, so unrequested fields such as the description are never loaded.
+   *
+   * @param fields the product fields to return
+   * @param pageable pagination and sorting information
+   * @param sortProperty the property to sort by
+   * @return a page of products, each holding only the requested fields
+   * @throws ProductBadRequestException if a requested field is unknown
+   */
+  @Override
+  @Transactional(readOnly = true)
+  public Page<Map<String, Object>> getAllProductFields(
+      List<String> fields, Pageable pageable, String sortProperty) {
+    validator.validatePageable(pageable);
+    List<String> selected = validator.validateFields(fields);
+
+    logger.info("Retrieving fields {} of all products with pagination: {}", selected, pageable);
+    ProductOperationEvent event = ProductOperationEvent.start("listFields");
+    event.query = "fields=" + selected + ", " + pageable;
+    try {
+      Page<Map<String, Object>> page =
+          productRepository.findFieldsByCriteria(
+              selected, null, null, null, null, null, null, pageable);
+      event.rowsReturned = page.getNumberOfElements();
+      event.success = true;
+      return page;
+    } finally {
+      event.finish();
+    }
   }
 
   /**
@@ -108,24 +206,100 @@ public class ProductServiceImpl implements ProductService {
    * @param id the product ID
    * @return the product
    * @throws ProductNotFoundException if the product is not found
+   * @throws com.example.productinventory.exception.ProductUnavailableException if the database is
+   *     unavailable and there is no recent copy of the product
    */
   @Override
   public Product getProductById(Long id) {
     logger.info("Retrieving product by ID: {}", id);
 
-    validateProductId(id);
+    validator.validateProductId(id);
+
+    ProductOperationEvent event = ProductOperationEvent.start("getById");
+    event.productId = id;
+    try {
+      Product product =
+          findById(id, event)
+              .orElseThrow(
+                  () -> {
+                    logger.warn("Product not found with ID: {}", id);
+                    return new ProductNotFoundException("Product not found with id: " + id);
+                  });
+      event.sku = product.getSku();
+      event.rowsReturned = 1;
+      event.success = true;
+      return product;
+    } finally {
+      event.finish();
+    }
+  }
 
-    return productRepository
-        .findById(id)
-        .orElseThrow(
-            () -> {
-              logger.warn("Product not found with ID: {}", id);
-              return new ProductNotFoundException("Product not found with id: " + id);
-            });
+  /**
+   * Retrieves selected fields of a product by its ID.
+   *
+   * @param id the product ID
+   * @param fields the product fields to return
+   * @return the requested fields of the product
+   * @throws ProductNotFoundException if the product is not found
+   * @throws ProductBadRequestException if a requested field is unknown
+   */
+  @Override
+  @Transactional(readOnly = true)
+  public Map<String, Object> getProductFieldsById(Long id, List<String> fields) {
+    logger.info("Retrieving fields {} of product by ID: {}", fields, id);
+
+    validator.validateProductId(id);
+    List<String> selected = validator.validateFields(fields);
+
+    ProductOperationEvent event = ProductOperationEvent.start("getFieldsById");
+    event.productId = id;
+    event.query = "fields=" + selected;
+    try {
+      Map<String, Object> product =
+          productRepository
+              .findFieldsById(selected, id)
+              .orElseThrow(
+                  () -> {
+                    logger.warn("Product not found with ID: {}", id);
+                    return new ProductNotFoundException("Product not found with id: " + id);
+                  });
+      event.rowsReturned = 1;
+      event.success = true;
+      return product;
+    } finally {
+      event.finish();
+    }
   }
 
   /**
-   * Updates an existing product with optimistic locking.
+   * Retrieves several products by their IDs in one query.
+   *
+   * @param ids the product IDs
+   * @return the products found, in the order of the requested IDs; missing IDs are skipped
+   * @throws ProductBadRequestException if no IDs or too many IDs are requested
+   */
+  @Override
+  @Transactional(readOnly = true)
+  public List<Product> getProductsByIds(List<Long> ids) {
+    logger.info("Retrieving products by IDs: {}", ids);
+    validator.validateProductIds(ids);
+
+    ProductOperationEvent event = ProductOperationEvent.start("getByIds");
+    event.query = "ids=" + ids;
+    try {
+      List<Product> products = findAllInOrder(ids);
+      event.rowsReturned = products.size();
+      event.success = true;
+      return products;
+    } finally {
+      event.finish();
+    }
+  }
+
+  /**
+   * Updates an existing product with optimistic locking. The version check and the write are a
+   * single conditional {@code UPDATE}; the product is only looked up again when that matches no
+   * row.
    *
    * @param id the product ID
    * @param productDTO the updated product data
@@ -133,44 +307,66 @@ public class ProductServiceImpl implements ProductService {
    * @return the updated product
    * @throws ProductNotFoundException if the product is not found
    * @throws ProductOptimisticLockException if there is a version mismatch
+   * @throws ProductConflictException if another product already has the new SKU
+   * @throws ProductUnprocessableEntityException if the category does not exist
    */
   @Override
   @Transactional
   public Product updateProduct(Long id, ProductDTO productDTO, Integer version) {
     logger.info("Updating product with ID: {}", id);
 
-    validateProductId(id); // Validate the ID before proceeding
-    validateProductDTO(productDTO); // Validate input fields
-
-    Product existingProduct =
-        productRepository
-            .findById(id)
-            .orElseThrow(
-                () -> {
-                  logger.warn("Product not found with ID: {}", id);
-                  return new ProductNotFoundException("Product not found with id: " + id);
-                });
-
-    if (!existingProduct.getVersion().equals(version)) {
-      logger.warn("Optimistic lock failure for product ID: {}", id);
-      throw new ProductOptimisticLockException("Product data has been updated by another user.");
+    validator.validateProductId(id); // Validate the ID before proceeding
+    validator.validateProductDTO(productDTO); // Validate input fields
+
+    ProductOperationEvent event = ProductOperationEvent.start("update");
+    event.productId = id;
+    event.sku = productDTO.getSku();
+    try {
+      Product values = new Product();
+      values.setName(productDTO.getName());
+      values.setDescription(productDTO.getDescription());
+      // Bind the values as the columns store them, so the returned and published product equals
+      // the updated row without reading it back.
+      values.setPrice(toColumnScale(productDTO.getPrice()));
+      values.setQuantity(productDTO.getQuantity());
+      values.setSku(productDTO.getSku());
+      values.setWeight(toColumnScale(productDTO.getWeight()));
+      values.setDimensions(productDTO.getDimensions());
+      values.setCategoryId(productDTO.getCategoryId());
+      values.setUpdatedAt(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+
+      // One conditional UPDATE does the version check and the write; the ID is only looked up
+      // again when it matched no row, to tell a missing product from a stale version.
+      Product previous;
+      try {
+        previous =
+            productRepository
+                .updateIfVersionMatches(id, version, values)
+                .orElseThrow(() -> staleOrMissing(id));
+      } catch (DataIntegrityViolationException e) {
+        throw ProductWriteErrors.translate(e, productDTO);
+      }
+      ProductState before = ProductState.of(previous);
+
+      Product updatedProduct = values;
+      updatedProduct.setId(id);
+      updatedProduct.setVersion(previous.getVersion() + 1);
+      updatedProduct.setCreatedAt(previous.getCreatedAt());
+
+      eventPublisher.publishEvent(
+          ProductChangedEvent.updated(before, ProductState.of(updatedProduct)));
+      logger.info("Product updated successfully with ID: {}", id);
+      event.rowsReturned = 1;
+      event.success = true;
+      return updatedProduct;
+    } finally {
+      event.finish();
     }
-
-    existingProduct.setName(productDTO.getName());
-    existingProduct.setDescription(productDTO.getDescription());
-    existingProduct.setPrice(productDTO.getPrice());
-    existingProduct.setQuantity(productDTO.getQuantity());
-    existingProduct.setSku(productDTO.getSku());
-    existingProduct.setWeight(productDTO.getWeight());
-    existingProduct.setDimensions(productDTO.getDimensions());
-
-    Product updatedProduct = productRepository.save(existingProduct);
-    logger.info("Product updated successfully with ID: {}", id);
-    return updatedProduct;
   }
 
   /**
-   * Deletes a product by its ID.
+   * Deletes a product by its ID with a single {@code DELETE} statement that also returns the
+   * deleted row; an empty result means the product did not exist.
    *
    * @param id the product ID
    * @throws ProductNotFoundException if the product is not found
@@ -179,12 +375,154 @@ public class ProductServiceImpl implements ProductService {
   @Transactional
   public void deleteProduct(Long id) {
     logger.info("Deleting product with ID: {}", id);
-    if (!productRepository.existsById(id)) {
-      logger.warn("Product not found with ID: {}", id);
-      throw new ProductNotFoundException("Product not found with id: " + id);
+    ProductOperationEvent event = ProductOperationEvent.start("delete");
+    event.productId = id;
+    try {
+      List<ProductState> deleted = productRepository.deleteAllByIdReturning(List.of(id));
+      if (deleted.isEmpty()) {
+        logger.warn("Product not found with ID: {}", id);
+        throw new ProductNotFoundException("Product not found with id: " + id);
+      }
+      publishDeleted(deleted);
+      logger.info("Product deleted successfully with ID: {}", id);
+      event.rowsReturned = 1;
+      event.success = true;
+    } finally {
+      event.finish();
+    }
+  }
+
+  /**
+   * Deletes several products by their IDs with one {@code DELETE} statement. A change event is
+   * published for every deleted product, so caches and read models drop them after the commit.
+   *
+   * @param ids the product IDs
+   * @return the number of products deleted; IDs of missing products are skipped
+   * @throws ProductBadRequestException if no IDs or too many IDs are given
+   */
+  @Override
+  @Transactional
+  public int deleteProducts(List<Long> ids) {
+    logger.info("Deleting products by IDs: {}", ids);
+    validator.validateProductIds(ids);
+
+    ProductOperationEvent event = ProductOperationEvent.start("deleteByIds");
+    event.query = "ids=" + ids;
+    try {
+      List<ProductState> deleted =
+          productRepository.deleteAllByIdReturning(new LinkedHashSet<>(ids));
+      publishDeleted(deleted);
+      logger.info("Deleted {} of {} requested products", deleted.size(), ids.size());
+      event.rowsReturned = deleted.size();
+      event.success = true;
+      return deleted.size();
+    } finally {
+      event.finish();
+    }
+  }
+
+  /**
+   * Deletes every product matching the criteria with one {@code DELETE} statement. A change event
+   * is published for every deleted product, so caches and read models drop them after the commit.
+   *
+   * @param name product name (optional)
+   * @param minPrice minimum price (optional)
+   * @param maxPrice maximum price (optional)
+   * @param minQuantity minimum quantity (optional)
+   * @param maxQuantity maximum quantity (optional)
+   * @param categoryId category ID (optional)
+   * @return the number of products deleted
+   * @throws ProductBadRequestException if no criterion is given
+   */
+  @Override
+  @Transactional
+  public int deleteProductsByCriteria(
+      String name,
+      BigDecimal minPrice,
+      BigDecimal maxPrice,
+      Integer minQuantity,
+      Integer maxQuantity,
+      Long categoryId) {
+    validator.validateDeleteCriteria(
+        name, minPrice, maxPrice, minQuantity, maxQuantity, categoryId);
+    logger.info(
+        "Deleting products by criteria - name: {}, price: {}-{}, quantity: {}-{}, category: {}",
+        name,
+        minPrice,
+        maxPrice,
+        minQuantity,
+        maxQuantity,
+        categoryId);
+    ProductOperationEvent event = ProductOperationEvent.start("deleteByCriteria");
+    event.query =
+        String.format(
+            "name=%s, price=%s-%s, quantity=%s-%s, category=%s",
+            name, minPrice, maxPrice, minQuantity, maxQuantity, categoryId);
+    try {
+      List<ProductState> deleted =
+          productRepository.deleteByCriteriaReturning(
+              name, minPrice, maxPrice, minQuantity, maxQuantity, categoryId);
+      publishDeleted(deleted);
+      logger.info("Deleted {} products matching the criteria", deleted.size());
+      event.rowsReturned = deleted.size();
+      event.success = true;
+      return deleted.size();
+    } finally {
+      event.finish();
+    }
+  }
+
+  /**
+   * Changes the stock of a product by a relative amount. The product row is locked for the duration
+   * of the transaction, so concurrent adjustments are serialized rather than failing on the version
+   * check.
+   *
+   * @param id the product ID
+   * @param delta the number of units to add, or remove if negative
+   * @return the updated product
+   * @throws ProductNotFoundException if the product is not found
+   * @throws ProductUnprocessableEntityException if the stock would become negative
+   */
+  @Override
+  @Transactional
+  public Product adjustStock(Long id, int delta) {
+    logger.info("Adjusting stock of product with ID {} by {}", id, delta);
+    validator.validateProductId(id);
+
+    ProductOperationEvent event = ProductOperationEvent.start("adjustStock");
+    event.productId = id;
+    event.query = "delta=" + delta;
+    try {
+      Product product =
+          productRepository
+              .findByIdForUpdate(id)
+              .orElseThrow(
+                  () -> {
+                    logger.warn("Product not found with ID: {}", id);
+                    return new ProductNotFoundException("Product not found with id: " + id);
+                  });
+      event.sku = product.getSku();
+      long quantity = (long) product.getQuantity() + delta;
+      if (quantity < 0) {
+        throw new ProductUnprocessableEntityException(
+            "Insufficient stock: " + product.getQuantity() + " units available.");
+      }
+      if (quantity > Integer.MAX_VALUE) {
+        throw new ProductUnprocessableEntityException("Product quantity is too large.");
+      }
+      ProductState before = ProductState.of(product);
+
+      product.setQuantity((int) quantity);
+      Product updatedProduct = productRepository.saveAndFlush(product);
+      eventPublisher.publishEvent(
+          ProductChangedEvent.updated(before, ProductState.of(updatedProduct)));
+      logger.info("Stock of product with ID {} is now {}", id, quantity);
+      event.rowsReturned = 1;
+      event.success = true;
+      return updatedProduct;
+    } finally {
+      event.finish();
     }
-    productRepository.deleteById(id);
-    logger.info("Product deleted successfully with ID: {}", id);
   }
 
   /**
@@ -195,9 +533,19 @@ public class ProductServiceImpl implements ProductService {
    * @return a page of matching products
    */
   @Override
+  @Transactional(readOnly = true)
   public Page<Product> searchProductsByName(String name, Pageable pageable) {
     logger.info("Searching products by name: {}", name);
-    return productRepository.findByNameContainingIgnoreCase(name, pageable);
+    ProductOperationEvent event = ProductOperationEvent.start("searchByName");
+    event.query = "name=" + name + ", " + pageable;
+    try {
+      Page<Product> page = productRepository.findByNameContainingIgnoreCase(name, pageable);
+      event.rowsReturned = page.getNumberOfElements();
+      event.success = true;
+      return page;
+    } finally {
+      event.finish();
+    }
   }
 
   /**
@@ -209,10 +557,23 @@ public class ProductServiceImpl implements ProductService {
    * @return a page of products in the specified price range
    */
   @Override
+  @Transactional(readOnly = true)
   public Page<Product> findProductsByPriceRange(
       BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable) {
     logger.info("Searching products by price range: {} - {}", minPrice, maxPrice);
-    return productRepository.findByPriceBetween(minPrice, maxPrice, pageable);
+    ProductOperationEvent event = ProductOperationEvent.start("findByPriceRange");
+    event.query = "price=" + minPrice + "-" + maxPrice + ", " + pageable;
+    try {
+      Page<Product> page = findInColumnStore(minPrice, maxPrice, null, null, null, pageable);
+      if (page == null) {
+        page = productRepository.findByPriceBetween(minPrice, maxPrice, pageable);
+      }
+      event.rowsReturned = page.getNumberOfElements();
+      event.success = true;
+      return page;
+    } finally {
+      event.finish();
+    }
   }
 
   /**
@@ -224,10 +585,23 @@ public class ProductServiceImpl implements ProductService {
    * @return a page of products in the specified quantity range
    */
   @Override
+  @Transactional(readOnly = true)
   public Page<Product> findProductsByQuantityRange(
       Integer minQuantity, Integer maxQuantity, Pageable pageable) {
     logger.info("Searching products by quantity range: {} - {}", minQuantity, maxQuantity);
-    return productRepository.findByQuantityBetween(minQuantity, maxQuantity, pageable);
+    ProductOperationEvent event = ProductOperationEvent.start("findByQuantityRange");
+    event.query = "quantity=" + minQuantity + "-" + maxQuantity + ", " + pageable;
+    try {
+      Page<Product> page = findInColumnStore(null, null, minQuantity, maxQuantity, null, pageable);
+      if (page == null) {
+        page = productRepository.findByQuantityBetween(minQuantity, maxQuantity, pageable);
+      }
+      event.rowsReturned = page.getNumberOfElements();
+      event.success = true;
+      return page;
+    } finally {
+      event.finish();
+    }
   }
 
   /**
@@ -237,9 +611,19 @@ public class ProductServiceImpl implements ProductService {
    * @return a list of products with low stock
    */
   @Override
+  @Transactional(readOnly = true)
   public List<Product> findLowStockProducts(Integer threshold) {
     logger.info("Finding low stock products with threshold: {}", threshold);
-    return productRepository.findLowStockProducts(threshold);
+    ProductOperationEvent event = ProductOperationEvent.start("findLowStock");
+    event.query = "threshold=" + threshold;
+    try {
+      List<Product> products = productRepository.findLowStockProducts(threshold);
+      event.rowsReturned = products.size();
+      event.success = true;
+      return products;
+    } finally {
+      event.finish();
+    }
   }
 
   /**
@@ -250,26 +634,201 @@ public class ProductServiceImpl implements ProductService {
    * @param maxPrice maximum price (optional)
    * @param minQuantity minimum quantity (optional)
    * @param maxQuantity maximum quantity (optional)
+   * @param categoryId category ID (optional)
    * @param pageable pagination information
    * @return a page of products matching the specified criteria
    */
   @Override
+  @Transactional(readOnly = true)
   public Page<Product> searchProductsByCriteria(
       String name,
       BigDecimal minPrice,
       BigDecimal maxPrice,
       Integer minQuantity,
       Integer maxQuantity,
+      Long categoryId,
+      Pageable pageable) {
+    logger.info(
+        "Searching products by criteria - name: {}, price: {}-{}, quantity: {}-{}, category: {}",
+        name,
+        minPrice,
+        maxPrice,
+        minQuantity,
+        maxQuantity,
+        categoryId);
+    ProductOperationEvent event = ProductOperationEvent.start("searchByCriteria");
+    event.query =
+        String.format(
+            "name=%s, price=%s-%s, quantity=%s-%s, category=%s, %s",
+            name, minPrice, maxPrice, minQuantity, maxQuantity, categoryId, pageable);
+    try {
+      Page<Product> page =
+          name == null
+              ? findInColumnStore(
+                  minPrice, maxPrice, minQuantity, maxQuantity, categoryId, pageable)
+              : null;
+      if (page == null) {
+        page =
+            productRepository.findByCriteria(
+                name, minPrice, maxPrice, minQuantity, maxQuantity, categoryId, pageable);
+      }
+      event.rowsReturned = page.getNumberOfElements();
+      event.success = true;
+      return page;
+    } finally {
+      event.finish();
+    }
+  }
+
+  /**
+   * Advanced search with multiple criteria, selecting only the requested fields.
+   *
+   * @param fields the product fields to return
+   * @param name product name (optional)
+   * @param minPrice minimum price (optional)
+   * @param maxPrice maximum price (optional)
+   * @param minQuantity minimum quantity (optional)
+   * @param maxQuantity maximum quantity (optional)
+   * @param categoryId category ID (optional)
+   * @param pageable pagination information
+   * @return a page of matching products, each holding only the requested fields
+   * @throws ProductBadRequestException if a requested field is unknown
+   */
+  @Override
+  @Transactional(readOnly = true)
+  public Page<Map<String, Object>> searchProductFieldsByCriteria(
+      List<String> fields,
+      String name,
+      BigDecimal minPrice,
+      BigDecimal maxPrice,
+      Integer minQuantity,
+      Integer maxQuantity,
+      Long categoryId,
       Pageable pageable) {
+    validator.validatePageable(pageable);
+    List<String> selected = validator.validateFields(fields);
+
     logger.info(
-        "Searching products by criteria - name: {}, price: {}-{}, quantity: {}-{}",
+        "Searching fields {} of products by criteria - name: {}, price: {}-{}, quantity: {}-{},"
+            + " category: {}",
+        selected,
         name,
         minPrice,
         maxPrice,
         minQuantity,
-        maxQuantity);
-    return productRepository.findByCriteria(
-        name, minPrice, maxPrice, minQuantity, maxQuantity, pageable);
+        maxQuantity,
+        categoryId);
+    ProductOperationEvent event = ProductOperationEvent.start("searchFieldsByCriteria");
+    event.query =
+        String.format(
+            "fields=%s, name=%s, price=%s-%s, quantity=%s-%s, category=%s, %s",
+            selected, name, minPrice, maxPrice, minQuantity, maxQuantity, categoryId, pageable);
+    try {
+      Page<Map<String, Object>> page =
+          productRepository.findFieldsByCriteria(
+              selected, name, minPrice, maxPrice, minQuantity, maxQuantity, categoryId, pageable);
+      event.rowsReturned = page.getNumberOfElements();
+      event.success = true;
+      return page;
+    } finally {
+      event.finish();
+    }
+  }
+
+  /**
+   * Counts the products matching the criteria per price band, stock level and category. All facets
+   * are computed by one aggregate query and cached per normalized criteria, so a cached entry
+   * serves any selection of facets. When no criterion other than the category is given and the
+   * category counters are enabled, the category facet is taken from them and the query is not
+   * grouped by category.
+   *
+   * @param facets the facets to return
+   * @param name product name (optional)
+   * @param minPrice minimum price (optional)
+   * @param maxPrice maximum price (optional)
+   * @param minQuantity minimum quantity (optional)
+   * @param maxQuantity maximum quantity (optional)
+   * @param categoryId category ID (optional)
+   * @return the requested facet histograms
+   * @throws ProductBadRequestException if a requested facet is unknown
+   */
+  @Override
+  @Transactional(readOnly = true)
+  public ProductFacets getProductFacets(
+      List<String> facets,
+      String name,
+      BigDecimal minPrice,
+      BigDecimal maxPrice,
+      Integer minQuantity,
+      Integer maxQuantity,
+      Long categoryId) {
+    List<String> selected = validator.validateFacets(facets);
+    FacetCriteria criteria =
+        FacetCriteria.of(name, minPrice, maxPrice, minQuantity, maxQuantity, categoryId);
+    logger.info("Getting facets {} of products matching {}", selected, criteria);
+    ProductOperationEvent event = ProductOperationEvent.start("facetsByCriteria");
+    event.query = criteria.toString();
+    try {
+      boolean[] computed = new boolean[1];
+      ProductFacets all =
+          facetCache.get(
+              criteria,
+              () -> {
+                computed[0] = true;
+                return computeFacets(criteria);
+              });
+      event.rowsReturned = all.getCategory().size();
+      event.cacheHit = !computed[0];
+      event.success = true;
+      return all.select(selected);
+    } finally {
+      event.finish();
+    }
+  }
+
+  /** Computes all facets of the criteria with one aggregate query and the category counters. */
+  private ProductFacets computeFacets(FacetCriteria criteria) {
+    FacetAccumulator accumulator = facetCache.newAccumulator();
+    boolean fromCounters = categoryCounts != null && filtersByCategoryAtMost(criteria);
+    productRepository.countFacetsByCriteria(
+        accumulator,
+        !fromCounters,
+        facetCache.getPriceBounds(),
+        facetCache.getLowStockThreshold(),
+        criteria.getName(),
+        criteria.getMinPrice(),
+        criteria.getMaxPrice(),
+        criteria.getMinQuantity(),
+        criteria.getMaxQuantity(),
+        criteria.getCategoryId());
+    if (fromCounters) {
+      addCategoryCounts(accumulator, criteria.getCategoryId());
+    }
+    return accumulator.build();
+  }
+
+  /** Returns whether the criteria filter by nothing but, possibly, the category. */
+  private static boolean filtersByCategoryAtMost(FacetCriteria criteria) {
+    return criteria.getName() == null
+        && criteria.getMinPrice() == null
+        && criteria.getMaxPrice() == null
+        && criteria.getMinQuantity() == null
+        && criteria.getMaxQuantity() == null;
+  }
+
+  /** Rounds a price or weight to the scale of its {@code DECIMAL(10, 2)} column, as H2 does. */
+  private static BigDecimal toColumnScale(BigDecimal value) {
+    return value == null ? null : value.setScale(2, RoundingMode.HALF_UP);
+  }
+
+  /** Adds the category facet from the category counters, for one category or for all of them. */
+  private void addCategoryCounts(FacetAccumulator accumulator, Long categoryId) {
+    if (categoryId != null) {
+      accumulator.addCategory(categoryId, categoryCounts.getCount(categoryId));
+      return;
+    }
+    categoryCounts.getCounts().forEach(accumulator::addCategory);
+    accumulator.addCategory(null, categoryCounts.getCount(null));
   }
 
   /**
@@ -278,17 +837,52 @@ public class ProductServiceImpl implements ProductService {
    * @param sku the product SKU
    * @return the product if found
    * @throws ProductNotFoundException if the product is not found
+   * @throws com.example.productinventory.exception.ProductUnavailableException if the database is
+   *     unavailable and there is no recent copy of the product
    */
   @Override
   public Product getProductBySku(String sku) {
     logger.info("Retrieving product by SKU: {}", sku);
-    return productRepository
-        .findBySku(sku)
-        .orElseThrow(
-            () -> {
-              logger.warn("Product not found with SKU: {}", sku);
-              return new ProductNotFoundException("Product not found with SKU: " + sku);
-            });
+    ProductOperationEvent event = ProductOperationEvent.start("getBySku");
+    event.sku = sku;
+    try {
+      Product product =
+          findBySku(sku, event)
+              .orElseThrow(
+                  () -> {
+                    logger.warn("Product not found with SKU: {}", sku);
+                    return new ProductNotFoundException("Product not found with SKU: " + sku);
+                  });
+      event.productId = product.getId();
+      event.rowsReturned = 1;
+      event.success = true;
+      return product;
+    } finally {
+      event.finish();
+    }
+  }
+
+  /**
+   * Looks up a product by ID, through the read breaker if it is enabled. The lookups run in the
+   * repository's own read-only transaction rather than one opened by the service, so that a
+   * connection failure surfaces inside the breaker. A stale copy served by the breaker is recorded
+   * as a cache hit of the lookup's event.
+   */
+  private Optional<Product> findById(Long id, ProductOperationEvent event) {
+    if (readBreaker == null) {
+      return productRepository.findById(id);
+    }
+    return readBreaker.findById(
+        id, () -> productRepository.findById(id), () -> event.cacheHit = true);
+  }
+
+  /** Looks up a product by SKU, through the read breaker if it is enabled. */
+  private Optional<Product> findBySku(String sku, ProductOperationEvent event) {
+    if (readBreaker == null) {
+      return productRepository.findBySku(sku);
+    }
+    return readBreaker.findBySku(
+        sku, () -> productRepository.findBySku(sku), () -> event.cacheHit = true);
   }
 
   /**
@@ -298,6 +892,7 @@ public class ProductServiceImpl implements ProductService {
    * @return true if the product exists, false otherwise
    */
   @Override
+  @Transactional(readOnly = true)
   public boolean existsBySku(String sku) {
     logger.info("Checking if product exists with SKU: {}", sku);
     boolean exists = productRepository.existsBySku(sku);
@@ -306,79 +901,54 @@ public class ProductServiceImpl implements ProductService {
   }
 
   /**
-   * Validates the provided ProductDTO.
+   * Answers a numeric range and category query from the column store, loading only the rows of the
+   * page.
    *
-   * @param productDTO the product data to validate
-   * @throws ProductUnprocessableEntityException if validation fails
+   * @return the page, or {@code null} if the column store is disabled or cannot answer the query
    */
-  private void validateProductDTO(ProductDTO productDTO) {
-    if (productDTO.getName() == null || productDTO.getName().isEmpty()) {
-      throw new ProductUnprocessableEntityException("Product name is required.");
-    }
-    if (productDTO.getPrice() == null || productDTO.getPrice().compareTo(BigDecimal.ZERO) <= 0) {
-      throw new ProductUnprocessableEntityException("Product price must be a positive value.");
+  private Page<Product> findInColumnStore(
+      BigDecimal minPrice,
+      BigDecimal maxPrice,
+      Integer minQuantity,
+      Integer maxQuantity,
+      Long categoryId,
+      Pageable pageable) {
+    if (columnStore == null) {
+      return null;
     }
-    if (productDTO.getQuantity() < 0) {
-      throw new ProductUnprocessableEntityException("Product quantity cannot be negative.");
+    Optional<IdPage> ids =
+        columnStore.findIds(minPrice, maxPrice, minQuantity, maxQuantity, categoryId, pageable);
+    if (ids.isEmpty()) {
+      return null;
     }
-    // Add more validations as necessary
+    return new PageImpl<>(findAllInOrder(ids.get().getIds()), pageable, ids.get().getTotal());
   }
 
-  /**
-   * Validates the page number.
-   *
-   * @param page the page number to validate
-   * @throws ProductBadRequestException if the page number is invalid
-   */
-  private void validatePage(int page) {
-    if (page < 0) {
-      throw new ProductBadRequestException("Page number must be zero or greater.");
+  private void publishDeleted(List<ProductState> deleted) {
+    for (ProductState state : deleted) {
+      eventPublisher.publishEvent(ProductChangedEvent.deleted(state));
     }
   }
 
-  /**
-   * Validates the page size.
-   *
-   * @param size the page size to validate
-   * @throws ProductBadRequestException if the size is invalid
-   */
-  private void validateSize(int size) {
-    if (size <= 0) {
-      throw new ProductBadRequestException("Size must be a positive integer.");
-    }
-  }
-
-  /**
-   * Validates the sort parameters.
-   *
-   * @param sortBy the field to sort by
-   * @param direction the sort direction
-   * @throws ProductUnprocessableEntityException if the sort parameters are invalid
-   */
-  private void validateSort(String sortBy, String direction) {
-    logger.info("validateSort sortBy  and direction: {}  {}", sortBy, direction);
-
-    // Validate sortBy field
-    if (!Arrays.asList(validSortFields).contains(sortBy.toLowerCase())) {
-      throw new ProductUnprocessableEntityException(
-          "Sort field must be one of: " + Arrays.toString(validSortFields));
-    }
-
-    // Validate sort direction
-    if (!Arrays.asList(validDirections).contains(direction.toLowerCase())) {
-      throw new ProductUnprocessableEntityException("Sort direction must be 'asc' or 'desc'.");
+  /** Looks the product up again after a conditional update matched no row, to tell why. */
+  private ProductException staleOrMissing(Long id) {
+    boolean exists = productRepository.existsById(id);
+    if (exists) {
+      logger.warn("Optimistic lock failure for product ID: {}", id);
+    } else {
+      logger.warn("Product not found with ID: {}", id);
     }
+    return ProductWriteErrors.staleOrMissing(id, exists);
   }
 
-  /**
-   * Validates the product ID.
-   *
-   * @param id the product ID to validate
-   * @throws ProductUnprocessableEntityException if the ID is invalid
-   */
-  private void validateProductId(Long id) {
-    if (id <= 0) {
-      throw new ProductUnprocessableEntityException("Product ID must be a positive integer.");
-    }
+  /** Loads products by ID in one query, in the order of the given IDs, skipping missing ones. */
+  private List<Product> findAllInOrder(List<Long> ids) {
+    LinkedHashSet<Long> uniqueIds = new LinkedHashSet<>(ids);
+    Map<Long, Product> byId =
+        productRepository
+            .findAllById(uniqueIds)
+            .stream()
+            .collect(Collectors.toMap(Product::getId, Function.identity()));
+    return uniqueIds.stream().map(byId::get).filter(Objects::nonNull).toList();
   }
 }
@@ -0,0 +1,77 @@
+package com.example.productinventory.service;
+
+import com.example.productinventory.dto.ProductDTO;
+import com.example.productinventory.exception.ProductConflictException;
+import com.example.productinventory.exception.ProductException;
+import com.example.productinventory.exception.ProductNotFoundException;
+import com.example.productinventory.exception.ProductOptimisticLockException;
+import com.example.productinventory.exception.ProductUnprocessableEntityException;
+import io.r2dbc.spi.R2dbcException;
+import java.sql.SQLException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+/**
+ * Maps the failures of product writes to the errors clients see, so that the servlet service and
+ * the reactive controller report a duplicate SKU, an unknown category, a stale version and a
+ * missing product the same way.
+ */
+public final class ProductWriteErrors {
+
+  /** SQLSTATE of a unique constraint violation. */
+  static final String UNIQUE_VIOLATION = "23505";
+
+  /** SQLSTATE of a foreign key violation on the referencing side. */
+  static final String FOREIGN_KEY_VIOLATION = "23506";
+
+  private ProductWriteErrors() {}
+
+  /**
+   * Maps a constraint violation raised by a write over JDBC or R2DBC: a duplicate SKU becomes a
+   * conflict and an unknown category an unprocessable entity.
+   *
+   * @param e the violation
+   * @param productDTO the product data that was written
+   * @return the error to report, or {@code e} itself if it is neither violation
+   */
+  public static RuntimeException translate(
+      DataIntegrityViolationException e, ProductDTO productDTO) {
+    String sqlState = sqlState(e);
+    if (UNIQUE_VIOLATION.equals(sqlState)) {
+      return new ProductConflictException(
+          "A product with SKU " + productDTO.getSku() + " already exists.");
+    }
+    if (FOREIGN_KEY_VIOLATION.equals(sqlState) && productDTO.getCategoryId() != null) {
+      return new ProductUnprocessableEntityException(
+          "Category not found with id: " + productDTO.getCategoryId());
+    }
+    return e;
+  }
+
+  /**
+   * Explains why a conditional update matched no row: the product is either gone or has moved on to
+   * another version.
+   *
+   * @param id the product ID
+   * @param exists whether a product with that ID exists
+   * @return the error to report
+   */
+  public static ProductException staleOrMissing(Long id, boolean exists) {
+    if (!exists) {
+      return new ProductNotFoundException("Product not found with id: " + id);
+    }
+    return new ProductOptimisticLockException("Product data has been updated by another user.");
+  }
+
+  /** Returns the SQLSTATE of the driver exception behind a violation, if there is one. */
+  private static String sqlState(DataIntegrityViolationException e) {
+    for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+      if (cause instanceof SQLException) {
+        return ((SQLException) cause).getSQLState();
+      }
+      if (cause instanceof R2dbcException) {
+        return ((R2dbcException) cause).getSqlState();
+      }
+    }
+    return null;
+  }
+}
@@ -0,0 +1,115 @@
+package com.example.productinventory.sharding;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.function.IntFunction;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * The set of product shards. Products are placed on a shard by a hash of their SKU, and every ID
+ * encodes the shard it was created on ({@code id = sequence * shardCount + shard}), so that lookups
+ * by SKU or by ID go straight to one shard while other queries are scattered across all of them.
+ */
+public class ProductShards {
+
+  private final List<JdbcTemplate> shards;
+  private final ExecutorService executor;
+
+  /**
+   * Constructs ProductShards.
+   *
+   * @param shards one JDBC template per shard, in shard order
+   * @param executor the executor running scatter queries
+   */
+  public ProductShards(List<JdbcTemplate> shards, ExecutorService executor) {
+    this.shards = List.copyOf(shards);
+    this.executor = executor;
+  }
+
+  /**
+   * Returns the number of shards.
+   *
+   * @return the shard count
+   */
+  public int size() {
+    return shards.size();
+  }
+
+  /**
+   * Returns the shard a SKU belongs to.
+   *
+   * @param sku the product SKU
+   * @return the shard index
+   */
+  public int shardForSku(String sku) {
+    return shardForSku(sku, shards.size());
+  }
+
+  /**
+   * Returns the shard a product ID was created on.
+   *
+   * @param id the product ID
+   * @return the shard index
+   */
+  public int shardForId(long id) {
+    return (int) Math.floorMod(id, (long) shards.size());
+  }
+
+  /**
+   * Returns the JDBC template of a shard.
+   *
+   * @param shard the shard index
+   * @return the shard's JDBC template
+   */
+  public JdbcTemplate shard(int shard) {
+    return shards.get(shard);
+  }
+
+  /**
+   * Runs a query on every shard in parallel and waits for all of them.
+   *
+   * @param query the query to run, given the shard index
+   * @param <T> the per-shard result type
+   * @return the results in shard order
+   */
+  public <T> List<T> scatter(IntFunction<T> query) {
+    List<CompletableFuture<T>> futures = new ArrayList<>(shards.size());
+    for (int shard = 0; shard < shards.size(); shard++) {
+      int index = shard;
+      futures.add(CompletableFuture.supplyAsync(() -> query.apply(index), executor));
+    }
+    List<T> results = new ArrayList<>(futures.size());
+    try {
+      for (CompletableFuture<T> future : futures) {
+        results.add(future.join());
+      }
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
+    return results;
+  }
+
+  /**
+   * Returns the shard a SKU belongs to for a given shard count. The SKU hash is mixed so that
+   * sequential SKUs spread evenly.
+   *
+   * @param sku the product SKU
+   * @param shardCount the number of shards
+   * @return the shard index
+   */
+  static int shardForSku(String sku, int shardCount) {
+    int h = sku.hashCode();
+    h ^= h >>> 16;
+    h *= 0x85ebca6b;
+    h ^= h >>> 13;
+    h *= 0xc2b2ae35;
+    h ^= h >>> 16;
+    return Math.floorMod(h, shardCount);
+  }
+}
@@ -0,0 +1,1058 @@
+package com.example.productinventory.sharding;
+
+import com.example.productinventory.dto.ProductDTO;
+import com.example.productinventory.exception.ProductConflictException;
+import com.example.productinventory.exception.ProductNotFoundException;
+import com.example.productinventory.exception.ProductOptimisticLockException;
+import com.example.productinventory.exception.ProductUnprocessableEntityException;
+import com.example.productinventory.facet.FacetAccumulator;
+import com.example.productinventory.facet.ProductFacetCache;
+import com.example.productinventory.facet.ProductFacets;
+import com.example.productinventory.model.Product;
+import com.example.productinventory.monitoring.ProductOperationEvent;
+import com.example.productinventory.service.ProductRequestValidator;
+import com.example.productinventory.service.ProductService;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+
+/**
+ * {@link ProductService} for the sharded mode, in which products are spread over several databases
+ * by a hash of their SKU (see {@link ProductShards}). Lookups, updates and deletes by ID or SKU go
+ * to a single shard. Listing and search queries are scattered over all shards in parallel; each
+ * shard returns its first {@code offset + size} rows in sort order and the pages are merged with a
+ * k-way merge on the sort key, ties broken by ID.
+ *
+ * <p>Search facets are aggregated on every shard and summed. They are not cached, since this
+ * service publishes no change events to invalidate a cache with.
+ *
+ * <p>Because the SKU decides the shard, an update may change the SKU only to one that hashes to the
+ * same shard.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "product.sharding.enabled", havingValue = "true")
+public class ShardedProductService implements ProductService {
+
+  private static final Logger logger = LoggerFactory.getLogger(ShardedProductService.class);
+
+  /** Product properties mapped to their column and Java type. */
+  private static final Map<String, Column> COLUMNS = new LinkedHashMap<>();
+
+  static {
+    COLUMNS.put("id", new Column("id", Long.class));
+    COLUMNS.put("name", new Column("name", String.class));
+    COLUMNS.put("description", new Column("description", String.class));
+    COLUMNS.put("price", new Column("price", BigDecimal.class));
+    COLUMNS.put("quantity", new Column("quantity", Integer.class));
+    COLUMNS.put("sku", new Column("sku", String.class));
+    COLUMNS.put("weight", new Column("weight", BigDecimal.class));
+    COLUMNS.put("dimensions", new Column("dimensions", String.class));
+    COLUMNS.put("categoryId", new Column("category_id", Long.class));
+    COLUMNS.put("version", new Column("version", Integer.class));
+    COLUMNS.put("createdAt", new Column("created_at", LocalDateTime.class));
+    COLUMNS.put("updatedAt", new Column("updated_at", LocalDateTime.class));
+  }
+
+  private static final String ALL_COLUMNS =
+      "id, name, description, price, quantity, sku, weight, dimensions, category_id, version,"
+          + " created_at, updated_at";
+
+  private static final RowMapper<Product> PRODUCT_MAPPER = ShardedProductService::mapProduct;
+
+  private final ProductShards shards;
+  private final ProductRequestValidator validator;
+  private final ProductFacetCache facetCache;
+
+  public ShardedProductService(
+      ProductShards shards, ProductRequestValidator validator, ProductFacetCache facetCache) {
+    this.shards = shards;
+    this.validator = validator;
+    this.facetCache = facetCache;
+  }
+
+  @Override
+  public Product createProduct(ProductDTO productDTO) {
+    logger.info("Creating new product: {}", productDTO.getName());
+    ProductOperationEvent event = ProductOperationEvent.start("create");
+    event.sku = productDTO.getSku();
+    try {
+      int shard = shards.shardForSku(productDTO.getSku());
+      JdbcTemplate jdbc = shards.shard(shard);
+      LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+      KeyHolder keys = new GeneratedKeyHolder();
+      try {
+        jdbc.update(
+            connection -> {
+              PreparedStatement statement =
+                  connection.prepareStatement(
+                      "INSERT INTO products (name, description, price, quantity, sku, weight,"
+                          + " dimensions, category_id, version, created_at, updated_at)"
+                          + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0, ?, ?)",
+                      new String[] {"id"});
+              statement.setString(1, productDTO.getName());
+              statement.setString(2, productDTO.getDescription());
+              statement.setBigDecimal(3, productDTO.getPrice());
+              statement.setObject(4, productDTO.getQuantity());
+              statement.setString(5, productDTO.getSku());
+              statement.setBigDecimal(6, productDTO.getWeight());
+              statement.setString(7, productDTO.getDimensions());
+              statement.setObject(8, productDTO.getCategoryId());
+              statement.setObject(9, now);
+              statement.setObject(10, now);
+              return statement;
+            },
+            keys);
+      } catch (DuplicateKeyException e) {
+        throw duplicateSku(productDTO.getSku());
+      } catch (DataIntegrityViolationException e) {
+        if (productDTO.getCategoryId() == null) {
+          throw e;
+        }
+        throw unknownCategory(productDTO.getCategoryId());
+      }
+      long id = Objects.requireNonNull(keys.getKey()).longValue();
+      Product savedProduct = inserted(id, productDTO, now);
+      logger.info("Product created successfully with ID {} on shard {}", id, shard);
+      event.productId = id;
+      event.rowsReturned = 1;
+      event.success = true;
+      return savedProduct;
+    } finally {
+      event.finish();
+    }
+  }
+
+  @Override
+  public Page<Product> getAllProducts(Pageable pageable, String sortProperty) {
+    validator.validatePageable(pageable);
+    logger.info("Retrieving all products with pagination: {}", pageable);
+    ProductOperationEvent event = ProductOperationEvent.start("list");
+    event.query = pageable.toString();
+    try {
+      Page<Product> page = scatterPage(ALL_COLUMNS, new Filter(), pageable, PRODUCT_MAPPER);
+      event.rowsReturned = page.getNumberOfElements();
+      event.success = true;
+      return page;
+    } finally {
+      event.finish();
+    }
+  }
+
+  @Override
+  public Page<Map<String, Object>> getAllProductFields(
+      List<String> fields, Pageable pageable, String sortProperty) {
+    validator.validatePageable(pageable);
+    List<String> selected = validator.validateFields(fields);
+    logger.info("Retrieving fields {} of all products with pagination: {}", selected, pageable);
+    ProductOperationEvent event = ProductOperationEvent.start("listFields");
+    event.query = "fields=" + selected + ", " + pageable;
+    try {
+      Page<Map<String, Object>> page =
+          scatterPage(columns(selected), new Filter(), pageable, fieldsMapper(selected));
+      event.rowsReturned = page.getNumberOfElements();
+      event.success = true;
+      return page;
+    } finally {
+      event.finish();
+    }
+  }
+
+  @Override
+  public Product getProductById(Long id) {
+    logger.info("Retrieving product by ID: {}", id);
+    validator.validateProductId(id);
+    ProductOperationEvent event = ProductOperationEvent.start("getById");
+    event.productId = id;
+    try {
+      Product product = findOnShard(shards.shard(shards.shardForId(id)), id);
+      event.sku = product.getSku();
+      event.rowsReturned = 1;
+      event.success = true;
+      return product;
+    } finally {
+      event.finish();
+    }
+  }
+
+  @Override
+  public Map<String, Object> getProductFieldsById(Long id, List<String> fields) {
+    logger.info("Retrieving fields {} of product by ID: {}", fields, id);
+    validator.validateProductId(id);
+    List<String> selected = validator.validateFields(fields);
+    ProductOperationEvent event = ProductOperationEvent.start("getFieldsById");
+    event.productId = id;
+    event.query = "fields=" + selected;
+    try {
+      List<Map<String, Object>> rows =
+          shards
+              .shard(shards.shardForId(id))
+              .query(
+                  "SELECT " + columns(selected) + " FROM products WHERE id = ?",
+                  fieldsMapper(selected),
+                  id);
+      if (rows.isEmpty()) {
+        throw notFound(id);
+      }
+      event.rowsReturned = 1;
+      event.success = true;
+      return rows.get(0);
+    } finally {
+      event.finish();
+    }
+  }
+
+  @Override
+  public List<Product> getProductsByIds(List<Long> ids) {
+    logger.info("Retrieving products by IDs: {}", ids);
+    validator.validateProductIds(ids);
+    ProductOperationEvent event = ProductOperationEvent.start("getByIds");
+    event.query = "ids=" + ids;
+    try {
+      LinkedHashSet<Long> uniqueIds = new LinkedHashSet<>(ids);
+      List<List<Long>> idsByShard = idsByShard(uniqueIds);
+
+      Map<Long, Product> byId = new HashMap<>();
+      List<List<Product>> found =
+          shards.scatter(
+              shard -> {
+                List<Long> shardIds = idsByShard.get(shard);
+                if (shardIds.isEmpty()) {
+                  return List.of();
+                }
+                String placeholders = String.join(", ", shardIds.stream().map(id -> "?").toList());
+                return shards
+                    .shard(shard)
+                    .query(
+                        "SELECT "
+                            + ALL_COLUMNS
+                            + " FROM products WHERE id IN ("
+                            + placeholders
+                            + ")",
+                        PRODUCT_MAPPER,
+                        shardIds.toArray());
+              });
+      found.forEach(products -> products.forEach(product -> byId.put(product.getId(), product)));
+      List<Product> products = uniqueIds.stream().map(byId::get).filter(Objects::nonNull).toList();
+      event.rowsReturned = products.size();
+      event.success = true;
+      return products;
+    } finally {
+      event.finish();
+    }
+  }
+
+  @Override
+  public Product updateProduct(Long id, ProductDTO productDTO, Integer version) {
+    logger.info("Updating product with ID: {}", id);
+    validator.validateProductId(id);
+    validator.validateProductDTO(productDTO);
+    ProductOperationEvent event = ProductOperationEvent.start("update");
+    event.productId = id;
+    event.sku = productDTO.getSku();
+    try {
+      int shard = shards.shardForId(id);
+      if (productDTO.getSku() != null && shards.shardForSku(productDTO.getSku()) != shard) {
+        throw new ProductUnprocessableEntityException(
+            "The SKU of a product can only be changed to one on the same shard.");
+      }
+      JdbcTemplate jdbc = shards.shard(shard);
+      int updated;
+      try {
+        updated =
+            jdbc.update(
+                "UPDATE products SET name = ?, description = ?, price = ?, quantity = ?, sku = ?,"
+                    + " weight = ?, dimensions = ?, category_id = ?, version = version + 1,"
+                    + " updated_at = CURRENT_TIMESTAMP WHERE id = ? AND version = ?",
+                productDTO.getName(),
+                productDTO.getDescription(),
+                productDTO.getPrice(),
+                productDTO.getQuantity(),
+                productDTO.getSku(),
+                productDTO.getWeight(),
+                productDTO.getDimensions(),
+                productDTO.getCategoryId(),
+                id,
+                version);
+      } catch (DuplicateKeyException e) {
+        throw duplicateSku(productDTO.getSku());
+      } catch (DataIntegrityViolationException e) {
+        if (productDTO.getCategoryId() == null) {
+          throw e;
+        }
+        throw unknownCategory(productDTO.getCategoryId());
+      }
+      if (updated == 0) {
+        findOnShard(jdbc, id);
+        logger.warn("Optimistic lock failure for product ID: {}", id);
+        throw new ProductOptimisticLockException("Product data has been updated by another user.");
+      }
+      Product updatedProduct = findOnShard(jdbc, id);
+      logger.info("Product updated successfully with ID: {}", id);
+      event.rowsReturned = 1;
+      event.success = true;
+      return updatedProduct;
+    } finally {
+      event.finish();
+    }
+  }
+
+  @Override
+  public void deleteProduct(Long id) {
+    logger.info("Deleting product with ID: {}", id);
+    ProductOperationEvent event = ProductOperationEvent.start("delete");
+    event.productId = id;
+    try {
+      int deleted =
+          shards.shard(shards.shardForId(id)).update("DELETE FROM products WHERE id = ?", id);
+      if (deleted == 0) {
+        throw notFound(id);
+      }
+      logger.info("Product deleted successfully with ID: {}", id);
+      event.rowsReturned = 1;
+      event.success = true;
+    } finally {
+      event.finish();
+    }
+  }
+
+  @Override
+  public int deleteProducts(List<Long> ids) {
+    logger.info("Deleting products by IDs: {}", ids);
+    validator.validateProductIds(ids);
+    ProductOperationEvent event = ProductOperationEvent.start("deleteByIds");
+    event.query = "ids=" + ids;
+    try {
+      List<List<Long>> idsByShard = idsByShard(new LinkedHashSet<>(ids));
+      int deleted =
+          shards
+              .scatter(
+                  shard -> {
+                    List<Long> shardIds = idsByShard.get(shard);
+                    if (shardIds.isEmpty()) {
+                      return 0;
+                    }
+                    String placeholders =
+                        String.join(", ", shardIds.stream().map(id -> "?").toList());
+                    return shards
+                        .shard(shard)
+                        .update(
+                            "DELETE FROM products WHERE id IN (" + placeholders + ")",
+                            shardIds.toArray());
+                  })
+              .stream()
+              .mapToInt(Integer::intValue)
+              .sum();
+      logger.info("Deleted {} of {} requested products", deleted, ids.size());
+      event.rowsReturned = deleted;
+      event.success = true;
+      return deleted;
+    } finally {
+      event.finish();
+    }
+  }
+
+  @Override
+  public int deleteProductsByCriteria(
+      String name,
+      BigDecimal minPrice,
+      BigDecimal maxPrice,
+      Integer minQuantity,
+      Integer maxQuantity,
+      Long categoryId) {
+    validator.validateDeleteCriteria(
+        name, minPrice, maxPrice, minQuantity, maxQuantity, categoryId);
+    logger.info(
+        "Deleting products by criteria - name: {}, price: {}-{}, quantity: {}-{}, category: {}",
+        name,
+        minPrice,
+        maxPrice,
+        minQuantity,
+        maxQuantity,
+        categoryId);
+    ProductOperationEvent event = ProductOperationEvent.start("deleteByCriteria");
+    event.query =
+        String.format(
+            "name=%s, price=%s-%s, quantity=%s-%s, category=%s",
+            name, minPrice, maxPrice, minQuantity, maxQuantity, categoryId);
+    try {
+      Filter filter =
+          Filter.criteria(name, minPrice, maxPrice, minQuantity, maxQuantity, categoryId);
+      String sql = "DELETE FROM products" + filter.where();
+      Object[] args = filter.args.toArray();
+      int deleted =
+          shards
+              .scatter(shard -> shards.shard(shard).update(sql, args))
+              .stream()
+              .mapToInt(Integer::intValue)
+              .sum();
+      logger.info("Deleted {} products matching the criteria", deleted);
+      event.rowsReturned = deleted;
+      event.success = true;
+      return deleted;
+    } finally {
+      event.finish();
+    }
+  }
+
+  @Override
+  public Product adjustStock(Long id, int delta) {
+    logger.info("Adjusting stock of product with ID {} by {}", id, delta);
+    validator.validateProductId(id);
+    ProductOperationEvent event = ProductOperationEvent.start("adjustStock");
+    event.productId = id;
+    event.query = "delta=" + delta;
+    try {
+      JdbcTemplate jdbc = shards.shard(shards.shardForId(id));
+      int updated =
+          jdbc.update(
+              "UPDATE products SET quantity = quantity + ?, version = version + 1,"
+                  + " updated_at = CURRENT_TIMESTAMP WHERE id = ?"
+                  + " AND CAST(quantity AS BIGINT) + ? BETWEEN 0 AND ?",
+              delta,
+              id,
+              delta,
+              Integer.MAX_VALUE);
+      if (updated == 0) {
+        Product product = findOnShard(jdbc, id);
+        throw new ProductUnprocessableEntityException(
+            delta < 0
+                ? "Insufficient stock: " + product.getQuantity() + " units available."
+                : "Product quantity is too large.");
+      }
+      Product updatedProduct = findOnShard(jdbc, id);
+      event.sku = updatedProduct.getSku();
+      event.rowsReturned = 1;
+      event.success = true;
+      return updatedProduct;
+    } finally {
+      event.finish();
+    }
+  }
+
+  @Override
+  public Page<Product> searchProductsByName(String name, Pageable pageable) {
+    validator.validatePageable(pageable);
+    logger.info("Searching products by name: {}", name);
+    ProductOperationEvent event = ProductOperationEvent.start("searchByName");
+    event.query = "name=" + name + ", " + pageable;
+    try {
+      Page<Product> page =
+          scatterPage(ALL_COLUMNS, new Filter().nameContains(name), pageable, PRODUCT_MAPPER);
+      event.rowsReturned = page.getNumberOfElements();
+      event.success = true;
+      return page;
+    } finally {
+      event.finish();
+    }
+  }
+
+  @Override
+  public Page<Product> findProductsByPriceRange(
+      BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable) {
+    validator.validatePageable(pageable);
+    logger.info("Searching products by price range: {} - {}", minPrice, maxPrice);
+    ProductOperationEvent event = ProductOperationEvent.start("findByPriceRange");
+    event.query = "price=" + minPrice + "-" + maxPrice + ", " + pageable;
+    try {
+      Filter filter = new Filter().atLeast("price", minPrice).atMost("price", maxPrice);
+      Page<Product> page = scatterPage(ALL_COLUMNS, filter, pageable, PRODUCT_MAPPER);
+      event.rowsReturned = page.getNumberOfElements();
+      event.success = true;
+      return page;
+    } finally {
+      event.finish();
+    }
+  }
+
+  @Override
+  public Page<Product> findProductsByQuantityRange(
+      Integer minQuantity, Integer maxQuantity, Pageable pageable) {
+    validator.validatePageable(pageable);
+    logger.info("Searching products by quantity range: {} - {}", minQuantity, maxQuantity);
+    ProductOperationEvent event = ProductOperationEvent.start("findByQuantityRange");
+    event.query = "quantity=" + minQuantity + "-" + maxQuantity + ", " + pageable;
+    try {
+      Filter filter = new Filter().atLeast("quantity", minQuantity).atMost("quantity", maxQuantity);
+      Page<Product> page = scatterPage(ALL_COLUMNS, filter, pageable, PRODUCT_MAPPER);
+      event.rowsReturned = page.getNumberOfElements();
+      event.success = true;
+      return page;
+    } finally {
+      event.finish();
+    }
+  }
+
+  @Override
+  public List<Product> findLowStockProducts(Integer threshold) {
+    logger.info("Finding low stock products with threshold: {}", threshold);
+    ProductOperationEvent event = ProductOperationEvent.start("findLowStock");
+    event.query = "threshold=" + threshold;
+    try {
+      List<Product> products = new ArrayList<>();
+      shards
+          .scatter(
+              shard ->
+                  shards
+                      .shard(shard)
+                      .query(
+                          "SELECT " + ALL_COLUMNS + " FROM products WHERE quantity < ?",
+                          PRODUCT_MAPPER,
+                          threshold))
+          .forEach(products::addAll);
+      products.sort(Comparator.comparing(Product::getId));
+      event.rowsReturned = products.size();
+      event.success = true;
+      return products;
+    } finally {
+      event.finish();
+    }
+  }
+
+  @Override
+  public Page<Product> searchProductsByCriteria(
+      String name,
+      BigDecimal minPrice,
+      BigDecimal maxPrice,
+      Integer minQuantity,
+      Integer maxQuantity,
+      Long categoryId,
+      Pageable pageable) {
+    validator.validatePageable(pageable);
+    logger.info(
+        "Searching products by criteria - name: {}, price: {}-{}, quantity: {}-{}, category: {}",
+        name,
+        minPrice,
+        maxPrice,
+        minQuantity,
+        maxQuantity,
+        categoryId);
+    ProductOperationEvent event = ProductOperationEvent.start("searchByCriteria");
+    event.query =
+        String.format(
+            "name=%s, price=%s-%s, quantity=%s-%s, category=%s, %s",
+            name, minPrice, maxPrice, minQuantity, maxQuantity, categoryId, pageable);
+    try {
+      Filter filter =
+          Filter.criteria(name, minPrice, maxPrice, minQuantity, maxQuantity, categoryId);
+      Page<Product> page = scatterPage(ALL_COLUMNS, filter, pageable, PRODUCT_MAPPER);
+      event.rowsReturned = page.getNumberOfElements();
+      event.success = true;
+      return page;
+    } finally {
+      event.finish();
+    }
+  }
+
+  @Override
+  public Page<Map<String, Object>> searchProductFieldsByCriteria(
+      List<String> fields,
+      String name,
+      BigDecimal minPrice,
+      BigDecimal maxPrice,
+      Integer minQuantity,
+      Integer maxQuantity,
+      Long categoryId,
+      Pageable pageable) {
+    validator.validatePageable(pageable);
+    List<String> selected = validator.validateFields(fields);
+    logger.info(
+        "Searching fields {} of products by criteria - name: {}, price: {}-{}, quantity: {}-{},"
+            + " category: {}",
+        selected,
+        name,
+        minPrice,
+        maxPrice,
+        minQuantity,
+        maxQuantity,
+        categoryId);
+    ProductOperationEvent event = ProductOperationEvent.start("searchFieldsByCriteria");
+    event.query =
+        String.format(
+            "fields=%s, name=%s, price=%s-%s, quantity=%s-%s, category=%s, %s",
+            selected, name, minPrice, maxPrice, minQuantity, maxQuantity, categoryId, pageable);
+    try {
+      Filter filter =
+          Filter.criteria(name, minPrice, maxPrice, minQuantity, maxQuantity, categoryId);
+      Page<Map<String, Object>> page =
+          scatterPage(columns(selected), filter, pageable, fieldsMapper(selected));
+      event.rowsReturned = page.getNumberOfElements();
+      event.success = true;
+      return page;
+    } finally {
+      event.finish();
+    }
+  }
+
+  @Override
+  public ProductFacets getProductFacets(
+      List<String> facets,
+      String name,
+      BigDecimal minPrice,
+      BigDecimal maxPrice,
+      Integer minQuantity,
+      Integer maxQuantity,
+      Long categoryId) {
+    List<String> selected = validator.validateFacets(facets);
+    logger.info(
+        "Getting facets {} of products by criteria - name: {}, price: {}-{}, quantity: {}-{},"
+            + " category: {}",
+        selected,
+        name,
+        minPrice,
+        maxPrice,
+        minQuantity,
+        maxQuantity,
+        categoryId);
+    ProductOperationEvent event = ProductOperationEvent.start("facetsByCriteria");
+    event.query =
+        String.format(
+            "name=%s, price=%s-%s, quantity=%s-%s, category=%s",
+            name, minPrice, maxPrice, minQuantity, maxQuantity, categoryId);
+    try {
+      BigDecimal[] bounds = facetCache.getPriceBounds();
+      int lowStock = facetCache.getLowStockThreshold();
+      StringBuilder sql = new StringBuilder("SELECT category_id");
+      List<Object> args = new ArrayList<>();
+      for (int i = 0; i <= bounds.length; i++) {
+        List<String> band = new ArrayList<>(2);
+        if (i > 0) {
+          band.add("price >= ?");
+          args.add(bounds[i - 1]);
+        }
+        if (i < bounds.length) {
+          band.add("price < ?");
+          args.add(bounds[i]);
+        }
+        sql.append(", ").append(countIf(band.isEmpty() ? "1 = 1" : String.join(" AND ", band)));
+      }
+      sql.append(", ").append(countIf("quantity >= ?"));
+      sql.append(", ").append(countIf("quantity > 0 AND quantity < ?"));
+      sql.append(", ").append(countIf("quantity <= 0"));
+      args.add(lowStock);
+      args.add(lowStock);
+
+      Filter filter =
+          Filter.criteria(name, minPrice, maxPrice, minQuantity, maxQuantity, categoryId);
+      sql.append(" FROM products").append(filter.where()).append(" GROUP BY category_id");
+      args.addAll(filter.args);
+
+      int bands = bounds.length + 1;
+      FacetAccumulator accumulator = facetCache.newAccumulator();
+      for (List<Map<String, Object>> rows :
+          shards.scatter(
+              shard -> shards.shard(shard).queryForList(sql.toString(), args.toArray()))) {
+        for (Map<String, Object> row : rows) {
+          Object[] values = row.values().toArray();
+          long[] priceCounts = new long[bands];
+          for (int i = 0; i < bands; i++) {
+            priceCounts[i] = ((Number) values[1 + i]).longValue();
+          }
+          long[] stockCounts = new long[3];
+          for (int i = 0; i < stockCounts.length; i++) {
+            stockCounts[i] = ((Number) values[1 + bands + i]).longValue();
+          }
+          accumulator.add(
+              values[0] == null ? null : ((Number) values[0]).longValue(),
+              priceCounts,
+              stockCounts);
+        }
+      }
+      ProductFacets all = accumulator.build();
+      event.rowsReturned = all.getCategory().size();
+      event.success = true;
+      return all.select(selected);
+    } finally {
+      event.finish();
+    }
+  }
+
+  /** Splits product IDs by the shard they live on, indexed by shard. */
+  private List<List<Long>> idsByShard(Collection<Long> ids) {
+    List<List<Long>> idsByShard = new ArrayList<>();
+    for (int shard = 0; shard < shards.size(); shard++) {
+      idsByShard.add(new ArrayList<>());
+    }
+    ids.forEach(id -> idsByShard.get(shards.shardForId(id)).add(id));
+    return idsByShard;
+  }
+
+  private static String countIf(String condition) {
+    return "SUM(CASE WHEN " + condition + " THEN 1 ELSE 0 END)";
+  }
+
+  @Override
+  public Product getProductBySku(String sku) {
+    logger.info("Retrieving product by SKU: {}", sku);
+    ProductOperationEvent event = ProductOperationEvent.start("getBySku");
+    event.sku = sku;
+    try {
+      List<Product> products =
+          shards
+              .shard(shards.shardForSku(sku))
+              .query("SELECT " + ALL_COLUMNS + " FROM products WHERE sku = ?", PRODUCT_MAPPER, sku);
+      if (products.isEmpty()) {
+        logger.warn("Product not found with SKU: {}", sku);
+        throw new ProductNotFoundException("Product not found with SKU: " + sku);
+      }
+      event.productId = products.get(0).getId();
+      event.rowsReturned = 1;
+      event.success = true;
+      return products.get(0);
+    } finally {
+      event.finish();
+    }
+  }
+
+  @Override
+  public boolean existsBySku(String sku) {
+    logger.info("Checking if product exists with SKU: {}", sku);
+    return existsOnShard(shards.shard(shards.shardForSku(sku)), sku);
+  }
+
+  /**
+   * Runs a paged query on every shard and merges the shard pages. Each shard returns at most {@code
+   * offset + size} rows in sort order, which is all a k-way merge needs to produce the requested
+   * page; the total is the sum of the shard counts.
+   */
+  private <T> Page<T> scatterPage(
+      String columns, Filter filter, Pageable pageable, RowMapper<T> mapper) {
+    List<Order> orders = orders(pageable.getSort());
+    StringBuilder orderBy = new StringBuilder(" ORDER BY ");
+    StringBuilder selectColumns = new StringBuilder(columns);
+    for (Order order : orders) {
+      orderBy.append(order.column).append(order.ascending ? " ASC, " : " DESC, ");
+      selectColumns.append(", ").append(order.column).append(" AS sort_").append(order.column);
+    }
+    orderBy.append("id ASC");
+    selectColumns.append(", id AS sort_id");
+
+    String sql =
+        "SELECT " + selectColumns + " FROM products" + filter.where() + orderBy + limit(pageable);
+    String countSql = "SELECT COUNT(*) FROM products" + filter.where();
+    Object[] args = filter.args.toArray();
+
+    List<ShardPage<T>> shardPages =
+        shards.scatter(
+            shard -> {
+              JdbcTemplate jdbc = shards.shard(shard);
+              List<ShardRow<T>> rows =
+                  jdbc.query(
+                      sql,
+                      (rs, rowNum) -> {
+                        Object[] keys = new Object[orders.size()];
+                        for (int i = 0; i < keys.length; i++) {
+                          keys[i] = rs.getObject("sort_" + orders.get(i).column);
+                        }
+                        return new ShardRow<>(
+                            keys, rs.getLong("sort_id"), mapper.mapRow(rs, rowNum));
+                      },
+                      args);
+              Long count = jdbc.queryForObject(countSql, Long.class, args);
+              return new ShardPage<>(rows, count == null ? 0 : count);
+            });
+
+    Comparator<ShardRow<T>> comparator = rowComparator(orders);
+    PriorityQueue<Cursor<T>> heads =
+        new PriorityQueue<>((a, b) -> comparator.compare(a.head(), b.head()));
+    long total = 0;
+    for (ShardPage<T> shardPage : shardPages) {
+      total += shardPage.total;
+      if (!shardPage.rows.isEmpty()) {
+        heads.add(new Cursor<>(shardPage.rows));
+      }
+    }
+
+    long skip = pageable.isPaged() ? pageable.getOffset() : 0;
+    int take = pageable.isPaged() ? pageable.getPageSize() : Integer.MAX_VALUE;
+    List<T> content = new ArrayList<>(Math.min(take, 1024));
+    while (!heads.isEmpty() && content.size() < take) {
+      Cursor<T> cursor = heads.poll();
+      if (skip > 0) {
+        skip--;
+      } else {
+        content.add(cursor.head().value);
+      }
+      if (cursor.advance()) {
+        heads.add(cursor);
+      }
+    }
+    return new PageImpl<>(content, pageable, total);
+  }
+
+  private static String limit(Pageable pageable) {
+    if (pageable.isUnpaged()) {
+      return "";
+    }
+    return " LIMIT " + (pageable.getOffset() + pageable.getPageSize());
+  }
+
+  private static List<Order> orders(Sort sort) {
+    List<Order> orders = new ArrayList<>();
+    for (Sort.Order order : sort) {
+      Column column = COLUMNS.get(order.getProperty().toLowerCase());
+      if (column == null) {
+        column = COLUMNS.get(order.getProperty());
+      }
+      if (column == null) {
+        throw new ProductUnprocessableEntityException(
+            "Sort field must be one of: " + COLUMNS.keySet());
+      }
+      orders.add(new Order(column.name, order.isAscending()));
+    }
+    return orders;
+  }
+
+  /**
+   * Orders merged rows as the shards' {@code ORDER BY} does. H2 sorts nulls first, so they come
+   * first in ascending and last in descending order.
+   */
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static <T> Comparator<ShardRow<T>> rowComparator(List<Order> orders) {
+    Comparator<Object> keys = Comparator.nullsFirst((x, y) -> ((Comparable) x).compareTo(y));
+    return (a, b) -> {
+      for (int i = 0; i < orders.size(); i++) {
+        int result = keys.compare(a.keys[i], b.keys[i]);
+        if (result != 0) {
+          return orders.get(i).ascending ? result : -result;
+        }
+      }
+      return Long.compare(a.id, b.id);
+    };
+  }
+
+  private static String columns(List<String> fields) {
+    List<String> columns = new ArrayList<>(fields.size());
+    for (String field : fields) {
+      columns.add(COLUMNS.get(field).name);
+    }
+    return String.join(", ", columns);
+  }
+
+  private static RowMapper<Map<String, Object>> fieldsMapper(List<String> fields) {
+    return (rs, rowNum) -> {
+      Map<String, Object> values = new LinkedHashMap<>();
+      for (String field : fields) {
+        Column column = COLUMNS.get(field);
+        values.put(field, rs.getObject(column.name, column.type));
+      }
+      return values;
+    };
+  }
+
+  private static Product mapProduct(ResultSet rs, int rowNum) throws SQLException {
+    Product product = new Product();
+    product.setId(rs.getLong("id"));
+    product.setName(rs.getString("name"));
+    product.setDescription(rs.getString("description"));
+    product.setPrice(rs.getBigDecimal("price"));
+    product.setQuantity(rs.getObject("quantity", Integer.class));
+    product.setSku(rs.getString("sku"));
+    product.setWeight(rs.getBigDecimal("weight"));
+    product.setDimensions(rs.getString("dimensions"));
+    product.setCategoryId(rs.getObject("category_id", Long.class));
+    product.setVersion(rs.getObject("version", Integer.class));
+    product.setCreatedAt(rs.getObject("created_at", LocalDateTime.class));
+    product.setUpdatedAt(rs.getObject("updated_at", LocalDateTime.class));
+    return product;
+  }
+
+  /**
+   * Builds a newly inserted product from the values bound to its insert, so that the row does not
+   * have to be read back.
+   */
+  private static Product inserted(long id, ProductDTO productDTO, LocalDateTime createdAt) {
+    Product product = new Product();
+    product.setId(id);
+    product.setName(productDTO.getName());
+    product.setDescription(productDTO.getDescription());
+    product.setPrice(productDTO.getPrice());
+    product.setQuantity(productDTO.getQuantity());
+    product.setSku(productDTO.getSku());
+    product.setWeight(productDTO.getWeight());
+    product.setDimensions(productDTO.getDimensions());
+    product.setCategoryId(productDTO.getCategoryId());
+    product.setVersion(0);
+    product.setCreatedAt(createdAt);
+    product.setUpdatedAt(createdAt);
+    return product;
+  }
+
+  private static Product findOnShard(JdbcTemplate jdbc, long id) {
+    List<Product> products =
+        jdbc.query("SELECT " + ALL_COLUMNS + " FROM products WHERE id = ?", PRODUCT_MAPPER, id);
+    if (products.isEmpty()) {
+      throw notFound(id);
+    }
+    return products.get(0);
+  }
+
+  private static boolean existsOnShard(JdbcTemplate jdbc, String sku) {
+    Integer count =
+        jdbc.queryForObject("SELECT COUNT(*) FROM products WHERE sku = ?", Integer.class, sku);
+    return count != null && count > 0;
+  }
+
+  private static ProductNotFoundException notFound(long id) {
+    logger.warn("Product not found with ID: {}", id);
+    return new ProductNotFoundException("Product not found with id: " + id);
+  }
+
+  private static ProductConflictException duplicateSku(String sku) {
+    return new ProductConflictException("A product with SKU " + sku + " already exists.");
+  }
+
+  private static ProductUnprocessableEntityException unknownCategory(Long categoryId) {
+    return new ProductUnprocessableEntityException("Category not found with id: " + categoryId);
+  }
+
+  /** A column of the products table and the Java type it is read as. */
+  private static final class Column {
+    final String name;
+    final Class<?> type;
+
+    Column(String name, Class<?> type) {
+      this.name = name;
+      this.type = type;
+    }
+  }
+
+  /** One sort order, resolved to its column. */
+  private static final class Order {
+    final String column;
+    final boolean ascending;
+
+    Order(String column, boolean ascending) {
+      this.column = column;
+      this.ascending = ascending;
+    }
+  }
+
+  /** A row returned by a shard, with the sort key values it is merged on. */
+  private static final class ShardRow<T> {
+    final Object[] keys;
+    final long id;
+    final T value;
+
+    ShardRow(Object[] keys, long id, T value) {
+      this.keys = keys;
+      this.id = id;
+      this.value = value;
+    }
+  }
+
+  /** The rows and total match count of one shard. */
+  private static final class ShardPage<T> {
+    final List<ShardRow<T>> rows;
+    final long total;
+
+    ShardPage(List<ShardRow<T>> rows, long total) {
+      this.rows = rows;
+      this.total = total;
+    }
+  }
+
+  /** The merge position within one shard's rows. */
+  private static final class Cursor<T> {
+    private final List<ShardRow<T>> rows;
+    private int index;
+
+    Cursor(List<ShardRow<T>> rows) {
+      this.rows = rows;
+    }
+
+    ShardRow<T> head() {
+      return rows.get(index);
+    }
+
+    boolean advance() {
+      return ++index < rows.size();
+    }
+  }
+
+  /** A WHERE clause with its bind arguments, built from the optional search criteria. */
+  private static final class Filter {
+    private final List<String> conditions = new ArrayList<>();
+    private final List<Object> args = new ArrayList<>();
+
+    static Filter criteria(
+        String name,
+        BigDecimal minPrice,
+        BigDecimal maxPrice,
+        Integer minQuantity,
+        Integer maxQuantity,
+        Long categoryId) {
+      return new Filter()
+          .nameContains(name)
+          .atLeast("price", minPrice)
+          .atMost("price", maxPrice)
+          .atLeast("quantity", minQuantity)
+          .atMost("quantity", maxQuantity)
+          .equalTo("category_id", categoryId);
+    }
+
+    Filter nameContains(String name) {
+      if (name != null) {
+        conditions.add("LOWER(name) LIKE ?");
+        args.add("%" + name.toLowerCase() + "%");
+      }
+      return this;
+    }
+
+    Filter atLeast(String column, Object value) {
+      if (value != null) {
+        conditions.add(column + " >= ?");
+        args.add(value);
+      }
+      return this;
+    }
+
+    Filter equalTo(String column, Object value) {
+      if (value != null) {
+        conditions.add(column + " = ?");
+        args.add(value);
+      }
+      return this;
+    }
+
+    Filter atMost(String column, Object value) {
+      if (value != null) {
+        conditions.add(column + " <= ?");
+        args.add(value);
+      }
+      return this;
+    }
+
+    String where() {
+      return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+  }
+}
@@ -0,0 +1,141 @@
+package com.example.productinventory.sharding;
+
+import com.zaxxer.hikari.HikariDataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.output.MigrateOutput;
+import org.flywaydb.core.api.output.MigrateResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Sets up the shards of the sharded mode, enabled by {@code product.sharding.enabled}. Each shard
+ * is its own connection pool and database, migrated with the regular Flyway migrations. On a fresh
+ * shard the ID column is made to step by the shard count, and the seed rows are pruned to those
+ * whose SKU belongs to the shard and re-keyed to shard-encoded IDs.
+ */
+@Configuration
+@ConditionalOnProperty(name = "product.sharding.enabled", havingValue = "true")
+public class ShardingConfig implements DisposableBean {
+
+  private static final Logger logger = LoggerFactory.getLogger(ShardingConfig.class);
+
+  private final List<HikariDataSource> pools = new ArrayList<>();
+  private ExecutorService executor;
+
+  /**
+   * Creates, migrates and prepares the shards.
+   *
+   * @param shardCount the number of shards
+   * @param urlTemplate the JDBC URL of a shard, with {@code {index}} standing for the shard index
+   * @param username the shard database user
+   * @param password the shard database password
+   * @param poolSize the maximum number of connections per shard
+   * @param locations the Flyway migration locations
+   * @return the product shards
+   */
+  @Bean
+  public ProductShards productShards(
+      @Value("${product.sharding.shards:4}") int shardCount,
+      @Value("${product.sharding.url-template}") String urlTemplate,
+      @Value("${product.sharding.username:sa}") String username,
+      @Value("${product.sharding.password:}") String password,
+      @Value("${product.sharding.maximum-pool-size:5}") int poolSize,
+      @Value("${spring.flyway.locations:classpath:db/migration}") String[] locations) {
+    if (shardCount < 1) {
+      throw new IllegalArgumentException("product.sharding.shards must be at least 1");
+    }
+    List<JdbcTemplate> shards = new ArrayList<>(shardCount);
+    for (int shard = 0; shard < shardCount; shard++) {
+      HikariDataSource pool =
+          DataSourceBuilder.create()
+              .type(HikariDataSource.class)
+              .url(urlTemplate.replace("{index}", Integer.toString(shard)))
+              .username(username)
+              .password(password)
+              .build();
+      pool.setPoolName("shard-" + shard);
+      pool.setMaximumPoolSize(poolSize);
+      pools.add(pool);
+
+      MigrateResult result =
+          Flyway.configure().dataSource(pool).locations(locations).load().migrate();
+      JdbcTemplate jdbcTemplate = new JdbcTemplate(pool);
+      if (applied(result, "1")) {
+        adoptSeedData(jdbcTemplate, shard, shardCount);
+      }
+      shards.add(jdbcTemplate);
+    }
+    executor = Executors.newFixedThreadPool(shardCount, new ShardThreadFactory());
+    logger.info("Sharded mode enabled with {} shards", shardCount);
+    return new ProductShards(shards, executor);
+  }
+
+  /** Shuts down the scatter executor and closes the shard pools. */
+  @Override
+  public void destroy() {
+    if (executor != null) {
+      executor.shutdownNow();
+    }
+    pools.forEach(HikariDataSource::close);
+  }
+
+  private static boolean applied(MigrateResult result, String version) {
+    for (MigrateOutput migration : result.migrations) {
+      if (version.equals(migration.version)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Keeps only the seed rows whose SKU belongs to the shard, moves them to shard-encoded IDs and
+   * makes the ID column continue that sequence.
+   */
+  private static void adoptSeedData(JdbcTemplate shardTemplate, int shard, int shardCount) {
+    long maxSequence = 0;
+    for (Map<String, Object> row : shardTemplate.queryForList("SELECT id, sku FROM products")) {
+      long id = ((Number) row.get("id")).longValue();
+      if (ProductShards.shardForSku((String) row.get("sku"), shardCount) != shard) {
+        shardTemplate.update("DELETE FROM products WHERE id = ?", id);
+      } else {
+        maxSequence = Math.max(maxSequence, id);
+      }
+    }
+    // Negate first so that the new IDs never collide with IDs not yet moved
+    shardTemplate.update("UPDATE products SET id = -(id * ? + ?)", shardCount, shard);
+    shardTemplate.update("UPDATE products SET id = -id");
+    long next = (maxSequence + 1) * shardCount + shard;
+    shardTemplate.execute(
+        "ALTER TABLE products ALTER COLUMN id RESTART WITH "
+            + next
+            + " SET INCREMENT BY "
+            + shardCount);
+  }
+
+  /** Names the scatter threads and makes them daemons. */
+  private static final class ShardThreadFactory implements ThreadFactory {
+
+    private int count;
+
+    @Override
+    public synchronized Thread newThread(Runnable runnable) {
+      Thread thread = new Thread(runnable, "shard-scatter-" + count++);
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+}
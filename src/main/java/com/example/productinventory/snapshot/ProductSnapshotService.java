@@ -0,0 +1,396 @@
+package com.example.productinventory.snapshot;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes the products table to a compact binary snapshot file and bulk-loads it back. The file is a
+ * GZIP-compressed stream of fixed-order column values, read and written with plain JDBC so that a
+ * multi-million-row catalogue never passes through the persistence context.
+ *
+ * <p>A snapshot is written on demand through the {@code snapshot} actuator endpoint and, if {@code
+ * product.snapshot.write-on-shutdown} is set, when the application context closes. It is restored
+ * by {@link SnapshotConfig} right after the Flyway migrations, before anything serves requests.
+ */
+@Component
+@ConditionalOnProperty(name = "product.snapshot.enabled", havingValue = "true")
+public class ProductSnapshotService {
+
+  private static final Logger logger = LoggerFactory.getLogger(ProductSnapshotService.class);
+
+  /** Identifies a product snapshot file ("PISN"). */
+  private static final int MAGIC = 0x5049534E;
+
+  private static final int FORMAT_VERSION = 1;
+  private static final byte ROW = 1;
+  private static final byte END = 0;
+
+  private static final String SELECT_SQL =
+      "SELECT id, name, description, price, quantity, category_id, sku, weight, dimensions,"
+          + " version, created_at, updated_at FROM products ORDER BY id";
+
+  private static final String INSERT_SQL =
+      "INSERT INTO products (id, name, description, price, quantity, category_id, sku, weight,"
+          + " dimensions, version, created_at, updated_at)"
+          + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final AtomicReference<SnapshotResult> lastWrite = new AtomicReference<>();
+  private final AtomicReference<SnapshotResult> lastRestore = new AtomicReference<>();
+
+  @Value("${product.snapshot.path:snapshots/products.snapshot}")
+  private String path;
+
+  @Value("${product.snapshot.batch-size:1000}")
+  private int batchSize;
+
+  @Value("${product.snapshot.fetch-size:1000}")
+  private int fetchSize;
+
+  @Value("${product.snapshot.write-on-shutdown:true}")
+  private boolean writeOnShutdown;
+
+  /**
+   * Constructs a ProductSnapshotService. It works on the {@link DataSource} directly, because the
+   * shared {@code JdbcTemplate} is only available once the migrations, and so the restore, are
+   * done.
+   *
+   * @param dataSource the application data source
+   */
+  public ProductSnapshotService(DataSource dataSource) {
+    this.jdbcTemplate = new JdbcTemplate(dataSource);
+  }
+
+  /**
+   * Writes all products to the snapshot file. The data is written to a temporary file that then
+   * replaces the snapshot atomically, so a crash mid-write never leaves a truncated snapshot.
+   *
+   * @return the written snapshot
+   */
+  public synchronized SnapshotResult write() {
+    long start = System.nanoTime();
+    Path target = getPath();
+    try {
+      Path parent = target.toAbsolutePath().getParent();
+      Files.createDirectories(parent);
+      Path temp = Files.createTempFile(parent, target.getFileName().toString(), ".tmp");
+      long rows;
+      try (DataOutputStream out =
+          new DataOutputStream(
+              new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(temp), 65536)))) {
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeLong(System.currentTimeMillis());
+        rows = writeRows(out);
+        out.writeByte(END);
+        out.writeLong(rows);
+      } catch (IOException | RuntimeException e) {
+        Files.deleteIfExists(temp);
+        throw e;
+      }
+      Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+      SnapshotResult result = result(target, rows, start);
+      lastWrite.set(result);
+      logger.info(
+          "Wrote product snapshot with {} rows ({} bytes) to {} in {} ms",
+          rows,
+          result.getBytes(),
+          target,
+          result.getDurationMs());
+      return result;
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to write product snapshot to " + target, e);
+    }
+  }
+
+  /**
+   * Replaces the contents of the products table with the snapshot file, if one exists. Rows are
+   * inserted with batched JDBC statements in a single transaction, and the ID sequence is moved
+   * past the highest restored ID.
+   *
+   * @return the restored snapshot, or {@code null} if there is no snapshot file
+   */
+  @Nullable
+  public synchronized SnapshotResult restore() {
+    Path source = getPath();
+    if (!Files.isRegularFile(source)) {
+      logger.info("No product snapshot at {}, keeping the migrated data", source);
+      return null;
+    }
+    long start = System.nanoTime();
+    try (DataInputStream in =
+        new DataInputStream(
+            new BufferedInputStream(new GZIPInputStream(Files.newInputStream(source), 65536)))) {
+      if (in.readInt() != MAGIC) {
+        throw new IOException("Not a product snapshot: " + source);
+      }
+      int version = in.readInt();
+      if (version != FORMAT_VERSION) {
+        throw new IOException("Unsupported product snapshot format version " + version);
+      }
+      long writtenAt = in.readLong();
+
+      long rows = jdbcTemplate.execute((Connection connection) -> load(connection, in));
+
+      SnapshotResult result = result(source, rows, start);
+      lastRestore.set(result);
+      logger.info(
+          "Restored {} products from snapshot {} written at {} in {} ms",
+          rows,
+          source,
+          Instant.ofEpochMilli(writtenAt),
+          result.getDurationMs());
+      return result;
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to restore product snapshot from " + source, e);
+    }
+  }
+
+  /** Writes a snapshot when the application shuts down, if enabled. */
+  @EventListener(ContextClosedEvent.class)
+  public void onShutdown() {
+    if (!writeOnShutdown) {
+      return;
+    }
+    try {
+      write();
+    } catch (RuntimeException e) {
+      logger.error("Failed to write product snapshot on shutdown", e);
+    }
+  }
+
+  /**
+   * Returns the snapshot file location.
+   *
+   * @return the configured snapshot path
+   */
+  public Path getPath() {
+    return Paths.get(path);
+  }
+
+  /**
+   * Returns the most recent successful write.
+   *
+   * @return the last written snapshot, or {@code null} if none was written by this process
+   */
+  @Nullable
+  public SnapshotResult getLastWrite() {
+    return lastWrite.get();
+  }
+
+  /**
+   * Returns the restore performed at startup.
+   *
+   * @return the restored snapshot, or {@code null} if none was restored by this process
+   */
+  @Nullable
+  public SnapshotResult getLastRestore() {
+    return lastRestore.get();
+  }
+
+  private long writeRows(DataOutputStream out) {
+    long[] rows = new long[1];
+    jdbcTemplate.query(
+        connection -> {
+          PreparedStatement statement =
+              connection.prepareStatement(
+                  SELECT_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+          statement.setFetchSize(fetchSize);
+          return statement;
+        },
+        (ResultSet rs) -> {
+          try {
+            out.writeByte(ROW);
+            out.writeLong(rs.getLong("id"));
+            out.writeUTF(rs.getString("name"));
+            writeString(out, rs.getString("description"));
+            writeDecimal(out, rs.getBigDecimal("price"));
+            out.writeInt(rs.getInt("quantity"));
+            writeLong(out, rs.getObject("category_id", Long.class));
+            out.writeUTF(rs.getString("sku"));
+            writeDecimal(out, rs.getBigDecimal("weight"));
+            out.writeUTF(rs.getString("dimensions"));
+            writeInt(out, rs.getObject("version", Integer.class));
+            writeTimestamp(out, rs.getObject("created_at", LocalDateTime.class));
+            writeTimestamp(out, rs.getObject("updated_at", LocalDateTime.class));
+            rows[0]++;
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        });
+    return rows[0];
+  }
+
+  private long load(Connection connection, DataInputStream in) throws SQLException {
+    boolean autoCommit = connection.getAutoCommit();
+    connection.setAutoCommit(false);
+    long rows = 0;
+    long maxId = 0;
+    try (PreparedStatement delete = connection.prepareStatement("DELETE FROM products");
+        PreparedStatement insert = connection.prepareStatement(INSERT_SQL)) {
+      delete.executeUpdate();
+      while (in.readByte() == ROW) {
+        long id = in.readLong();
+        insert.setLong(1, id);
+        insert.setString(2, in.readUTF());
+        insert.setString(3, readString(in));
+        insert.setBigDecimal(4, readDecimal(in));
+        insert.setInt(5, in.readInt());
+        setNullable(insert, 6, readLong(in), Types.BIGINT);
+        insert.setString(7, in.readUTF());
+        insert.setBigDecimal(8, readDecimal(in));
+        insert.setString(9, in.readUTF());
+        setNullable(insert, 10, readInt(in), Types.INTEGER);
+        setNullable(insert, 11, readTimestamp(in), Types.TIMESTAMP);
+        setNullable(insert, 12, readTimestamp(in), Types.TIMESTAMP);
+        insert.addBatch();
+        maxId = Math.max(maxId, id);
+        if (++rows % batchSize == 0) {
+          insert.executeBatch();
+        }
+      }
+      insert.executeBatch();
+      long expected = in.readLong();
+      if (expected != rows) {
+        throw new IOException("Snapshot is incomplete: expected " + expected + " rows");
+      }
+      try (PreparedStatement restart =
+          connection.prepareStatement(
+              "ALTER TABLE products ALTER COLUMN id RESTART WITH " + (maxId + 1))) {
+        restart.executeUpdate();
+      }
+      connection.commit();
+      return rows;
+    } catch (IOException e) {
+      connection.rollback();
+      throw new UncheckedIOException(e);
+    } catch (SQLException | RuntimeException e) {
+      connection.rollback();
+      throw e;
+    } finally {
+      connection.setAutoCommit(autoCommit);
+    }
+  }
+
+  private static SnapshotResult result(Path file, long rows, long startNanos) throws IOException {
+    return new SnapshotResult(
+        file.toString(),
+        rows,
+        Files.size(file),
+        (System.nanoTime() - startNanos) / 1_000_000,
+        Instant.now());
+  }
+
+  private static void setNullable(PreparedStatement statement, int index, Object value, int type)
+      throws SQLException {
+    if (value == null) {
+      statement.setNull(index, type);
+    } else {
+      statement.setObject(index, value);
+    }
+  }
+
+  private static void writeString(DataOutputStream out, @Nullable String value) throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null) {
+      out.writeUTF(value);
+    }
+  }
+
+  @Nullable
+  private static String readString(DataInputStream in) throws IOException {
+    return in.readBoolean() ? in.readUTF() : null;
+  }
+
+  private static void writeLong(DataOutputStream out, @Nullable Long value) throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null) {
+      out.writeLong(value);
+    }
+  }
+
+  @Nullable
+  private static Long readLong(DataInputStream in) throws IOException {
+    return in.readBoolean() ? in.readLong() : null;
+  }
+
+  private static void writeInt(DataOutputStream out, @Nullable Integer value) throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null) {
+      out.writeInt(value);
+    }
+  }
+
+  @Nullable
+  private static Integer readInt(DataInputStream in) throws IOException {
+    return in.readBoolean() ? in.readInt() : null;
+  }
+
+  /** Writes a decimal column as its scale and unscaled value; the schema caps precision at 10. */
+  private static void writeDecimal(DataOutputStream out, @Nullable BigDecimal value)
+      throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null) {
+      out.writeByte(value.scale());
+      out.writeLong(value.unscaledValue().longValueExact());
+    }
+  }
+
+  @Nullable
+  private static BigDecimal readDecimal(DataInputStream in) throws IOException {
+    if (!in.readBoolean()) {
+      return null;
+    }
+    int scale = in.readByte();
+    return new BigDecimal(BigInteger.valueOf(in.readLong()), scale);
+  }
+
+  private static void writeTimestamp(DataOutputStream out, @Nullable LocalDateTime value)
+      throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null) {
+      out.writeLong(value.toEpochSecond(ZoneOffset.UTC));
+      out.writeInt(value.getNano());
+    }
+  }
+
+  @Nullable
+  private static LocalDateTime readTimestamp(DataInputStream in) throws IOException {
+    if (!in.readBoolean()) {
+      return null;
+    }
+    return LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+  }
+}
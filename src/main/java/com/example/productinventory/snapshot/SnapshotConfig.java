@@ -0,0 +1,31 @@
+package com.example.productinventory.snapshot;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Restores the catalogue snapshot as part of the Flyway migration step. Running the restore there
+ * guarantees the schema is current and that JPA, caches and the web layer only start once the full
+ * catalogue is loaded.
+ */
+@Configuration
+@ConditionalOnProperty(name = "product.snapshot.enabled", havingValue = "true")
+public class SnapshotConfig {
+
+  /**
+   * Migrates the schema, then replaces the seed data with the snapshot if one exists.
+   *
+   * @param productSnapshotService the service performing the restore
+   * @return the migration strategy
+   */
+  @Bean
+  public FlywayMigrationStrategy snapshotRestoringMigrationStrategy(
+      ProductSnapshotService productSnapshotService) {
+    return flyway -> {
+      flyway.migrate();
+      productSnapshotService.restore();
+    };
+  }
+}
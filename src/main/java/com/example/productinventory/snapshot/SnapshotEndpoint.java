@@ -0,0 +1,58 @@
+package com.example.productinventory.snapshot;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint at {@code /actuator/snapshot}. A GET describes the snapshot file and the last
+ * write and restore; a POST writes a new snapshot of the current catalogue.
+ */
+@Component
+@Endpoint(id = "snapshot")
+@ConditionalOnProperty(name = "product.snapshot.enabled", havingValue = "true")
+public class SnapshotEndpoint {
+
+  private final ProductSnapshotService productSnapshotService;
+
+  public SnapshotEndpoint(ProductSnapshotService productSnapshotService) {
+    this.productSnapshotService = productSnapshotService;
+  }
+
+  /**
+   * Describes the snapshot file and the snapshot operations of this process.
+   *
+   * @return the file location and size, and the last write and restore
+   */
+  @ReadOperation
+  public Map<String, Object> snapshot() throws IOException {
+    Path path = productSnapshotService.getPath();
+    Map<String, Object> body = new LinkedHashMap<>();
+    body.put("path", path.toAbsolutePath().toString());
+    body.put("exists", Files.isRegularFile(path));
+    if (Files.isRegularFile(path)) {
+      body.put("bytes", Files.size(path));
+      body.put("lastModified", Files.getLastModifiedTime(path).toInstant());
+    }
+    body.put("lastWrite", productSnapshotService.getLastWrite());
+    body.put("lastRestore", productSnapshotService.getLastRestore());
+    return body;
+  }
+
+  /**
+   * Writes a snapshot of the current catalogue.
+   *
+   * @return the written snapshot
+   */
+  @WriteOperation
+  public SnapshotResult write() {
+    return productSnapshotService.write();
+  }
+}
@@ -0,0 +1,24 @@
+package com.example.productinventory.snapshot;
+
+import java.time.Instant;
+import lombok.Value;
+
+/** The outcome of writing or restoring a catalogue snapshot. */
+@Value
+public class SnapshotResult {
+
+  /** The snapshot file that was written or read. */
+  String path;
+
+  /** The number of product rows written or restored. */
+  long rows;
+
+  /** The size of the snapshot file in bytes. */
+  long bytes;
+
+  /** The time taken in milliseconds. */
+  long durationMs;
+
+  /** The time the operation finished. */
+  Instant completedAt;
+}
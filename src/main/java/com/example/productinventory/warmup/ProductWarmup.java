@@ -0,0 +1,218 @@
+package com.example.productinventory.warmup;
+
+import com.example.productinventory.cache.ProductJsonCache;
+import com.example.productinventory.dto.PaginatedResponse;
+import com.example.productinventory.dto.ProductDTO;
+import com.example.productinventory.facet.ProductFacets;
+import com.example.productinventory.model.Product;
+import com.example.productinventory.service.ProductSearchService;
+import com.example.productinventory.service.ProductService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.lang.Nullable;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Runs representative synthetic traffic against the product service before the application reports
+ * itself ready, so that the JIT has compiled the hot paths and Hibernate, the search index and the
+ * JSON caches are warm when the first real requests arrive.
+ *
+ * <p>Spring Boot only switches the readiness state to {@code ACCEPTING_TRAFFIC} once every {@link
+ * ApplicationReadyEvent} listener has returned, so {@code /actuator/health/readiness} reports
+ * {@code OUT_OF_SERVICE} while the warm-up runs. The warm-up stops after the configured number of
+ * rounds or when its time budget runs out, whichever comes first.
+ *
+ * <p>Each round reads products by ID, IDs and SKU, lists pages in every sort order, selects fields,
+ * filters by criteria, computes facets, runs a full-text search and serializes the results. Write
+ * rounds restock and conditionally update one of the sampled products inside a transaction that is
+ * always rolled back, so no change is committed and no change event reaches the caches. Nothing is
+ * inserted, so no identity values are used up.
+ */
+public class ProductWarmup {
+
+  private static final Logger logger = LoggerFactory.getLogger(ProductWarmup.class);
+
+  private static final String[] SORT_FIELDS = {"name", "price", "quantity", "sku"};
+  private static final List<String> SELECTED_FIELDS = List.of("id", "name", "price");
+  private static final int SAMPLE_SIZE = 20;
+
+  private final ProductService productService;
+  @Nullable private final ProductSearchService productSearchService;
+  private final ObjectMapper objectMapper;
+  private final ProductJsonCache productJsonCache;
+  @Nullable private final TransactionTemplate rollbackTransaction;
+  private final int rounds;
+  private final int writeRounds;
+  private final long budgetNanos;
+
+  private volatile int completedRounds;
+  private volatile long elapsedMillis;
+
+  /**
+   * Constructs a ProductWarmup.
+   *
+   * @param productService the product service to warm up
+   * @param productSearchService the full-text search service, or {@code null} if search is disabled
+   * @param objectMapper the application object mapper
+   * @param productJsonCache the cache of serialized products
+   * @param rollbackTransaction the transaction the write rounds run in, or {@code null} to skip
+   *     writes
+   * @param rounds the number of read rounds
+   * @param writeRounds the number of those rounds that also write
+   * @param budgetMillis the time after which the warm-up stops even if rounds remain
+   */
+  public ProductWarmup(
+      ProductService productService,
+      @Nullable ProductSearchService productSearchService,
+      ObjectMapper objectMapper,
+      ProductJsonCache productJsonCache,
+      @Nullable TransactionTemplate rollbackTransaction,
+      int rounds,
+      int writeRounds,
+      long budgetMillis) {
+    this.productService = productService;
+    this.productSearchService = productSearchService;
+    this.objectMapper = objectMapper;
+    this.productJsonCache = productJsonCache;
+    this.rollbackTransaction = rollbackTransaction;
+    this.rounds = rounds;
+    this.writeRounds = rollbackTransaction == null ? 0 : writeRounds;
+    this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+  }
+
+  /**
+   * Runs the warm-up rounds until they are done or the time budget is spent. A failing operation is
+   * logged and does not stop the warm-up.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void warmUp() {
+    long start = System.nanoTime();
+    List<Product> sample =
+        productService.getAllProducts(PageRequest.of(0, SAMPLE_SIZE), "name").getContent();
+    if (sample.isEmpty()) {
+      logger.info("Skipping warm-up: there are no products to read");
+      return;
+    }
+    logger.info("Warming up with {} rounds within {} ms", rounds, budgetMillis());
+    int round = 0;
+    while (round < rounds && System.nanoTime() - start < budgetNanos) {
+      Product product = sample.get(round % sample.size());
+      try {
+        read(product, sample, round);
+        if (round < writeRounds) {
+          write(product);
+        }
+      } catch (RuntimeException | JsonProcessingException e) {
+        logger.warn("Warm-up round {} failed: {}", round, e.toString());
+      }
+      round++;
+    }
+    completedRounds = round;
+    elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    if (round < rounds) {
+      logger.warn(
+          "Warm-up budget of {} ms spent after {} of {} rounds", budgetMillis(), round, rounds);
+    } else {
+      logger.info("Warm-up finished {} rounds in {} ms", round, elapsedMillis);
+    }
+  }
+
+  private void read(Product product, List<Product> sample, int round)
+      throws JsonProcessingException {
+    productJsonCache.toJson(productService.getProductById(product.getId()));
+    productService.getProductBySku(product.getSku());
+    productService.getProductFieldsById(product.getId(), SELECTED_FIELDS);
+
+    List<Long> ids = new ArrayList<>();
+    for (Product p : sample) {
+      ids.add(p.getId());
+    }
+    objectMapper.writeValueAsBytes(productService.getProductsByIds(ids));
+
+    String sortBy = SORT_FIELDS[round % SORT_FIELDS.length];
+    Sort.Direction direction = round % 2 == 0 ? Sort.Direction.ASC : Sort.Direction.DESC;
+    PageRequest pageRequest = PageRequest.of(0, 10, Sort.by(direction, sortBy));
+    objectMapper.writeValueAsBytes(
+        toPaginatedResponse(productService.getAllProducts(pageRequest, sortBy)));
+    objectMapper.writeValueAsBytes(
+        toPaginatedResponse(
+            productService.getAllProductFields(SELECTED_FIELDS, pageRequest, sortBy)));
+
+    String prefix = product.getName().substring(0, Math.min(3, product.getName().length()));
+    BigDecimal maxPrice = product.getPrice().multiply(BigDecimal.valueOf(2));
+    objectMapper.writeValueAsBytes(
+        toPaginatedResponse(
+            productService.searchProductsByCriteria(
+                prefix, null, maxPrice, null, null, product.getCategoryId(), pageRequest)));
+    objectMapper.writeValueAsBytes(
+        productService.getProductFacets(
+            ProductFacets.NAMES, null, null, null, null, null, product.getCategoryId()));
+
+    if (productSearchService != null) {
+      objectMapper.writeValueAsBytes(
+          toPaginatedResponse(productSearchService.search(prefix, PageRequest.of(0, 10))));
+    }
+  }
+
+  private void write(Product product) {
+    rollbackTransaction.executeWithoutResult(
+        status -> {
+          status.setRollbackOnly();
+          // The stock change loads the entity, so it comes before the conditional update, which
+          // bypasses the persistence context and would leave that entity stale.
+          Product restocked = productService.adjustStock(product.getId(), 1);
+          ProductDTO productDTO = new ProductDTO();
+          productDTO.setName(restocked.getName());
+          productDTO.setDescription(restocked.getDescription());
+          productDTO.setPrice(restocked.getPrice());
+          productDTO.setQuantity(restocked.getQuantity());
+          productDTO.setSku(restocked.getSku());
+          productDTO.setWeight(restocked.getWeight());
+          productDTO.setDimensions(restocked.getDimensions());
+          productDTO.setCategoryId(restocked.getCategoryId());
+          productService.updateProduct(restocked.getId(), productDTO, restocked.getVersion());
+        });
+  }
+
+  private static <T> PaginatedResponse<T> toPaginatedResponse(Page<T> page) {
+    return new PaginatedResponse<>(
+        page.getContent(),
+        page.getNumber(),
+        page.getTotalPages(),
+        page.getTotalElements(),
+        page.getSize());
+  }
+
+  private long budgetMillis() {
+    return TimeUnit.NANOSECONDS.toMillis(budgetNanos);
+  }
+
+  /**
+   * Returns the number of rounds the last warm-up completed.
+   *
+   * @return the completed rounds
+   */
+  public int getCompletedRounds() {
+    return completedRounds;
+  }
+
+  /**
+   * Returns how long the last warm-up took.
+   *
+   * @return the duration in milliseconds
+   */
+  public long getElapsedMillis() {
+    return elapsedMillis;
+  }
+}
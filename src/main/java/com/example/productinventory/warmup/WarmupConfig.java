@@ -0,0 +1,62 @@
+package com.example.productinventory.warmup;
+
+import com.example.productinventory.cache.ProductJsonCache;
+import com.example.productinventory.service.ProductSearchService;
+import com.example.productinventory.service.ProductService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Warms up the product service before the application reports itself ready. Enabled by {@code
+ * product.warmup.enabled} and configured by {@code product.warmup.*}. Only the servlet mode is
+ * warmed up, since the reactive mode does not go through the product service.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "product.warmup.enabled", havingValue = "true", matchIfMissing = true)
+public class WarmupConfig {
+
+  /**
+   * Creates the warm-up. Writes are skipped in the sharded mode, where the shards' statements do
+   * not take part in the rollback-only transaction.
+   *
+   * @param productService the product service
+   * @param productSearchService the full-text search service, if search is enabled
+   * @param objectMapper the application object mapper
+   * @param productJsonCache the cache of serialized products
+   * @param transactionManager the transaction manager of the products database
+   * @param rounds the number of read rounds
+   * @param writeRounds the number of those rounds that also write
+   * @param budgetMs the time after which the warm-up stops even if rounds remain
+   * @param sharded whether products are sharded across several databases
+   * @return the warm-up
+   */
+  @Bean
+  public ProductWarmup productWarmup(
+      ProductService productService,
+      ObjectProvider<ProductSearchService> productSearchService,
+      ObjectMapper objectMapper,
+      ProductJsonCache productJsonCache,
+      PlatformTransactionManager transactionManager,
+      @Value("${product.warmup.rounds:300}") int rounds,
+      @Value("${product.warmup.write-rounds:30}") int writeRounds,
+      @Value("${product.warmup.budget-ms:20000}") long budgetMs,
+      @Value("${product.sharding.enabled:false}") boolean sharded) {
+    return new ProductWarmup(
+        productService,
+        productSearchService.getIfAvailable(),
+        objectMapper,
+        productJsonCache,
+        sharded ? null : new TransactionTemplate(transactionManager),
+        rounds,
+        writeRounds,
+        budgetMs);
+  }
+}
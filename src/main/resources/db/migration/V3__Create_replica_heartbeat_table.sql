@@ -0,0 +1,7 @@
+-- Single-row heartbeat written to the primary and read back from the replica to measure lag.
+CREATE TABLE replica_heartbeat (
+    id INT PRIMARY KEY,
+    beat BIGINT NOT NULL
+);
+
+INSERT INTO replica_heartbeat (id, beat) VALUES (1, 0);
@@ -0,0 +1,19 @@
+CREATE TABLE categories (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(100) NOT NULL UNIQUE,
+    description VARCHAR(500)
+);
+
+INSERT INTO categories (name, description)
+VALUES
+    ('Laptops', 'Portable computers'),
+    ('Monitors', 'External displays'),
+    ('Accessories', 'Keyboards, mice, docks and cables');
+
+UPDATE products SET category_id = (SELECT id FROM categories WHERE name = 'Laptops')
+WHERE sku LIKE 'LAP-%';
+
+ALTER TABLE products
+    ADD CONSTRAINT fk_products_category FOREIGN KEY (category_id) REFERENCES categories (id);
+
+CREATE INDEX idx_products_category_id ON products (category_id);
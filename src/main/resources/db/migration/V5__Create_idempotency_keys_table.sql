@@ -0,0 +1,20 @@
+-- Responses recorded for Idempotency-Key requests, replayed when a client retries the same key.
+-- A row with a NULL status is a claim held by a request that is still running.
+-- Keys are scoped to the client that sent them: client_id holds the SHA-256 of the client
+-- identity, so two clients may use the same key. claim_token identifies the request holding a
+-- claim; only that request may record its response or release it.
+CREATE TABLE idempotency_keys (
+    client_id VARCHAR(64) NOT NULL,
+    idem_key VARCHAR(255) NOT NULL,
+    request_hash VARCHAR(64) NOT NULL,
+    claim_token VARCHAR(36),
+    status INT,
+    content_type VARCHAR(255),
+    body VARBINARY(1000000),
+    created_at TIMESTAMP NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (client_id, idem_key)
+);
+
+CREATE INDEX idx_idempotency_keys_expires_at ON idempotency_keys (expires_at);
+CREATE INDEX idx_idempotency_keys_created_at ON idempotency_keys (created_at);
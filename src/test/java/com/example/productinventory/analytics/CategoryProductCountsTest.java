@@ -0,0 +1,81 @@
+package com.example.productinventory.analytics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.example.productinventory.event.ProductChangedEvent;
+import com.example.productinventory.event.ProductState;
+import java.math.BigDecimal;
+import java.util.Map;
+import org.flywaydb.core.Flyway;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Unit tests for the {@link CategoryProductCounts} against a migrated in-memory H2 database, whose
+ * five seeded products are all in category 1.
+ */
+public class CategoryProductCountsTest {
+
+  private JdbcTemplate jdbcTemplate;
+  private CategoryProductCounts counts;
+
+  @BeforeEach
+  void setUp() {
+    JdbcDataSource dataSource = new JdbcDataSource();
+    dataSource.setURL("jdbc:h2:mem:category-counts;DB_CLOSE_DELAY=-1");
+    Flyway flyway =
+        Flyway.configure()
+            .dataSource(dataSource)
+            .locations("classpath:db/migration")
+            .cleanDisabled(false)
+            .load();
+    flyway.clean();
+    flyway.migrate();
+
+    jdbcTemplate = new JdbcTemplate(dataSource);
+    counts = new CategoryProductCounts(jdbcTemplate);
+    counts.rebuild();
+  }
+
+  private static ProductState state(long id, Long categoryId, int version) {
+    return new ProductState(
+        id, "SKU-" + id, "Product " + id, null, BigDecimal.TEN, 1, categoryId, version);
+  }
+
+  @Test
+  void changeEvents_moveProductsBetweenCounters() {
+    assertEquals(5, counts.getCount(1L));
+
+    counts.onProductChanged(ProductChangedEvent.created(state(10, 2L, 0)));
+    counts.onProductChanged(ProductChangedEvent.updated(state(1, 1L, 0), state(1, 2L, 1)));
+    counts.onProductChanged(ProductChangedEvent.updated(state(3, 1L, 0), state(3, 1L, 1)));
+    counts.onProductChanged(ProductChangedEvent.updated(state(20, null, 0), state(20, 1L, 1)));
+    counts.onProductChanged(ProductChangedEvent.deleted(state(21, null, 0)));
+
+    assertEquals(5, counts.getCount(1L));
+    assertEquals(2, counts.getCount(2L));
+    assertEquals(0, counts.getCount(3L));
+    assertEquals(0, counts.getCount(null));
+    assertEquals(Map.of(1L, 5L, 2L, 2L), counts.getCounts());
+  }
+
+  @Test
+  void rebuild_doesNotCountWritesTwiceWhoseEventsArriveAfterIt() {
+    // The writes commit before the rebuild reads the table, but their events reach the listener
+    // only once the rebuild has released the monitor.
+    jdbcTemplate.update("UPDATE products SET category_id = 2, version = version + 1 WHERE id = 2");
+    jdbcTemplate.update(
+        "INSERT INTO products (id, name, price, quantity, sku, weight, dimensions, category_id)"
+            + " VALUES (100, 'New', 20.50, 4, 'SKU-100', 1.0, '1x1x1', 3)");
+    jdbcTemplate.update("DELETE FROM products WHERE id = 4");
+    counts.rebuild();
+
+    counts.onProductChanged(ProductChangedEvent.updated(state(2, 1L, 0), state(2, 2L, 1)));
+    counts.onProductChanged(ProductChangedEvent.created(state(100, 3L, 0)));
+    counts.onProductChanged(ProductChangedEvent.deleted(state(4, 1L, 0)));
+
+    assertEquals(Map.of(1L, 3L, 2L, 1L, 3L, 1L), counts.getCounts());
+  }
+}
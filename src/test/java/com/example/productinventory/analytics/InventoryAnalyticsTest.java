@@ -0,0 +1,144 @@
+package com.example.productinventory.analytics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.productinventory.event.ProductChangedEvent;
+import com.example.productinventory.event.ProductState;
+import java.math.BigDecimal;
+import org.flywaydb.core.Flyway;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/** Unit tests for the {@link InventoryAnalytics} against a migrated in-memory H2 database. */
+public class InventoryAnalyticsTest {
+
+  private JdbcTemplate jdbcTemplate;
+  private InventoryAnalytics analytics;
+
+  /** Migrates a private in-memory database, which seeds the five initial products. */
+  @BeforeEach
+  void setUp() {
+    JdbcDataSource dataSource = new JdbcDataSource();
+    dataSource.setURL("jdbc:h2:mem:analytics;DB_CLOSE_DELAY=-1");
+    Flyway flyway =
+        Flyway.configure()
+            .dataSource(dataSource)
+            .locations("classpath:db/migration")
+            .cleanDisabled(false)
+            .load();
+    flyway.clean();
+    flyway.migrate();
+
+    jdbcTemplate = new JdbcTemplate(dataSource);
+    analytics =
+        new InventoryAnalytics(
+            jdbcTemplate, new BigDecimal[] {new BigDecimal("1000"), new BigDecimal("500")});
+    analytics.rebuild();
+  }
+
+  private static ProductState state(long id, String price, int quantity) {
+    return new ProductState(
+        id, "SKU-" + id, "Product " + id, null, new BigDecimal(price), quantity, null, 0);
+  }
+
+  @Test
+  void rebuild_aggregatesSeedData() {
+    InventorySummary summary = analytics.getSummary();
+    assertEquals(5, summary.getProductCount());
+    assertEquals(29, summary.getTotalUnits());
+    assertEquals(new BigDecimal("29699.71"), summary.getStockValue());
+    assertEquals(0, summary.getOutOfStockCount());
+
+    assertEquals(3, summary.getPriceBands().size());
+    assertEquals(1, summary.getPriceBands().get(0).getProductCount());
+    assertEquals(2, summary.getPriceBands().get(1).getProductCount());
+    assertEquals(2, summary.getPriceBands().get(2).getProductCount());
+    assertEquals(null, summary.getPriceBands().get(2).getMaxPrice());
+  }
+
+  @Test
+  void changeEvents_keepAggregatesInStepWithDatabase() {
+    ProductState before =
+        new ProductState(3L, "LAP-003", "Gaming Laptop", null, new BigDecimal("1499.99"), 3, 1L, 0);
+    ProductState after =
+        new ProductState(3L, "LAP-003", "Gaming Laptop", null, new BigDecimal("450"), 0, 1L, 1);
+    jdbcTemplate.update("UPDATE products SET price = 450, quantity = 0 WHERE id = 3");
+    analytics.onProductChanged(ProductChangedEvent.updated(before, after));
+
+    jdbcTemplate.update(
+        "INSERT INTO products (id, name, price, quantity, sku, weight, dimensions)"
+            + " VALUES (100, 'New', 20.50, 4, 'SKU-100', 1.0, '1x1x1')");
+    analytics.onProductChanged(ProductChangedEvent.created(state(100, "20.5", 4)));
+
+    jdbcTemplate.update("DELETE FROM products WHERE id = 1");
+    analytics.onProductChanged(
+        ProductChangedEvent.deleted(
+            new ProductState(
+                1L, "LAP-001", "Premium Laptop", null, new BigDecimal("999.99"), 10, 1L, 0)));
+
+    DriftReport report = analytics.checkDrift();
+    assertFalse(report.isDrifted());
+    assertEquals(1, report.getMaintained().getOutOfStockCount());
+    assertEquals(3, report.getMaintained().getPriceBands().get(0).getProductCount());
+  }
+
+  @Test
+  void checkDrift_detectsOutOfBandChangesUntilRebuilt() {
+    jdbcTemplate.update("UPDATE products SET quantity = 0 WHERE id = 2");
+
+    DriftReport report = analytics.checkDrift();
+    assertTrue(report.isDrifted());
+    assertEquals(0, report.getMaintained().getOutOfStockCount());
+    assertEquals(1, report.getActual().getOutOfStockCount());
+
+    analytics.rebuild();
+    assertFalse(analytics.checkDrift().isDrifted());
+  }
+
+  @Test
+  void rebuild_doesNotCountWritesTwiceWhoseEventsArriveAfterIt() {
+    // The writes commit before the rebuild reads the table, but their events reach the listener
+    // only once the rebuild has released the monitor.
+    ProductState before =
+        new ProductState(3L, "LAP-003", "Gaming Laptop", null, new BigDecimal("1499.99"), 3, 1L, 0);
+    ProductState after =
+        new ProductState(3L, "LAP-003", "Gaming Laptop", null, new BigDecimal("450"), 0, 1L, 1);
+    jdbcTemplate.update(
+        "UPDATE products SET price = 450, quantity = 0, version = version + 1 WHERE id = 3");
+    jdbcTemplate.update(
+        "INSERT INTO products (id, name, price, quantity, sku, weight, dimensions)"
+            + " VALUES (100, 'New', 20.50, 4, 'SKU-100', 1.0, '1x1x1')");
+    jdbcTemplate.update("DELETE FROM products WHERE id = 1");
+    InventorySummary rebuilt = analytics.rebuild();
+
+    analytics.onProductChanged(ProductChangedEvent.updated(before, after));
+    analytics.onProductChanged(ProductChangedEvent.created(state(100, "20.5", 4)));
+    analytics.onProductChanged(
+        ProductChangedEvent.deleted(
+            new ProductState(
+                1L, "LAP-001", "Premium Laptop", null, new BigDecimal("999.99"), 10, 1L, 0)));
+
+    assertEquals(rebuilt, analytics.getSummary());
+    assertEquals(5, rebuilt.getProductCount());
+    assertFalse(analytics.checkDrift().isDrifted());
+  }
+
+  @Test
+  void rebuild_appliesEventsOfWritesItDidNotSee() {
+    ProductState before =
+        new ProductState(2L, "LAP-002", "Budget Laptop", null, new BigDecimal("499.99"), 5, 1L, 0);
+    ProductState after =
+        new ProductState(2L, "LAP-002", "Budget Laptop", null, new BigDecimal("499.99"), 0, 1L, 1);
+    analytics.rebuild();
+    jdbcTemplate.update("UPDATE products SET quantity = 0, version = version + 1 WHERE id = 2");
+
+    analytics.onProductChanged(ProductChangedEvent.updated(before, after));
+
+    assertEquals(1, analytics.getSummary().getOutOfStockCount());
+    assertFalse(analytics.checkDrift().isDrifted());
+  }
+}
@@ -0,0 +1,125 @@
+package com.example.productinventory.autocomplete;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.example.productinventory.event.ProductChangedEvent;
+import com.example.productinventory.event.ProductState;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+/** Unit tests for the {@link SkuAutocomplete}. */
+public class SkuAutocompleteTest {
+
+  private static ProductState state(long id, String sku) {
+    return new ProductState(id, sku, "Product " + id, null, BigDecimal.TEN, 1, null, 0);
+  }
+
+  private static List<String> skus(List<SkuSuggestion> suggestions) {
+    return suggestions.stream().map(SkuSuggestion::getSku).toList();
+  }
+
+  @Test
+  void complete_mergesCompiledSkusWithPendingChanges() {
+    SkuAutocomplete autocomplete = new SkuAutocomplete(mock(JdbcTemplate.class), 100);
+    autocomplete.replaceAll(
+        Map.of("LAP-001", 1L, "LAP-002", 2L, "LAP-010", 3L, "MON-001", 4L, "LAMP-1", 5L));
+
+    assertEquals(List.of("LAP-001", "LAP-002", "LAP-010"), skus(autocomplete.complete("LAP-", 10)));
+    assertEquals(List.of("LAMP-1", "LAP-001"), skus(autocomplete.complete("LA", 2)));
+    assertEquals(List.of(), autocomplete.complete("TAB", 10));
+
+    autocomplete.onProductChanged(ProductChangedEvent.created(state(6, "LAP-005")));
+    autocomplete.onProductChanged(ProductChangedEvent.deleted(state(2, "LAP-002")));
+    autocomplete.onProductChanged(
+        ProductChangedEvent.updated(state(3, "LAP-010"), state(3, "MON-010")));
+    autocomplete.onProductChanged(ProductChangedEvent.created(state(7, "LAP-002")));
+
+    List<SkuSuggestion> laptops = autocomplete.complete("LAP-", 10);
+    assertEquals(List.of("LAP-001", "LAP-002", "LAP-005"), skus(laptops));
+    assertEquals(7, laptops.get(1).getProductId());
+    assertEquals(List.of("MON-001", "MON-010"), skus(autocomplete.complete("MON", 10)));
+    assertEquals(6, autocomplete.getStats().getEntries());
+  }
+
+  @Test
+  void changes_areCompactedIntoTheTransducer() {
+    SkuAutocomplete autocomplete = new SkuAutocomplete(mock(JdbcTemplate.class), 3);
+    autocomplete.replaceAll(Map.of("A-1", 1L, "A-2", 2L));
+
+    autocomplete.onProductChanged(ProductChangedEvent.created(state(3, "A-3")));
+    autocomplete.onProductChanged(ProductChangedEvent.deleted(state(1, "A-1")));
+    assertEquals(2, autocomplete.getStats().getPendingChanges());
+    autocomplete.onProductChanged(ProductChangedEvent.created(state(4, "B-1")));
+
+    assertEquals(0, autocomplete.getStats().getPendingChanges());
+    assertEquals(3, autocomplete.getStats().getEntries());
+    assertEquals(List.of("A-2", "A-3"), skus(autocomplete.complete("A", 10)));
+  }
+
+  @Test
+  void load_keepsChangesCommittedWhileReading() throws Exception {
+    JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    SkuAutocomplete autocomplete = new SkuAutocomplete(jdbcTemplate, 100);
+    ResultSet rs = mock(ResultSet.class);
+    when(rs.getString(1)).thenReturn("A-1", "A-2");
+    when(rs.getLong(2)).thenReturn(1L, 2L);
+    doAnswer(
+            invocation -> {
+              // The read sees A-1 and A-2. A-3 is created and A-2 deleted after it, and the
+              // event of A-1, which the read already saw, arrives late.
+              autocomplete.onProductChanged(ProductChangedEvent.created(state(3, "A-3")));
+              autocomplete.onProductChanged(ProductChangedEvent.deleted(state(2, "A-2")));
+              autocomplete.onProductChanged(ProductChangedEvent.created(state(1, "A-1")));
+              RowCallbackHandler handler = invocation.getArgument(1);
+              handler.processRow(rs);
+              handler.processRow(rs);
+              return null;
+            })
+        .when(jdbcTemplate)
+        .query(eq("SELECT sku, id FROM products"), any(RowCallbackHandler.class));
+
+    autocomplete.load();
+
+    List<SkuSuggestion> suggestions = autocomplete.complete("A", 10);
+    assertEquals(List.of("A-1", "A-3"), skus(suggestions));
+    assertEquals(1, suggestions.get(0).getProductId());
+    assertEquals(2, autocomplete.getStats().getEntries());
+
+    autocomplete.onProductChanged(ProductChangedEvent.created(state(4, "A-4")));
+    autocomplete.replaceAll(Map.of("B-1", 5L));
+    assertEquals(List.of(), autocomplete.complete("A", 10));
+  }
+
+  @Test
+  void transducer_isSmallerThanTheRawSkus() {
+    Map<String, Long> skus = new HashMap<>();
+    long rawBytes = 0;
+    for (long id = 1; id <= 50_000; id++) {
+      String sku = String.format("WH%02d-BIN-%06d", id % 40, id);
+      skus.put(sku, id);
+      // UTF-16 characters alone, before any String, entry or table overhead of a HashMap.
+      rawBytes += sku.length() * 2L;
+    }
+    SkuAutocomplete autocomplete = new SkuAutocomplete(mock(JdbcTemplate.class), 1024);
+    autocomplete.replaceAll(skus);
+
+    AutocompleteStats stats = autocomplete.getStats();
+    assertEquals(50_000, stats.getEntries());
+    assertTrue(
+        stats.getFstBytes() < rawBytes / 2,
+        "transducer " + stats.getFstBytes() + " bytes, raw " + rawBytes + " bytes");
+    assertEquals(List.of("WH07-BIN-000007"), skus(autocomplete.complete("WH07-BIN-0000", 1)));
+  }
+}
@@ -0,0 +1,125 @@
+package com.example.productinventory.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.example.productinventory.model.Product;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compares payload size and encode/decode time of JSON, CBOR and Smile for a single product and a
+ * page of 100 products with full-length descriptions. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+public class PayloadFormatBenchmark {
+
+  private static final int WARMUP_ITERATIONS = 3_000;
+  private static final int MEASURED_ITERATIONS = 10_000;
+  private static final TypeReference<List<Product>> PRODUCT_LIST = new TypeReference<>() {};
+
+  private static <T extends ObjectMapper> T configure(T mapper) {
+    mapper.registerModule(new JavaTimeModule());
+    mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    return mapper;
+  }
+
+  private static Product product(long id) {
+    Product product = new Product();
+    product.setId(id);
+    product.setName("Premium Laptop " + id);
+    product.setDescription(("High-performance laptop with 16GB RAM and a 1TB SSD. ").repeat(9));
+    product.setPrice(new BigDecimal("999.99").add(BigDecimal.valueOf(id)));
+    product.setQuantity((int) (id % 50));
+    product.setSku("LAP-" + id);
+    product.setWeight(new BigDecimal("2.50"));
+    product.setDimensions("30x20x5");
+    product.setVersion(3);
+    product.setCreatedAt(LocalDateTime.of(2024, 1, 1, 12, 0));
+    product.setUpdatedAt(LocalDateTime.of(2024, 6, 1, 12, 0));
+    return product;
+  }
+
+  /** Encodes and decodes each payload in each format and prints a comparison table. */
+  @Test
+  void compareFormats() throws Exception {
+    Map<String, ObjectMapper> formats = new LinkedHashMap<>();
+    formats.put("JSON", configure(new JsonMapper()));
+    formats.put("CBOR", configure(new CBORMapper()));
+    formats.put("Smile", configure(new SmileMapper()));
+
+    Product single = product(1);
+    List<Product> page = new ArrayList<>();
+    for (long id = 1; id <= 100; id++) {
+      page.add(product(id));
+    }
+
+    System.out.printf(
+        "%-8s %-8s %10s %14s %14s%n", "payload", "format", "bytes", "encode ns/op", "decode ns/op");
+    for (Map.Entry<String, ObjectMapper> format : formats.entrySet()) {
+      ObjectMapper mapper = format.getValue();
+      report("product", format.getKey(), measure(mapper, single, Product.class, null));
+      report("page100", format.getKey(), measure(mapper, page, null, PRODUCT_LIST));
+    }
+  }
+
+  private static void report(String payload, String format, long[] result) {
+    System.out.printf(
+        "%-8s %-8s %10d %14d %14d%n", payload, format, result[0], result[1], result[2]);
+  }
+
+  /**
+   * Measures one payload in one format.
+   *
+   * @return the encoded size, the mean encode time and the mean decode time
+   */
+  private static long[] measure(
+      ObjectMapper mapper, Object value, Class<?> type, TypeReference<?> typeReference)
+      throws Exception {
+    byte[] encoded = mapper.writeValueAsBytes(value);
+    Object decoded = decode(mapper, encoded, type, typeReference);
+    assertEquals(value, decoded);
+
+    for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+      decode(mapper, mapper.writeValueAsBytes(value), type, typeReference);
+    }
+
+    long encodeNanos = 0;
+    long decodeNanos = 0;
+    long sink = 0;
+    for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+      long start = System.nanoTime();
+      byte[] bytes = mapper.writeValueAsBytes(value);
+      long encodedAt = System.nanoTime();
+      Object result = decode(mapper, bytes, type, typeReference);
+      long decodedAt = System.nanoTime();
+      encodeNanos += encodedAt - start;
+      decodeNanos += decodedAt - encodedAt;
+      sink += bytes.length + result.hashCode();
+    }
+    if (sink == 42) {
+      System.out.println(sink);
+    }
+    return new long[] {
+      encoded.length, encodeNanos / MEASURED_ITERATIONS, decodeNanos / MEASURED_ITERATIONS
+    };
+  }
+
+  private static Object decode(
+      ObjectMapper mapper, byte[] bytes, Class<?> type, TypeReference<?> typeReference)
+      throws Exception {
+    return type != null ? mapper.readValue(bytes, type) : mapper.readValue(bytes, typeReference);
+  }
+}
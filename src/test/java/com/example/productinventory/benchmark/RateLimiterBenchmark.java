@@ -0,0 +1,122 @@
+package com.example.productinventory.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.example.productinventory.limit.EndpointClass;
+import com.example.productinventory.limit.RateLimit;
+import com.example.productinventory.limit.RateLimitFilter;
+import com.example.productinventory.limit.RateLimiter;
+import com.example.productinventory.limit.TokenBucket;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * Measures the cost the per-client rate limiter adds to a request: a single token bucket
+ * acquisition, the same under contention from several threads, and the whole filter compared with a
+ * request that passes no filter. Limits are set high enough that nothing is refused. Run with
+ * {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+public class RateLimiterBenchmark {
+
+  private static final int WARMUP_ITERATIONS = 200_000;
+  private static final int MEASURED_ITERATIONS = 2_000_000;
+  private static final int THREADS = 4;
+  private static final int CLIENTS = 1_000;
+
+  /** Runs each scenario and prints its mean time per operation. */
+  @Test
+  void measureOverhead() throws Exception {
+    System.out.printf("%-34s %10s%n", "scenario", "ns/op");
+
+    TokenBucket bucket = new TokenBucket(1_000_000_000L, 1e9, System.nanoTime());
+    report("bucket acquire, 1 thread", measure(() -> bucket.tryAcquire(System.nanoTime())));
+    report("bucket acquire, shared by " + THREADS, contended(bucket));
+
+    RateLimiter rateLimiter =
+        new RateLimiter(Map.of(EndpointClass.READ, new RateLimit(1_000_000_000L, 1e9)));
+    RateLimitFilter filter = new RateLimitFilter(rateLimiter, new ObjectMapper());
+    List<MockHttpServletRequest> requests = new ArrayList<>();
+    for (int i = 0; i < CLIENTS; i++) {
+      MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/products/1");
+      request.setRemoteAddr("10.0." + (i / 256) + "." + (i % 256));
+      requests.add(request);
+    }
+    FilterChain chain = (request, response) -> {};
+    int[] next = {0};
+
+    long baseline =
+        measure(
+            () -> {
+              MockHttpServletRequest request = requests.get(next[0]++ % CLIENTS);
+              chain.doFilter(request, new MockHttpServletResponse());
+              return 0;
+            });
+    report("no filter (mock request/response)", baseline);
+    long filtered =
+        measure(
+            () -> {
+              MockHttpServletRequest request = requests.get(next[0]++ % CLIENTS);
+              MockHttpServletResponse response = new MockHttpServletResponse();
+              filter.doFilter(request, response, chain);
+              return response.getStatus();
+            });
+    report("rate limit filter, " + CLIENTS + " clients", filtered);
+    report("rate limit overhead", filtered - baseline);
+
+    assertEquals(0, rateLimiter.getRejected(EndpointClass.READ));
+    assertEquals(CLIENTS, rateLimiter.getClients(EndpointClass.READ));
+  }
+
+  private interface Operation {
+    long run() throws Exception;
+  }
+
+  private static void report(String scenario, long nanosPerOp) {
+    System.out.printf("%-34s %10d%n", scenario, nanosPerOp);
+  }
+
+  private static long measure(Operation operation) throws Exception {
+    long sink = 0;
+    for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+      sink += operation.run();
+    }
+    long start = System.nanoTime();
+    for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+      sink += operation.run();
+    }
+    long elapsed = System.nanoTime() - start;
+    if (sink == 42) {
+      System.out.println(sink);
+    }
+    return elapsed / MEASURED_ITERATIONS;
+  }
+
+  private static long contended(TokenBucket bucket) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try {
+      List<Callable<Long>> tasks = new ArrayList<>();
+      for (int t = 0; t < THREADS; t++) {
+        tasks.add(() -> measure(() -> bucket.tryAcquire(System.nanoTime())));
+      }
+      long total = 0;
+      for (Future<Long> result : executor.invokeAll(tasks)) {
+        total += result.get();
+      }
+      return total / THREADS;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
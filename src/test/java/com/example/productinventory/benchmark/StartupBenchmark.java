@@ -0,0 +1,187 @@
+package com.example.productinventory.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Measures the time from launching the JVM to the first successful product lookup, for the plain
+ * application and with Spring AOT-processed classes and the class data sharing archive. Each
+ * configuration is started in a fresh JVM several times and the median is reported; the slowest
+ * startup steps recorded at {@code /actuator/startup} are printed for the plain start. Needs the
+ * layout built by {@code mvn package -Paot -DskipTests}; run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+public class StartupBenchmark {
+
+  private static final Path CDS_DIRECTORY = Path.of("target", "cds");
+  private static final Path ARCHIVE = CDS_DIRECTORY.resolve("application.jsa");
+  /**
+   * The archive only applies when the class path matches the training run's, so the application is
+   * started from the same directory with the same relative jar path.
+   */
+  private static final String SHARED_ARCHIVE = "-XX:SharedArchiveFile=" + ARCHIVE.getFileName();
+
+  private static final int RUNS = 3;
+  private static final long TIMEOUT_MILLIS = 120_000;
+  private static final int SLOWEST_STEPS = 8;
+
+  private final HttpClient client = HttpClient.newHttpClient();
+
+  /** Starts each configuration and prints the median time to the first successful request. */
+  @Test
+  void measureTimeToFirstRequest() throws Exception {
+    Path jar = findJar();
+    assumeTrue(
+        jar != null && Files.exists(ARCHIVE),
+        "Build the AOT and CDS layout first: mvn package -Paot -DskipTests");
+
+    System.out.printf("%-26s %12s %12s%n", "configuration", "median ms", "min ms");
+    measure("plain", jar, List.of(), true);
+    measure("AOT", jar, List.of("-Dspring.aot.enabled=true"), false);
+    measure("CDS", jar, List.of(SHARED_ARCHIVE), false);
+    measure("AOT + CDS", jar, List.of(SHARED_ARCHIVE, "-Dspring.aot.enabled=true"), false);
+  }
+
+  private void measure(String name, Path jar, List<String> jvmOptions, boolean printSteps)
+      throws Exception {
+    long[] millis = new long[RUNS];
+    for (int i = 0; i < RUNS; i++) {
+      millis[i] = startAndTime(jar, jvmOptions, printSteps && i == RUNS - 1);
+    }
+    Arrays.sort(millis);
+    System.out.printf("%-26s %12d %12d%n", name, millis[RUNS / 2], millis[0]);
+  }
+
+  /** Launches the application and polls a lookup until it succeeds, then stops the JVM. */
+  private long startAndTime(Path jar, List<String> jvmOptions, boolean printSteps)
+      throws Exception {
+    int port = freePort();
+    Path scratch = Files.createTempDirectory("startup-benchmark");
+    List<String> command = new ArrayList<>();
+    command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+    command.addAll(jvmOptions);
+    command.addAll(
+        List.of(
+            "-jar",
+            jar.getFileName().toString(),
+            "--server.port=" + port,
+            "--logging.level.root=WARN",
+            "--product.search.index-path=" + scratch.resolve("search-index")));
+    URI uri = URI.create("http://localhost:" + port + "/api/v1/products/1");
+
+    long start = System.nanoTime();
+    Process process =
+        new ProcessBuilder(command)
+            .directory(CDS_DIRECTORY.toFile())
+            .redirectErrorStream(true)
+            .redirectOutput(scratch.resolve("out.log").toFile())
+            .start();
+    try {
+      while (!succeeds(uri)) {
+        assertTrue(process.isAlive(), () -> "Application exited with " + process.exitValue());
+        assertTrue(
+            System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(TIMEOUT_MILLIS),
+            "Application did not answer within " + TIMEOUT_MILLIS + " ms");
+        Thread.sleep(10);
+      }
+      long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+      if (printSteps) {
+        printSlowestSteps(port);
+      }
+      return elapsed;
+    } finally {
+      process.destroy();
+      process.waitFor(30, TimeUnit.SECONDS);
+      deleteRecursively(scratch);
+    }
+  }
+
+  private boolean succeeds(URI uri) throws IOException, InterruptedException {
+    try {
+      HttpResponse<Void> response =
+          client.send(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.discarding());
+      return response.statusCode() == 200;
+    } catch (ConnectException e) {
+      return false;
+    }
+  }
+
+  /** Prints the startup steps that took longest, as recorded by the buffering startup. */
+  private void printSlowestSteps(int port) throws IOException, InterruptedException {
+    HttpResponse<String> response =
+        client.send(
+            HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/actuator/startup"))
+                .build(),
+            HttpResponse.BodyHandlers.ofString());
+    List<JsonNode> events = new ArrayList<>();
+    new ObjectMapper()
+        .readTree(response.body())
+        .path("timeline")
+        .path("events")
+        .forEach(events::add);
+    events.sort(
+        Comparator.comparing((JsonNode event) -> parseMillis(event.path("duration"))).reversed());
+    System.out.println("slowest startup steps of the plain start:");
+    for (JsonNode event : events.subList(0, Math.min(SLOWEST_STEPS, events.size()))) {
+      JsonNode step = event.path("startupStep");
+      String bean = "";
+      for (JsonNode tag : step.path("tags")) {
+        if ("beanName".equals(tag.path("key").asText())) {
+          bean = " " + tag.path("value").asText();
+        }
+      }
+      System.out.printf(
+          "  %8d ms  %s%s%n",
+          parseMillis(event.path("duration")), step.path("name").asText(), bean);
+    }
+  }
+
+  /** Parses an ISO-8601 duration such as {@code PT1.234S} into milliseconds. */
+  private static long parseMillis(JsonNode duration) {
+    return Duration.parse(duration.asText()).toMillis();
+  }
+
+  private static Path findJar() throws IOException {
+    if (!Files.isDirectory(CDS_DIRECTORY)) {
+      return null;
+    }
+    try (Stream<Path> files = Files.list(CDS_DIRECTORY)) {
+      return files.filter(file -> file.toString().endsWith("-cds.jar")).findFirst().orElse(null);
+    }
+  }
+
+  private static int freePort() throws IOException {
+    try (ServerSocket socket = new ServerSocket(0)) {
+      return socket.getLocalPort();
+    }
+  }
+
+  private static void deleteRecursively(Path directory) throws IOException {
+    try (Stream<Path> paths = Files.walk(directory)) {
+      for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+        Files.delete(path);
+      }
+    }
+  }
+}
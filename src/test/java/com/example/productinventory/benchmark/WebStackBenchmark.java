@@ -0,0 +1,138 @@
+package com.example.productinventory.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.example.productinventory.ProductInventoryApplication;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Compares the servlet stack (Tomcat, JPA over JDBC) with the reactive mode (Netty, R2DBC) under
+ * high concurrency. Each mode is started on a random port in turn and driven with a fixed number of
+ * requests in flight against the lookup by ID and a listing page; the rate limiter, concurrency
+ * limiter and bulkheads are switched off so that only the stacks themselves are compared. Run with
+ * {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+public class WebStackBenchmark {
+
+  private static final int IN_FLIGHT = 256;
+  private static final Duration WARMUP = Duration.ofSeconds(5);
+  private static final Duration MEASURED = Duration.ofSeconds(10);
+
+  /** Runs each scenario against both stacks and prints throughput and latency percentiles. */
+  @Test
+  void compareStacks() throws Exception {
+    System.out.printf(
+        "%-10s %-22s %10s %9s %9s %9s%n",
+        "stack", "endpoint", "req/s", "p50 ms", "p99 ms", "errors");
+    for (WebApplicationType type :
+        new WebApplicationType[] {WebApplicationType.SERVLET, WebApplicationType.REACTIVE}) {
+      try (ConfigurableApplicationContext context = start(type)) {
+        String base =
+            "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        HttpClient client =
+            HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Runnable::run)
+                .build();
+        for (String path : new String[] {"/api/v1/products/1", "/api/v1/products?size=5"}) {
+          URI uri = URI.create(base + path);
+          run(client, uri, WARMUP);
+          Result result = run(client, uri, MEASURED);
+          System.out.printf(
+              "%-10s %-22s %10.0f %9.2f %9.2f %9d%n",
+              type.name().toLowerCase(),
+              path.substring("/api/v1/products".length()),
+              result.throughput(),
+              result.percentile(0.50),
+              result.percentile(0.99),
+              result.errors);
+          assertEquals(0, result.errors);
+        }
+      }
+    }
+  }
+
+  private static ConfigurableApplicationContext start(WebApplicationType type) {
+    return new SpringApplicationBuilder(ProductInventoryApplication.class)
+        .web(type)
+        .run(
+            "--server.port=0",
+            "--logging.level.root=WARN",
+            "--product.rate-limit.enabled=false",
+            "--product.concurrency-limit.enabled=false",
+            "--product.bulkhead.enabled=false",
+            "--product.search.enabled=false",
+            "--product.autocomplete.enabled=false",
+            "--product.slow-query.enabled=false");
+  }
+
+  /** Keeps {@link #IN_FLIGHT} requests outstanding for the given duration. */
+  private static Result run(HttpClient client, URI uri, Duration duration)
+      throws InterruptedException {
+    HttpRequest request = HttpRequest.newBuilder(uri).header("Accept", "application/json").build();
+    Semaphore slots = new Semaphore(IN_FLIGHT);
+    ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+    AtomicInteger errors = new AtomicInteger();
+    long start = System.nanoTime();
+    long end = start + duration.toNanos();
+    while (System.nanoTime() < end) {
+      slots.acquire();
+      long sent = System.nanoTime();
+      client
+          .sendAsync(request, HttpResponse.BodyHandlers.discarding())
+          .whenComplete(
+              (response, failure) -> {
+                if (failure != null || response.statusCode() != 200) {
+                  if (errors.incrementAndGet() < 5)
+                    System.out.println(
+                        "ERR " + failure + " " + (response == null ? "" : response.statusCode()));
+                } else {
+                  latencies.add(System.nanoTime() - sent);
+                }
+                slots.release();
+              });
+    }
+    slots.acquire(IN_FLIGHT);
+    long elapsed = System.nanoTime() - start;
+    long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+    return new Result(sorted, elapsed, errors.get());
+  }
+
+  private static final class Result {
+
+    private final long[] sortedLatencies;
+    private final long elapsedNanos;
+    private final int errors;
+
+    Result(long[] sortedLatencies, long elapsedNanos, int errors) {
+      this.sortedLatencies = sortedLatencies;
+      this.elapsedNanos = elapsedNanos;
+      this.errors = errors;
+    }
+
+    double throughput() {
+      return sortedLatencies.length * 1e9 / elapsedNanos;
+    }
+
+    double percentile(double p) {
+      if (sortedLatencies.length == 0) {
+        return Double.NaN;
+      }
+      int index = (int) Math.min(sortedLatencies.length - 1, p * sortedLatencies.length);
+      return sortedLatencies[index] / 1e6;
+    }
+  }
+}
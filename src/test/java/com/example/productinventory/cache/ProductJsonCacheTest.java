@@ -0,0 +1,81 @@
+package com.example.productinventory.cache;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.productinventory.model.Product;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.math.BigDecimal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for the {@link ProductJsonCache}. */
+public class ProductJsonCacheTest {
+
+  private ObjectMapper objectMapper;
+
+  @BeforeEach
+  void setUp() {
+    objectMapper = new ObjectMapper();
+  }
+
+  private static Product product(long id, int version) {
+    Product product = new Product();
+    product.setId(id);
+    product.setName("Product " + id);
+    product.setPrice(BigDecimal.TEN);
+    product.setQuantity(5);
+    product.setSku("SKU-" + id);
+    product.setVersion(version);
+    return product;
+  }
+
+  /** Test that a second lookup of the same version is served from the cache. */
+  @Test
+  void toJson_sameVersion_returnsCachedBytes() throws Exception {
+    ProductJsonCache cache = new ProductJsonCache(objectMapper, 1 << 20);
+    Product product = product(1, 0);
+
+    byte[] first = cache.toJson(product);
+    byte[] second = cache.toJson(product);
+
+    assertSame(first, second);
+    assertArrayEquals(objectMapper.writeValueAsBytes(product), first);
+    assertEquals(1, cache.getHits());
+    assertEquals(1, cache.getMisses());
+  }
+
+  /** Test that a new version is serialized again and replaces the old entry. */
+  @Test
+  void toJson_newVersion_reserializes() throws Exception {
+    ProductJsonCache cache = new ProductJsonCache(objectMapper, 1 << 20);
+    byte[] first = cache.toJson(product(1, 0));
+
+    Product updated = product(1, 1);
+    updated.setName("Renamed");
+    byte[] second = cache.toJson(updated);
+
+    assertNotSame(first, second);
+    assertTrue(new String(second).contains("Renamed"));
+    assertEquals(1, cache.size());
+    assertEquals(second.length, cache.getTotalBytes());
+  }
+
+  /** Test that the cache stays within its byte bound. */
+  @Test
+  void toJson_overByteBound_evictsEntries() throws Exception {
+    int entrySize = objectMapper.writeValueAsBytes(product(1, 0)).length;
+    ProductJsonCache cache = new ProductJsonCache(objectMapper, entrySize * 3L);
+
+    for (long id = 1; id <= 10; id++) {
+      cache.toJson(product(id, 0));
+    }
+
+    assertTrue(cache.getTotalBytes() <= entrySize * 3L);
+    assertTrue(cache.size() <= 3);
+    assertTrue(cache.getEvictions() >= 7);
+  }
+}
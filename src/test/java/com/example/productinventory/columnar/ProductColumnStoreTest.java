@@ -0,0 +1,148 @@
+package com.example.productinventory.columnar;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.productinventory.event.ProductChangedEvent;
+import com.example.productinventory.event.ProductState;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+import org.flywaydb.core.Flyway;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/** Unit tests for the {@link ProductColumnStore}. */
+public class ProductColumnStoreTest {
+
+  private JdbcTemplate jdbcTemplate;
+
+  /** Migrates a private in-memory database, which seeds the five initial products. */
+  @BeforeEach
+  void setUp() {
+    JdbcDataSource dataSource = new JdbcDataSource();
+    dataSource.setURL("jdbc:h2:mem:columnar;DB_CLOSE_DELAY=-1");
+    Flyway flyway =
+        Flyway.configure()
+            .dataSource(dataSource)
+            .locations("classpath:db/migration")
+            .cleanDisabled(false)
+            .load();
+    flyway.clean();
+    flyway.migrate();
+    jdbcTemplate = new JdbcTemplate(dataSource);
+  }
+
+  private static ProductState state(long id, String price, int quantity) {
+    return new ProductState(
+        id, "SKU-" + id, "Product " + id, null, new BigDecimal(price), quantity, null, 0);
+  }
+
+  @Test
+  void load_matchesDatabaseRangeQueries() {
+    ProductColumnStore store = new ProductColumnStore(jdbcTemplate, 65536);
+    store.load();
+    assertTrue(store.isLoaded());
+    assertEquals(5, store.size());
+
+    IdPage page =
+        store
+            .findIds(
+                new BigDecimal("50"),
+                new BigDecimal("1000"),
+                null,
+                null,
+                null,
+                PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "price")))
+            .orElseThrow();
+    List<Long> expected =
+        jdbcTemplate.queryForList(
+            "SELECT id FROM products WHERE price BETWEEN 50 AND 1000 ORDER BY price DESC",
+            Long.class);
+    assertEquals(expected, page.getIds());
+    assertEquals(expected.size(), page.getTotal());
+  }
+
+  @Test
+  void findIds_filtersByCategory() {
+    jdbcTemplate.update("UPDATE products SET category_id = 2 WHERE id IN (2, 4)");
+    ProductColumnStore store = new ProductColumnStore(jdbcTemplate, 65536);
+    store.load();
+
+    IdPage monitors = store.findIds(null, null, null, null, 2L, PageRequest.of(0, 10)).get();
+    assertEquals(List.of(2L, 4L), monitors.getIds());
+    IdPage laptops = store.findIds(null, null, 5, null, 1L, PageRequest.of(0, 10)).get();
+    assertEquals(List.of(1L), laptops.getIds());
+  }
+
+  @Test
+  void findIds_withUnsupportedSort_returnsEmpty() {
+    ProductColumnStore store = new ProductColumnStore(jdbcTemplate, 65536);
+    store.load();
+    assertTrue(
+        store.findIds(null, null, 0, 10, null, PageRequest.of(0, 10, Sort.by("name"))).isEmpty());
+  }
+
+  @Test
+  void changeEvents_keepParallelScansConsistentWithBruteForce() {
+    jdbcTemplate.update("DELETE FROM products");
+    ProductColumnStore store = new ProductColumnStore(jdbcTemplate, 1);
+    store.load();
+
+    Random random = new Random(42);
+    List<ProductState> products = new ArrayList<>();
+    for (long id = 1; id <= 40_000; id++) {
+      ProductState product =
+          state(id, random.nextInt(100_000) / 100 + 1 + ".99", random.nextInt(500));
+      products.add(product);
+      store.onProductChanged(ProductChangedEvent.created(product));
+    }
+    for (int i = 0; i < 5_000; i++) {
+      ProductState removed = products.remove(random.nextInt(products.size()));
+      store.onProductChanged(ProductChangedEvent.deleted(removed));
+    }
+    ProductState changed = products.get(0);
+    ProductState moved = state(changed.getId(), "0.50", 7);
+    products.set(0, moved);
+    store.onProductChanged(ProductChangedEvent.updated(changed, moved));
+    assertEquals(products.size(), store.size());
+
+    Pageable pageable = PageRequest.of(3, 25, Sort.by(Sort.Direction.ASC, "quantity"));
+    IdPage page =
+        store
+            .findIds(new BigDecimal("0.50"), new BigDecimal("400.00"), 5, 250, null, pageable)
+            .get();
+    List<Integer> expected =
+        products
+            .stream()
+            .filter(p -> p.getPrice().compareTo(new BigDecimal("400.00")) <= 0)
+            .map(ProductState::getQuantity)
+            .filter(q -> q >= 5 && q <= 250)
+            .sorted()
+            .toList();
+    Map<Long, Integer> quantityById =
+        products.stream().collect(Collectors.toMap(ProductState::getId, ProductState::getQuantity));
+    assertEquals(expected.size(), page.getTotal());
+    assertEquals(expected.subList(75, 100), page.getIds().stream().map(quantityById::get).toList());
+
+    IdPage byId =
+        store
+            .findIds(
+                new BigDecimal("0.50"),
+                new BigDecimal("0.50"),
+                null,
+                null,
+                null,
+                PageRequest.of(0, 10))
+            .get();
+    assertEquals(List.of(moved.getId()), byId.getIds());
+  }
+}
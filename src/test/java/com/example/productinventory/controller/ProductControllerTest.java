@@ -1,25 +1,39 @@
 package com.example.productinventory.controller;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.when;
 
+import com.example.productinventory.cache.ProductJsonCache;
 import com.example.productinventory.dto.ProductDTO;
 import com.example.productinventory.exception.ProductBadRequestException;
 import com.example.productinventory.exception.ProductConflictException;
 import com.example.productinventory.exception.ProductNotFoundException;
 import com.example.productinventory.exception.ProductOptimisticLockException;
+import com.example.productinventory.exception.ProductUnprocessableEntityException;
+import com.example.productinventory.facet.FacetBucket;
+import com.example.productinventory.facet.ProductFacets;
 import com.example.productinventory.model.Product;
 import com.example.productinventory.service.ProductService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
 import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.reactive.server.WebTestClient;
 
@@ -29,6 +43,8 @@ public class ProductControllerTest {
 
   @Autowired private WebTestClient webTestClient;
 
+  @Autowired private ProductJsonCache productJsonCache;
+
   @MockBean private ProductService productService;
 
   private ProductDTO productDTO;
@@ -58,6 +74,7 @@ public class ProductControllerTest {
     product.setSku("TEST-SKU");
     product.setWeight(new BigDecimal("1.5"));
     product.setDimensions("30x20x5");
+    product.setVersion(0);
   }
 
   /**
@@ -128,6 +145,45 @@ public class ProductControllerTest {
         .isEqualTo("A product with SKU TEST-SKU already exists.");
   }
 
+  /**
+   * Test that the product returned by a create is not cached, so a later read returns the stored
+   * price rather than the unrounded price from the request.
+   */
+  @Test
+  void createProduct_thenGet_returnsStoredPrice() {
+    Product created = new Product();
+    created.setId(7L);
+    created.setSku("TEST-SKU-7");
+    created.setPrice(new BigDecimal("10.999"));
+    created.setVersion(0);
+    Product stored = new Product();
+    stored.setId(7L);
+    stored.setSku("TEST-SKU-7");
+    stored.setPrice(new BigDecimal("11.00"));
+    stored.setVersion(0);
+    when(productService.createProduct(any(ProductDTO.class))).thenReturn(created);
+    when(productService.getProductById(7L)).thenReturn(stored);
+
+    webTestClient
+        .post()
+        .uri("/api/v1/products")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(productDTO)
+        .exchange()
+        .expectStatus()
+        .isCreated();
+
+    webTestClient
+        .get()
+        .uri("/api/v1/products/7")
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectBody()
+        .jsonPath("$.price")
+        .isEqualTo(11.0);
+  }
+
   /**
    * Test retrieving a product by its existing ID. Expects a 200 OK response with the product
    * details.
@@ -169,6 +225,196 @@ public class ProductControllerTest {
         .isEqualTo("Product not found with ID: 1");
   }
 
+  /**
+   * Test retrieving several products by ID. Expects a 200 OK response with the products in the
+   * requested order.
+   */
+  @Test
+  void getProductsByIds_existingIds_returnsProducts() {
+    Product other = new Product();
+    other.setId(2L);
+    other.setName("Other Product");
+    other.setSku("OTHER-SKU");
+    other.setVersion(3);
+    when(productService.getProductsByIds(List.of(2L, 1L))).thenReturn(List.of(other, product));
+
+    webTestClient
+        .get()
+        .uri("/api/v1/products/batch?ids=2,1")
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectBody()
+        .jsonPath("$.length()")
+        .isEqualTo(2)
+        .jsonPath("$[0].id")
+        .isEqualTo(2)
+        .jsonPath("$[1].name")
+        .isEqualTo(product.getName());
+  }
+
+  /**
+   * Test retrieving a page of products. Expects a 200 OK response whose items and page metadata are
+   * written from the product JSON cache.
+   */
+  @Test
+  void getAllProducts_returnsPaginatedResponse() {
+    Pageable pageable = PageRequest.of(0, 10);
+    when(productService.getAllProducts(any(Pageable.class), eq("name")))
+        .thenReturn(new PageImpl<>(List.of(product), pageable, 1));
+
+    webTestClient
+        .get()
+        .uri("/api/v1/products?page=0&size=10&sortBy=name&direction=asc")
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectBody()
+        .jsonPath("$.items[0].id")
+        .isEqualTo(product.getId())
+        .jsonPath("$.items[0].sku")
+        .isEqualTo(product.getSku())
+        .jsonPath("$.currentPage")
+        .isEqualTo(0)
+        .jsonPath("$.totalItems")
+        .isEqualTo(1)
+        .jsonPath("$.itemsPerPage")
+        .isEqualTo(10);
+
+    long misses = productJsonCache.getMisses();
+    long hits = productJsonCache.getHits();
+    webTestClient.get().uri("/api/v1/products").exchange().expectStatus().isOk();
+    assertEquals(misses, productJsonCache.getMisses());
+    assertEquals(hits + 1, productJsonCache.getHits());
+  }
+
+  /**
+   * Test retrieving selected fields of a product. Expects a 200 OK response with only those fields.
+   */
+  @Test
+  void getProductById_withFields_returnsOnlyRequestedFields() {
+    Map<String, Object> fields = new LinkedHashMap<>();
+    fields.put("id", 1L);
+    fields.put("sku", product.getSku());
+    when(productService.getProductFieldsById(1L, List.of("id", "sku"))).thenReturn(fields);
+
+    webTestClient
+        .get()
+        .uri("/api/v1/products/1?fields=id,sku")
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectBody()
+        .jsonPath("$.id")
+        .isEqualTo(1)
+        .jsonPath("$.sku")
+        .isEqualTo(product.getSku())
+        .jsonPath("$.name")
+        .doesNotExist()
+        .jsonPath("$.description")
+        .doesNotExist();
+  }
+
+  /**
+   * Test a search that asks for facets. Expects the page and only the requested facets, and no
+   * facets when none are requested.
+   */
+  @Test
+  void searchProducts_withFacets_returnsPageAndRequestedFacets() {
+    when(productService.searchProductsByCriteria(
+            any(), eq(new BigDecimal("100")), any(), any(), any(), any(), any(Pageable.class)))
+        .thenReturn(new PageImpl<>(List.of(product), PageRequest.of(0, 10), 1));
+    when(productService.getProductFacets(
+            eq(List.of("stock")), any(), eq(new BigDecimal("100")), any(), any(), any(), any()))
+        .thenReturn(
+            new ProductFacets(
+                null,
+                List.of(
+                    new FacetBucket("in", 1), new FacetBucket("low", 0), new FacetBucket("out", 0)),
+                null));
+
+    webTestClient
+        .get()
+        .uri("/api/v1/products/search?minPrice=100&facets=stock")
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectBody()
+        .jsonPath("$.items[0].sku")
+        .isEqualTo(product.getSku())
+        .jsonPath("$.facets.stock[0].key")
+        .isEqualTo("in")
+        .jsonPath("$.facets.stock[0].count")
+        .isEqualTo(1)
+        .jsonPath("$.facets.price")
+        .doesNotExist();
+
+    webTestClient
+        .get()
+        .uri("/api/v1/products/search?minPrice=100")
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectBody()
+        .jsonPath("$.facets")
+        .doesNotExist();
+  }
+
+  /**
+   * Test retrieving a product as CBOR. Expects the same fields as the JSON representation, with
+   * dates as ISO strings.
+   */
+  @Test
+  void getProductById_acceptCbor_returnsCborPayload() throws Exception {
+    when(productService.getProductById(1L)).thenReturn(product);
+
+    byte[] body =
+        webTestClient
+            .get()
+            .uri("/api/v1/products/1")
+            .accept(MediaType.APPLICATION_CBOR)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .contentType(MediaType.APPLICATION_CBOR)
+            .expectBody(byte[].class)
+            .returnResult()
+            .getResponseBody();
+
+    JsonNode node = new CBORMapper().readTree(body);
+    assertEquals(1L, node.get("id").asLong());
+    assertEquals(product.getSku(), node.get("sku").asText());
+    assertEquals(0, BigDecimal.TEN.compareTo(node.get("price").decimalValue()));
+  }
+
+  /**
+   * Test creating a product from a Smile request body and reading the Smile response. Expects a 201
+   * Created response.
+   */
+  @Test
+  void createProduct_smilePayload_returnsCreated() throws Exception {
+    when(productService.createProduct(any(ProductDTO.class))).thenReturn(product);
+    MediaType smile = MediaType.parseMediaType("application/x-jackson-smile");
+    SmileMapper smileMapper = new SmileMapper();
+
+    byte[] body =
+        webTestClient
+            .post()
+            .uri("/api/v1/products")
+            .contentType(smile)
+            .accept(smile)
+            .bodyValue(smileMapper.writeValueAsBytes(productDTO))
+            .exchange()
+            .expectStatus()
+            .isCreated()
+            .expectBody(byte[].class)
+            .returnResult()
+            .getResponseBody();
+
+    assertEquals(product.getName(), smileMapper.readTree(body).get("name").asText());
+  }
+
   /**
    * Test updating a product with an existing ID and valid version. Expects a 200 OK response with
    * the updated product details.
@@ -237,6 +483,29 @@ public class ProductControllerTest {
         .isEqualTo("Product data has been updated by another user.");
   }
 
+  /**
+   * Test removing more stock than is available. Expects a 422 Unprocessable Entity response with an
+   * error message.
+   */
+  @Test
+  void adjustStock_insufficientStock_returnsUnprocessableEntity() {
+    when(productService.adjustStock(1L, -20))
+        .thenThrow(
+            new ProductUnprocessableEntityException("Insufficient stock: 10 units available."));
+
+    webTestClient
+        .post()
+        .uri("/api/v1/products/1/stock")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(Map.of("delta", -20))
+        .exchange()
+        .expectStatus()
+        .isEqualTo(422)
+        .expectBody()
+        .jsonPath("$.message")
+        .isEqualTo("Insufficient stock: 10 units available.");
+  }
+
   /** Test deleting a product with an existing ID. Expects a 204 No Content response. */
   @Test
   void deleteProduct_existingId_returnsNoContent() {
@@ -270,4 +539,31 @@ public class ProductControllerTest {
         .jsonPath("$.message")
         .isEqualTo("Product not found with ID: 1");
   }
+
+  @Test
+  void deleteProducts_byIdsAndByCriteria_returnDeletedCount() {
+    when(productService.deleteProducts(List.of(1L, 2L, 3L))).thenReturn(2);
+    when(productService.deleteProductsByCriteria(any(), any(), any(), any(), eq(0), eq(3L)))
+        .thenReturn(4);
+
+    webTestClient
+        .delete()
+        .uri("/api/v1/products/batch?ids=1,2,3")
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectBody()
+        .jsonPath("$.deleted")
+        .isEqualTo(2);
+
+    webTestClient
+        .delete()
+        .uri("/api/v1/products/search?maxQuantity=0&categoryId=3")
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectBody()
+        .jsonPath("$.deleted")
+        .isEqualTo(4);
+  }
 }
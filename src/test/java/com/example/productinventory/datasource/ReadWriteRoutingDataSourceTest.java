@@ -0,0 +1,158 @@
+package com.example.productinventory.datasource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.Cookie;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import javax.sql.DataSource;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Unit tests for the {@link ReadWriteRoutingDataSource} and {@link ReplicaLagMonitor}, with two
+ * in-memory H2 databases standing in for the primary and the replica. Replication is simulated by
+ * copying the heartbeat row.
+ */
+public class ReadWriteRoutingDataSourceTest {
+
+  private JdbcTemplate primary;
+  private JdbcTemplate replica;
+  private ReplicaLagMonitor monitor;
+  private JdbcTemplate routed;
+  private TransactionTemplate readOnly;
+  private TransactionTemplate readWrite;
+
+  @BeforeEach
+  void setUp() {
+    DataSource primaryDataSource = database("routing-primary");
+    DataSource replicaDataSource = database("routing-replica");
+    primary = new JdbcTemplate(primaryDataSource);
+    replica = new JdbcTemplate(replicaDataSource);
+
+    monitor = new ReplicaLagMonitor(primaryDataSource, replicaDataSource, 1000, 60_000);
+    DataSource routing =
+        new LazyConnectionDataSourceProxy(
+            new ReadWriteRoutingDataSource(primaryDataSource, replicaDataSource, monitor));
+    routed = new JdbcTemplate(routing);
+    DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(routing);
+    readOnly = new TransactionTemplate(transactionManager);
+    readOnly.setReadOnly(true);
+    readWrite = new TransactionTemplate(transactionManager);
+  }
+
+  private static DataSource database(String name) {
+    JdbcDataSource dataSource = new JdbcDataSource();
+    dataSource.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+    JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+    jdbc.execute("DROP ALL OBJECTS");
+    jdbc.execute("CREATE TABLE replica_heartbeat (id INT PRIMARY KEY, beat BIGINT NOT NULL)");
+    jdbc.execute("INSERT INTO replica_heartbeat VALUES (1, 0)");
+    jdbc.execute("CREATE TABLE origin (name VARCHAR(50))");
+    jdbc.update("INSERT INTO origin VALUES (?)", name);
+    return dataSource;
+  }
+
+  private String origin(TransactionTemplate template) {
+    return template.execute(
+        status -> routed.queryForObject("SELECT name FROM origin", String.class));
+  }
+
+  /** Copies the primary heartbeat to the replica, as replication would. */
+  private void replicate() {
+    Long beat = primary.queryForObject("SELECT beat FROM replica_heartbeat", Long.class);
+    replica.update("UPDATE replica_heartbeat SET beat = ?", beat);
+  }
+
+  private static ReadConsistencyFilter readConsistencyFilter(long nowMs) {
+    return new ReadConsistencyFilter(
+        1500, Clock.fixed(Instant.ofEpochMilli(nowMs), ZoneOffset.UTC));
+  }
+
+  @Test
+  void readOnlyTransaction_freshReplica_routesToReplica() {
+    monitor.check();
+    replicate();
+    monitor.check();
+
+    assertTrue(monitor.isReplicaUsable());
+    assertEquals("routing-replica", origin(readOnly));
+    assertEquals("routing-primary", origin(readWrite));
+  }
+
+  @Test
+  void readOnlyTransaction_laggingReplica_fallsBackToPrimary() {
+    monitor.check();
+
+    assertFalse(monitor.isReplicaUsable());
+    assertTrue(monitor.getLagMs() > 1000);
+    assertEquals("routing-primary", origin(readOnly));
+  }
+
+  @Test
+  void readOnlyTransaction_primaryReadsScope_routesToPrimary() {
+    monitor.check();
+    replicate();
+    monitor.check();
+
+    try (ReadWriteRoutingDataSource.PrimaryReads ignored =
+        ReadWriteRoutingDataSource.primaryReads()) {
+      assertEquals("routing-primary", origin(readOnly));
+    }
+    assertEquals("routing-replica", origin(readOnly));
+  }
+
+  @Test
+  void readConsistencyFilter_pinsReadsToPrimaryAfterAWrite() throws Exception {
+    monitor.check();
+    replicate();
+    monitor.check();
+    ReadConsistencyFilter filter = readConsistencyFilter(10_000);
+    String[] seen = new String[1];
+    FilterChain chain = (request, response) -> seen[0] = origin(readOnly);
+
+    MockHttpServletResponse written = new MockHttpServletResponse();
+    filter.doFilter(new MockHttpServletRequest("PUT", "/api/v1/products/1"), written, chain);
+    Cookie lastWrite = written.getCookie(ReadConsistencyFilter.LAST_WRITE_COOKIE);
+    assertEquals("10000", lastWrite.getValue());
+
+    MockHttpServletRequest read = new MockHttpServletRequest("GET", "/api/v1/products/1");
+    read.setCookies(lastWrite);
+    filter.doFilter(read, new MockHttpServletResponse(), chain);
+    assertEquals("routing-primary", seen[0]);
+
+    readConsistencyFilter(11_500).doFilter(read, new MockHttpServletResponse(), chain);
+    assertEquals("routing-replica", seen[0]);
+
+    MockHttpServletRequest strong = new MockHttpServletRequest("GET", "/api/v1/products/1");
+    strong.addHeader(ReadConsistencyFilter.HEADER, ReadConsistencyFilter.STRONG);
+    filter.doFilter(strong, new MockHttpServletResponse(), chain);
+    assertEquals("routing-primary", seen[0]);
+
+    MockHttpServletRequest future = new MockHttpServletRequest("GET", "/api/v1/products/1");
+    future.setCookies(new Cookie(ReadConsistencyFilter.LAST_WRITE_COOKIE, "99999999"));
+    filter.doFilter(future, new MockHttpServletResponse(), chain);
+    assertEquals("routing-replica", seen[0]);
+  }
+
+  @Test
+  void check_replicaUnavailable_reportsUnknownLag() {
+    replica.execute("DROP TABLE replica_heartbeat");
+
+    monitor.check();
+
+    assertEquals(ReplicaLagMonitor.UNKNOWN_LAG, monitor.getLagMs());
+    assertFalse(monitor.isReplicaUsable());
+  }
+}
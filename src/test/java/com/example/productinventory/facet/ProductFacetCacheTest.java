@@ -0,0 +1,116 @@
+package com.example.productinventory.facet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import com.example.productinventory.event.ProductChangedEvent;
+import com.example.productinventory.event.ProductState;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+/** Tests for {@link ProductFacetCache} and {@link FacetAccumulator}. */
+public class ProductFacetCacheTest {
+
+  private final ProductFacetCache cache =
+      new ProductFacetCache(new BigDecimal[] {new BigDecimal("500"), new BigDecimal("100")}, 5, 10);
+
+  /** Test that aggregation rows are summed into labelled buckets. */
+  @Test
+  void accumulator_sumsRowsIntoBuckets() {
+    FacetAccumulator accumulator = cache.newAccumulator();
+    accumulator.add(1L, new long[] {1, 2, 0}, new long[] {2, 1, 0});
+    accumulator.add(null, new long[] {0, 0, 1}, new long[] {0, 0, 1});
+    accumulator.add(1L, new long[] {0, 1, 3}, new long[] {4, 0, 0});
+    accumulator.add(2L, new long[] {5, 0, 0}, new long[] {3, 1, 1});
+
+    ProductFacets facets = accumulator.build();
+
+    assertEquals(
+        List.of(
+            new FacetBucket("0-100", 6), new FacetBucket("100-500", 3), new FacetBucket("500+", 4)),
+        facets.getPrice());
+    assertEquals(
+        List.of(new FacetBucket("in", 9), new FacetBucket("low", 2), new FacetBucket("out", 2)),
+        facets.getStock());
+    assertEquals(
+        List.of(new FacetBucket("1", 7), new FacetBucket("2", 5), new FacetBucket("none", 1)),
+        facets.getCategory());
+
+    ProductFacets stockOnly = facets.select(List.of(ProductFacets.STOCK));
+    assertNull(stockOnly.getPrice());
+    assertNull(stockOnly.getCategory());
+    assertEquals(facets.getStock(), stockOnly.getStock());
+  }
+
+  /** Test that totals and separately known category counts build the same facets as rows. */
+  @Test
+  void accumulator_combinesTotalsWithCategoryCounts() {
+    FacetAccumulator accumulator = cache.newAccumulator();
+    accumulator.addTotals(new long[] {6, 3, 4}, new long[] {9, 2, 2});
+    accumulator.addCategory(1L, 7);
+    accumulator.addCategory(2L, 5);
+    accumulator.addCategory(3L, 0);
+    accumulator.addCategory(null, 1);
+
+    ProductFacets facets = accumulator.build();
+
+    assertEquals(
+        List.of(
+            new FacetBucket("0-100", 6), new FacetBucket("100-500", 3), new FacetBucket("500+", 4)),
+        facets.getPrice());
+    assertEquals(
+        List.of(new FacetBucket("in", 9), new FacetBucket("low", 2), new FacetBucket("out", 2)),
+        facets.getStock());
+    assertEquals(
+        List.of(new FacetBucket("1", 7), new FacetBucket("2", 5), new FacetBucket("none", 1)),
+        facets.getCategory());
+  }
+
+  /** Test that equivalent criteria share an entry and product changes clear the cache. */
+  @Test
+  void get_cachesPerNormalizedCriteriaUntilProductsChange() {
+    AtomicInteger computations = new AtomicInteger();
+    ProductFacets facets = cache.newAccumulator().build();
+
+    FacetCriteria first = FacetCriteria.of("Laptop", new BigDecimal("100.00"), null, 1, null, 2L);
+    FacetCriteria second = FacetCriteria.of("LAPTOP", new BigDecimal("1E+2"), null, 1, null, 2L);
+    assertEquals(first, second);
+
+    assertSame(facets, cache.get(first, () -> compute(computations, facets)));
+    assertSame(facets, cache.get(second, () -> compute(computations, facets)));
+    assertEquals(1, computations.get());
+    assertEquals(1, cache.getHits());
+
+    ProductState state = new ProductState(1L, "LAP-1", "Laptop", null, BigDecimal.TEN, 3, 2L, 0);
+    cache.onProductChanged(ProductChangedEvent.created(state));
+    cache.get(first, () -> compute(computations, facets));
+    assertEquals(2, computations.get());
+  }
+
+  /** Test that a result computed while the products changed is not cached. */
+  @Test
+  void get_doesNotCacheResultsRacingAChange() {
+    AtomicInteger computations = new AtomicInteger();
+    ProductFacets facets = cache.newAccumulator().build();
+    FacetCriteria criteria = FacetCriteria.of(null, null, null, null, null, null);
+    ProductState state = new ProductState(1L, "LAP-1", "Laptop", null, BigDecimal.TEN, 3, null, 0);
+
+    cache.get(
+        criteria,
+        () -> {
+          cache.onProductChanged(ProductChangedEvent.deleted(state));
+          return compute(computations, facets);
+        });
+    cache.get(criteria, () -> compute(computations, facets));
+
+    assertEquals(2, computations.get());
+  }
+
+  private static ProductFacets compute(AtomicInteger computations, ProductFacets facets) {
+    computations.incrementAndGet();
+    return facets;
+  }
+}
@@ -0,0 +1,255 @@
+package com.example.productinventory.idempotency;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/** Tests the {@link IdempotencyFilter} and {@link IdempotencyStore} against an in-memory H2. */
+public class IdempotencyFilterTest {
+
+  private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+
+  /** The client identity of requests without an API key: the mock request's remote address. */
+  private static final String CLIENT = "127.0.0.1";
+
+  private JdbcDataSource dataSource;
+  private IdempotencyFilter filter;
+  private final AtomicInteger executions = new AtomicInteger();
+  private volatile int status = 201;
+
+  /** Stands in for the controller: counts how often the operation actually runs. */
+  private final HttpServlet operation =
+      new HttpServlet() {
+        @Override
+        protected void doPost(HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+          int n = executions.incrementAndGet();
+          String body = new String(request.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+          response.setStatus(status);
+          response.setContentType("application/json");
+          response.getWriter().write("{\"run\":" + n + ",\"echo\":" + body + "}");
+        }
+      };
+
+  @BeforeEach
+  void setUp() {
+    dataSource = new JdbcDataSource();
+    dataSource.setURL("jdbc:h2:mem:idempotency-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+    new ResourceDatabasePopulator(
+            new ClassPathResource("db/migration/V5__Create_idempotency_keys_table.sql"))
+        .execute(dataSource);
+    filter = filter(store(NOW, 3));
+  }
+
+  private static IdempotencyFilter filter(IdempotencyStore store) {
+    return new IdempotencyFilter(
+        store, "X-API-Key", new ObjectMapper(), List.of("/api/v1/products"));
+  }
+
+  private IdempotencyStore store(Instant now, int maxRows) {
+    return new IdempotencyStore(
+        dataSource,
+        Clock.fixed(now, ZoneOffset.UTC),
+        Duration.ofHours(1),
+        Duration.ofMinutes(1),
+        maxRows,
+        2,
+        100);
+  }
+
+  private MockHttpServletResponse post(String key, String body) throws Exception {
+    return post(key, body, null);
+  }
+
+  private MockHttpServletResponse post(String key, String body, String apiKey) throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/products");
+    request.setContent(body.getBytes(StandardCharsets.UTF_8));
+    request.setContentType("application/json");
+    if (key != null) {
+      request.addHeader(IdempotencyFilter.HEADER, key);
+    }
+    if (apiKey != null) {
+      request.addHeader("X-API-Key", apiKey);
+    }
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    filter.doFilter(request, response, new MockFilterChain(operation));
+    return response;
+  }
+
+  private int storedKeys() {
+    return new JdbcTemplate(dataSource)
+        .queryForObject("SELECT COUNT(*) FROM idempotency_keys", Integer.class);
+  }
+
+  /** Test that a retry with the same key and payload replays the response without running again. */
+  @Test
+  void sameKeyAndPayload_replaysRecordedResponse() throws Exception {
+    MockHttpServletResponse first = post("key-1", "{\"sku\":\"A\"}");
+    MockHttpServletResponse retry = post("key-1", "{\"sku\":\"A\"}");
+
+    assertEquals(1, executions.get());
+    assertEquals(201, first.getStatus());
+    assertNull(first.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+    assertEquals(201, retry.getStatus());
+    assertEquals("true", retry.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+    assertEquals("application/json", retry.getContentType());
+    assertEquals(first.getContentAsString(), retry.getContentAsString());
+  }
+
+  /** Test that the recorded response survives the in-memory cache, e.g. on another instance. */
+  @Test
+  void retryOnAnotherInstance_replaysFromTable() throws Exception {
+    post("key-1", "{\"sku\":\"A\"}");
+    filter = filter(store(NOW, 3));
+
+    MockHttpServletResponse retry = post("key-1", "{\"sku\":\"A\"}");
+
+    assertEquals(1, executions.get());
+    assertEquals("{\"run\":1,\"echo\":{\"sku\":\"A\"}}", retry.getContentAsString());
+  }
+
+  /** Test that reusing a key for a different payload is rejected. */
+  @Test
+  void sameKeyDifferentPayload_returnsUnprocessableEntity() throws Exception {
+    post("key-1", "{\"sku\":\"A\"}");
+
+    MockHttpServletResponse reuse = post("key-1", "{\"sku\":\"B\"}");
+
+    assertEquals(1, executions.get());
+    assertEquals(422, reuse.getStatus());
+    assertTrue(reuse.getContentAsString().contains("different request"));
+  }
+
+  /** Test that reusing a key for the same body with another content type or accept is rejected. */
+  @Test
+  void sameKeyDifferentMediaTypes_returnsUnprocessableEntity() throws Exception {
+    post("key-1", "{\"sku\":\"A\"}");
+
+    MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/products");
+    request.setContent("{\"sku\":\"A\"}".getBytes(StandardCharsets.UTF_8));
+    request.setContentType("application/json");
+    request.addHeader("Accept", "application/cbor");
+    request.addHeader(IdempotencyFilter.HEADER, "key-1");
+    MockHttpServletResponse reuse = new MockHttpServletResponse();
+    filter.doFilter(request, reuse, new MockFilterChain(operation));
+
+    assertEquals(1, executions.get());
+    assertEquals(422, reuse.getStatus());
+  }
+
+  /** Test that a retry arriving while the first request still holds the key is rejected. */
+  @Test
+  void keyStillClaimed_returnsConflict() throws Exception {
+    store(NOW, 3).claim(CLIENT, "key-1", "in-flight");
+
+    MockHttpServletResponse retry = post("key-1", "{\"sku\":\"A\"}");
+
+    assertEquals(0, executions.get());
+    assertEquals(409, retry.getStatus());
+  }
+
+  /** Test that the same key sent by another client is a different operation. */
+  @Test
+  void sameKeyFromAnotherClient_runsAgain() throws Exception {
+    MockHttpServletResponse first = post("key-1", "{\"sku\":\"A\"}", "client-a");
+    MockHttpServletResponse other = post("key-1", "{\"sku\":\"B\"}", "client-b");
+    MockHttpServletResponse retry = post("key-1", "{\"sku\":\"A\"}", "client-a");
+
+    assertEquals(2, executions.get());
+    assertEquals(201, other.getStatus());
+    assertNull(other.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+    assertEquals("true", retry.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+    assertEquals(first.getContentAsString(), retry.getContentAsString());
+    assertEquals(2, storedKeys());
+  }
+
+  /**
+   * Test that a request which outlived its claim can neither record its response over, nor release,
+   * the claim another request took over after the timeout.
+   */
+  @Test
+  void claimTakenOver_formerHolderCannotCompleteOrRelease() {
+    String stale = store(NOW, 3).claim(CLIENT, "key-1", "first");
+    IdempotencyStore later = store(NOW.plus(Duration.ofMinutes(2)), 3);
+    String current = later.claim(CLIENT, "key-1", "second");
+    assertNotNull(stale);
+    assertNotNull(current);
+
+    assertFalse(store(NOW, 3).complete(CLIENT, "key-1", stale, "first", 201, null, new byte[0]));
+    store(NOW, 3).release(CLIENT, "key-1", stale);
+
+    assertEquals(1, storedKeys());
+    assertTrue(later.find(CLIENT, "key-1").orElseThrow().isInProgress());
+    assertTrue(later.complete(CLIENT, "key-1", current, "second", 201, null, new byte[0]));
+    assertEquals("second", later.find(CLIENT, "key-1").orElseThrow().getRequestHash());
+  }
+
+  /** Test that server errors are not recorded, so the retry runs the operation again. */
+  @Test
+  void serverError_releasesKey() throws Exception {
+    status = 503;
+    post("key-1", "{\"sku\":\"A\"}");
+    status = 201;
+
+    MockHttpServletResponse retry = post("key-1", "{\"sku\":\"A\"}");
+
+    assertEquals(2, executions.get());
+    assertEquals(201, retry.getStatus());
+  }
+
+  /** Test that requests without a key pass straight through and record nothing. */
+  @Test
+  void noKey_passesThrough() throws Exception {
+    post(null, "{\"sku\":\"A\"}");
+    post(null, "{\"sku\":\"A\"}");
+
+    assertEquals(2, executions.get());
+    assertEquals(0, storedKeys());
+  }
+
+  /** Test that clean-up deletes expired keys and then the oldest keys beyond the row limit. */
+  @Test
+  void cleanUp_deletesExpiredAndExcessKeysInBatches() throws Exception {
+    for (int i = 0; i < 5; i++) {
+      post("old-" + i, "{}");
+    }
+    filter = filter(store(NOW.plus(Duration.ofMinutes(30)), 3));
+    for (int i = 0; i < 5; i++) {
+      post("new-" + i, "{}");
+    }
+    assertEquals(10, storedKeys());
+
+    int deleted = store(NOW.plus(Duration.ofMinutes(61)), 3).cleanUp();
+
+    assertEquals(7, deleted);
+    assertEquals(
+        List.of("new-2", "new-3", "new-4"),
+        new JdbcTemplate(dataSource)
+            .queryForList("SELECT idem_key FROM idempotency_keys ORDER BY idem_key", String.class));
+  }
+}
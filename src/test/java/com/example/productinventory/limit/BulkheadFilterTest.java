@@ -0,0 +1,147 @@
+package com.example.productinventory.limit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.productinventory.datasource.PartitionedDataSource;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/** Tests the {@link Bulkhead}, the {@link BulkheadFilter} and its connection partitions. */
+public class BulkheadFilterTest {
+
+  private static DataSource database(String name) {
+    JdbcDataSource dataSource = new JdbcDataSource();
+    dataSource.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+    JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+    jdbc.execute("DROP ALL OBJECTS");
+    jdbc.execute("CREATE TABLE origin (name VARCHAR(50))");
+    jdbc.update("INSERT INTO origin VALUES (?)", name);
+    return dataSource;
+  }
+
+  /** Test that a full bulkhead queues up to its limit and refuses the rest at once. */
+  @Test
+  void fullBulkhead_queuesThenRefuses() throws Exception {
+    Bulkhead bulkhead = new Bulkhead("search", 1, 1, 5_000);
+    assertTrue(bulkhead.tryEnter());
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<Boolean> waiter = executor.submit(bulkhead::tryEnter);
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+      while (bulkhead.getQueued() == 0 && System.nanoTime() < deadline) {
+        Thread.sleep(1);
+      }
+      assertEquals(1, bulkhead.getQueued());
+
+      assertFalse(bulkhead.tryEnter());
+      assertEquals(1, bulkhead.getRejected());
+
+      bulkhead.exit();
+      assertTrue(waiter.get(5, TimeUnit.SECONDS));
+      assertEquals(0, bulkhead.getQueued());
+      assertEquals(1, bulkhead.getActive());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /** Test that a queued request gives up once it has waited the maximum time. */
+  @Test
+  void queuedRequest_timesOut() throws Exception {
+    Bulkhead bulkhead = new Bulkhead("write", 1, 5, 20);
+    assertTrue(bulkhead.tryEnter());
+
+    assertFalse(bulkhead.tryEnter());
+
+    assertEquals(1, bulkhead.getRejected());
+    assertEquals(0, bulkhead.getQueued());
+    assertEquals(1, bulkhead.getActive());
+  }
+
+  /**
+   * Test that a burst filling the search bulkhead is refused with 503 while point reads still get
+   * through, each request using the connections of its own partition.
+   */
+  @Test
+  void searchBurst_doesNotStarveReads() throws Exception {
+    Map<String, Bulkhead> bulkheads =
+        Map.of(
+            EndpointClass.READ, new Bulkhead(EndpointClass.READ, 2, 0, 0),
+            EndpointClass.SEARCH, new Bulkhead(EndpointClass.SEARCH, 1, 0, 0));
+    BulkheadFilter filter = new BulkheadFilter(bulkheads, 1, new ObjectMapper());
+    JdbcTemplate jdbc =
+        new JdbcTemplate(
+            new PartitionedDataSource(
+                Map.of(
+                    EndpointClass.READ, database("bulkhead-read"),
+                    EndpointClass.SEARCH, database("bulkhead-search")),
+                database("bulkhead-default")));
+
+    CountDownLatch searching = new CountDownLatch(1);
+    CountDownLatch finishSearch = new CountDownLatch(1);
+    String[] searchOrigin = new String[1];
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<?> slowSearch =
+          executor.submit(
+              () -> {
+                filter.doFilter(
+                    new MockHttpServletRequest("GET", "/api/v1/products/search"),
+                    new MockHttpServletResponse(),
+                    (request, response) -> {
+                      searchOrigin[0] =
+                          jdbc.queryForObject("SELECT name FROM origin", String.class);
+                      searching.countDown();
+                      try {
+                        finishSearch.await(5, TimeUnit.SECONDS);
+                      } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                      }
+                    });
+                return null;
+              });
+      assertTrue(searching.await(5, TimeUnit.SECONDS));
+
+      MockHttpServletResponse refused = new MockHttpServletResponse();
+      filter.doFilter(
+          new MockHttpServletRequest("GET", "/api/v1/products/search"),
+          refused,
+          (request, response) -> {});
+      assertEquals(503, refused.getStatus());
+      assertEquals("1", refused.getHeader("Retry-After"));
+
+      String[] readOrigin = new String[1];
+      MockHttpServletResponse read = new MockHttpServletResponse();
+      filter.doFilter(
+          new MockHttpServletRequest("GET", "/api/v1/products/1"),
+          read,
+          (request, response) ->
+              readOrigin[0] = jdbc.queryForObject("SELECT name FROM origin", String.class));
+      assertEquals(200, read.getStatus());
+
+      finishSearch.countDown();
+      slowSearch.get(5, TimeUnit.SECONDS);
+      assertEquals("bulkhead-search", searchOrigin[0]);
+      assertEquals("bulkhead-read", readOrigin[0]);
+      assertEquals(
+          "bulkhead-default", jdbc.queryForObject("SELECT name FROM origin", String.class));
+      assertEquals(1, bulkheads.get(EndpointClass.SEARCH).getRejected());
+      assertEquals(0, bulkheads.get(EndpointClass.SEARCH).getActive());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,171 @@
+package com.example.productinventory.limit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/** Tests the {@link AimdLimiter} and the {@link ConcurrencyLimitFilter} that applies it. */
+public class ConcurrencyLimitFilterTest {
+
+  private static final long FAST = TimeUnit.MILLISECONDS.toNanos(5);
+  private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(500);
+
+  private static AimdLimiter limiter(int initialLimit) {
+    return new AimdLimiter("read", initialLimit, 2, 8, 0.5, 100);
+  }
+
+  private static MockHttpServletResponse get(ConcurrencyLimitFilter filter, int status)
+      throws Exception {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    filter.doFilter(
+        new MockHttpServletRequest("GET", "/api/v1/products/1"),
+        response,
+        new MockFilterChain(
+            new HttpServlet() {
+              @Override
+              protected void doGet(HttpServletRequest request, HttpServletResponse response) {
+                response.setStatus(status);
+              }
+            }));
+    return response;
+  }
+
+  /** Test that fast requests grow a busy limit by one up to the maximum. */
+  @Test
+  void fastRequestsAtHighUtilisation_increaseLimitAdditively() {
+    AimdLimiter limiter = limiter(4);
+
+    for (int i = 0; i < 4; i++) {
+      assertTrue(limiter.tryAcquire());
+    }
+    limiter.release(FAST, false);
+    assertEquals(5, limiter.getLimit());
+
+    for (int i = 0; i < 20; i++) {
+      assertTrue(limiter.tryAcquire());
+      assertTrue(limiter.tryAcquire());
+      limiter.release(FAST, false);
+      limiter.release(FAST, false);
+    }
+    for (int i = 0; i < 3; i++) {
+      limiter.release(FAST, false);
+    }
+
+    assertEquals(8, limiter.getLimit());
+    assertEquals(0, limiter.getInFlight());
+  }
+
+  /** Test that fast requests on a mostly idle limit leave it unchanged. */
+  @Test
+  void fastRequestsAtLowUtilisation_keepLimit() {
+    AimdLimiter limiter = limiter(6);
+
+    for (int i = 0; i < 10; i++) {
+      assertTrue(limiter.tryAcquire());
+      limiter.release(FAST, false);
+    }
+
+    assertEquals(6, limiter.getLimit());
+  }
+
+  /** Test that slow or failed requests shrink the limit multiplicatively down to the minimum. */
+  @Test
+  void slowOrFailedRequests_decreaseLimitMultiplicatively() throws Exception {
+    AimdLimiter limiter = limiter(8);
+
+    limiter.tryAcquire();
+    limiter.release(FAST, true);
+    assertEquals(4, limiter.getLimit());
+
+    Thread.sleep(20);
+    limiter.tryAcquire();
+    limiter.release(FAST, true);
+    assertEquals(2, limiter.getLimit());
+
+    Thread.sleep(20);
+    limiter.tryAcquire();
+    limiter.release(FAST, true);
+    assertEquals(2, limiter.getLimit());
+
+    AimdLimiter strict = new AimdLimiter("read", 8, 2, 8, 0.5, 1);
+    strict.tryAcquire();
+    strict.release(FAST, false);
+    assertEquals(4, strict.getLimit());
+  }
+
+  /** Test that a burst of slow requests running at the same time cuts the limit only once. */
+  @Test
+  void slowBurst_decreasesLimitOnce() {
+    AimdLimiter limiter = limiter(8);
+    for (int i = 0; i < 6; i++) {
+      assertTrue(limiter.tryAcquire());
+    }
+
+    for (int i = 0; i < 6; i++) {
+      limiter.release(SLOW, false);
+    }
+
+    assertEquals(4, limiter.getLimit());
+  }
+
+  /** Test that requests over the limit are shed at once with 503 and Retry-After. */
+  @Test
+  void requestOverLimit_isShedWithRetryAfter() throws Exception {
+    AimdLimiter limiter = limiter(2);
+    ConcurrencyLimitFilter filter =
+        new ConcurrencyLimitFilter(Map.of(EndpointClass.READ, limiter), 3, new ObjectMapper());
+    assertTrue(limiter.tryAcquire());
+    assertTrue(limiter.tryAcquire());
+
+    MockHttpServletResponse shed = get(filter, 200);
+
+    assertEquals(503, shed.getStatus());
+    assertEquals("3", shed.getHeader("Retry-After"));
+    assertTrue(shed.getContentAsString().contains("overloaded"));
+    assertEquals(1, limiter.getRejected());
+
+    limiter.release(FAST, false);
+    assertEquals(200, get(filter, 200).getStatus());
+    assertEquals(1, limiter.getInFlight());
+  }
+
+  /** Test that a server error from downstream counts as overload. */
+  @Test
+  void serverError_decreasesLimit() throws Exception {
+    AimdLimiter limiter = limiter(8);
+    ConcurrencyLimitFilter filter =
+        new ConcurrencyLimitFilter(Map.of(EndpointClass.READ, limiter), 1, new ObjectMapper());
+
+    assertEquals(500, get(filter, 500).getStatus());
+
+    assertEquals(4, limiter.getLimit());
+    assertEquals(0, limiter.getInFlight());
+  }
+
+  /** Test that requests are assigned to the read, search and write classes. */
+  @Test
+  void endpointClass_separatesReadsSearchesAndWrites() {
+    assertEquals(
+        EndpointClass.READ,
+        EndpointClass.of(new MockHttpServletRequest("GET", "/api/v1/products/batch")));
+    assertEquals(
+        EndpointClass.SEARCH,
+        EndpointClass.of(new MockHttpServletRequest("GET", "/api/v1/products/fulltext")));
+    assertEquals(
+        EndpointClass.WRITE,
+        EndpointClass.of(new MockHttpServletRequest("DELETE", "/api/v1/products/search")));
+    assertEquals(
+        EndpointClass.READ,
+        EndpointClass.of(new MockHttpServletRequest("GET", "/api/v1/products")));
+  }
+}
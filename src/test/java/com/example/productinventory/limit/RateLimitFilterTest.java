@@ -0,0 +1,164 @@
+package com.example.productinventory.limit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/** Tests the {@link TokenBucket}, {@link RateLimiter} and {@link RateLimitFilter}. */
+public class RateLimitFilterTest {
+
+  private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  private static MockHttpServletResponse get(
+      RateLimitFilter filter, String remoteAddr, String apiKey) throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/products");
+    request.setRemoteAddr(remoteAddr);
+    if (apiKey != null) {
+      request.addHeader("X-API-Key", apiKey);
+    }
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    filter.doFilter(
+        request,
+        response,
+        new MockFilterChain(
+            new HttpServlet() {
+              @Override
+              protected void doGet(HttpServletRequest request, HttpServletResponse response) {
+                response.setStatus(200);
+              }
+            }));
+    return response;
+  }
+
+  /** Test that a bucket allows a burst of its capacity, then refills at the configured rate. */
+  @Test
+  void tokenBucket_allowsBurstThenRefills() {
+    long now = 0;
+    TokenBucket bucket = new TokenBucket(3, 2, now);
+
+    assertEquals(2, bucket.tryAcquire(now));
+    assertEquals(1, bucket.tryAcquire(now));
+    assertEquals(0, bucket.tryAcquire(now));
+    assertEquals(-1, bucket.tryAcquire(now));
+    assertEquals(SECOND / 2, bucket.nanosUntilToken(now));
+
+    now += SECOND / 2;
+    assertEquals(0, bucket.tryAcquire(now));
+    assertEquals(-1, bucket.tryAcquire(now));
+
+    now += 10 * SECOND;
+    assertTrue(bucket.isFull(now));
+    assertEquals(2, bucket.tryAcquire(now));
+    assertFalse(bucket.isFull(now));
+  }
+
+  /** Test that concurrent acquisitions never hand out more tokens than the bucket holds. */
+  @Test
+  void tokenBucket_concurrentAcquisitions_neverOverdraw() throws Exception {
+    long now = System.nanoTime();
+    TokenBucket bucket = new TokenBucket(1_000, 0.001, now);
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Callable<Integer>> tasks = new ArrayList<>();
+      for (int t = 0; t < 8; t++) {
+        tasks.add(
+            () -> {
+              int granted = 0;
+              for (int i = 0; i < 500; i++) {
+                if (bucket.tryAcquire(now) >= 0) {
+                  granted++;
+                }
+              }
+              return granted;
+            });
+      }
+      int granted = 0;
+      for (Future<Integer> result : executor.invokeAll(tasks)) {
+        granted += result.get();
+      }
+      assertEquals(1_000, granted);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /** Test that the filter sets rate limit headers and refuses an empty bucket with 429. */
+  @Test
+  void filter_refusesEmptyBucketWithRetryAfter() throws Exception {
+    RateLimiter rateLimiter = new RateLimiter(Map.of(EndpointClass.READ, new RateLimit(2, 0.5)));
+    RateLimitFilter filter = new RateLimitFilter(rateLimiter, new ObjectMapper());
+
+    MockHttpServletResponse first = get(filter, "10.0.0.1", null);
+    assertEquals(200, first.getStatus());
+    assertEquals("2", first.getHeader(RateLimitFilter.LIMIT_HEADER));
+    assertEquals("1", first.getHeader(RateLimitFilter.REMAINING_HEADER));
+    assertEquals("2", first.getHeader(RateLimitFilter.RESET_HEADER));
+    assertEquals(200, get(filter, "10.0.0.1", null).getStatus());
+
+    MockHttpServletResponse refused = get(filter, "10.0.0.1", null);
+    assertEquals(429, refused.getStatus());
+    assertEquals("0", refused.getHeader(RateLimitFilter.REMAINING_HEADER));
+    assertEquals("2", refused.getHeader("Retry-After"));
+    assertTrue(refused.getContentAsString().contains("Rate limit exceeded"));
+    assertEquals(1, rateLimiter.getRejected(EndpointClass.READ));
+
+    assertEquals(200, get(filter, "10.0.0.2", null).getStatus());
+    assertEquals(2, rateLimiter.getClients(EndpointClass.READ));
+  }
+
+  /** Test that API keys share the bucket of their address, so rotating them earns no tokens. */
+  @Test
+  void filter_apiKeysShareTheBucketOfTheirAddress() throws Exception {
+    RateLimiter rateLimiter = new RateLimiter(Map.of(EndpointClass.READ, new RateLimit(2, 0.5)));
+    RateLimitFilter filter = new RateLimitFilter(rateLimiter, new ObjectMapper());
+
+    assertEquals(200, get(filter, "10.0.0.1", "key-1").getStatus());
+    assertEquals(200, get(filter, "10.0.0.1", "key-2").getStatus());
+    assertEquals(429, get(filter, "10.0.0.1", "key-3").getStatus());
+    assertEquals(429, get(filter, "10.0.0.1", null).getStatus());
+    assertEquals(1, rateLimiter.getClients(EndpointClass.READ));
+  }
+
+  /** Test that endpoint classes without a limit pass through without headers. */
+  @Test
+  void filter_unlimitedEndpointClass_passesThrough() throws Exception {
+    RateLimiter rateLimiter = new RateLimiter(Map.of(EndpointClass.WRITE, new RateLimit(1, 1)));
+    RateLimitFilter filter = new RateLimitFilter(rateLimiter, new ObjectMapper());
+
+    MockHttpServletResponse response = get(filter, "10.0.0.1", null);
+
+    assertEquals(200, response.getStatus());
+    assertNull(response.getHeader(RateLimitFilter.LIMIT_HEADER));
+    assertEquals(0, rateLimiter.getClients(EndpointClass.READ));
+  }
+
+  /** Test that only buckets that have refilled completely are evicted. */
+  @Test
+  void evictIdle_dropsFullBucketsOnly() {
+    RateLimiter rateLimiter = new RateLimiter(Map.of(EndpointClass.READ, new RateLimit(5, 0.001)));
+    long now = System.nanoTime();
+    rateLimiter.bucket(EndpointClass.READ, "idle", now);
+    rateLimiter.bucket(EndpointClass.READ, "busy", now).tryAcquire(now);
+
+    assertEquals(1, rateLimiter.evictIdle());
+    assertEquals(1, rateLimiter.getClients(EndpointClass.READ));
+  }
+}
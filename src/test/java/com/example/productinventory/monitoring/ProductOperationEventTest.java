@@ -0,0 +1,172 @@
+package com.example.productinventory.monitoring;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.example.productinventory.cache.CachedProductJsonHttpMessageConverter;
+import com.example.productinventory.cache.ProductJsonCache;
+import com.example.productinventory.exception.ProductNotFoundException;
+import com.example.productinventory.facet.ProductFacetCache;
+import com.example.productinventory.model.Product;
+import com.example.productinventory.repository.ProductRepository;
+import com.example.productinventory.resilience.CircuitBreaker;
+import com.example.productinventory.resilience.LastKnownGoodProducts;
+import com.example.productinventory.resilience.ProductReadBreaker;
+import com.example.productinventory.service.ProductRequestValidator;
+import com.example.productinventory.service.ProductServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+/** Tests that the product service emits {@link ProductOperationEvent}s with business context. */
+public class ProductOperationEventTest {
+
+  private static ProductServiceImpl productService(
+      ProductRepository productRepository,
+      ProductFacetCache facetCache,
+      Optional<ProductReadBreaker> readBreaker) {
+    return new ProductServiceImpl(
+        productRepository,
+        new ProductRequestValidator(
+            new String[] {"name"}, new String[] {"asc"}, new String[] {"id"}, 100),
+        mock(ApplicationEventPublisher.class),
+        Optional.empty(),
+        facetCache,
+        Optional.empty(),
+        readBreaker);
+  }
+
+  /** Runs the given calls while recording and returns the product operation events they emit. */
+  private static List<RecordedEvent> record(Runnable calls) throws Exception {
+    Path file = Files.createTempFile("product-events", ".jfr");
+    try (Recording recording = new Recording()) {
+      recording.enable(ProductOperationEvent.class).withThreshold(Duration.ZERO);
+      recording.start();
+      calls.run();
+      recording.stop();
+      recording.dump(file);
+    }
+
+    List<RecordedEvent> events =
+        RecordingFile.readAllEvents(file)
+            .stream()
+            .filter(
+                e ->
+                    e.getEventType()
+                        .getName()
+                        .equals("com.example.productinventory.ProductOperation"))
+            .toList();
+    Files.deleteIfExists(file);
+    return events;
+  }
+
+  /** Test that successful and failed lookups are recorded with their product context. */
+  @Test
+  void lookups_emitProductOperationEvents() throws Exception {
+    ProductRepository productRepository = mock(ProductRepository.class);
+    ProductServiceImpl productService =
+        productService(productRepository, mock(ProductFacetCache.class), Optional.empty());
+
+    Product product = new Product();
+    product.setId(1L);
+    product.setSku("LAP-001");
+    when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+    when(productRepository.findById(2L)).thenReturn(Optional.empty());
+
+    List<RecordedEvent> events =
+        record(
+            () -> {
+              productService.getProductById(1L);
+              assertThrows(ProductNotFoundException.class, () -> productService.getProductById(2L));
+            });
+
+    assertEquals(2, events.size());
+    RecordedEvent hit = events.get(0);
+    assertEquals("getById", hit.getString("operation"));
+    assertEquals(1L, hit.getLong("productId"));
+    assertEquals("LAP-001", hit.getString("sku"));
+    assertEquals(1L, hit.getLong("rowsReturned"));
+    assertFalse(hit.getBoolean("cacheHit"));
+    assertTrue(hit.getBoolean("success"));
+
+    RecordedEvent miss = events.get(1);
+    assertEquals(2L, miss.getLong("productId"));
+    assertFalse(miss.getBoolean("success"));
+  }
+
+  /**
+   * Test that facets served by the facet cache, products written from the JSON cache and stale
+   * copies served by the read breaker are recorded as cache hits.
+   */
+  @Test
+  void cachedResults_areRecordedAsCacheHits() throws Exception {
+    ProductRepository productRepository = mock(ProductRepository.class);
+    ProductReadBreaker readBreaker =
+        new ProductReadBreaker(
+            new CircuitBreaker("test", 2, 1_000, 10_000),
+            new LastKnownGoodProducts(100),
+            Duration.ofHours(1),
+            Clock.systemUTC());
+    ProductServiceImpl productService =
+        productService(
+            productRepository,
+            new ProductFacetCache(new BigDecimal[] {BigDecimal.TEN}, 5, 100),
+            Optional.of(readBreaker));
+    CachedProductJsonHttpMessageConverter converter =
+        new CachedProductJsonHttpMessageConverter(
+            new ProductJsonCache(new ObjectMapper(), 1 << 20), new ObjectMapper());
+
+    Product product = new Product();
+    product.setId(1L);
+    product.setSku("LAP-001");
+    product.setVersion(0);
+    when(productRepository.findById(1L))
+        .thenReturn(Optional.of(product))
+        .thenThrow(new DataAccessResourceFailureException("Connection is not available"));
+
+    List<RecordedEvent> events =
+        record(
+            () -> {
+              productService.getProductFacets(List.of("price"), null, null, null, null, null, null);
+              productService.getProductFacets(List.of("stock"), null, null, null, null, null, null);
+              productService.getProductById(1L);
+              productService.getProductById(1L);
+              try {
+                converter.write(product, MediaType.APPLICATION_JSON, new MockHttpOutputMessage());
+                converter.write(product, MediaType.APPLICATION_JSON, new MockHttpOutputMessage());
+              } catch (Exception e) {
+                throw new IllegalStateException(e);
+              }
+            });
+
+    assertEquals(6, events.size());
+    assertEquals("facetsByCriteria", events.get(0).getString("operation"));
+    assertFalse(events.get(0).getBoolean("cacheHit"));
+    assertTrue(events.get(1).getBoolean("cacheHit"));
+    assertEquals("getById", events.get(2).getString("operation"));
+    assertFalse(events.get(2).getBoolean("cacheHit"));
+    assertTrue(events.get(3).getBoolean("cacheHit"));
+    assertTrue(events.get(3).getBoolean("success"));
+    assertEquals("writeJson", events.get(4).getString("operation"));
+    assertEquals(1L, events.get(4).getLong("rowsReturned"));
+    assertFalse(events.get(4).getBoolean("cacheHit"));
+    assertTrue(events.get(5).getBoolean("cacheHit"));
+  }
+}
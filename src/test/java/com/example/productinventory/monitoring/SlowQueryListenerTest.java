@@ -0,0 +1,147 @@
+package com.example.productinventory.monitoring;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/** Unit tests for the {@link SlowQueryListener} against an in-memory H2 database. */
+public class SlowQueryListenerTest {
+
+  private JdbcDataSource rawDataSource;
+  private SlowQueryLog slowQueryLog;
+  private ExecutorService explainExecutor;
+
+  /** Creates a small products table in a private in-memory database. */
+  @BeforeEach
+  void setUp() throws Exception {
+    rawDataSource = new JdbcDataSource();
+    rawDataSource.setURL("jdbc:h2:mem:slowquery;DB_CLOSE_DELAY=-1");
+    try (Connection connection = rawDataSource.getConnection();
+        Statement statement = connection.createStatement()) {
+      statement.execute("DROP TABLE IF EXISTS products");
+      statement.execute("CREATE TABLE products (id BIGINT PRIMARY KEY, name VARCHAR(100))");
+      statement.execute("INSERT INTO products VALUES (1, 'Premium Laptop')");
+    }
+    slowQueryLog = new SlowQueryLog(2);
+    explainExecutor = Executors.newSingleThreadExecutor();
+  }
+
+  @AfterEach
+  void tearDown() {
+    explainExecutor.shutdownNow();
+  }
+
+  private DataSource proxy(boolean redact) {
+    return ProxyDataSourceBuilder.create(rawDataSource)
+        .listener(
+            new SlowQueryListener(slowQueryLog, rawDataSource, 0, redact, true, explainExecutor))
+        .build();
+  }
+
+  private static void runNameQuery(DataSource dataSource, String name) throws Exception {
+    try (Connection connection = dataSource.getConnection();
+        PreparedStatement statement =
+            connection.prepareStatement("SELECT * FROM products WHERE name = ? AND id > ?")) {
+      statement.setString(1, name);
+      statement.setLong(2, 0L);
+      try (ResultSet resultSet = statement.executeQuery()) {
+        resultSet.next();
+      }
+    }
+  }
+
+  private List<SlowQueryRecord> awaitRecords(int count) throws InterruptedException {
+    for (int i = 0; i < 100 && slowQueryLog.getRecords().size() < count; i++) {
+      Thread.sleep(20);
+    }
+    return slowQueryLog.getRecords();
+  }
+
+  /** Test that a slow query is recorded with all parameters redacted and an H2 plan. */
+  @Test
+  void slowQuery_isRecordedWithRedactedParametersAndPlan() throws Exception {
+    runNameQuery(proxy(true), "Premium Laptop");
+
+    List<SlowQueryRecord> records = awaitRecords(1);
+    assertEquals(1, records.size());
+    SlowQueryRecord record = records.get(0);
+    assertEquals(List.of("<redacted:14 chars>", "<redacted>"), record.getParameters());
+    assertTrue(record.getPlan().contains("PUBLIC.PRIMARY_KEY"), record.getPlan());
+  }
+
+  /** Test that parameters are shown verbatim when redaction is disabled. */
+  @Test
+  void slowQuery_withoutRedaction_keepsParameterValues() throws Exception {
+    runNameQuery(proxy(false), "Budget Laptop");
+
+    List<SlowQueryRecord> records = awaitRecords(1);
+    assertEquals(List.of("'Budget Laptop'", "0"), records.get(0).getParameters());
+  }
+
+  /** Test that the ring buffer keeps only the most recent records. */
+  @Test
+  void slowQueryLog_evictsOldestRecordWhenFull() throws Exception {
+    DataSource dataSource = proxy(false);
+    runNameQuery(dataSource, "first");
+    awaitRecords(1);
+    runNameQuery(dataSource, "second");
+    awaitRecords(2);
+    runNameQuery(dataSource, "third");
+    for (int i = 0; i < 100 && slowQueryLog.getTotalCaptured() < 3; i++) {
+      Thread.sleep(20);
+    }
+
+    List<SlowQueryRecord> records = slowQueryLog.getRecords();
+    assertEquals(2, records.size());
+    assertEquals("'third'", records.get(0).getParameters().get(0));
+    assertEquals("'second'", records.get(1).getParameters().get(0));
+    assertEquals(3, slowQueryLog.getTotalCaptured());
+  }
+
+  /** Test that all wrapped data sources share one explain thread, which stops on destroy. */
+  @Test
+  @SuppressWarnings("unchecked")
+  void postProcessor_sharesOneExplainExecutorAndShutsItDown() throws Exception {
+    ObjectProvider<SlowQueryLog> provider = mock(ObjectProvider.class);
+    when(provider.getObject()).thenReturn(slowQueryLog);
+    SlowQueryDataSourcePostProcessor postProcessor = new SlowQueryDataSourcePostProcessor(provider);
+    ReflectionTestUtils.setField(postProcessor, "explain", true);
+    JdbcDataSource otherDataSource = new JdbcDataSource();
+    otherDataSource.setURL(rawDataSource.getURL());
+
+    runNameQuery(
+        (DataSource) postProcessor.postProcessAfterInitialization(rawDataSource, "first"), "a");
+    awaitRecords(1);
+    runNameQuery(
+        (DataSource) postProcessor.postProcessAfterInitialization(otherDataSource, "second"), "b");
+    List<SlowQueryRecord> records = awaitRecords(2);
+
+    assertEquals(2, records.size());
+    assertTrue(records.get(0).getPlan().contains("PUBLIC.PRIMARY_KEY"), records.get(0).getPlan());
+    ThreadPoolExecutor executor =
+        (ThreadPoolExecutor) ReflectionTestUtils.getField(postProcessor, "explainExecutor");
+    assertEquals(1, executor.getLargestPoolSize());
+
+    postProcessor.destroy();
+    assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+  }
+}
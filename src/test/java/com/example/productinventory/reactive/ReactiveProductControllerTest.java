@@ -0,0 +1,218 @@
+package com.example.productinventory.reactive;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.productinventory.event.ProductChangedEvent;
+import com.example.productinventory.model.Product;
+import com.example.productinventory.service.ProductRequestValidator;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+/**
+ * Tests the {@link ReactiveProductController} and {@link ReactiveProductRepository} against an
+ * in-memory H2 database migrated with the application's Flyway migrations.
+ */
+public class ReactiveProductControllerTest {
+
+  private static final String PRODUCT =
+      "{\"name\":\"Reactive Mouse\",\"price\":19.99,\"quantity\":3,\"sku\":\"%s\","
+          + "\"weight\":0.1,\"dimensions\":\"10x6x3\",\"categoryId\":%d}";
+
+  private final List<Object> events = Collections.synchronizedList(new ArrayList<>());
+  private final List<String> publishingThreads = Collections.synchronizedList(new ArrayList<>());
+  private WebTestClient client;
+
+  @BeforeEach
+  void setUp() {
+    String database = "reactive-" + UUID.randomUUID();
+    Flyway.configure()
+        .dataSource("jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1", "sa", "")
+        .locations("classpath:db/migration")
+        .load()
+        .migrate();
+    ConnectionFactory connectionFactory =
+        ConnectionFactories.get("r2dbc:h2:mem://sa@/" + database + "?DB_CLOSE_DELAY=-1");
+    ReactiveProductRepository repository =
+        new ReactiveProductRepository(
+            DatabaseClient.create(connectionFactory),
+            TransactionalOperator.create(new R2dbcTransactionManager(connectionFactory)));
+    ProductRequestValidator validator =
+        new ProductRequestValidator(
+            new String[] {"name", "price", "quantity", "sku"},
+            new String[] {"asc", "desc"},
+            new String[] {"id", "name"},
+            100);
+    LocalValidatorFactoryBean beanValidator = new LocalValidatorFactoryBean();
+    beanValidator.afterPropertiesSet();
+    client =
+        WebTestClient.bindToController(
+                new ReactiveProductController(
+                    repository,
+                    validator,
+                    event -> {
+                      publishingThreads.add(Thread.currentThread().getName());
+                      events.add(event);
+                    }))
+            .controllerAdvice(new ReactiveExceptionHandler())
+            .validator(beanValidator)
+            .build();
+  }
+
+  private WebTestClient.ResponseSpec create(String sku, long categoryId) {
+    return client
+        .post()
+        .uri("/api/v1/products")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(String.format(PRODUCT, sku, categoryId))
+        .exchange();
+  }
+
+  /** Test that a page carries the same metadata as the servlet API and honours the sort. */
+  @Test
+  void getAllProducts_returnsPageWithMetadata() {
+    client
+        .get()
+        .uri("/api/v1/products?page=1&size=2&sortBy=price&direction=desc")
+        .accept(MediaType.APPLICATION_JSON)
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectBody()
+        .jsonPath("$.currentPage")
+        .isEqualTo(1)
+        .jsonPath("$.totalItems")
+        .isEqualTo(5)
+        .jsonPath("$.totalPages")
+        .isEqualTo(3)
+        .jsonPath("$.items.length()")
+        .isEqualTo(2)
+        .jsonPath("$.items[0].sku")
+        .isEqualTo("LAP-001");
+  }
+
+  /** Test that the list and the export stream products as newline-delimited JSON. */
+  @Test
+  void ndjson_streamsProducts() {
+    List<Product> page =
+        client
+            .get()
+            .uri("/api/v1/products?size=3")
+            .accept(MediaType.APPLICATION_NDJSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .returnResult(Product.class)
+            .getResponseBody()
+            .collectList()
+            .block();
+    assertEquals(3, page.size());
+
+    List<Product> export =
+        client
+            .get()
+            .uri("/api/v1/products/export")
+            .accept(MediaType.APPLICATION_NDJSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .returnResult(Product.class)
+            .getResponseBody()
+            .collectList()
+            .block();
+    assertEquals(5, export.size());
+    assertEquals(1L, export.get(0).getId());
+  }
+
+  /** Test that creation maps duplicate SKUs and unknown categories, leaving no row behind. */
+  @Test
+  void createProduct_mapsConstraintViolations() {
+    create("RX-100", 1).expectStatus().isCreated().expectBody().jsonPath("$.version").isEqualTo(0);
+    create("RX-100", 1)
+        .expectStatus()
+        .isEqualTo(409)
+        .expectBody()
+        .jsonPath("$.message")
+        .isEqualTo("A product with SKU RX-100 already exists.");
+    create("RX-101", 999)
+        .expectStatus()
+        .isEqualTo(422)
+        .expectBody()
+        .jsonPath("$.message")
+        .isEqualTo("Category not found with id: 999");
+    create("RX-101", 1).expectStatus().isCreated();
+
+    client
+        .post()
+        .uri("/api/v1/products")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue("{\"name\":\"x\"}")
+        .exchange()
+        .expectStatus()
+        .isBadRequest()
+        .expectBody()
+        .jsonPath("$.errors.sku")
+        .exists();
+    assertEquals(2, events.size());
+    assertTrue(
+        publishingThreads.stream().allMatch(name -> name.startsWith("boundedElastic")),
+        "change events must not be published on the calling thread: " + publishingThreads);
+  }
+
+  /** Test that updates check the version and deletes report missing products. */
+  @Test
+  void updateAndDelete_checkVersionAndExistence() {
+    String body = String.format(PRODUCT, "LAP-001", 1);
+    client
+        .put()
+        .uri("/api/v1/products/1?version=0")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(body)
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectBody()
+        .jsonPath("$.version")
+        .isEqualTo(1)
+        .jsonPath("$.name")
+        .isEqualTo("Reactive Mouse");
+    client
+        .put()
+        .uri("/api/v1/products/1?version=0")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(body)
+        .exchange()
+        .expectStatus()
+        .isEqualTo(409);
+    client
+        .put()
+        .uri("/api/v1/products/999?version=0")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(body)
+        .exchange()
+        .expectStatus()
+        .isNotFound();
+
+    client.delete().uri("/api/v1/products/1").exchange().expectStatus().isNoContent();
+    client.delete().uri("/api/v1/products/1").exchange().expectStatus().isNotFound();
+    client.get().uri("/api/v1/products/1").exchange().expectStatus().isNotFound();
+
+    ProductChangedEvent deleted = (ProductChangedEvent) events.get(events.size() - 1);
+    assertEquals(1L, deleted.getProductId());
+    assertNull(deleted.getAfter());
+  }
+}
@@ -0,0 +1,213 @@
+package com.example.productinventory.resilience;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.productinventory.event.ProductChangedEvent;
+import com.example.productinventory.event.ProductState;
+import com.example.productinventory.exception.ProductUnavailableException;
+import com.example.productinventory.model.Product;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/** Tests for {@link ProductReadBreaker} and its {@link CircuitBreaker}. */
+public class ProductReadBreakerTest {
+
+  private static final Instant NOW = Instant.parse("2024-01-01T12:00:00Z");
+
+  private final Product product = product(1L, "LAP-1");
+  private final LastKnownGoodProducts copies = new LastKnownGoodProducts(100);
+  private final AtomicInteger queries = new AtomicInteger();
+  private MockHttpServletRequest request;
+
+  @BeforeEach
+  void setUp() {
+    request = new MockHttpServletRequest();
+    RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+  }
+
+  @AfterEach
+  void tearDown() {
+    RequestContextHolder.resetRequestAttributes();
+  }
+
+  private ProductReadBreaker readBreaker(long openMillis, Clock clock) {
+    return new ProductReadBreaker(
+        new CircuitBreaker("test", 2, 1_000, openMillis), copies, Duration.ofHours(1), clock);
+  }
+
+  private Supplier<Optional<Product>> found() {
+    return () -> {
+      queries.incrementAndGet();
+      return Optional.of(product);
+    };
+  }
+
+  private Supplier<Optional<Product>> failing() {
+    return () -> {
+      queries.incrementAndGet();
+      throw new DataAccessResourceFailureException("Connection is not available");
+    };
+  }
+
+  /**
+   * Test that failed lookups are answered with the last known good copy until the breaker opens.
+   */
+  @Test
+  void failingLookups_serveStaleCopyAndOpenBreaker() {
+    Clock clock = Clock.fixed(NOW, ZoneOffset.UTC);
+    ProductReadBreaker readBreaker = readBreaker(60_000, clock);
+    assertSame(product, readBreaker.findById(1L, found()).get());
+    assertNull(request.getAttribute(ProductReadBreaker.STALE_READ_AT));
+
+    assertSame(product, readBreaker.findById(1L, failing()).get());
+    assertSame(product, readBreaker.findBySku("LAP-1", failing()).get());
+    assertEquals(CircuitBreaker.State.OPEN, readBreaker.getBreaker().getState());
+    assertEquals(3, queries.get());
+
+    assertSame(product, readBreaker.findById(1L, failing()).get());
+    assertEquals(3, queries.get(), "the open breaker must not touch the database");
+    assertEquals(3, readBreaker.getStaleResponses());
+    assertEquals(1, readBreaker.getBreaker().getNotPermitted());
+    assertEquals(NOW, request.getAttribute(ProductReadBreaker.STALE_READ_AT));
+  }
+
+  /**
+   * Test that lookups without a copy fail with the original error, or 503 once the breaker is open.
+   */
+  @Test
+  void lookupsWithoutCopy_fail() {
+    ProductReadBreaker readBreaker = readBreaker(60_000, Clock.systemUTC());
+
+    assertThrows(
+        DataAccessResourceFailureException.class, () -> readBreaker.findById(1L, failing()));
+    assertThrows(
+        DataAccessResourceFailureException.class, () -> readBreaker.findById(1L, failing()));
+    assertThrows(ProductUnavailableException.class, () -> readBreaker.findById(1L, found()));
+    assertEquals(0, readBreaker.getStaleResponses());
+  }
+
+  /** Test that copies are dropped when the product changes and not served once too old. */
+  @Test
+  void changedOrExpiredCopies_areNotServed() {
+    Instant[] now = {NOW};
+    Clock clock =
+        new Clock() {
+          @Override
+          public Instant instant() {
+            return now[0];
+          }
+
+          @Override
+          public ZoneId getZone() {
+            return ZoneOffset.UTC;
+          }
+
+          @Override
+          public Clock withZone(ZoneId zone) {
+            return this;
+          }
+        };
+    ProductReadBreaker readBreaker = readBreaker(60_000, clock);
+    readBreaker.findBySku("LAP-1", found());
+    copies.onProductChanged(
+        new ProductChangedEvent(ProductState.of(product), ProductState.of(product)));
+    assertNull(copies.getBySku("LAP-1"));
+
+    readBreaker.findById(1L, found());
+    now[0] = NOW.plus(Duration.ofHours(2));
+    assertThrows(
+        DataAccessResourceFailureException.class, () -> readBreaker.findById(1L, failing()));
+  }
+
+  /**
+   * Test that a copy read before a concurrent change commits is not kept once the change has
+   * dropped the product, while a copy of the new version is.
+   */
+  @Test
+  void copiesReadBeforeACommittedChange_areNotKept() {
+    ProductReadBreaker readBreaker = readBreaker(60_000, Clock.fixed(NOW, ZoneOffset.UTC));
+    Product v1 = product(1L, "LAP-1");
+    v1.setVersion(1);
+    Product v2 = product(1L, "LAP-1");
+    v2.setVersion(2);
+
+    // The lookup reads version 1, then an update to version 2 commits before the copy is kept.
+    readBreaker.findById(
+        1L,
+        () -> {
+          copies.onProductChanged(
+              ProductChangedEvent.updated(ProductState.of(v1), ProductState.of(v2)));
+          return Optional.of(v1);
+        });
+    assertNull(copies.getById(1L));
+    assertNull(copies.getBySku("LAP-1"));
+
+    readBreaker.findById(1L, () -> Optional.of(v2));
+    assertSame(v2, copies.getById(1L).getProduct());
+
+    // A lookup that read the product before it was deleted must not bring it back.
+    readBreaker.findById(
+        1L,
+        () -> {
+          copies.onProductChanged(ProductChangedEvent.deleted(ProductState.of(v2)));
+          return Optional.of(v2);
+        });
+    assertNull(copies.getById(1L));
+    assertEquals(0, copies.size());
+  }
+
+  /**
+   * Test that the breaker lets a single probe through after the open period and closes on success.
+   */
+  @Test
+  void breaker_halfOpensAndRecovers() {
+    long second = TimeUnit.SECONDS.toNanos(1);
+    CircuitBreaker breaker = new CircuitBreaker("test", 2, 1_000, 10_000);
+    breaker.onFailure(0);
+    assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    breaker.onSuccess(2 * second, 0);
+    assertEquals(CircuitBreaker.State.OPEN, breaker.getState(), "a slow call counts as a failure");
+
+    assertFalse(breaker.tryAcquire(9 * second));
+    assertTrue(breaker.tryAcquire(10 * second));
+    assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+    assertFalse(breaker.tryAcquire(10 * second), "only one probe at a time");
+    breaker.onFailure(11 * second);
+    assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+    assertFalse(breaker.tryAcquire(20 * second));
+    assertTrue(breaker.tryAcquire(21 * second));
+    breaker.onSuccess(1, 21 * second);
+    assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    assertTrue(breaker.tryAcquire(21 * second));
+    assertEquals(3, breaker.getFailures());
+    assertEquals(3, breaker.getNotPermitted());
+  }
+
+  private static Product product(Long id, String sku) {
+    Product product = new Product();
+    product.setId(id);
+    product.setName("Laptop");
+    product.setSku(sku);
+    return product;
+  }
+}
@@ -0,0 +1,99 @@
+package com.example.productinventory.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.example.productinventory.columnar.IdPage;
+import com.example.productinventory.event.ProductChangedEvent;
+import com.example.productinventory.event.ProductState;
+import com.example.productinventory.exception.ProductBadRequestException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.List;
+import org.flywaydb.core.Flyway;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/** Unit tests for the {@link ProductSearchIndex} against a migrated in-memory H2 database. */
+public class ProductSearchIndexTest {
+
+  @TempDir Path indexDir;
+
+  private JdbcTemplate jdbcTemplate;
+
+  @BeforeEach
+  void setUp() {
+    JdbcDataSource dataSource = new JdbcDataSource();
+    dataSource.setURL("jdbc:h2:mem:search;DB_CLOSE_DELAY=-1");
+    Flyway flyway =
+        Flyway.configure()
+            .dataSource(dataSource)
+            .locations("classpath:db/migration")
+            .cleanDisabled(false)
+            .load();
+    flyway.clean();
+    flyway.migrate();
+    jdbcTemplate = new JdbcTemplate(dataSource);
+  }
+
+  private ProductSearchIndex open() throws Exception {
+    ProductSearchIndex index = new ProductSearchIndex(jdbcTemplate, indexDir.toString());
+    index.reconcile();
+    return index;
+  }
+
+  @Test
+  void search_ranksNameAndSkuMatchesAndAppliesChanges() throws Exception {
+    ProductSearchIndex index = open();
+    try {
+      assertEquals(5, index.size());
+
+      // "rtx" occurs only in the description of the gaming laptop.
+      assertEquals(List.of(3L), index.search("RTX", 0, 10).getIds());
+      assertEquals(List.of(2L), index.search("LAP-002", 0, 10).getIds().subList(0, 1));
+
+      IdPage laptops = index.search("laptop", 1, 2);
+      assertEquals(4, laptops.getTotal());
+      assertEquals(2, laptops.getIds().size());
+
+      index.onProductChanged(
+          ProductChangedEvent.created(
+              new ProductState(
+                  99L, "MON-1", "Curved Monitor", "RTX ready", BigDecimal.TEN, 1, null, 0)));
+      assertEquals(2, index.search("rtx", 0, 10).getTotal());
+      index.onProductChanged(
+          ProductChangedEvent.deleted(
+              new ProductState(3L, "LAP-003", "Gaming Laptop", null, BigDecimal.TEN, 1, null, 0)));
+      assertEquals(List.of(99L), index.search("rtx", 0, 10).getIds());
+
+      assertThrows(ProductBadRequestException.class, () -> index.search(" - ", 0, 10));
+    } finally {
+      index.destroy();
+    }
+  }
+
+  @Test
+  void reopen_reindexesOnlyProductsChangedMeanwhile() throws Exception {
+    open().destroy();
+
+    jdbcTemplate.update(
+        "UPDATE products SET description = 'Now with OLED', version = version + 1 WHERE id = 1");
+    jdbcTemplate.update("DELETE FROM products WHERE id = 2");
+
+    ProductSearchIndex index = open();
+    try {
+      assertEquals(4, index.size());
+      assertEquals(List.of(1L), index.search("oled", 0, 10).getIds());
+      assertEquals(0, index.search("affordable", 0, 10).getTotal());
+
+      IndexRebuildResult rebuilt = index.rebuild();
+      assertEquals(4, rebuilt.getDocuments());
+      assertEquals(4, index.size());
+    } finally {
+      index.destroy();
+    }
+  }
+}
@@ -0,0 +1,46 @@
+package com.example.productinventory.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.example.productinventory.exception.ProductBadRequestException;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/** Tests for {@link ProductRequestValidator}. */
+public class ProductRequestValidatorTest {
+
+  private final ProductRequestValidator validator =
+      new ProductRequestValidator(
+          new String[] {"name", "price", "quantity", "sku"},
+          new String[] {"asc", "desc"},
+          new String[] {"id", "name", "price", "sku"},
+          100);
+
+  /** Test that requested fields are trimmed and deduplicated, keeping the request order. */
+  @Test
+  void validateFields_knownFields_returnsThemInRequestOrder() {
+    assertEquals(
+        List.of("sku", "id", "price"),
+        validator.validateFields(List.of(" sku", "id", "", "sku", "price ")));
+  }
+
+  /** Test that an unknown field is rejected with a message naming it. */
+  @Test
+  void validateFields_unknownField_throwsBadRequest() {
+    ProductBadRequestException e =
+        assertThrows(
+            ProductBadRequestException.class,
+            () -> validator.validateFields(List.of("id", "secret")));
+
+    assertEquals(
+        "Unknown field 'secret'. Fields must be among: [id, name, price, sku]", e.getMessage());
+  }
+
+  /** Test that a request without any field is rejected. */
+  @Test
+  void validateFields_noFields_throwsBadRequest() {
+    assertThrows(ProductBadRequestException.class, () -> validator.validateFields(null));
+    assertThrows(ProductBadRequestException.class, () -> validator.validateFields(List.of(" ")));
+  }
+}
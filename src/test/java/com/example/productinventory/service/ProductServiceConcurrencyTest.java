@@ -0,0 +1,122 @@
+package com.example.productinventory.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.productinventory.dto.ProductDTO;
+import com.example.productinventory.exception.ProductConflictException;
+import com.example.productinventory.exception.ProductUnprocessableEntityException;
+import com.example.productinventory.facet.ProductFacetCache;
+import com.example.productinventory.model.Product;
+import com.example.productinventory.repository.ProductRepository;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Stress tests {@link ProductServiceImpl#createProduct} against the real schema: creates of one SKU
+ * racing each other must produce exactly one product and a {@link ProductConflictException} for
+ * every other caller.
+ */
+@DataJpaTest(
+  properties = {
+    "spring.datasource.url=jdbc:h2:mem:create-race;DB_CLOSE_DELAY=-1",
+    "spring.flyway.url=jdbc:h2:mem:create-race;DB_CLOSE_DELAY=-1"
+  }
+)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ProductServiceImpl.class, ProductRequestValidator.class, ProductFacetCache.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ProductServiceConcurrencyTest {
+
+  private static final int THREADS = 16;
+  private static final int ROUNDS = 20;
+
+  @Autowired private ProductService productService;
+  @Autowired private ProductRepository productRepository;
+
+  private static ProductDTO product(String sku, Long categoryId) {
+    ProductDTO dto = new ProductDTO();
+    dto.setName("Product " + sku);
+    dto.setDescription("Concurrently created product");
+    dto.setPrice(new BigDecimal("19.99"));
+    dto.setQuantity(3);
+    dto.setSku(sku);
+    dto.setWeight(BigDecimal.ONE);
+    dto.setDimensions("1x1x1");
+    dto.setCategoryId(categoryId);
+    return dto;
+  }
+
+  /** Test that concurrent creates of one SKU yield one product and conflicts for the rest. */
+  @Test
+  void createProduct_concurrentSameSku_oneWinsRestConflict() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try {
+      for (int round = 0; round < ROUNDS; round++) {
+        String sku = "RACE-" + UUID.randomUUID().toString().substring(0, 8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Product>> results = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+          results.add(
+              executor.submit(
+                  () -> {
+                    start.await();
+                    return productService.createProduct(product(sku, null));
+                  }));
+        }
+        start.countDown();
+
+        int created = 0;
+        int conflicts = 0;
+        for (Future<Product> result : results) {
+          try {
+            result.get();
+            created++;
+          } catch (ExecutionException e) {
+            assertTrue(
+                e.getCause() instanceof ProductConflictException,
+                "Unexpected failure: " + e.getCause());
+            assertEquals(
+                "A product with SKU " + sku + " already exists.", e.getCause().getMessage());
+            conflicts++;
+          }
+        }
+        assertEquals(1, created, "round " + round);
+        assertEquals(THREADS - 1, conflicts, "round " + round);
+        assertTrue(productRepository.existsBySku(sku));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /** Test that a create naming an unknown category is rejected by the foreign key. */
+  @Test
+  void createProduct_unknownCategory_throwsUnprocessableEntity() {
+    String sku = "CAT-" + UUID.randomUUID().toString().substring(0, 8);
+
+    ProductUnprocessableEntityException e =
+        assertThrows(
+            ProductUnprocessableEntityException.class,
+            () -> productService.createProduct(product(sku, 999_999L)));
+
+    assertEquals("Category not found with id: 999999", e.getMessage());
+    assertFalse(productRepository.existsBySku(sku));
+  }
+}
@@ -0,0 +1,167 @@
+package com.example.productinventory.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.productinventory.dto.ProductDTO;
+import com.example.productinventory.event.ProductChangedEvent;
+import com.example.productinventory.event.ProductState;
+import com.example.productinventory.exception.ProductBadRequestException;
+import com.example.productinventory.exception.ProductNotFoundException;
+import com.example.productinventory.facet.ProductFacetCache;
+import com.example.productinventory.model.Product;
+import com.example.productinventory.repository.ProductRepository;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Tests the single-statement deletes of {@link ProductServiceImpl} and {@code
+ * ProductRepositoryCustomImpl} against the migrated schema, so that the {@code OLD TABLE (DELETE
+ * ...)} queries run for real. Every service call commits its own transaction, as in production.
+ */
+@DataJpaTest(
+  properties = {
+    "spring.datasource.url=jdbc:h2:mem:delete-products;DB_CLOSE_DELAY=-1",
+    "spring.flyway.url=jdbc:h2:mem:delete-products;DB_CLOSE_DELAY=-1"
+  }
+)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ProductServiceImpl.class, ProductRequestValidator.class, ProductFacetCache.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@RecordApplicationEvents
+public class ProductServiceDeleteTest {
+
+  @Autowired private ProductService productService;
+  @Autowired private ProductRepository productRepository;
+  @Autowired private ApplicationEvents events;
+
+  private Product create(String name, String price, int quantity) {
+    ProductDTO dto = new ProductDTO();
+    dto.setName(name);
+    dto.setPrice(new BigDecimal(price));
+    dto.setQuantity(quantity);
+    dto.setSku("DEL-" + UUID.randomUUID().toString().substring(0, 8));
+    dto.setWeight(BigDecimal.ONE);
+    dto.setDimensions("1x1x1");
+    dto.setCategoryId(2L);
+    return productService.createProduct(dto);
+  }
+
+  private static String name() {
+    return "Delete " + UUID.randomUUID().toString().substring(0, 8);
+  }
+
+  private List<ProductState> deletions() {
+    return events
+        .stream(ProductChangedEvent.class)
+        .filter(e -> e.getAfter() == null)
+        .map(ProductChangedEvent::getBefore)
+        .toList();
+  }
+
+  /** Test that the delete returns the full state of each deleted row and skips unknown IDs. */
+  @Test
+  @Transactional
+  void deleteAllByIdReturning_returnsDeletedRows() {
+    Product first = create(name(), "10.00", 4);
+    Product second = create(name(), "20.00", 0);
+
+    List<ProductState> deleted =
+        productRepository.deleteAllByIdReturning(List.of(first.getId(), second.getId(), 999_999L));
+
+    assertEquals(2, deleted.size());
+    ProductState state =
+        deleted.stream().filter(s -> s.getId().equals(first.getId())).findFirst().orElseThrow();
+    assertEquals(first.getSku(), state.getSku());
+    assertEquals(first.getName(), state.getName());
+    assertEquals(0, new BigDecimal("10.00").compareTo(state.getPrice()));
+    assertEquals(4, state.getQuantity());
+    assertEquals(2L, state.getCategoryId());
+    assertEquals(first.getVersion(), state.getVersion());
+    assertFalse(productRepository.existsById(first.getId()));
+    assertFalse(productRepository.existsById(second.getId()));
+  }
+
+  /** Test that deleting one product publishes its state and a missing one is not found (404). */
+  @Test
+  void deleteProduct_deletesRowOrThrowsNotFound() {
+    Product product = create(name(), "10.00", 4);
+
+    productService.deleteProduct(product.getId());
+
+    assertFalse(productRepository.existsById(product.getId()));
+    List<ProductState> deletions = deletions();
+    assertEquals(1, deletions.size());
+    assertEquals(product.getId(), deletions.get(0).getId());
+    assertEquals(product.getSku(), deletions.get(0).getSku());
+
+    assertThrows(
+        ProductNotFoundException.class, () -> productService.deleteProduct(product.getId()));
+    assertEquals(1, deletions().size());
+  }
+
+  /** Test that a delete by IDs publishes one event per deleted row. */
+  @Test
+  void deleteProducts_publishesOneEventPerDeletedRow() {
+    Product first = create(name(), "10.00", 4);
+    Product second = create(name(), "20.00", 1);
+
+    int deleted =
+        productService.deleteProducts(
+            List.of(first.getId(), second.getId(), first.getId(), 999_999L));
+
+    assertEquals(2, deleted);
+    assertEquals(
+        Set.of(first.getId(), second.getId()),
+        deletions().stream().map(ProductState::getId).collect(Collectors.toSet()));
+    assertEquals(2, deletions().size());
+  }
+
+  /** Test that a delete by criteria removes only the matches and publishes one event per row. */
+  @Test
+  void deleteProductsByCriteria_deletesMatchesOnly() {
+    String name = name();
+    Product cheap = create(name + " cheap", "10.00", 4);
+    Product dear = create(name + " dear", "900.00", 4);
+    Product other = create(name(), "10.00", 4);
+
+    int deleted =
+        productService.deleteProductsByCriteria(
+            name.toUpperCase(), null, new BigDecimal("100"), null, null, 2L);
+
+    assertEquals(1, deleted);
+    assertFalse(productRepository.existsById(cheap.getId()));
+    assertTrue(productRepository.existsById(dear.getId()));
+    assertTrue(productRepository.existsById(other.getId()));
+    List<ProductState> deletions = deletions();
+    assertEquals(1, deletions.size());
+    assertEquals(cheap.getId(), deletions.get(0).getId());
+  }
+
+  /** Test that a delete by criteria without any criterion is rejected and deletes nothing. */
+  @Test
+  void deleteProductsByCriteria_withoutCriteria_throwsBadRequest() {
+    Product product = create(name(), "10.00", 4);
+
+    assertThrows(
+        ProductBadRequestException.class,
+        () -> productService.deleteProductsByCriteria("", null, null, null, null, null));
+
+    assertTrue(productRepository.existsById(product.getId()));
+    assertTrue(deletions().isEmpty());
+  }
+}
@@ -0,0 +1,210 @@
+package com.example.productinventory.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.productinventory.dto.ProductDTO;
+import com.example.productinventory.event.ProductChangedEvent;
+import com.example.productinventory.event.ProductState;
+import com.example.productinventory.exception.ProductConflictException;
+import com.example.productinventory.exception.ProductNotFoundException;
+import com.example.productinventory.exception.ProductOptimisticLockException;
+import com.example.productinventory.exception.ProductUnprocessableEntityException;
+import com.example.productinventory.facet.ProductFacetCache;
+import com.example.productinventory.model.Product;
+import com.example.productinventory.repository.ProductRepository;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Tests {@link ProductServiceImpl#updateProduct} against the migrated schema, so that the single
+ * conditional {@code UPDATE} and the mapping of its constraint violations run for real. Every call
+ * commits its own transaction, as in production.
+ */
+@DataJpaTest(
+  properties = {
+    "spring.datasource.url=jdbc:h2:mem:update-product;DB_CLOSE_DELAY=-1",
+    "spring.flyway.url=jdbc:h2:mem:update-product;DB_CLOSE_DELAY=-1"
+  }
+)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ProductServiceImpl.class, ProductRequestValidator.class, ProductFacetCache.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@RecordApplicationEvents
+public class ProductServiceUpdateTest {
+
+  @Autowired private ProductService productService;
+  @Autowired private ProductRepository productRepository;
+  @Autowired private ApplicationEvents events;
+
+  private static ProductDTO product(String sku, BigDecimal price, Long categoryId) {
+    ProductDTO dto = new ProductDTO();
+    dto.setName("Product " + sku);
+    dto.setDescription("Updated product");
+    dto.setPrice(price);
+    dto.setQuantity(3);
+    dto.setSku(sku);
+    dto.setWeight(BigDecimal.ONE);
+    dto.setDimensions("1x1x1");
+    dto.setCategoryId(categoryId);
+    return dto;
+  }
+
+  private static String sku() {
+    return "UPD-" + UUID.randomUUID().toString().substring(0, 8);
+  }
+
+  private List<ProductChangedEvent> updates() {
+    return events
+        .stream(ProductChangedEvent.class)
+        .filter(e -> e.getBefore() != null && e.getAfter() != null)
+        .toList();
+  }
+
+  /** Test that an update bumps the version, keeps the creation time and moves the update time. */
+  @Test
+  void updateProduct_writesRowAndIncrementsVersion() {
+    Product created = productService.createProduct(product(sku(), new BigDecimal("10.00"), 1L));
+    Product stored = productRepository.findById(created.getId()).orElseThrow();
+    String newSku = sku();
+
+    Product updated =
+        productService.updateProduct(
+            created.getId(), product(newSku, new BigDecimal("12.50"), 2L), stored.getVersion());
+
+    assertEquals(stored.getVersion() + 1, updated.getVersion());
+    assertEquals(stored.getCreatedAt(), updated.getCreatedAt());
+    Product reloaded = productRepository.findById(created.getId()).orElseThrow();
+    assertEquals(stored.getVersion() + 1, reloaded.getVersion());
+    assertEquals(newSku, reloaded.getSku());
+    assertEquals(0, new BigDecimal("12.50").compareTo(reloaded.getPrice()));
+    assertEquals(2L, reloaded.getCategoryId());
+    assertEquals(stored.getCreatedAt(), reloaded.getCreatedAt());
+    assertFalse(reloaded.getUpdatedAt().isBefore(stored.getUpdatedAt()));
+  }
+
+  /** Test that the returned and published product equals the row as the columns store it. */
+  @Test
+  void updateProduct_returnsTheRowAsStored() {
+    Product created = productService.createProduct(product(sku(), new BigDecimal("10.00"), 1L));
+
+    Product updated =
+        productService.updateProduct(
+            created.getId(),
+            product(created.getSku(), new BigDecimal("12.555"), 1L),
+            created.getVersion());
+
+    Product reloaded = productRepository.findById(created.getId()).orElseThrow();
+    assertEquals(new BigDecimal("12.56"), updated.getPrice());
+    assertEquals(reloaded.getPrice(), updated.getPrice());
+    assertEquals(reloaded.getWeight(), updated.getWeight());
+    assertEquals(reloaded.getUpdatedAt(), updated.getUpdatedAt());
+    assertEquals(new BigDecimal("12.56"), updates().get(0).getAfter().getPrice());
+  }
+
+  /** Test that the change event carries the row as it was before and as it was written. */
+  @Test
+  void updateProduct_publishesBeforeAndAfterStates() {
+    String oldSku = sku();
+    Product created = productService.createProduct(product(oldSku, new BigDecimal("10.00"), 1L));
+    String newSku = sku();
+
+    productService.updateProduct(
+        created.getId(), product(newSku, new BigDecimal("12.50"), 2L), created.getVersion());
+
+    List<ProductChangedEvent> updates = updates();
+    assertEquals(1, updates.size());
+    ProductState before = updates.get(0).getBefore();
+    ProductState after = updates.get(0).getAfter();
+    assertEquals(created.getId(), before.getId());
+    assertEquals(oldSku, before.getSku());
+    assertEquals(0, new BigDecimal("10.00").compareTo(before.getPrice()));
+    assertEquals(1L, before.getCategoryId());
+    assertEquals(created.getVersion(), before.getVersion());
+    assertEquals(created.getId(), after.getId());
+    assertEquals(newSku, after.getSku());
+    assertEquals(0, new BigDecimal("12.50").compareTo(after.getPrice()));
+    assertEquals(2L, after.getCategoryId());
+    assertEquals(created.getVersion() + 1, after.getVersion());
+  }
+
+  /** Test that a missing product is reported as not found (404). */
+  @Test
+  void updateProduct_missingId_throwsNotFound() {
+    assertThrows(
+        ProductNotFoundException.class,
+        () -> productService.updateProduct(999_999L, product(sku(), BigDecimal.TEN, null), 0));
+    assertTrue(updates().isEmpty());
+  }
+
+  /** Test that a stale version is reported as a conflict (409) and leaves the row unchanged. */
+  @Test
+  void updateProduct_staleVersion_throwsOptimisticLock() {
+    String sku = sku();
+    Product created = productService.createProduct(product(sku, BigDecimal.TEN, null));
+    productService.updateProduct(
+        created.getId(), product(sku, new BigDecimal("11"), null), created.getVersion());
+
+    assertThrows(
+        ProductOptimisticLockException.class,
+        () ->
+            productService.updateProduct(
+                created.getId(), product(sku, new BigDecimal("12"), null), created.getVersion()));
+
+    Product reloaded = productRepository.findById(created.getId()).orElseThrow();
+    assertEquals(created.getVersion() + 1, reloaded.getVersion());
+    assertEquals(0, new BigDecimal("11").compareTo(reloaded.getPrice()));
+  }
+
+  /** Test that taking another product's SKU is reported as a conflict (409). */
+  @Test
+  void updateProduct_duplicateSku_throwsConflict() {
+    String takenSku = sku();
+    productService.createProduct(product(takenSku, BigDecimal.TEN, null));
+    String sku = sku();
+    Product created = productService.createProduct(product(sku, BigDecimal.TEN, null));
+
+    ProductConflictException e =
+        assertThrows(
+            ProductConflictException.class,
+            () ->
+                productService.updateProduct(
+                    created.getId(),
+                    product(takenSku, BigDecimal.TEN, null),
+                    created.getVersion()));
+
+    assertEquals("A product with SKU " + takenSku + " already exists.", e.getMessage());
+    assertEquals(sku, productRepository.findById(created.getId()).orElseThrow().getSku());
+    assertTrue(updates().isEmpty());
+  }
+
+  /** Test that moving a product to an unknown category is unprocessable (422). */
+  @Test
+  void updateProduct_unknownCategory_throwsUnprocessableEntity() {
+    String sku = sku();
+    Product created = productService.createProduct(product(sku, BigDecimal.TEN, 1L));
+
+    ProductUnprocessableEntityException e =
+        assertThrows(
+            ProductUnprocessableEntityException.class,
+            () ->
+                productService.updateProduct(
+                    created.getId(), product(sku, BigDecimal.TEN, 999_999L), created.getVersion()));
+
+    assertEquals("Category not found with id: 999999", e.getMessage());
+    assertEquals(1L, productRepository.findById(created.getId()).orElseThrow().getCategoryId());
+    assertTrue(updates().isEmpty());
+  }
+}
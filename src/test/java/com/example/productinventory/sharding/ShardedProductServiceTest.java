@@ -0,0 +1,284 @@
+package com.example.productinventory.sharding;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.productinventory.dto.ProductDTO;
+import com.example.productinventory.exception.ProductBadRequestException;
+import com.example.productinventory.exception.ProductConflictException;
+import com.example.productinventory.exception.ProductNotFoundException;
+import com.example.productinventory.exception.ProductOptimisticLockException;
+import com.example.productinventory.exception.ProductUnprocessableEntityException;
+import com.example.productinventory.facet.FacetBucket;
+import com.example.productinventory.facet.ProductFacetCache;
+import com.example.productinventory.facet.ProductFacets;
+import com.example.productinventory.model.Product;
+import com.example.productinventory.service.ProductRequestValidator;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+/** Tests the {@link ShardedProductService} against three local in-memory H2 shards. */
+public class ShardedProductServiceTest {
+
+  private static final int SHARDS = 3;
+
+  private ShardingConfig shardingConfig;
+  private ProductShards shards;
+  private ShardedProductService productService;
+
+  @BeforeEach
+  void setUp() {
+    shardingConfig = new ShardingConfig();
+    String prefix = "shard-test-" + UUID.randomUUID();
+    shards =
+        shardingConfig.productShards(
+            SHARDS,
+            "jdbc:h2:mem:" + prefix + "-{index};DB_CLOSE_DELAY=-1",
+            "sa",
+            "",
+            2,
+            new String[] {"classpath:db/migration"});
+    productService =
+        new ShardedProductService(
+            shards,
+            new ProductRequestValidator(
+                new String[] {"name", "description", "price", "quantity", "sku"},
+                new String[] {"asc", "desc"},
+                new String[] {"id", "name", "price", "quantity", "sku"},
+                100),
+            new ProductFacetCache(new BigDecimal[] {new BigDecimal("100")}, 5, 10));
+  }
+
+  @AfterEach
+  void tearDown() {
+    shardingConfig.destroy();
+  }
+
+  private Product create(String sku, String price, int quantity) {
+    ProductDTO dto = new ProductDTO();
+    dto.setName("Product " + sku);
+    dto.setDescription("Sharded product");
+    dto.setPrice(new BigDecimal(price));
+    dto.setQuantity(quantity);
+    dto.setSku(sku);
+    dto.setWeight(BigDecimal.ONE);
+    dto.setDimensions("1x1x1");
+    return productService.createProduct(dto);
+  }
+
+  private List<Product> all() {
+    return productService.getAllProducts(Pageable.unpaged(), "name").getContent();
+  }
+
+  @Test
+  void seedData_isSpreadOverShardsWithShardEncodedIds() {
+    List<Product> products = all();
+
+    assertEquals(5, products.size());
+    for (Product product : products) {
+      assertEquals(shards.shardForSku(product.getSku()), shards.shardForId(product.getId()));
+      assertEquals(product.getSku(), productService.getProductById(product.getId()).getSku());
+    }
+  }
+
+  @Test
+  void createdProducts_areFoundBySkuAndIdOnTheirShard() {
+    for (int i = 0; i < 30; i++) {
+      Product created = create("SH-" + i, "10.00", i);
+      assertEquals(shards.shardForSku(created.getSku()), shards.shardForId(created.getId()));
+      assertEquals(created.getId(), productService.getProductBySku("SH-" + i).getId());
+    }
+    assertThrows(ProductConflictException.class, () -> create("SH-3", "1.00", 1));
+
+    List<Long> ids = List.of(all().get(7).getId(), all().get(2).getId(), 999_999L);
+    List<Product> batch = productService.getProductsByIds(ids);
+    assertEquals(List.of(ids.get(0), ids.get(1)), batch.stream().map(Product::getId).toList());
+  }
+
+  @Test
+  void createProduct_returnsTheRowAsStored() {
+    Product created = create("ROW-1", "12.50", 3);
+
+    Product stored = productService.getProductById(created.getId());
+    assertEquals(stored.getId(), created.getId());
+    assertEquals(stored.getSku(), created.getSku());
+    assertEquals(stored.getName(), created.getName());
+    assertEquals(stored.getDescription(), created.getDescription());
+    assertEquals(0, stored.getPrice().compareTo(created.getPrice()));
+    assertEquals(stored.getQuantity(), created.getQuantity());
+    assertEquals(0, stored.getVersion());
+    assertEquals(stored.getVersion(), created.getVersion());
+    assertEquals(stored.getCreatedAt(), created.getCreatedAt());
+    assertEquals(stored.getUpdatedAt(), created.getUpdatedAt());
+    assertThrows(ProductConflictException.class, () -> create("ROW-1", "1.00", 1));
+  }
+
+  @Test
+  void pagedQueries_mergeShardsInSortOrder() {
+    for (int i = 0; i < 40; i++) {
+      create("MERGE-" + i, (i % 7) + 1 + ".50", i % 5);
+    }
+    List<Product> expected = new ArrayList<>(all());
+    expected.sort(Comparator.comparing(Product::getPrice).reversed().thenComparing(Product::getId));
+
+    Pageable page = PageRequest.of(2, 7, Sort.by(Sort.Direction.DESC, "price"));
+    Page<Product> result = productService.getAllProducts(page, "price");
+
+    assertEquals(45, result.getTotalElements());
+    assertEquals(expected.subList(14, 21), result.getContent());
+
+    Page<Map<String, Object>> fields =
+        productService.searchProductFieldsByCriteria(
+            List.of("sku", "quantity"),
+            "merge",
+            null,
+            null,
+            2,
+            3,
+            null,
+            PageRequest.of(0, 100, Sort.by("sku")));
+    assertEquals(16, fields.getTotalElements());
+    List<String> skus = fields.getContent().stream().map(f -> (String) f.get("sku")).toList();
+    assertEquals(skus.stream().sorted().toList(), skus);
+    assertTrue(fields.getContent().stream().allMatch(f -> f.keySet().size() == 2));
+  }
+
+  @Test
+  void pagedQueries_sortNullKeysAsTheShardsDo() {
+    for (int i = 0; i < 12; i++) {
+      ProductDTO dto = new ProductDTO();
+      dto.setName("Nulls " + i);
+      dto.setDescription(i % 3 == 0 ? null : "Described " + i);
+      dto.setPrice(BigDecimal.TEN);
+      dto.setQuantity(1);
+      dto.setSku("NULLS-" + i);
+      dto.setWeight(BigDecimal.ONE);
+      dto.setDimensions("1x1x1");
+      productService.createProduct(dto);
+    }
+
+    List<String> ascending =
+        productService
+            .searchProductsByName("nulls", PageRequest.of(0, 12, Sort.by("description")))
+            .map(Product::getDescription)
+            .getContent();
+    List<String> descending =
+        productService
+            .searchProductsByName(
+                "nulls", PageRequest.of(0, 12, Sort.by(Sort.Direction.DESC, "description")))
+            .map(Product::getDescription)
+            .getContent();
+
+    List<String> expected = new ArrayList<>(ascending);
+    expected.sort(Comparator.nullsFirst(Comparator.naturalOrder()));
+    assertEquals(expected, ascending);
+    assertNull(ascending.get(3));
+    assertEquals("Described 1", ascending.get(4));
+    expected.sort(Comparator.nullsLast(Comparator.<String>reverseOrder()));
+    assertEquals(expected, descending);
+  }
+
+  @Test
+  void pagedQueries_validateThePageable() {
+    assertThrows(
+        ProductUnprocessableEntityException.class,
+        () -> productService.searchProductsByName("a", PageRequest.of(0, 10, Sort.by("weight"))));
+    assertThrows(
+        ProductUnprocessableEntityException.class,
+        () ->
+            productService.findProductsByPriceRange(
+                null, null, PageRequest.of(0, 10, Sort.by("version"))));
+    assertThrows(
+        ProductUnprocessableEntityException.class,
+        () ->
+            productService.findProductsByQuantityRange(
+                null, null, PageRequest.of(0, 10, Sort.by("createdAt"))));
+    assertThrows(
+        ProductUnprocessableEntityException.class,
+        () ->
+            productService.searchProductsByCriteria(
+                null, null, null, null, null, null, PageRequest.of(0, 10, Sort.by("categoryId"))));
+  }
+
+  @Test
+  void facets_sumShardAggregates() {
+    for (int i = 0; i < 20; i++) {
+      create("FACET-" + i, i * 15 + 5 + ".00", i % 8);
+    }
+    List<Product> matching = all().stream().filter(p -> p.getSku().startsWith("FACET-")).toList();
+
+    ProductFacets facets =
+        productService.getProductFacets(
+            List.of("price", "stock", "category"), "facet", null, null, null, null, null);
+
+    long cheap =
+        matching.stream().filter(p -> p.getPrice().compareTo(new BigDecimal("100")) < 0).count();
+    assertEquals(
+        List.of(new FacetBucket("0-100", cheap), new FacetBucket("100+", 20 - cheap)),
+        facets.getPrice());
+    long out = matching.stream().filter(p -> p.getQuantity() == 0).count();
+    long low = matching.stream().filter(p -> p.getQuantity() > 0 && p.getQuantity() < 5).count();
+    assertEquals(
+        List.of(
+            new FacetBucket("in", 20 - out - low),
+            new FacetBucket("low", low),
+            new FacetBucket("out", out)),
+        facets.getStock());
+    assertEquals(List.of(new FacetBucket("none", 20)), facets.getCategory());
+  }
+
+  @Test
+  void bulkDeletes_spanShards() {
+    List<Long> ids = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      ids.add(create("BULK-" + i, "20.00", i).getId());
+    }
+
+    assertEquals(
+        3, productService.deleteProducts(List.of(ids.get(0), ids.get(5), ids.get(9), 999_999L)));
+    assertEquals(3, productService.deleteProductsByCriteria("bulk", null, null, null, 3, null));
+    assertThrows(
+        ProductBadRequestException.class,
+        () -> productService.deleteProductsByCriteria(null, null, null, null, null, null));
+
+    assertEquals(9, all().size());
+  }
+
+  @Test
+  void updateAndDelete_routeById() {
+    Product created = create("UPD-1", "5.00", 1);
+    ProductDTO dto = new ProductDTO();
+    dto.setName("Updated");
+    dto.setPrice(new BigDecimal("6.00"));
+    dto.setQuantity(2);
+    dto.setSku("UPD-1");
+    dto.setWeight(BigDecimal.ONE);
+    dto.setDimensions("1x1x1");
+
+    Product updated = productService.updateProduct(created.getId(), dto, created.getVersion());
+    assertEquals("Updated", updated.getName());
+    assertEquals(created.getVersion() + 1, updated.getVersion());
+    assertThrows(
+        ProductOptimisticLockException.class,
+        () -> productService.updateProduct(created.getId(), dto, created.getVersion()));
+
+    productService.deleteProduct(created.getId());
+    assertThrows(
+        ProductNotFoundException.class, () -> productService.getProductById(created.getId()));
+    assertThrows(
+        ProductNotFoundException.class, () -> productService.deleteProduct(created.getId()));
+  }
+}
@@ -0,0 +1,110 @@
+package com.example.productinventory.snapshot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.flywaydb.core.Flyway;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/** Unit tests for the {@link ProductSnapshotService} against a migrated in-memory H2 database. */
+public class ProductSnapshotServiceTest {
+
+  @TempDir Path tempDir;
+
+  private JdbcTemplate jdbcTemplate;
+  private ProductSnapshotService snapshotService;
+
+  /** Migrates a private in-memory database, which seeds the five initial products. */
+  @BeforeEach
+  void setUp() {
+    JdbcDataSource dataSource = new JdbcDataSource();
+    dataSource.setURL("jdbc:h2:mem:snapshot;DB_CLOSE_DELAY=-1");
+    Flyway flyway =
+        Flyway.configure()
+            .dataSource(dataSource)
+            .locations("classpath:db/migration")
+            .cleanDisabled(false)
+            .load();
+    flyway.clean();
+    flyway.migrate();
+
+    jdbcTemplate = new JdbcTemplate(dataSource);
+    snapshotService = new ProductSnapshotService(dataSource);
+    ReflectionTestUtils.setField(
+        snapshotService, "path", tempDir.resolve("products.snapshot").toString());
+    ReflectionTestUtils.setField(snapshotService, "batchSize", 2);
+    ReflectionTestUtils.setField(snapshotService, "fetchSize", 2);
+  }
+
+  @Test
+  void restore_afterWrite_reproducesTableAndIdSequence() {
+    jdbcTemplate.update("UPDATE products SET description = NULL, version = 3 WHERE id = 2");
+    jdbcTemplate.update("DELETE FROM products WHERE id = 4");
+    List<Map<String, Object>> before =
+        jdbcTemplate.queryForList("SELECT * FROM products ORDER BY id");
+
+    SnapshotResult written = snapshotService.write();
+    assertEquals(4, written.getRows());
+
+    jdbcTemplate.update("DELETE FROM products");
+    jdbcTemplate.update(
+        "INSERT INTO products (name, price, quantity, sku, weight, dimensions)"
+            + " VALUES ('Stray', 1.00, 1, 'STRAY-1', 1.0, '1x1x1')");
+
+    SnapshotResult restored = snapshotService.restore();
+    assertEquals(4, restored.getRows());
+    assertEquals(before, jdbcTemplate.queryForList("SELECT * FROM products ORDER BY id"));
+
+    jdbcTemplate.update(
+        "INSERT INTO products (name, price, quantity, sku, weight, dimensions)"
+            + " VALUES ('New', ?, 1, 'NEW-1', 1.0, '1x1x1')",
+        BigDecimal.TEN);
+    assertEquals(
+        6L, jdbcTemplate.queryForObject("SELECT id FROM products WHERE sku = 'NEW-1'", Long.class));
+  }
+
+  @Test
+  void restore_withoutSnapshotFile_keepsMigratedData() {
+    assertNull(snapshotService.restore());
+    assertEquals(5, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM products", Integer.class));
+  }
+
+  @Test
+  void restore_corruptFile_failsWithoutTouchingData() throws Exception {
+    Files.write(snapshotService.getPath(), new byte[] {1, 2, 3});
+
+    assertThrows(UncheckedIOException.class, snapshotService::restore);
+    assertEquals(5, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM products", Integer.class));
+  }
+
+  @Test
+  void restore_truncatedFile_rollsBackPartialLoad() throws Exception {
+    for (int i = 0; i < 200; i++) {
+      jdbcTemplate.update(
+          "INSERT INTO products (name, price, quantity, sku, weight, dimensions)"
+              + " VALUES (?, 1.00, 1, ?, 1.0, '1x1x1')",
+          "Bulk " + i,
+          "BULK-" + i);
+    }
+    snapshotService.write();
+    byte[] bytes = Files.readAllBytes(snapshotService.getPath());
+    Files.write(snapshotService.getPath(), Arrays.copyOf(bytes, bytes.length / 2));
+    jdbcTemplate.update("DELETE FROM products WHERE id > 5");
+
+    assertThrows(UncheckedIOException.class, snapshotService::restore);
+    assertEquals(5, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM products", Integer.class));
+  }
+}
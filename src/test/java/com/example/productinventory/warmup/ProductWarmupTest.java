@@ -0,0 +1,151 @@
+package com.example.productinventory.warmup;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.productinventory.cache.ProductJsonCache;
+import com.example.productinventory.dto.ProductDTO;
+import com.example.productinventory.model.Product;
+import com.example.productinventory.service.ProductSearchService;
+import com.example.productinventory.service.ProductService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import java.math.BigDecimal;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/** Tests for {@link ProductWarmup}. */
+public class ProductWarmupTest {
+
+  private final ProductService productService = mock(ProductService.class);
+  private final ProductSearchService productSearchService = mock(ProductSearchService.class);
+  private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+  private final RecordingTransactionManager transactionManager = new RecordingTransactionManager();
+
+  private final Product product = product(1L, 0);
+
+  @BeforeEach
+  void setUp() {
+    PageImpl<Product> page = new PageImpl<>(List.of(product));
+    when(productService.getAllProducts(any(Pageable.class), anyString())).thenReturn(page);
+    when(productService.getAllProductFields(anyList(), any(Pageable.class), anyString()))
+        .thenReturn(new PageImpl<>(List.of()));
+    when(productService.searchProductsByCriteria(
+            any(), any(), any(), any(), any(), any(), any(Pageable.class)))
+        .thenReturn(page);
+    when(productService.getProductById(1L)).thenReturn(product);
+    when(productService.adjustStock(1L, 1)).thenReturn(product(1L, 1));
+    when(productSearchService.search(anyString(), any(Pageable.class))).thenReturn(page);
+  }
+
+  private ProductWarmup warmup(TransactionTemplate transaction, long budgetMillis) {
+    return new ProductWarmup(
+        productService,
+        productSearchService,
+        objectMapper,
+        new ProductJsonCache(objectMapper, 1 << 20),
+        transaction,
+        5,
+        2,
+        budgetMillis);
+  }
+
+  /** Test that all rounds run and every write round changes a sampled product and rolls back. */
+  @Test
+  void warmUp_runsRoundsAndRollsBackWrites() {
+    ProductWarmup warmup = warmup(new TransactionTemplate(transactionManager), 60_000);
+
+    warmup.warmUp();
+
+    assertEquals(5, warmup.getCompletedRounds());
+    verify(productService, times(5)).getProductById(1L);
+    verify(productService, times(5)).getProductBySku("LAP-1");
+    verify(productSearchService, times(5)).search(eq("Lap"), any(Pageable.class));
+    verify(productService, times(2)).adjustStock(1L, 1);
+    verify(productService, times(2)).updateProduct(eq(1L), any(ProductDTO.class), eq(1));
+    verify(productService, never()).createProduct(any(ProductDTO.class));
+    verify(productService, never()).deleteProduct(anyLong());
+    assertEquals(0, transactionManager.commits);
+    assertEquals(2, transactionManager.rollbacks);
+  }
+
+  /** Test that the warm-up stops once its time budget is spent. */
+  @Test
+  void warmUp_stopsWhenBudgetIsSpent() {
+    ProductWarmup warmup = warmup(new TransactionTemplate(transactionManager), 0);
+
+    warmup.warmUp();
+
+    assertEquals(0, warmup.getCompletedRounds());
+    verify(productService, never()).getProductById(anyLong());
+    verify(productService, never()).adjustStock(anyLong(), anyInt());
+  }
+
+  /** Test that no writes are made without a transaction to roll them back. */
+  @Test
+  void warmUp_skipsWritesWithoutTransaction() {
+    ProductWarmup warmup = warmup(null, 60_000);
+
+    warmup.warmUp();
+
+    assertEquals(5, warmup.getCompletedRounds());
+    verify(productService, never()).adjustStock(anyLong(), anyInt());
+    verify(productService, never()).updateProduct(anyLong(), any(ProductDTO.class), anyInt());
+  }
+
+  private static Product product(Long id, int version) {
+    Product product = new Product();
+    product.setId(id);
+    product.setName("Laptop");
+    product.setPrice(new BigDecimal("999.99"));
+    product.setQuantity(3);
+    product.setSku("LAP-1");
+    product.setWeight(new BigDecimal("2.5"));
+    product.setDimensions("30x20x2");
+    product.setCategoryId(1L);
+    product.setVersion(version);
+    return product;
+  }
+
+  /** Transaction manager that only counts commits and rollbacks. */
+  private static class RecordingTransactionManager extends AbstractPlatformTransactionManager {
+
+    private int commits;
+    private int rollbacks;
+
+    @Override
+    protected Object doGetTransaction() {
+      return new Object();
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {}
+
+    @Override
+    protected void doCommit(DefaultTransactionStatus status) {
+      commits++;
+    }
+
+    @Override
+    protected void doRollback(DefaultTransactionStatus status) {
+      rollbacks++;
+    }
+  }
+}